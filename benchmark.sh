@@ -0,0 +1,23 @@
+#!/bin/bash
+
+# Script de benchmark para el Sistema de Monitoreo IoT
+# Mide el rendimiento de las rutas críticas del sistema
+
+echo "⏱️ Iniciando Benchmark del Sistema IoT..."
+
+# Compilar siempre para medir el código actual
+./compile.sh > /dev/null
+if [ $? -ne 0 ]; then
+    echo "❌ Error en la compilación. No se puede ejecutar el benchmark."
+    exit 1
+fi
+
+echo "=============================================="
+echo ""
+
+# Cambiar al directorio bin y ejecutar el benchmark
+cd bin
+java BenchmarkSistemaIoT
+
+# Volver al directorio raíz
+cd ..
@@ -0,0 +1,67 @@
+package iot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contención sobre la lectura de un único sensor: escritores que publican lecturas y
+ * lectores que toman instantáneas, con el sensor como objeto (CAS de la instantánea)
+ * o respaldado por el almacén primitivo (seqlock)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ContencionSensorBenchmark {
+
+    @Param({"objeto", "almacen"})
+    public String respaldo;
+
+    private Sensor sensor;
+    private long marcaNanos;
+
+    @Setup
+    public void preparar() {
+        sensor = new Sensor("CONT-0", "temperatura", 25.0, "Banco de Pruebas");
+        if (respaldo.equals("almacen")) {
+            new AlmacenSensores(1).registrar(sensor);
+        }
+        marcaNanos = System.currentTimeMillis() * 1_000_000L;
+    }
+
+    @Benchmark
+    @Group("unEscritor")
+    @GroupThreads(1)
+    public double escribir() {
+        return sensor.registrarLectura(25.0, marcaNanos++);
+    }
+
+    @Benchmark
+    @Group("unEscritor")
+    @GroupThreads(3)
+    public LecturaSensor leer() {
+        return sensor.obtenerLectura();
+    }
+
+    @Benchmark
+    @Group("escritoresCompartidos")
+    @GroupThreads(4)
+    public double escribirCompartido() {
+        return sensor.registrarLectura(25.0, marcaNanos); // varios escritores sobre el mismo sensor
+    }
+}
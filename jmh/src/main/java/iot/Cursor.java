@@ -0,0 +1,19 @@
+package iot;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Posición de cada hilo en la secuencia de lecturas precalculadas
+ * Cada hilo empieza en un desplazamiento distinto para no recorrer los mismos sensores a la vez
+ */
+@State(Scope.Thread)
+public class Cursor {
+    private int posicion = ThreadLocalRandom.current().nextInt(FlotaSensores.LECTURAS);
+
+    int siguiente() {
+        return posicion++ & (FlotaSensores.LECTURAS - 1);
+    }
+}
@@ -0,0 +1,24 @@
+package iot;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del jar de benchmarks
+ * Ejecuta los benchmarks seleccionados una vez por cada número de hilos de la propiedad
+ * "hilos" (por defecto 1,2,4,8); el resto de argumentos se interpretan como opciones de JMH
+ */
+public class EjecutorBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions opciones = new CommandLineOptions(args);
+        for (String hilos : System.getProperty("hilos", "1,2,4,8").split(",")) {
+            System.out.println("\n=== ⏱️ Benchmarks con " + hilos.trim() + " hilo(s) ===");
+            new Runner(new OptionsBuilder()
+                .parent(opciones)
+                .threads(Integer.parseInt(hilos.trim()))
+                .build()).run();
+        }
+    }
+}
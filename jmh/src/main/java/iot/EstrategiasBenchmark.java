@@ -0,0 +1,57 @@
+package iot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coste de EstrategiaAnalisis.analizar para cada estrategia, aislado del gestor y los observadores
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EstrategiasBenchmark {
+
+    @Param({"TEMPERATURA", "VIBRACION", "ENERGIA", "CALIDAD_AIRE", "HUMEDAD", "BASICA"})
+    public String estrategia;
+
+    private EstrategiaAnalisis analisis;
+    private Sensor[] sensores;
+
+    @Setup(Level.Trial)
+    public void preparar(FlotaSensores flota) {
+        analisis = "BASICA".equals(estrategia)
+            ? new EstrategiaAnalisisBasica()
+            : EnrutadorEstrategias.porDefecto().obtenerEstrategia(TipoSensor.valueOf(estrategia));
+
+        // Sensores del tipo analizado, con los valores de la flota de ese mismo tipo
+        TipoSensor tipo = "BASICA".equals(estrategia) ? TipoSensor.TEMPERATURA : TipoSensor.valueOf(estrategia);
+        sensores = new Sensor[FlotaSensores.LECTURAS];
+        int cantidad = 0;
+        for (int k = 0; cantidad < sensores.length; k = (k + 1) & (FlotaSensores.LECTURAS - 1)) {
+            Sensor origen = flota.sensores[flota.indices[k]];
+            if (origen.getTipoSensor() == tipo) {
+                sensores[cantidad++] = new Sensor(origen.getId(), origen.getTipo(), flota.valores[k], origen.getUbicacion());
+            }
+        }
+    }
+
+    @Benchmark
+    public Alerta analizar(Cursor cursor) {
+        return analisis.analizar(sensores[cursor.siguiente()]);
+    }
+}
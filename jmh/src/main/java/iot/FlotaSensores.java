@@ -0,0 +1,97 @@
+package iot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Flota de sensores compartida por los benchmarks
+ * Registra sensores de los cinco tipos en un MotorMonitoreo propio de cada prueba (sin estado
+ * compartido con otras pruebas ni con las instancias globales) y precalcula una secuencia de
+ * lecturas (sensor destino y valor) para que el benchmark no genere números aleatorios
+ * en la ruta medida. La salida por consola se silencia mientras dura la prueba
+ */
+@State(Scope.Benchmark)
+public class FlotaSensores {
+    static final int LECTURAS = 1 << 16; // potencia de dos: el cursor usa una máscara
+
+    private static final TipoSensor[] TIPOS = {
+        TipoSensor.TEMPERATURA, TipoSensor.VIBRACION, TipoSensor.ENERGIA, TipoSensor.CALIDAD_AIRE, TipoSensor.HUMEDAD
+    };
+    private static final double[] VALOR_NORMAL = {25.0, 2.0, 800.0, 50.0, 45.0};
+    private static final double[] VALOR_ALERTA = {85.0, 6.5, 1200.0, 250.0, 95.0};
+
+    @Param({"100", "1000", "10000"})
+    public int cantidadSensores;
+
+    @Param({"0", "10"})
+    public int porcentajeAlertas;
+
+    MotorMonitoreo motor;
+    GestorSensores gestor;
+    NotificadorAlertas notificador;
+    String[] ids;
+    Sensor[] sensores;
+    int[] indices;     // sensor destino de cada lectura precalculada
+    double[] valores;  // valor de cada lectura precalculada
+    private PrintStream consolaOriginal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        consolaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        motor = new MotorMonitoreo("jmh");
+        gestor = motor.obtenerGestor();
+        notificador = motor.obtenerNotificador();
+
+        ids = new String[cantidadSensores];
+        sensores = new Sensor[cantidadSensores];
+        for (int i = 0; i < cantidadSensores; i++) {
+            int tipo = i % TIPOS.length;
+            ids[i] = "JMH-" + i;
+            sensores[i] = new Sensor(ids[i], TIPOS[tipo].getCodigo(), VALOR_NORMAL[tipo], "Zona " + (i % 50));
+            gestor.registrarSensor(sensores[i]);
+        }
+
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        indices = new int[LECTURAS];
+        valores = new double[LECTURAS];
+        for (int k = 0; k < LECTURAS; k++) {
+            int sensor = aleatorio.nextInt(cantidadSensores);
+            int tipo = sensor % TIPOS.length;
+            indices[k] = sensor;
+            valores[k] = aleatorio.nextInt(100) < porcentajeAlertas
+                ? VALOR_ALERTA[tipo]
+                : VALOR_NORMAL[tipo] * (0.9 + 0.2 * aleatorio.nextDouble());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void liberar() {
+        motor.close();
+        System.setOut(consolaOriginal);
+    }
+
+    /**
+     * Crea alertas de la flota para los benchmarks de notificación y registro
+     * @param cantidad Número de alertas a crear
+     * @return Alertas con sensores y niveles alternados
+     */
+    Alerta[] crearAlertas(int cantidad) {
+        Alerta[] alertas = new Alerta[cantidad];
+        for (int k = 0; k < cantidad; k++) {
+            int sensor = indices[k % LECTURAS];
+            alertas[k] = new Alerta(ids[sensor], "Lectura fuera de rango: " + valores[k % LECTURAS],
+                k % 4 == 0 ? NivelAlerta.CRITICO : NivelAlerta.ADVERTENCIA, new java.util.Date());
+        }
+        return alertas;
+    }
+}
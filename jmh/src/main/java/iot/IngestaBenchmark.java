@@ -0,0 +1,50 @@
+package iot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ingesta de lecturas: actualización, análisis y notificación de punta a punta
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestaBenchmark {
+    static final int TAMANO_LOTE = 256;
+
+    @State(Scope.Thread)
+    public static class LotePorHilo {
+        final LoteLecturas lote = new LoteLecturas(TAMANO_LOTE);
+    }
+
+    @Benchmark
+    public void actualizarValorSensor(FlotaSensores flota, Cursor cursor) {
+        int k = cursor.siguiente();
+        flota.gestor.actualizarValorSensor(flota.ids[flota.indices[k]], flota.valores[k]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANO_LOTE)
+    public int actualizarLote(FlotaSensores flota, Cursor cursor, LotePorHilo porHilo) {
+        LoteLecturas lote = porHilo.lote;
+        lote.limpiar();
+        long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            int k = cursor.siguiente();
+            lote.agregar(flota.ids[flota.indices[k]], flota.valores[k], ahoraNanos);
+        }
+        return flota.gestor.actualizarLote(lote);
+    }
+}
@@ -0,0 +1,86 @@
+package iot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Difusión de alertas a N observadores con NotificadorAlertas.notificarObservadores
+ * Los observadores solo cuentan lo recibido, de modo que se mide el coste del notificador
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificacionBenchmark {
+    private static final int ALERTAS = 1024; // potencia de dos
+
+    @Param({"1", "4", "16"})
+    public int cantidadObservadores;
+
+    @Param({"false", "true"})
+    public boolean asincrono;
+
+    private ObservadorContador[] observadores;
+    private Alerta[] alertas;
+
+    /**
+     * Observador mínimo que solo cuenta las alertas recibidas
+     */
+    static class ObservadorContador implements ObservadorAlerta {
+        final LongAdder recibidas = new LongAdder();
+
+        @Override
+        public void actualizar(Alerta alerta) {
+            recibidas.increment();
+        }
+
+        @Override
+        public String obtenerTipoObservador() {
+            return "ObservadorContador";
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar(FlotaSensores flota) {
+        if (asincrono) {
+            flota.notificador.activarDespachoAsincrono(ALERTAS, PoliticaContrapresion.DESCARTAR_ANTIGUA);
+        }
+        observadores = new ObservadorContador[cantidadObservadores];
+        for (int i = 0; i < cantidadObservadores; i++) {
+            observadores[i] = new ObservadorContador();
+            flota.notificador.registrarObservador(observadores[i]);
+        }
+        alertas = flota.crearAlertas(ALERTAS);
+    }
+
+    @TearDown(Level.Trial)
+    public void liberar(FlotaSensores flota) {
+        for (ObservadorContador observador : observadores) {
+            flota.notificador.eliminarObservador(observador);
+        }
+        if (asincrono) {
+            flota.notificador.desactivarDespachoAsincrono();
+        }
+    }
+
+    @Benchmark
+    public void notificarObservadores(FlotaSensores flota, Cursor cursor) {
+        flota.notificador.notificarObservadores(alertas[cursor.siguiente() & (ALERTAS - 1)]);
+    }
+}
@@ -0,0 +1,46 @@
+package iot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Registro de alertas en RegistradorLogs con retención acotada (incluye el descarte de los más antiguos)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistroLogsBenchmark {
+    private static final int ALERTAS = 4096; // potencia de dos
+
+    @Param({"10000"})
+    public int maximoEnMemoria;
+
+    private RegistradorLogs registrador;
+    private Alerta[] alertas;
+
+    @Setup(Level.Trial)
+    public void preparar(FlotaSensores flota) {
+        registrador = new RegistradorLogs(maximoEnMemoria);
+        alertas = flota.crearAlertas(ALERTAS);
+    }
+
+    @Benchmark
+    public void registrarAlerta(Cursor cursor) {
+        registrador.actualizar(alertas[cursor.siguiente() & (ALERTAS - 1)]);
+    }
+}
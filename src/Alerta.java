@@ -3,25 +3,70 @@ import java.util.Date;
 /**
  * Clase que representa una alerta generada por el sistema IoT
  * Contiene información sobre el sensor que generó la alerta y su nivel de criticidad
+ * Las alertas de las estrategias guardan solo campos estructurados (sensor, valor, umbral,
+ * plantilla y marca de tiempo): el mensaje se compone la primera vez que se lee y queda
+ * en caché, y la fecha se crea a partir de la marca en nanosegundos solo si se pide
  */
 public class Alerta {
-    private String idSensor;
-    private String mensaje;
-    private NivelAlerta nivel;
-    private Date fechaHora;
+    private final String idSensor;
+    private final Sensor sensor;             // null en alertas con mensaje literal sin sensor
+    private final PlantillaAlerta plantilla; // null en alertas con mensaje literal
+    private final NivelAlerta nivel;
+    private final double valor;
+    private final double umbral;
+    private final double auxiliar;
+    private final long marcaNanos;           // nanosegundos desde epoch
+    private String mensaje;                  // compuesto bajo demanda (carrera benigna, como String.hashCode)
     
     /**
-     * Constructor de la alerta
+     * Constructor de la alerta con mensaje literal
      * @param idSensor ID del sensor que generó la alerta
      * @param mensaje Mensaje descriptivo de la alerta
      * @param nivel Nivel de criticidad de la alerta
      * @param fechaHora Fecha y hora cuando se generó la alerta
      */
     public Alerta(String idSensor, String mensaje, NivelAlerta nivel, Date fechaHora) {
-        this.idSensor = idSensor;
+        this(idSensor, null, null, nivel, Double.NaN, Double.NaN, Double.NaN, fechaHora.getTime() * 1_000_000L);
         this.mensaje = mensaje;
+    }
+    
+    /**
+     * Constructor de la alerta con mensaje literal asociada a un sensor (por ejemplo, la fusión
+     * de varias alertas del mismo sensor); los observadores filtrados por tipo o ubicación la reciben
+     * @param sensor Sensor que generó la alerta
+     * @param mensaje Mensaje descriptivo de la alerta
+     * @param nivel Nivel de criticidad de la alerta
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     */
+    public Alerta(Sensor sensor, String mensaje, NivelAlerta nivel, long marcaNanos) {
+        this(sensor.getId(), sensor, null, nivel, Double.NaN, Double.NaN, Double.NaN, marcaNanos);
+        this.mensaje = mensaje;
+    }
+    
+    /**
+     * Constructor de la alerta estructurada, con el mensaje diferido
+     * La marca de tiempo es la del momento de creación
+     * @param sensor Sensor que generó la alerta
+     * @param plantilla Plantilla del mensaje (determina el nivel)
+     * @param valor Valor leído
+     * @param umbral Umbral o referencia con el que se comparó
+     * @param auxiliar Dato adicional de la plantilla (NaN si no lo usa)
+     */
+    public Alerta(Sensor sensor, PlantillaAlerta plantilla, double valor, double umbral, double auxiliar) {
+        this(sensor.getId(), sensor, plantilla, plantilla.getNivel(), valor, umbral, auxiliar,
+            System.currentTimeMillis() * 1_000_000L);
+    }
+    
+    private Alerta(String idSensor, Sensor sensor, PlantillaAlerta plantilla, NivelAlerta nivel,
+                   double valor, double umbral, double auxiliar, long marcaNanos) {
+        this.idSensor = idSensor;
+        this.sensor = sensor;
+        this.plantilla = plantilla;
         this.nivel = nivel;
-        this.fechaHora = fechaHora;
+        this.valor = valor;
+        this.umbral = umbral;
+        this.auxiliar = auxiliar;
+        this.marcaNanos = marcaNanos;
     }
     
     // Getters
@@ -30,20 +75,61 @@ public class Alerta {
     }
     
     public String getMensaje() { 
-        return mensaje; 
+        String texto = mensaje;
+        if (texto == null) {
+            texto = plantilla.componer(valor, umbral, auxiliar, sensor.getUbicacion());
+            mensaje = texto;
+        }
+        return texto; 
     }
     
     public NivelAlerta getNivel() { 
         return nivel; 
     }
     
+    /**
+     * Obtiene la fecha y hora de la alerta
+     * @return Una fecha nueva creada a partir de la marca de tiempo
+     */
     public Date getFechaHora() { 
-        return fechaHora; 
+        return new Date(marcaNanos / 1_000_000L); 
+    }
+    
+    public long getMarcaNanos() {
+        return marcaNanos;
+    }
+    
+    /**
+     * @return El sensor que generó la alerta, o null si la alerta se creó solo con el ID del sensor
+     */
+    public Sensor getSensor() {
+        return sensor;
+    }
+    
+    /**
+     * @return La plantilla del mensaje, o null si la alerta tiene un mensaje literal
+     */
+    public PlantillaAlerta getPlantilla() {
+        return plantilla;
+    }
+    
+    /**
+     * @return El valor leído, o NaN si la alerta tiene un mensaje literal
+     */
+    public double getValor() {
+        return valor;
+    }
+    
+    /**
+     * @return El umbral o referencia de la comparación, o NaN si la alerta tiene un mensaje literal
+     */
+    public double getUmbral() {
+        return umbral;
     }
     
     @Override
     public String toString() {
         return String.format("Alerta{idSensor='%s', nivel=%s, mensaje='%s', fecha=%s}", 
-                           idSensor, nivel, mensaje, fechaHora);
+                           idSensor, nivel, getMensaje(), getFechaHora());
     }
 }
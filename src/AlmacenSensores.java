@@ -0,0 +1,209 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Almacén primitivo de estado de sensores organizado como estructura de arreglos
+ * Cada sensor recibe un handle entero denso que indexa columnas primitivas de valor
+ * y marca de tiempo, de modo que actualizar una lectura no crea objetos
+ * La capacidad es fija para que la memoria usada sea predecible
+ * Cada handle tiene un seqlock: la secuencia es impar mientras un escritor modifica el
+ * par (valor, marca de tiempo), los escritores se excluyen por CAS sobre ella y los lectores
+ * de la instantánea completa reintentan si la secuencia cambió durante la copia
+ * Las vistas Sensor se publican con escritura release y se leen con lectura acquire, así que
+ * quien obtiene un sensor por handle sin cerrojo lo ve completamente construido
+ * Vincular y desvincular un sensor también se hace con el seqlock de su handle tomado, y los
+ * escritores comprueban bajo él que el handle sigue siendo del sensor: una escritura que llega
+ * tarde a un handle liberado vuelve al sensor en lugar de perderse o pisar a otro sensor
+ */
+public class AlmacenSensores {
+    private static final VarHandle SECUENCIA = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final double[] valores;
+    private final long[] marcasNanos; // nanosegundos desde epoch
+    private final long[] secuencias;  // 2 * lecturas registradas, +1 mientras se escribe
+    private final AtomicReferenceArray<Sensor> vistas; // vista Sensor de cada handle ocupado
+    private final int[] handlesLibres; // pila de handles liberados para reutilizar
+    private int cantidadLibres;
+    private int siguienteHandle;
+    private int cantidad;
+
+    /**
+     * Constructor que reserva todas las columnas
+     * @param capacidad Número máximo de sensores que puede contener el almacén
+     */
+    public AlmacenSensores(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.valores = new double[capacidad];
+        this.marcasNanos = new long[capacidad];
+        this.secuencias = new long[capacidad];
+        this.vistas = new AtomicReferenceArray<>(capacidad);
+        this.handlesLibres = new int[capacidad];
+    }
+
+    /**
+     * Asigna un handle al sensor, copia su estado actual a las columnas y vincula el sensor
+     * para que sus getters y setters lean y escriban en el almacén
+     * @param sensor El sensor a incorporar
+     * @return El handle asignado
+     */
+    public synchronized int registrar(Sensor sensor) {
+        int handle = sensor.getHandle();
+        if (handle >= 0 && vistas.getPlain(handle) == sensor) {
+            return handle; // ya estaba registrado en este almacén
+        }
+        if (cantidadLibres > 0) {
+            handle = handlesLibres[--cantidadLibres];
+        } else if (siguienteHandle < valores.length) {
+            handle = siguienteHandle++;
+        } else {
+            throw new IllegalStateException("Almacén de sensores lleno: capacidad " + valores.length);
+        }
+        bloquear(handle);
+        LecturaSensor lectura = sensor.vincularAlmacen(this, handle);
+        valores[handle] = lectura.getValor();
+        marcasNanos[handle] = lectura.getMarcaNanos();
+        vistas.setRelease(handle, sensor);
+        SECUENCIA.setRelease(secuencias, handle, lectura.getSecuencia() * 2);
+        cantidad++;
+        return handle;
+    }
+
+    /**
+     * Libera el handle de un sensor; el sensor conserva su último estado en sus propios campos
+     * @param sensor El sensor a retirar del almacén
+     */
+    public synchronized void liberar(Sensor sensor) {
+        int handle = sensor.getHandle();
+        if (handle < 0 || vistas.getPlain(handle) != sensor) {
+            return;
+        }
+        long secuencia = bloquear(handle);
+        sensor.desvincularAlmacen(new LecturaSensor(valores[handle], marcasNanos[handle], secuencia >>> 1));
+        vistas.setRelease(handle, null);
+        SECUENCIA.setRelease(secuencias, handle, secuencia);
+        handlesLibres[cantidadLibres++] = handle;
+        cantidad--;
+    }
+
+    /**
+     * Registra una lectura en las columnas del handle sin crear objetos
+     * Si el handle ya no es del sensor no lo toca y devuelve la lectura al sensor, que la
+     * aplica en su estado actual
+     * @param sensor Sensor que escribe
+     * @param handle Handle que el sensor tenía al empezar a escribir
+     * @param valor Nuevo valor medido
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     * @return El valor que esta lectura reemplazó
+     */
+    public double actualizar(Sensor sensor, int handle, double valor, long marcaNanos) {
+        long secuencia = bloquear(handle);
+        if (vistas.getPlain(handle) != sensor) {
+            SECUENCIA.setRelease(secuencias, handle, secuencia);
+            return sensor.escribirLectura(valor, marcaNanos);
+        }
+        double anterior = valores[handle];
+        valores[handle] = valor;
+        marcasNanos[handle] = marcaNanos;
+        SECUENCIA.setRelease(secuencias, handle, secuencia + 2);
+        return anterior;
+    }
+
+    /**
+     * Copia la lectura de un handle como una instantánea consistente
+     * Solo reintenta mientras un escritor está modificando ese mismo handle
+     * @param sensor Sensor que lee
+     * @param handle Handle que el sensor tenía al empezar a leer
+     * @return La instantánea de la última lectura, o null si el handle ya no es del sensor
+     */
+    public LecturaSensor leer(Sensor sensor, int handle) {
+        while (true) {
+            long antes = (long) SECUENCIA.getAcquire(secuencias, handle);
+            if ((antes & 1L) == 0L) {
+                double valor = valores[handle];
+                long marca = marcasNanos[handle];
+                Sensor propietario = vistas.getPlain(handle);
+                VarHandle.acquireFence(); // las columnas se leen antes de volver a leer la secuencia
+                if ((long) SECUENCIA.getOpaque(secuencias, handle) == antes) {
+                    return propietario == sensor ? new LecturaSensor(valor, marca, antes >>> 1) : null;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Obtiene el número de lecturas registradas en un handle
+     * @param handle Handle del sensor
+     * @return Lecturas registradas (incluidas las del sensor antes de entrar en el almacén)
+     */
+    public long obtenerSecuencia(int handle) {
+        return (long) SECUENCIA.getAcquire(secuencias, handle) >>> 1;
+    }
+
+    // Acceso a las columnas por handle: cada columna se lee de forma atómica por separado
+    public double obtenerValor(int handle) {
+        return valores[handle];
+    }
+
+    public void establecerValor(Sensor sensor, int handle, double valor) {
+        long secuencia = bloquear(handle);
+        if (vistas.getPlain(handle) != sensor) {
+            SECUENCIA.setRelease(secuencias, handle, secuencia);
+            sensor.setValor(valor);
+            return;
+        }
+        valores[handle] = valor;
+        SECUENCIA.setRelease(secuencias, handle, secuencia + 2);
+    }
+
+    public long obtenerMarcaNanos(int handle) {
+        return marcasNanos[handle];
+    }
+
+    public void establecerMarcaNanos(Sensor sensor, int handle, long marcaNanos) {
+        long secuencia = bloquear(handle);
+        if (vistas.getPlain(handle) != sensor) {
+            SECUENCIA.setRelease(secuencias, handle, secuencia);
+            sensor.setUltimaActualizacion(new Date(marcaNanos / 1_000_000L));
+            return;
+        }
+        marcasNanos[handle] = marcaNanos;
+        SECUENCIA.setRelease(secuencias, handle, secuencia + 2);
+    }
+
+    /**
+     * Toma el seqlock de un handle para escribir: pasa su secuencia de par a impar
+     * El CAS tiene semántica volatile, así que las escrituras posteriores no se adelantan a él
+     * @return La secuencia par que había antes de tomarlo
+     */
+    private long bloquear(int handle) {
+        while (true) {
+            long secuencia = (long) SECUENCIA.getOpaque(secuencias, handle);
+            if ((secuencia & 1L) == 0L && SECUENCIA.compareAndSet(secuencias, handle, secuencia, secuencia + 1)) {
+                return secuencia;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Obtiene la vista Sensor asociada a un handle
+     * @param handle Handle del sensor
+     * @return El sensor, o null si el handle está libre
+     */
+    public Sensor obtenerSensor(int handle) {
+        return vistas.getAcquire(handle);
+    }
+
+    public synchronized int obtenerCantidad() {
+        return cantidad;
+    }
+
+    public int obtenerCapacidad() {
+        return valores.length;
+    }
+}
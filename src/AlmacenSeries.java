@@ -0,0 +1,747 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén persistente de series temporales por sensor con niveles de resumen automáticos
+ * Cada lectura se guarda en el nivel CRUDO y se acumula en intervalos de 1 minuto, que a su
+ * vez se acumulan en intervalos de 1 hora (mínimo, máximo, suma y cantidad). Cada nivel
+ * escribe sus filas en bloques Gorilla (BloqueGorilla) que, al llenarse o al cerrarse su
+ * periodo (NivelSerie.getPeriodoBloqueNanos), se anexan a segmentos en disco agrupados por
+ * ventana de tiempo; la retención de cada nivel borra los segmentos vencidos enteros, así
+ * que el disco crece con la retención de cada nivel y no con la de las lecturas crudas
+ * Las consultas de rango largo leen los niveles resumidos (ver consultar con puntosMaximos)
+ *
+ * Formato de segmento: [int MAGIA][int VERSION] seguido de registros
+ * Formato de registro: [int longitud][int crc32] y la carga útil
+ * [short longitudId][id UTF-8][byte nivel][bloque serializado por BloqueGorilla.escribir]
+ * Una longitud 0 marca el final de los datos escritos del segmento
+ */
+public class AlmacenSeries implements Closeable {
+    private static final String ORIGEN = "AlmacenSeries";
+    private static final int MAGIA = 0x494F5447; // "IOTG"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 8;
+    private static final int TAMANO_CABECERA_REGISTRO = 8;
+    private static final String EXTENSION_SEGMENTO = ".seg";
+    private static final NivelSerie[] NIVELES = NivelSerie.values();
+
+    private final Path directorio;
+    private final long[] retencionNanos; // por nivel
+    private final Map<String, Serie> series;
+    private final Map<String, Segmento> segmentos; // por nombre de archivo; protegido por sí mismo
+    private final AtomicLong puntos;
+    private final AtomicLong descartadas;
+    private final AtomicLong bloques;
+    private final AtomicLong errores;
+    private boolean cerrado; // protegido por segmentos
+
+    /**
+     * Segmento de un nivel: archivo con los bloques sellados de una ventana de tiempo
+     */
+    private static final class Segmento {
+        final NivelSerie nivel;
+        final long ventana; // inicio de la ventana / duración de la ventana del nivel
+        final Path ruta;
+        final FileChannel canal;
+        long tamano;        // bytes reservados; protegido por segmentos
+        volatile boolean eliminado;
+
+        Segmento(NivelSerie nivel, long ventana, Path ruta, FileChannel canal, long tamano) {
+            this.nivel = nivel;
+            this.ventana = ventana;
+            this.ruta = ruta;
+            this.canal = canal;
+            this.tamano = tamano;
+        }
+    }
+
+    /**
+     * Ubicación de un bloque sellado y el rango de marcas que cubre (sin descomprimirlo)
+     */
+    private static final class RefBloque {
+        final Segmento segmento;
+        final long posicion; // inicio del bloque serializado en el segmento
+        final int longitud;
+        final long primeraMarca;
+        final long ultimaMarca;
+        final int filas;
+
+        RefBloque(Segmento segmento, long posicion, int longitud, long primeraMarca, long ultimaMarca, int filas) {
+            this.segmento = segmento;
+            this.posicion = posicion;
+            this.longitud = longitud;
+            this.primeraMarca = primeraMarca;
+            this.ultimaMarca = ultimaMarca;
+            this.filas = filas;
+        }
+    }
+
+    /**
+     * Intervalo abierto de un nivel resumido
+     */
+    private static final class Cubeta {
+        long inicio;
+        double minimo;
+        double maximo;
+        double suma;
+        double lecturas; // double: se guarda como una columna más del bloque
+    }
+
+    /**
+     * Lo que una consulta necesita de una serie, copiado con su cerrojo
+     */
+    private static final class Captura {
+        final List<RefBloque> sellados = new ArrayList<>();
+        BloqueGorilla.Lector abierto;
+        final List<double[]> parciales = new ArrayList<>(); // {inicio, min, max, suma, lecturas}
+    }
+
+    /**
+     * Serie de un sensor: un bloque abierto y los bloques sellados de cada nivel
+     */
+    private final class Serie {
+        final String id;
+        final BloqueGorilla[] abiertos = new BloqueGorilla[NIVELES.length];
+        final List<List<RefBloque>> sellados = new ArrayList<>();
+        final Cubeta[] cubetas = new Cubeta[NIVELES.length]; // la del nivel CRUDO no se usa
+        final double[] fila = new double[4];
+        long ultimaMarca = Long.MIN_VALUE;
+
+        Serie(String id) {
+            this.id = id;
+            for (int n = 0; n < NIVELES.length; n++) {
+                sellados.add(new ArrayList<>());
+                cubetas[n] = new Cubeta();
+            }
+        }
+
+        synchronized boolean agregar(long marcaNanos, double valor) {
+            if (marcaNanos < ultimaMarca) {
+                return false;
+            }
+            ultimaMarca = marcaNanos;
+            fila[0] = valor;
+            escribirFila(NivelSerie.CRUDO, marcaNanos);
+            acumular(NivelSerie.MINUTO.ordinal(), marcaNanos, valor, valor, valor, 1.0);
+            return true;
+        }
+
+        private void acumular(int nivel, long marcaNanos, double minimo, double maximo, double suma, double lecturas) {
+            Cubeta cubeta = cubetas[nivel];
+            long intervalo = NIVELES[nivel].getIntervaloNanos();
+            long inicio = Math.floorDiv(marcaNanos, intervalo) * intervalo;
+            if (cubeta.lecturas > 0 && inicio != cubeta.inicio) {
+                emitir(nivel);
+            }
+            if (cubeta.lecturas == 0) {
+                cubeta.inicio = inicio;
+                cubeta.minimo = minimo;
+                cubeta.maximo = maximo;
+                cubeta.suma = 0.0;
+            }
+            cubeta.minimo = Math.min(cubeta.minimo, minimo);
+            cubeta.maximo = Math.max(cubeta.maximo, maximo);
+            cubeta.suma += suma;
+            cubeta.lecturas += lecturas;
+        }
+
+        /**
+         * Cierra el intervalo abierto de un nivel: lo escribe como fila y lo acumula en el siguiente
+         */
+        private void emitir(int nivel) {
+            Cubeta cubeta = cubetas[nivel];
+            long inicio = cubeta.inicio;
+            double minimo = cubeta.minimo;
+            double maximo = cubeta.maximo;
+            double suma = cubeta.suma;
+            double lecturas = cubeta.lecturas;
+            cubeta.lecturas = 0;
+            fila[0] = minimo;
+            fila[1] = maximo;
+            fila[2] = suma;
+            fila[3] = lecturas;
+            escribirFila(NIVELES[nivel], inicio);
+            if (nivel + 1 < NIVELES.length) {
+                acumular(nivel + 1, inicio, minimo, maximo, suma, lecturas);
+            }
+        }
+
+        /**
+         * Agrega una fila al bloque abierto del nivel y lo sella al llenarse o al cerrarse su periodo
+         * Una fila de otro periodo sella antes el bloque anterior, así que cada bloque cae entero
+         * en la ventana de un segmento y la retención no borra filas que aún debe conservar
+         */
+        private void escribirFila(NivelSerie nivel, long marcaNanos) {
+            long periodo = nivel.getPeriodoBloqueNanos();
+            BloqueGorilla bloque = abiertos[nivel.ordinal()];
+            if (bloque != null && bloque.obtenerCantidad() > 0 &&
+                Math.floorDiv(marcaNanos, periodo) != Math.floorDiv(bloque.obtenerPrimeraMarca(), periodo)) {
+                sellar(nivel);
+                bloque = null;
+            }
+            if (bloque == null) {
+                bloque = new BloqueGorilla(nivel.getColumnas());
+                abiertos[nivel.ordinal()] = bloque;
+            }
+            bloque.agregar(marcaNanos, fila);
+            long finFila = marcaNanos + nivel.getIntervaloNanos(); // una fila resumida cubre su intervalo
+            if (bloque.obtenerCantidad() >= nivel.getFilasPorBloque() ||
+                Math.floorDiv(finFila, periodo) != Math.floorDiv(marcaNanos, periodo)) {
+                sellar(nivel);
+            }
+        }
+
+        private void sellar(NivelSerie nivel) {
+            BloqueGorilla bloque = abiertos[nivel.ordinal()];
+            if (bloque == null || bloque.obtenerCantidad() == 0) {
+                return;
+            }
+            abiertos[nivel.ordinal()] = null;
+            List<RefBloque> lista = sellados.get(nivel.ordinal());
+            while (!lista.isEmpty() && lista.get(0).segmento.eliminado) {
+                lista.remove(0); // referencias a segmentos ya borrados por la retención
+            }
+            try {
+                lista.add(escribirBloque(id, nivel, bloque));
+            } catch (IOException e) {
+                errores.incrementAndGet();
+                RegistroEventos.error(ORIGEN, "❌ Bloque " + nivel.getCodigo() + " de " + id + " descartado: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Cierra los intervalos abiertos y sella todos los bloques (al cerrar el almacén)
+         */
+        synchronized void sellarTodo() {
+            for (int n = 1; n < NIVELES.length; n++) {
+                if (cubetas[n].lecturas > 0) {
+                    emitir(n);
+                }
+            }
+            for (NivelSerie nivel : NIVELES) {
+                sellar(nivel);
+            }
+        }
+
+        synchronized void cargado(NivelSerie nivel, RefBloque referencia) {
+            sellados.get(nivel.ordinal()).add(referencia);
+            if (nivel == NivelSerie.CRUDO) {
+                ultimaMarca = Math.max(ultimaMarca, referencia.ultimaMarca);
+            }
+        }
+
+        synchronized void ordenar() {
+            for (List<RefBloque> lista : sellados) {
+                // A igual primera marca, antes el que termina antes: las filas repetidas quedan contiguas
+                lista.sort(Comparator.<RefBloque>comparingLong(referencia -> referencia.primeraMarca)
+                    .thenComparingLong(referencia -> referencia.ultimaMarca));
+            }
+        }
+
+        synchronized Captura capturar(NivelSerie nivel, long desdeNanos, long hastaNanos) {
+            Captura captura = new Captura();
+            long intervalo = Math.max(1L, nivel.getIntervaloNanos());
+            for (RefBloque referencia : sellados.get(nivel.ordinal())) {
+                if (!referencia.segmento.eliminado && referencia.ultimaMarca + intervalo > desdeNanos &&
+                    referencia.primeraMarca <= hastaNanos) {
+                    captura.sellados.add(referencia);
+                }
+            }
+            BloqueGorilla abierto = abiertos[nivel.ordinal()];
+            if (abierto != null && abierto.obtenerCantidad() > 0) {
+                captura.abierto = abierto.copiarLector();
+            }
+            // Intervalos aún abiertos del nivel y de los niveles inferiores, resumidos en este nivel
+            for (int n = nivel.ordinal(); n >= 1; n--) {
+                Cubeta cubeta = cubetas[n];
+                if (cubeta.lecturas == 0) {
+                    continue;
+                }
+                long inicio = Math.floorDiv(cubeta.inicio, intervalo) * intervalo;
+                double[] ultima = captura.parciales.isEmpty() ? null : captura.parciales.get(captura.parciales.size() - 1);
+                if (ultima != null && (long) ultima[0] == inicio) {
+                    ultima[1] = Math.min(ultima[1], cubeta.minimo);
+                    ultima[2] = Math.max(ultima[2], cubeta.maximo);
+                    ultima[3] += cubeta.suma;
+                    ultima[4] += cubeta.lecturas;
+                } else {
+                    captura.parciales.add(new double[] {inicio, cubeta.minimo, cubeta.maximo, cubeta.suma, cubeta.lecturas});
+                }
+            }
+            return captura;
+        }
+
+        synchronized long estimarCrudas(long desdeNanos, long hastaNanos) {
+            long filas = 0;
+            for (RefBloque referencia : sellados.get(NivelSerie.CRUDO.ordinal())) {
+                if (!referencia.segmento.eliminado) {
+                    filas += estimarFilas(referencia.primeraMarca, referencia.ultimaMarca, referencia.filas, desdeNanos, hastaNanos);
+                }
+            }
+            BloqueGorilla abierto = abiertos[NivelSerie.CRUDO.ordinal()];
+            if (abierto != null && abierto.obtenerCantidad() > 0) {
+                filas += estimarFilas(abierto.obtenerPrimeraMarca(), abierto.obtenerUltimaMarca(), abierto.obtenerCantidad(),
+                    desdeNanos, hastaNanos);
+            }
+            return filas;
+        }
+
+        /**
+         * Filas de un bloque en el rango, proporcionales a la parte del bloque que se solapa
+         */
+        private long estimarFilas(long primeraMarca, long ultimaMarca, int filas, long desdeNanos, long hastaNanos) {
+            if (ultimaMarca < desdeNanos || primeraMarca > hastaNanos) {
+                return 0;
+            }
+            long duracion = ultimaMarca - primeraMarca;
+            long solapada = Math.min(hastaNanos, ultimaMarca) - Math.max(desdeNanos, primeraMarca);
+            return duracion > 0 ? (long) Math.ceil((double) filas * solapada / duracion) : filas;
+        }
+
+        synchronized long obtenerUltimaMarca() {
+            return ultimaMarca;
+        }
+    }
+
+    /**
+     * Abre (o crea) el almacén en un directorio y carga el índice de los segmentos existentes
+     * Un registro incompleto o corrupto al final de un segmento se descarta
+     * @param directorio Directorio de los segmentos
+     * @param retencionCrudoNanos Retención de las lecturas crudas
+     * @param retencionMinutoNanos Retención de los resúmenes por minuto
+     * @param retencionHoraNanos Retención de los resúmenes por hora
+     */
+    public AlmacenSeries(Path directorio, long retencionCrudoNanos, long retencionMinutoNanos,
+                         long retencionHoraNanos) throws IOException {
+        if (retencionCrudoNanos <= 0 || retencionMinutoNanos < retencionCrudoNanos || retencionHoraNanos < retencionMinutoNanos) {
+            throw new IllegalArgumentException("Las retenciones deben ser positivas y crecer con el nivel: " +
+                retencionCrudoNanos + ", " + retencionMinutoNanos + ", " + retencionHoraNanos);
+        }
+        this.directorio = directorio;
+        this.retencionNanos = new long[] {retencionCrudoNanos, retencionMinutoNanos, retencionHoraNanos};
+        this.series = new ConcurrentHashMap<>();
+        this.segmentos = new HashMap<>();
+        this.puntos = new AtomicLong();
+        this.descartadas = new AtomicLong();
+        this.bloques = new AtomicLong();
+        this.errores = new AtomicLong();
+        Files.createDirectories(directorio);
+        cargar();
+    }
+
+    /**
+     * Agrega una lectura a la serie de un sensor
+     * Las lecturas anteriores a la última de la serie se descartan (los intervalos ya cerrados no se reabren)
+     * @param idSensor ID del sensor
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     * @param valor Valor medido
+     */
+    public void agregar(String idSensor, long marcaNanos, double valor) {
+        Serie serie = series.get(idSensor);
+        if (serie == null) {
+            serie = series.computeIfAbsent(idSensor, Serie::new);
+        }
+        if (serie.agregar(marcaNanos, valor)) {
+            puntos.incrementAndGet();
+        } else {
+            descartadas.incrementAndGet();
+        }
+    }
+
+    /**
+     * Consulta un nivel concreto de la serie de un sensor
+     * Los puntos de los niveles resumidos se marcan con el inicio de su intervalo; el último
+     * intervalo puede estar aún abierto (resume las lecturas recibidas hasta ahora)
+     * @param idSensor ID del sensor
+     * @param nivel Nivel a consultar
+     * @param desdeNanos Inicio del rango (inclusive)
+     * @param hastaNanos Fin del rango (inclusive)
+     * @return Serie del nivel, o null si el sensor no tiene lecturas en el almacén
+     */
+    public SerieResumen consultar(String idSensor, NivelSerie nivel, long desdeNanos, long hastaNanos) throws IOException {
+        Serie serie = series.get(idSensor);
+        if (serie == null) {
+            return null;
+        }
+        Captura captura = serie.capturar(nivel, desdeNanos, hastaNanos);
+        Acumulador acumulador = new Acumulador(nivel, desdeNanos, hastaNanos);
+        for (RefBloque referencia : captura.sellados) {
+            ByteBuffer datos = ByteBuffer.allocate(referencia.longitud);
+            while (datos.hasRemaining()) {
+                if (referencia.segmento.canal.read(datos, referencia.posicion + datos.position()) < 0) {
+                    throw new IOException("Segmento truncado: " + referencia.segmento.ruta);
+                }
+            }
+            datos.flip();
+            acumulador.agregar(BloqueGorilla.leer(datos));
+        }
+        if (captura.abierto != null) {
+            acumulador.agregar(captura.abierto);
+        }
+        for (double[] parcial : captura.parciales) {
+            acumulador.agregar((long) parcial[0], parcial[1], parcial[2], parcial[3], (long) parcial[4]);
+        }
+        return acumulador.construir();
+    }
+
+    /**
+     * Consulta la serie de un sensor en el nivel más fino que no supere un número de puntos
+     * Las lecturas crudas solo se usan si su retención cubre el rango y caben en puntosMaximos;
+     * si no, se usa el primer nivel resumido que quepa y, en último caso, el de horas
+     * @param idSensor ID del sensor
+     * @param desdeNanos Inicio del rango (inclusive)
+     * @param hastaNanos Fin del rango (inclusive)
+     * @param puntosMaximos Puntos que puede representar quien consulta (por ejemplo, el ancho de un gráfico)
+     * @return Serie del nivel elegido, o null si el sensor no tiene lecturas en el almacén
+     */
+    public SerieResumen consultar(String idSensor, long desdeNanos, long hastaNanos, int puntosMaximos) throws IOException {
+        Serie serie = series.get(idSensor);
+        if (serie == null) {
+            return null;
+        }
+        long ultimaMarca = serie.obtenerUltimaMarca();
+        for (NivelSerie nivel : NIVELES) {
+            if (nivel == NivelSerie.HORA) {
+                break;
+            }
+            if (desdeNanos < ultimaMarca - retencionNanos[nivel.ordinal()]) {
+                continue; // parte del rango ya no se conserva en este nivel
+            }
+            long puntosNivel = nivel == NivelSerie.CRUDO
+                ? serie.estimarCrudas(desdeNanos, hastaNanos)
+                : (hastaNanos - desdeNanos) / nivel.getIntervaloNanos() + 1;
+            if (puntosNivel <= puntosMaximos) {
+                return consultar(idSensor, nivel, desdeNanos, hastaNanos);
+            }
+        }
+        return consultar(idSensor, NivelSerie.HORA, desdeNanos, hastaNanos);
+    }
+
+    /**
+     * Borra los segmentos cuya ventana entera ha vencido la retención de su nivel
+     * Se aplica automáticamente a cada nivel al abrir un segmento nuevo (con la marca de sus datos)
+     * @param ahoraNanos Instante de referencia en nanosegundos desde epoch
+     * @return Número de segmentos borrados
+     */
+    public int aplicarRetencion(long ahoraNanos) {
+        int borrados = 0;
+        synchronized (segmentos) {
+            for (NivelSerie nivel : NIVELES) {
+                borrados += retener(nivel, ahoraNanos);
+            }
+        }
+        return borrados;
+    }
+
+    /**
+     * Obtiene las métricas del almacén
+     * @return Mapa con series, lecturas agregadas y descartadas, bloques sellados, errores,
+     *         segmentos y bytes en disco
+     */
+    public Map<String, Long> obtenerMetricas() {
+        Map<String, Long> metricas = new HashMap<>();
+        metricas.put("series", (long) series.size());
+        metricas.put("lecturas", puntos.get());
+        metricas.put("descartadas", descartadas.get());
+        metricas.put("bloques", bloques.get());
+        metricas.put("errores", errores.get());
+        synchronized (segmentos) {
+            long bytes = 0;
+            for (Segmento segmento : segmentos.values()) {
+                bytes += segmento.tamano;
+            }
+            metricas.put("segmentos", (long) segmentos.size());
+            metricas.put("bytesEnDisco", bytes);
+        }
+        return metricas;
+    }
+
+    /**
+     * Sella los intervalos y bloques abiertos de todas las series y cierra los segmentos
+     */
+    @Override
+    public void close() throws IOException {
+        for (Serie serie : series.values()) {
+            serie.sellarTodo();
+        }
+        synchronized (segmentos) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            for (Segmento segmento : segmentos.values()) {
+                segmento.canal.force(false);
+                segmento.canal.close();
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "💾 Almacén de series cerrado: " + series.size() + " series en " + directorio);
+    }
+
+    /**
+     * Anexa un bloque sellado al segmento de su ventana
+     */
+    private RefBloque escribirBloque(String idSensor, NivelSerie nivel, BloqueGorilla bloque) throws IOException {
+        byte[] id = idSensor.getBytes(StandardCharsets.UTF_8);
+        if (id.length > Short.MAX_VALUE) {
+            throw new IOException("ID de sensor demasiado largo: " + id.length + " bytes");
+        }
+        int longitudCarga = 2 + id.length + 1 + bloque.obtenerBytesSerializados();
+        ByteBuffer registro = ByteBuffer.allocate(TAMANO_CABECERA_REGISTRO + longitudCarga);
+        registro.position(TAMANO_CABECERA_REGISTRO);
+        registro.putShort((short) id.length).put(id).put((byte) nivel.ordinal());
+        int inicioBloque = registro.position();
+        bloque.escribir(registro);
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), TAMANO_CABECERA_REGISTRO, longitudCarga);
+        registro.putInt(0, longitudCarga);
+        registro.putInt(4, (int) crc.getValue());
+        registro.flip();
+
+        Segmento segmento;
+        long posicion;
+        synchronized (segmentos) {
+            if (cerrado) {
+                throw new IOException("El almacén de series está cerrado");
+            }
+            segmento = segmentoPara(nivel, bloque.obtenerPrimeraMarca());
+            posicion = segmento.tamano;
+            segmento.tamano += registro.remaining();
+        }
+        // Cada escritor tiene reservada su región: las escrituras posicionales no se pisan
+        while (registro.hasRemaining()) {
+            segmento.canal.write(registro, posicion + registro.position());
+        }
+        bloques.incrementAndGet();
+        return new RefBloque(segmento, posicion + inicioBloque, bloque.obtenerBytesSerializados(),
+            bloque.obtenerPrimeraMarca(), bloque.obtenerUltimaMarca(), bloque.obtenerCantidad());
+    }
+
+    /**
+     * Obtiene (o crea) el segmento de la ventana de una marca (se llama con segmentos tomado)
+     */
+    private Segmento segmentoPara(NivelSerie nivel, long marcaNanos) throws IOException {
+        long ventana = Math.floorDiv(marcaNanos, nivel.getVentanaSegmentoNanos());
+        String nombre = nivel.getCodigo() + "-" + ventana + EXTENSION_SEGMENTO;
+        Segmento segmento = segmentos.get(nombre);
+        if (segmento != null) {
+            return segmento;
+        }
+        Path ruta = directorio.resolve(nombre);
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA).putInt(MAGIA).putInt(VERSION);
+        cabecera.flip();
+        while (cabecera.hasRemaining()) {
+            canal.write(cabecera, cabecera.position());
+        }
+        segmento = new Segmento(nivel, ventana, ruta, canal, TAMANO_CABECERA);
+        segmentos.put(nombre, segmento);
+        retener(nivel, marcaNanos);
+        return segmento;
+    }
+
+    /**
+     * Borra los segmentos vencidos de un nivel (se llama con segmentos tomado)
+     */
+    private int retener(NivelSerie nivel, long ahoraNanos) {
+        long limite = ahoraNanos - retencionNanos[nivel.ordinal()];
+        List<String> vencidos = new ArrayList<>();
+        for (Map.Entry<String, Segmento> entrada : segmentos.entrySet()) {
+            Segmento segmento = entrada.getValue();
+            if (segmento.nivel == nivel && (segmento.ventana + 1) * nivel.getVentanaSegmentoNanos() <= limite) {
+                vencidos.add(entrada.getKey());
+            }
+        }
+        for (String nombre : vencidos) {
+            Segmento segmento = segmentos.remove(nombre);
+            segmento.eliminado = true;
+            try {
+                segmento.canal.close();
+                Files.deleteIfExists(segmento.ruta);
+            } catch (IOException e) {
+                errores.incrementAndGet();
+                RegistroEventos.advertencia(ORIGEN, "⚠️ No se pudo borrar el segmento vencido " + segmento.ruta + ": " + e.getMessage());
+            }
+        }
+        if (!vencidos.isEmpty() && RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            RegistroEventos.depuracion(ORIGEN, "🧹 Retención " + nivel.getCodigo() + ": " + vencidos.size() + " segmentos borrados");
+        }
+        return vencidos.size();
+    }
+
+    /**
+     * Reconstruye el índice de bloques recorriendo los segmentos del directorio
+     */
+    private void cargar() throws IOException {
+        List<Path> rutas = new ArrayList<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio, "*" + EXTENSION_SEGMENTO)) {
+            for (Path ruta : contenido) {
+                rutas.add(ruta);
+            }
+        }
+        CRC32 crc = new CRC32();
+        long registros = 0;
+        for (Path ruta : rutas) {
+            String nombre = ruta.getFileName().toString();
+            int guion = nombre.lastIndexOf('-');
+            NivelSerie nivel = null;
+            for (NivelSerie candidato : NIVELES) {
+                if (guion > 0 && candidato.getCodigo().equals(nombre.substring(0, guion))) {
+                    nivel = candidato;
+                }
+            }
+            long ventana;
+            try {
+                ventana = Long.parseLong(nombre.substring(guion + 1, nombre.length() - EXTENSION_SEGMENTO.length()));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                nivel = null;
+                ventana = 0;
+            }
+            if (nivel == null) {
+                RegistroEventos.advertencia(ORIGEN, "⚠️ Archivo ignorado (no es un segmento de series): " + ruta);
+                continue;
+            }
+            FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long tamanoArchivo = canal.size();
+            if (tamanoArchivo < TAMANO_CABECERA) {
+                canal.close();
+                continue;
+            }
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanoArchivo);
+            if (datos.getInt(0) != MAGIA || datos.getInt(4) != VERSION) {
+                canal.close();
+                RegistroEventos.advertencia(ORIGEN, "⚠️ Segmento con cabecera inválida ignorado: " + ruta);
+                continue;
+            }
+            Segmento segmento = new Segmento(nivel, ventana, ruta, canal, TAMANO_CABECERA);
+            int posicion = TAMANO_CABECERA;
+            byte[] id = new byte[Short.MAX_VALUE];
+            while (posicion + TAMANO_CABECERA_REGISTRO <= tamanoArchivo) {
+                int longitudCarga = datos.getInt(posicion);
+                if (longitudCarga <= 0 || posicion + TAMANO_CABECERA_REGISTRO + (long) longitudCarga > tamanoArchivo) {
+                    break;
+                }
+                int inicioCarga = posicion + TAMANO_CABECERA_REGISTRO;
+                crc.reset();
+                crc.update(datos.duplicate().position(inicioCarga).limit(inicioCarga + longitudCarga));
+                if ((int) crc.getValue() != datos.getInt(posicion + 4)) {
+                    break;
+                }
+                ByteBuffer carga = datos.duplicate().position(inicioCarga).limit(inicioCarga + longitudCarga);
+                int longitudId = carga.getShort();
+                carga.get(id, 0, longitudId);
+                String idSensor = new String(id, 0, longitudId, StandardCharsets.UTF_8);
+                carga.get(); // nivel (el del segmento)
+                int inicioBloque = carga.position();
+                carga.getInt(); // columnas
+                int filas = carga.getInt();
+                long primeraMarca = carga.getLong();
+                long ultimaMarca = carga.getLong();
+                series.computeIfAbsent(idSensor, Serie::new).cargado(nivel, new RefBloque(segmento, inicioBloque,
+                    longitudCarga - (inicioBloque - inicioCarga), primeraMarca, ultimaMarca, filas));
+                registros++;
+                posicion = inicioCarga + longitudCarga;
+            }
+            if (posicion < tamanoArchivo) {
+                RegistroEventos.advertencia(ORIGEN, "⚠️ Cola incompleta descartada en " + ruta + ": " +
+                    (tamanoArchivo - posicion) + " bytes");
+                canal.truncate(posicion);
+            }
+            segmento.tamano = posicion;
+            segmentos.put(nombre, segmento);
+        }
+        for (Serie serie : series.values()) {
+            serie.ordenar();
+        }
+        if (!rutas.isEmpty()) {
+            RegistroEventos.informacion(ORIGEN, "📂 Series cargadas: " + series.size() + " sensores, " + registros +
+                " bloques en " + segmentos.size() + " segmentos");
+        }
+    }
+
+    /**
+     * Reúne en columnas los puntos de una consulta que caen en el rango
+     * En los niveles resumidos, las filas con la misma marca se fusionan en un solo intervalo
+     */
+    private static final class Acumulador {
+        private final NivelSerie nivel;
+        private final long desdeNanos;
+        private final long hastaNanos;
+        private final long intervalo;
+        private long[] marcas = new long[64];
+        private double[] minimos = new double[64];
+        private double[] maximos = new double[64];
+        private double[] sumas = new double[64];
+        private long[] cantidades = new long[64];
+        private int cantidad;
+
+        Acumulador(NivelSerie nivel, long desdeNanos, long hastaNanos) {
+            this.nivel = nivel;
+            this.desdeNanos = desdeNanos;
+            this.hastaNanos = hastaNanos;
+            this.intervalo = Math.max(1L, nivel.getIntervaloNanos());
+        }
+
+        void agregar(BloqueGorilla.Lector lector) {
+            boolean crudo = nivel == NivelSerie.CRUDO;
+            while (lector.siguiente()) {
+                if (crudo) {
+                    double valor = lector.valor(0);
+                    agregar(lector.marca(), valor, valor, valor, 1);
+                } else {
+                    agregar(lector.marca(), lector.valor(0), lector.valor(1), lector.valor(2), (long) lector.valor(3));
+                }
+            }
+        }
+
+        void agregar(long marca, double minimo, double maximo, double suma, long lecturas) {
+            if (marca + intervalo <= desdeNanos || marca > hastaNanos) {
+                return;
+            }
+            if (nivel != NivelSerie.CRUDO && cantidad > 0 && marcas[cantidad - 1] == marca) {
+                // Mismo intervalo en dos filas: el que estaba abierto al cerrar el almacén se
+                // escribió entonces y siguió recibiendo lecturas tras reabrirlo; llegan seguidas
+                // porque los bloques se recorren por orden de marca
+                minimos[cantidad - 1] = Math.min(minimos[cantidad - 1], minimo);
+                maximos[cantidad - 1] = Math.max(maximos[cantidad - 1], maximo);
+                sumas[cantidad - 1] += suma;
+                cantidades[cantidad - 1] += lecturas;
+                return;
+            }
+            if (cantidad == marcas.length) {
+                int capacidad = cantidad * 2;
+                marcas = Arrays.copyOf(marcas, capacidad);
+                minimos = Arrays.copyOf(minimos, capacidad);
+                maximos = Arrays.copyOf(maximos, capacidad);
+                sumas = Arrays.copyOf(sumas, capacidad);
+                cantidades = Arrays.copyOf(cantidades, capacidad);
+            }
+            marcas[cantidad] = marca;
+            minimos[cantidad] = minimo;
+            maximos[cantidad] = maximo;
+            sumas[cantidad] = suma;
+            cantidades[cantidad] = lecturas;
+            cantidad++;
+        }
+
+        SerieResumen construir() {
+            return new SerieResumen(nivel, marcas, minimos, maximos, sumas, cantidades, cantidad);
+        }
+    }
+}
@@ -0,0 +1,747 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mediciones de rendimiento del Sistema de Monitoreo IoT
+ * Mide el throughput y la latencia de las rutas críticas de ingesta, análisis y notificación
+ */
+public class BenchmarkSistemaIoT {
+    private static final int CANTIDAD_SENSORES = 1_000;
+    private static final int LECTURAS_POR_RONDA = 100_000;
+    private static final int TAMANO_LOTE = 1_000;
+    private static final int RONDAS_CALENTAMIENTO = 3;
+    private static final int RONDAS_MEDICION = 5;
+
+    public static void main(String[] args) {
+        System.out.println("=== ⏱️ BENCHMARK SISTEMA IoT ===\n");
+
+        GestorSensores gestor = GestorSensores.obtenerInstancia();
+        NotificadorAlertas notificador = NotificadorAlertas.obtenerInstancia();
+        notificador.establecerEstrategiaAnalisis(new EstrategiaAnalisisTemperatura());
+
+        String[] ids = new String[CANTIDAD_SENSORES];
+        ejecutarSinConsola(() -> {
+            for (int i = 0; i < CANTIDAD_SENSORES; i++) {
+                ids[i] = "BENCH-" + i;
+                gestor.registrarSensor(new Sensor(ids[i], "temperatura", 25.0, "Banco de Pruebas"));
+            }
+        });
+
+        medirIngesta(gestor, ids);
+        medirEventos(gestor, ids);
+        medirDespachoAsincrono(gestor, notificador, ids);
+        medirDespachoFiltrado(notificador);
+        medirEstadisticas(gestor);
+        medirIndices(gestor);
+        medirBarrido(gestor, notificador);
+        medirDeteccionAnomalias();
+        medirCreacionAlertas();
+        medirContencionSensor();
+        medirInstantaneas();
+        medirSeries();
+        medirAlmacenPrimitivo(gestor, ids);
+        medirIngestaRed(gestor, ids);
+
+        System.out.println("\n=== 🏁 FIN BENCHMARK ===");
+    }
+
+    /**
+     * Mide lecturas por segundo de actualizarValorSensor frente a actualizarLote
+     */
+    private static void medirIngesta(GestorSensores gestor, String[] ids) {
+        System.out.println("--- 📥 Ingesta: lectura a lectura vs. lotes de " + TAMANO_LOTE + " ---");
+        LoteLecturas lote = new LoteLecturas(TAMANO_LOTE);
+
+        Runnable porLectura = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                gestor.actualizarValorSensor(ids[i % ids.length], 20.0 + (i % 50));
+            }
+        };
+        Runnable porLotes = () -> {
+            long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                lote.agregar(ids[i % ids.length], 20.0 + (i % 50), ahoraNanos);
+                if (lote.obtenerCantidad() == TAMANO_LOTE) {
+                    gestor.actualizarLote(lote);
+                    lote.limpiar();
+                }
+            }
+            if (lote.obtenerCantidad() > 0) {
+                gestor.actualizarLote(lote);
+                lote.limpiar();
+            }
+        };
+
+        double lecturasPorSegundoIndividual = medir(porLectura, LECTURAS_POR_RONDA);
+        double lecturasPorSegundoLote = medir(porLotes, LECTURAS_POR_RONDA);
+
+        System.out.printf("   - Lectura a lectura: %,.0f lecturas/s%n", lecturasPorSegundoIndividual);
+        System.out.printf("   - Por lotes:         %,.0f lecturas/s%n", lecturasPorSegundoLote);
+        System.out.printf("   - Aceleración:       %.1fx%n", lecturasPorSegundoLote / lecturasPorSegundoIndividual);
+    }
+
+    /**
+     * Mide la ingesta concurrente según cómo se escriben los eventos de diagnóstico:
+     * consola síncrona (compartida por todos los hilos), sumidero asíncrono y nivel desactivado
+     */
+    private static void medirEventos(GestorSensores gestor, String[] ids) {
+        int hilos = 4;
+        System.out.println("\n--- 🧵 Eventos de diagnóstico con " + hilos + " hilos: consola vs. asíncrono vs. desactivado ---");
+        PrintStream nulo = new PrintStream(OutputStream.nullOutputStream());
+        Runnable ingestaConcurrente = () -> {
+            Thread[] trabajadores = new Thread[hilos];
+            for (int h = 0; h < hilos; h++) {
+                int desplazamiento = h;
+                trabajadores[h] = new Thread(() -> {
+                    for (int i = desplazamiento; i < LECTURAS_POR_RONDA; i += hilos) {
+                        gestor.actualizarValorSensor(ids[i % ids.length], 20.0 + (i % 50));
+                    }
+                });
+                trabajadores[h].start();
+            }
+            for (Thread trabajador : trabajadores) {
+                try {
+                    trabajador.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        SumideroEventos original = RegistroEventos.establecerSumidero(new SumideroConsola(nulo, nulo));
+        NivelEvento nivelOriginal = RegistroEventos.obtenerNivel();
+        double lecturasPorSegundoConsola;
+        double lecturasPorSegundoAsincrono;
+        double lecturasPorSegundoDesactivado;
+        long descartados;
+        try {
+            RegistroEventos.establecerNivel(NivelEvento.DEPURACION);
+            lecturasPorSegundoConsola = medir(ingestaConcurrente, LECTURAS_POR_RONDA);
+
+            try (SumideroAsincrono asincrono = new SumideroAsincrono(new SumideroConsola(nulo, nulo), 1 << 16)) {
+                RegistroEventos.establecerSumidero(asincrono);
+                lecturasPorSegundoAsincrono = medir(ingestaConcurrente, LECTURAS_POR_RONDA);
+                descartados = asincrono.obtenerDescartados();
+            }
+
+            RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+            lecturasPorSegundoDesactivado = medir(ingestaConcurrente, LECTURAS_POR_RONDA);
+        } finally {
+            RegistroEventos.establecerSumidero(original);
+            RegistroEventos.establecerNivel(nivelOriginal);
+        }
+
+        System.out.printf("   - Consola síncrona:    %,.0f lecturas/s%n", lecturasPorSegundoConsola);
+        System.out.printf("   - Sumidero asíncrono:  %,.0f lecturas/s (%,d eventos descartados)%n",
+            lecturasPorSegundoAsincrono, descartados);
+        System.out.printf("   - Depuración apagada:  %,.0f lecturas/s%n", lecturasPorSegundoDesactivado);
+    }
+
+    /**
+     * Mide cuánto tarda la ingesta con un observador lento en modo síncrono y asíncrono
+     */
+    private static void medirDespachoAsincrono(GestorSensores gestor, NotificadorAlertas notificador, String[] ids) {
+        System.out.println("\n--- 🐢 Observador lento (1 ms por alerta): despacho síncrono vs. asíncrono ---");
+        ObservadorAlerta observadorLento = new ObservadorAlerta() {
+            @Override
+            public void actualizar(Alerta alerta) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public String obtenerTipoObservador() {
+                return "ObservadorLento";
+            }
+        };
+        int lecturasCriticas = 200;
+        Runnable ingestaCritica = () -> {
+            for (int i = 0; i < lecturasCriticas; i++) {
+                gestor.actualizarValorSensor(ids[i % ids.length], 95.0);
+            }
+        };
+
+        ejecutarSinConsola(() -> notificador.registrarObservador(observadorLento));
+        long inicio = System.nanoTime();
+        ejecutarSinConsola(ingestaCritica);
+        long nanosSincrono = System.nanoTime() - inicio;
+
+        ejecutarSinConsola(() -> notificador.activarDespachoAsincrono(64, PoliticaContrapresion.DESCARTAR_ANTIGUA));
+        inicio = System.nanoTime();
+        ejecutarSinConsola(ingestaCritica);
+        long nanosAsincrono = System.nanoTime() - inicio;
+        List<Map<String, Object>> metricas = notificador.obtenerMetricasDespacho();
+
+        ejecutarSinConsola(() -> {
+            notificador.desactivarDespachoAsincrono();
+            notificador.eliminarObservador(observadorLento);
+        });
+
+        System.out.printf("   - Síncrono:  %,.1f ms para %d lecturas críticas%n", nanosSincrono / 1e6, lecturasCriticas);
+        System.out.printf("   - Asíncrono: %,.1f ms para %d lecturas críticas%n", nanosAsincrono / 1e6, lecturasCriticas);
+        System.out.println("   - Métricas de la cola: " + metricas);
+    }
+
+    /**
+     * Mide el despacho a 16 observadores interesados cada uno en las alertas críticas de una zona:
+     * filtrando en cada observador frente a suscripciones precalculadas en el sujeto
+     */
+    private static void medirDespachoFiltrado(NotificadorAlertas notificador) {
+        System.out.println("\n--- 🎯 Despacho a 16 observadores por zona: filtro en el observador vs. suscripción ---");
+        int zonas = 16;
+        Sensor[] sensores = new Sensor[zonas];
+        for (int i = 0; i < zonas; i++) {
+            sensores[i] = new Sensor("ZONA-" + i, "temperatura", 70.0, "Zona " + i);
+        }
+        Alerta[] alertas = new Alerta[1024];
+        for (int i = 0; i < alertas.length; i++) {
+            PlantillaAlerta plantilla = i % 4 == 0 ? PlantillaAlerta.TEMPERATURA_CRITICA : PlantillaAlerta.TEMPERATURA_ALTA;
+            alertas[i] = new Alerta(sensores[i % zonas], plantilla, 70.0, 60.0, Double.NaN);
+        }
+        long[] entregadas = new long[1];
+        ObservadorAlerta[] filtranSolos = new ObservadorAlerta[zonas];
+        ObservadorAlerta[] suscritos = new ObservadorAlerta[zonas];
+        for (int i = 0; i < zonas; i++) {
+            String zona = "Zona " + i;
+            filtranSolos[i] = new ObservadorAlerta() {
+                @Override
+                public void actualizar(Alerta alerta) {
+                    if (alerta.getNivel() == NivelAlerta.CRITICO && zona.equals(alerta.getSensor().getUbicacion())) {
+                        entregadas[0]++;
+                    }
+                }
+
+                @Override
+                public String obtenerTipoObservador() {
+                    return "FiltroPropio-" + zona;
+                }
+            };
+            suscritos[i] = new ObservadorAlerta() {
+                @Override
+                public void actualizar(Alerta alerta) {
+                    entregadas[0]++;
+                }
+
+                @Override
+                public String obtenerTipoObservador() {
+                    return "Suscrito-" + zona;
+                }
+
+                @Override
+                public SuscripcionAlertas obtenerSuscripcion() {
+                    return SuscripcionAlertas.deNiveles(NivelAlerta.CRITICO).conUbicaciones(zona);
+                }
+            };
+        }
+        Runnable ronda = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                notificador.notificarObservadores(alertas[i & (alertas.length - 1)]);
+            }
+        };
+
+        NivelEvento nivelOriginal = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        try {
+            for (ObservadorAlerta[] grupo : new ObservadorAlerta[][] {filtranSolos, suscritos}) {
+                for (ObservadorAlerta observador : grupo) {
+                    notificador.registrarObservador(observador);
+                }
+                entregadas[0] = 0;
+                double alertasPorSegundo = medir(ronda, LECTURAS_POR_RONDA);
+                System.out.printf("   - %-19s %,.0f alertas/s (%,d entregas útiles)%n",
+                    grupo == suscritos ? "Suscripción:" : "Filtro propio:", alertasPorSegundo, entregadas[0]);
+                for (ObservadorAlerta observador : grupo) {
+                    notificador.eliminarObservador(observador);
+                }
+            }
+        } finally {
+            RegistroEventos.establecerNivel(nivelOriginal);
+        }
+    }
+
+    /**
+     * Mide el costo de obtenerEstadisticas, servido desde los agregados incrementales por tipo
+     */
+    private static void medirEstadisticas(GestorSensores gestor) {
+        System.out.println("\n--- 📈 obtenerEstadisticas con " + gestor.obtenerCantidadSensores() + " sensores ---");
+        int consultas = 100_000;
+        double consultasPorSegundo = medir(() -> {
+            for (int i = 0; i < consultas; i++) {
+                gestor.obtenerEstadisticas();
+            }
+        }, consultas);
+        System.out.printf("   - %,.0f consultas/s%n", consultasPorSegundo);
+    }
+
+    /**
+     * Mide las consultas por tipo y por zona con índices secundarios frente a un recorrido
+     * completo de la flota, con más de 100k sensores registrados
+     */
+    private static void medirIndices(GestorSensores gestor) {
+        int flota = 100_000;
+        int sensoresRaros = 100;
+        String[] idsFlota = new String[flota];
+        ejecutarSinConsola(() -> {
+            for (int i = 0; i < flota; i++) {
+                idsFlota[i] = "FLOTA-" + i;
+                boolean raro = i < sensoresRaros;
+                gestor.registrarSensor(new Sensor(idsFlota[i], raro ? "humedad" : "energia", 500.0,
+                    raro ? "Sala de Máquinas " + (char) ('A' + i % 4) : "Nave " + (i % 50)));
+            }
+        });
+        System.out.println("\n--- 🗂️ Consultas con " + gestor.obtenerCantidadSensores() +
+            " sensores: índice vs. recorrido completo ---");
+
+        int consultas = 1_000;
+        double recorridoPorSegundo = medir(() -> {
+            for (int i = 0; i < consultas; i++) {
+                int encontrados = 0;
+                for (Sensor sensor : gestor.obtenerTodosSensores()) {
+                    if (sensor.getTipo().equals("humedad")) {
+                        encontrados++;
+                    }
+                }
+                if (encontrados != sensoresRaros) {
+                    throw new IllegalStateException("Recorrido inconsistente: " + encontrados);
+                }
+            }
+        }, consultas);
+        double tipoPorSegundo = medir(() -> {
+            for (int i = 0; i < consultas; i++) {
+                gestor.obtenerSensoresPorTipo("humedad");
+            }
+        }, consultas);
+        double zonaPorSegundo = medir(() -> {
+            for (int i = 0; i < consultas; i++) {
+                gestor.obtenerSensoresPorUbicacion("Sala de Máquinas *");
+            }
+        }, consultas);
+
+        System.out.printf("   - Recorrido completo por tipo: %,.0f consultas/s%n", recorridoPorSegundo);
+        System.out.printf("   - Índice por tipo:             %,.0f consultas/s%n", tipoPorSegundo);
+        System.out.printf("   - Índice por zona:             %,.0f consultas/s%n", zonaPorSegundo);
+
+        ejecutarSinConsola(() -> {
+            for (String id : idsFlota) {
+                gestor.eliminarSensor(id);
+            }
+        });
+    }
+
+    /**
+     * Mide la reevaluación de toda la flota: recorrido en serie frente al motor particionado
+     */
+    private static void medirBarrido(GestorSensores gestor, NotificadorAlertas notificador) {
+        int flota = 100_000;
+        String[] idsFlota = new String[flota];
+        ejecutarSinConsola(() -> {
+            for (int i = 0; i < flota; i++) {
+                idsFlota[i] = "BARRIDO-" + i;
+                gestor.registrarSensor(new Sensor(idsFlota[i], "temperatura", 20.0 + (i % 30), "Nave " + (i % 50)));
+            }
+        });
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        System.out.println("\n--- 🧩 Barrido de " + gestor.obtenerCantidadSensores() +
+            " sensores: serie vs. motor particionado (" + nucleos + " núcleos) ---");
+
+        double seriePorSegundo = medir(() -> gestor.analizarTodos(false), gestor.obtenerCantidadSensores());
+        System.out.printf("   - En serie:          %,.0f sensores/s%n", seriePorSegundo);
+        for (int particiones : new int[] {1, Math.max(2, nucleos)}) {
+            MotorAnalisisParticionado[] motor = new MotorAnalisisParticionado[1];
+            ejecutarSinConsola(() -> {
+                motor[0] = new MotorAnalisisParticionado(notificador, particiones, 4_096);
+                gestor.establecerMotorAnalisis(motor[0]);
+            });
+            double porSegundo = medir(() -> gestor.analizarTodos(false), gestor.obtenerCantidadSensores());
+            ejecutarSinConsola(() -> {
+                gestor.establecerMotorAnalisis(null);
+                motor[0].close();
+            });
+            System.out.printf("   - %2d particiones:    %,.0f sensores/s%n", particiones, porSegundo);
+        }
+
+        ejecutarSinConsola(() -> {
+            for (String id : idsFlota) {
+                gestor.eliminarSensor(id);
+            }
+        });
+    }
+
+    /**
+     * Mide el análisis por puntuación z (clásico y robusto) y comprueba que no asigna memoria
+     * mientras las lecturas están dentro de la línea base
+     */
+    private static void medirDeteccionAnomalias() {
+        System.out.println("\n--- 🧮 Detección adaptativa de anomalías (z-score) ---");
+        Sensor[] sensores = new Sensor[CANTIDAD_SENSORES];
+        for (int i = 0; i < sensores.length; i++) {
+            sensores[i] = new Sensor("ANOM-" + i, "energia", 500.0, "Banco de Pruebas");
+        }
+        long[] marcaNanos = {System.currentTimeMillis() * 1_000_000L};
+        // Referencia: el registro de la lectura en un sensor sin almacén ya asigna su Date
+        Runnable soloLectura = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                sensores[i % sensores.length].registrarLectura(500.0 + (i % 41) - 20, ++marcaNanos[0]);
+            }
+        };
+        System.out.printf("   - %-8s %,.0f lecturas/s, %,.1f bytes asignados/lectura%n", "Lectura:",
+            medir(soloLectura, LECTURAS_POR_RONDA), bytesPorOperacion(soloLectura, LECTURAS_POR_RONDA));
+        for (boolean robusta : new boolean[] {false, true}) {
+            EstrategiaAnalisisZScore estrategia = new EstrategiaAnalisisZScore(TipoSensor.ENERGIA, 4.0, 8.0, 30, robusta);
+            Runnable ronda = () -> {
+                for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                    Sensor sensor = sensores[i % sensores.length];
+                    sensor.registrarLectura(500.0 + (i % 41) - 20, ++marcaNanos[0]);
+                    estrategia.analizar(sensor);
+                }
+            };
+            System.out.printf("   - %-8s %,.0f lecturas/s, %,.1f bytes asignados/lectura%n",
+                robusta ? "Robusta:" : "Welford:",
+                medir(ronda, LECTURAS_POR_RONDA), bytesPorOperacion(ronda, LECTURAS_POR_RONDA));
+        }
+    }
+
+    /**
+     * Mide el coste de crear alertas con el mensaje diferido frente a componer su texto
+     */
+    private static void medirCreacionAlertas() {
+        System.out.println("\n--- ✉️ Creación de alertas: mensaje diferido vs. compuesto ---");
+        EstrategiaAnalisis estrategia = new EstrategiaAnalisisTemperatura();
+        Sensor sensor = new Sensor("ALERTA-0", "temperatura", 95.0, "Banco de Pruebas");
+        Alerta[] ultima = new Alerta[1];
+        Runnable diferido = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                ultima[0] = estrategia.analizar(sensor);
+            }
+        };
+        Runnable compuesto = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                ultima[0] = estrategia.analizar(sensor);
+                ultima[0].getMensaje();
+            }
+        };
+        System.out.printf("   - Diferido:  %,.0f alertas/s, %,.1f bytes asignados/alerta%n",
+            medir(diferido, LECTURAS_POR_RONDA), bytesPorOperacion(diferido, LECTURAS_POR_RONDA));
+        System.out.printf("   - Compuesto: %,.0f alertas/s, %,.1f bytes asignados/alerta%n",
+            medir(compuesto, LECTURAS_POR_RONDA), bytesPorOperacion(compuesto, LECTURAS_POR_RONDA));
+    }
+
+    /**
+     * Mide escrituras y lecturas de instantánea concurrentes sobre un único sensor, con la
+     * lectura en el propio objeto (CAS de instantánea) y respaldada por el almacén (seqlock)
+     */
+    private static void medirContencionSensor() {
+        System.out.println("\n--- 🔒 Contención sobre un sensor (1 escritor + 3 lectores, 4 escritores) ---");
+        Sensor sinAlmacen = new Sensor("CONT-OBJ", "presion", 0.0, "Banco de pruebas");
+        Sensor conAlmacen = new Sensor("CONT-ALM", "presion", 0.0, "Banco de pruebas");
+        new AlmacenSensores(1).registrar(conAlmacen);
+        for (Sensor sensor : new Sensor[] {sinAlmacen, conAlmacen}) {
+            String nombre = sensor == sinAlmacen ? "Objeto (CAS)    " : "Almacén (seqlock)";
+            double[] unEscritor = medirContencion(sensor, 1, 3);
+            double[] compartido = medirContencion(sensor, 4, 0);
+            System.out.printf("   - %s: %,.0f escrituras/s con %,.0f instantáneas/s; %,.0f escrituras/s con 4 escritores%n",
+                nombre, unEscritor[0], unEscritor[1], compartido[0]);
+        }
+    }
+
+    /**
+     * Ejecuta escritores y lectores sobre un sensor durante un intervalo fijo
+     * @return Escrituras por segundo e instantáneas por segundo (suma de todos los hilos)
+     */
+    private static double[] medirContencion(Sensor sensor, int escritores, int lectores) {
+        long duracionNanos = 500_000_000L;
+        long[] operaciones = new long[escritores + lectores];
+        Thread[] hilos = new Thread[escritores + lectores];
+        long fin = System.nanoTime() + duracionNanos;
+        for (int h = 0; h < hilos.length; h++) {
+            int indice = h;
+            boolean escritor = h < escritores;
+            hilos[h] = new Thread(() -> {
+                long cuenta = 0;
+                double acumulado = 0;
+                while ((cuenta & 1023) != 0 || System.nanoTime() < fin) {
+                    if (escritor) {
+                        sensor.registrarLectura(cuenta % 100, cuenta);
+                    } else {
+                        acumulado += sensor.obtenerLectura().getValor();
+                    }
+                    cuenta++;
+                }
+                operaciones[indice] = acumulado < 0 ? -cuenta : cuenta; // el acumulado evita eliminar la lectura
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) {
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double[] tasas = new double[2];
+        for (int h = 0; h < hilos.length; h++) {
+            tasas[h < escritores ? 0 : 1] += operaciones[h] * 1e9 / duracionNanos;
+        }
+        return tasas;
+    }
+
+    /**
+     * Mide el reinicio de una flota de un millón de sensores desde una instantánea del registro
+     * frente a volver a registrarlos uno a uno
+     */
+    private static void medirInstantaneas() {
+        int cantidad = 1_000_000;
+        System.out.println("\n--- 📸 Instantáneas del registro (" + String.format("%,d", cantidad) + " sensores) ---");
+        String[] codigos = {"temperatura", "vibracion", "energia", "calidad_aire", "humedad"};
+        Sensor[] flota = new Sensor[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            flota[i] = new Sensor("FLOTA-" + i, codigos[i % codigos.length], 20.0 + (i % 30), "Nave " + (i % 200));
+        }
+        NivelEvento nivelOriginal = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        Path archivo = null;
+        try {
+            archivo = Files.createTempFile("flota", ".inst");
+            // Alta uno a uno con su evento por sensor, escrito en una consola descartada
+            PrintStream nulo = new PrintStream(OutputStream.nullOutputStream());
+            SumideroEventos sumideroOriginal = RegistroEventos.establecerSumidero(new SumideroConsola(nulo, nulo));
+            RegistroEventos.establecerNivel(NivelEvento.INFORMACION);
+            long inicio = System.nanoTime();
+            try (MotorMonitoreo individual = new MotorMonitoreo("individual")) {
+                for (Sensor sensor : flota) {
+                    individual.obtenerGestor().registrarSensor(sensor);
+                }
+            } finally {
+                RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+                RegistroEventos.establecerSumidero(sumideroOriginal);
+            }
+            long nanosIndividual = System.nanoTime() - inicio;
+
+            InstantaneasRegistro escritura;
+            try (MotorMonitoreo original = new MotorMonitoreo("original")) {
+                original.obtenerGestor().registrarSensores(flota, cantidad);
+                escritura = new InstantaneasRegistro(original.obtenerGestor(), archivo);
+                escritura.guardar(); // calentamiento
+                escritura.guardar();
+            }
+            flota = null; // el reinicio no debe encontrar la flota original en el heap
+            Map<String, Long> metricas = escritura.obtenerMetricas();
+
+            long nanosRestauracion;
+            try (MotorMonitoreo reiniciado = new MotorMonitoreo("reiniciado")) {
+                inicio = System.nanoTime();
+                new InstantaneasRegistro(reiniciado.obtenerGestor(), archivo).restaurar();
+                nanosRestauracion = System.nanoTime() - inicio;
+            }
+            System.out.printf("   - Escritura:            %,.0f ms, %,.1f MB (%,.1f bytes/sensor)%n",
+                metricas.get("duracionNanos") / 1e6, metricas.get("bytes") / 1e6, (double) metricas.get("bytes") / cantidad);
+            System.out.printf("   - Restauración mapeada: %,.0f ms (en frío, incluye el alta en bloque)%n", nanosRestauracion / 1e6);
+            System.out.printf("   - Alta uno a uno:       %,.0f ms (con un evento por sensor)%n", nanosIndividual / 1e6);
+        } catch (IOException e) {
+            System.out.println("   - No se pudo medir la instantánea: " + e.getMessage());
+        } finally {
+            RegistroEventos.establecerNivel(nivelOriginal);
+            if (archivo != null) {
+                try {
+                    Files.deleteIfExists(archivo);
+                    Files.deleteIfExists(archivo.resolveSibling(archivo.getFileName() + ".tmp"));
+                } catch (IOException e) {
+                    // archivo temporal
+                }
+            }
+        }
+    }
+
+    /**
+     * Mide el almacén de series: bytes por lectura comprimida y latencia de una consulta de
+     * 7 días leída de las lecturas crudas frente al nivel de horas
+     */
+    private static void medirSeries() {
+        int sensores = 20;
+        long segundo = 1_000_000_000L;
+        long dia = 86_400L * segundo;
+        long inicio = 19_675L * dia;
+        long fin = inicio + 30L * dia;
+        System.out.println("\n--- 📈 Series temporales (" + sensores + " sensores, 30 días cada 10 s) ---");
+        NivelEvento nivelOriginal = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        Path directorio = null;
+        try {
+            directorio = Files.createTempDirectory("series");
+            try (AlmacenSeries almacen = new AlmacenSeries(directorio, 31L * dia, 31L * dia, 365L * dia)) {
+                long lecturas = 0;
+                long inicioIngesta = System.nanoTime();
+                for (long t = inicio; t < fin; t += 10L * segundo) {
+                    double fase = 2.0 * Math.PI * (t - inicio) / dia;
+                    for (int i = 0; i < sensores; i++) {
+                        almacen.agregar("SERIE-" + i, t, Math.round((20.0 + i + 3.0 * Math.sin(fase)) * 10.0) / 10.0);
+                    }
+                    lecturas += sensores;
+                }
+                long nanosIngesta = System.nanoTime() - inicioIngesta;
+                Map<String, Long> metricas = almacen.obtenerMetricas();
+                System.out.printf("   - Ingesta:  %,.0f lecturas/s, %,d lecturas en %,.1f MB (%,.2f bytes/lectura frente a 16 sin comprimir)%n",
+                    lecturas * 1e9 / nanosIngesta, lecturas, metricas.get("bytesEnDisco") / 1e6,
+                    (double) metricas.get("bytesEnDisco") / lecturas);
+
+                long desde = fin - 7L * dia;
+                for (NivelSerie nivel : NivelSerie.values()) {
+                    long mejorNanos = Long.MAX_VALUE;
+                    SerieResumen serie = null;
+                    for (int ronda = 0; ronda < RONDAS_CALENTAMIENTO + RONDAS_MEDICION; ronda++) {
+                        long inicioConsulta = System.nanoTime();
+                        serie = almacen.consultar("SERIE-7", nivel, desde, fin);
+                        long duracion = System.nanoTime() - inicioConsulta;
+                        if (ronda >= RONDAS_CALENTAMIENTO) {
+                            mejorNanos = Math.min(mejorNanos, duracion);
+                        }
+                    }
+                    System.out.printf("   - Consulta 7 días, nivel %-6s %,9.3f ms, %,6d puntos%n",
+                        nivel.getCodigo() + ":", mejorNanos / 1e6, serie.obtenerCantidad());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("   - No se pudo medir el almacén de series: " + e.getMessage());
+        } finally {
+            RegistroEventos.establecerNivel(nivelOriginal);
+            if (directorio != null) {
+                try (DirectoryStream<Path> segmentos = Files.newDirectoryStream(directorio)) {
+                    for (Path segmento : segmentos) {
+                        Files.deleteIfExists(segmento);
+                    }
+                    Files.deleteIfExists(directorio);
+                } catch (IOException e) {
+                    // directorio temporal
+                }
+            }
+        }
+    }
+
+    /**
+     * Mide la actualización por handle sobre el almacén primitivo frente a la actualización por ID
+     * Debe ejecutarse al final porque habilita el almacén primitivo en el gestor compartido
+     */
+    private static void medirAlmacenPrimitivo(GestorSensores gestor, String[] ids) {
+        System.out.println("\n--- 🧱 Almacén primitivo: actualización por handle vs. por ID ---");
+        ejecutarSinConsola(() -> gestor.habilitarAlmacenPrimitivo(ids.length));
+        int[] handles = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            handles[i] = gestor.obtenerHandle(ids[i]);
+        }
+
+        // Valores en rango normal: se mide la actualización, no la creación de alertas
+        Runnable porId = () -> {
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                gestor.actualizarValorSensor(ids[i % ids.length], 20.0 + (i % 30));
+            }
+        };
+        Runnable porHandle = () -> {
+            long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+            for (int i = 0; i < LECTURAS_POR_RONDA; i++) {
+                gestor.actualizarValorSensor(handles[i % handles.length], 20.0 + (i % 30), ahoraNanos + i);
+            }
+        };
+
+        System.out.printf("   - Por ID:     %,.0f lecturas/s, %,.1f bytes asignados/lectura%n",
+            medir(porId, LECTURAS_POR_RONDA), bytesPorOperacion(porId, LECTURAS_POR_RONDA));
+        System.out.printf("   - Por handle: %,.0f lecturas/s, %,.1f bytes asignados/lectura%n",
+            medir(porHandle, LECTURAS_POR_RONDA), bytesPorOperacion(porHandle, LECTURAS_POR_RONDA));
+    }
+
+    /**
+     * Mide la ingesta por red sobre loopback con el servidor NIO y el generador de carga
+     * Requiere el almacén primitivo habilitado (ver medirAlmacenPrimitivo)
+     */
+    private static void medirIngestaRed(GestorSensores gestor, String[] ids) {
+        System.out.println("\n--- 🌐 Ingesta por red (loopback, 2 conexiones, 8 tramas en vuelo) ---");
+        int[] handles = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            handles[i] = gestor.obtenerHandle(ids[i]);
+        }
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        NivelEvento nivelOriginal = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        try (ServidorIngesta servidor = new ServidorIngesta(gestor, new InetSocketAddress(loopback, 0))) {
+            InetSocketAddress direccion = new InetSocketAddress(loopback, servidor.obtenerPuerto());
+            for (int lecturasPorTrama : new int[] {1, 64}) {
+                GeneradorCargaIngesta.ejecutar(direccion, handles, 2, lecturasPorTrama, 8, 500_000_000L); // calentamiento
+                GeneradorCargaIngesta.Resultado resultado =
+                    GeneradorCargaIngesta.ejecutar(direccion, handles, 2, lecturasPorTrama, 8, 2_000_000_000L);
+                HistogramaLatencia latencias = resultado.obtenerLatencias();
+                System.out.printf("   - %2d lecturas/trama: %,.0f lecturas/s, p50 %,.1f µs, p99 %,.1f µs por trama%n",
+                    lecturasPorTrama, resultado.obtenerLecturasPorSegundo(),
+                    latencias.percentil(50) / 1e3, latencias.percentil(99) / 1e3);
+            }
+        } catch (IOException e) {
+            System.out.println("   - No se pudo medir la ingesta por red: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RegistroEventos.establecerNivel(nivelOriginal);
+        }
+    }
+
+    /**
+     * Mide los bytes asignados en el heap por operación en el hilo actual
+     * @param ronda Trabajo a medir (ya calentado)
+     * @param operacionesPorRonda Operaciones realizadas en la ronda
+     * @return Bytes asignados por operación, o NaN si la JVM no lo soporta
+     */
+    private static double bytesPorOperacion(Runnable ronda, int operacionesPorRonda) {
+        java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (!(hilos instanceof com.sun.management.ThreadMXBean)) {
+            return Double.NaN;
+        }
+        com.sun.management.ThreadMXBean hilosHotSpot = (com.sun.management.ThreadMXBean) hilos;
+        long idHilo = Thread.currentThread().getId();
+        long antes = hilosHotSpot.getThreadAllocatedBytes(idHilo);
+        ejecutarSinConsola(ronda);
+        long despues = hilosHotSpot.getThreadAllocatedBytes(idHilo);
+        return (double) (despues - antes) / operacionesPorRonda;
+    }
+
+    /**
+     * Ejecuta rondas de calentamiento y de medición y devuelve la mejor tasa obtenida
+     * @param ronda Trabajo a medir
+     * @param operacionesPorRonda Operaciones realizadas en cada ronda
+     * @return Operaciones por segundo de la ronda más rápida
+     */
+    private static double medir(Runnable ronda, int operacionesPorRonda) {
+        long mejorNanos = Long.MAX_VALUE;
+        for (int i = 0; i < RONDAS_CALENTAMIENTO + RONDAS_MEDICION; i++) {
+            long inicio = System.nanoTime();
+            ejecutarSinConsola(ronda);
+            long duracion = System.nanoTime() - inicio;
+            if (i >= RONDAS_CALENTAMIENTO) {
+                mejorNanos = Math.min(mejorNanos, duracion);
+            }
+        }
+        return operacionesPorRonda * 1e9 / mejorNanos;
+    }
+
+    /**
+     * Ejecuta una tarea descartando lo que escriba en la consola
+     * @param tarea La tarea a ejecutar
+     */
+    private static void ejecutarSinConsola(Runnable tarea) {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            tarea.run();
+        } finally {
+            System.setOut(original);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bloque de serie temporal comprimido al estilo Gorilla (Pelkonen et al., VLDB 2015)
+ * Cada fila es una marca de tiempo y un número fijo de columnas double:
+ * - las marcas se guardan como delta de deltas (una serie a intervalo regular ocupa 1 bit por fila)
+ * - cada columna se guarda como el XOR con su valor anterior, escribiendo solo los bits
+ *   significativos (un valor repetido ocupa 1 bit)
+ * Las filas deben agregarse en orden de marca de tiempo no decreciente
+ * No es thread-safe: el dueño del bloque serializa el acceso
+ */
+public class BloqueGorilla {
+    private final int columnas;
+    private long[] palabras;
+    private int bits;
+    private int cantidad;
+    private long primeraMarca;
+    private long ultimaMarca;
+    private long ultimoDelta;
+    private final long[] ultimosValores;  // bits del último valor de cada columna
+    private final int[] cerosIniciales;  // ventana de bits significativos de cada columna (-1: sin ventana)
+    private final int[] cerosFinales;
+
+    /**
+     * Constructor de un bloque vacío
+     * @param columnas Columnas de valores por fila (al menos 1)
+     */
+    public BloqueGorilla(int columnas) {
+        if (columnas <= 0) {
+            throw new IllegalArgumentException("Un bloque necesita al menos una columna: " + columnas);
+        }
+        this.columnas = columnas;
+        this.palabras = new long[16];
+        this.ultimosValores = new long[columnas];
+        this.cerosIniciales = new int[columnas];
+        this.cerosFinales = new int[columnas];
+        Arrays.fill(cerosIniciales, -1);
+    }
+
+    /**
+     * Agrega una fila al bloque
+     * @param marcaNanos Marca de tiempo (no anterior a la de la última fila)
+     * @param fila Valor de cada columna
+     */
+    public void agregar(long marcaNanos, double[] fila) {
+        if (cantidad == 0) {
+            primeraMarca = marcaNanos;
+            escribirBits(marcaNanos, 64);
+            for (int c = 0; c < columnas; c++) {
+                ultimosValores[c] = Double.doubleToRawLongBits(fila[c]);
+                escribirBits(ultimosValores[c], 64);
+            }
+        } else {
+            if (marcaNanos < ultimaMarca) {
+                throw new IllegalArgumentException("Marca de tiempo fuera de orden: " + marcaNanos + " < " + ultimaMarca);
+            }
+            long delta = marcaNanos - ultimaMarca;
+            escribirDeltaDeDeltas(delta - ultimoDelta);
+            ultimoDelta = delta;
+            for (int c = 0; c < columnas; c++) {
+                escribirValor(c, Double.doubleToRawLongBits(fila[c]));
+            }
+        }
+        ultimaMarca = marcaNanos;
+        cantidad++;
+    }
+
+    public int obtenerColumnas() {
+        return columnas;
+    }
+
+    public int obtenerCantidad() {
+        return cantidad;
+    }
+
+    public long obtenerPrimeraMarca() {
+        return primeraMarca;
+    }
+
+    public long obtenerUltimaMarca() {
+        return ultimaMarca;
+    }
+
+    /**
+     * Obtiene el tamaño comprimido de las filas
+     * @return Bytes ocupados por el flujo de bits (redondeado a palabras de 64 bits)
+     */
+    public int obtenerBytes() {
+        return palabrasUsadas() * 8;
+    }
+
+    /**
+     * Obtiene un lector sobre una copia de las filas escritas hasta ahora
+     * @return Lector independiente del bloque
+     */
+    public Lector copiarLector() {
+        return new Lector(Arrays.copyOf(palabras, palabrasUsadas()), columnas, cantidad);
+    }
+
+    /**
+     * Obtiene los bytes que ocupará el bloque serializado con escribir
+     * @return Bytes serializados
+     */
+    public int obtenerBytesSerializados() {
+        return 4 + 4 + 8 + 8 + 4 + obtenerBytes();
+    }
+
+    /**
+     * Serializa el bloque: columnas, filas, primera y última marca, palabras y el flujo de bits
+     * @param destino Buffer con al menos obtenerBytesSerializados() bytes libres
+     */
+    public void escribir(ByteBuffer destino) {
+        int usadas = palabrasUsadas();
+        destino.putInt(columnas).putInt(cantidad).putLong(primeraMarca).putLong(ultimaMarca).putInt(usadas);
+        for (int i = 0; i < usadas; i++) {
+            destino.putLong(palabras[i]);
+        }
+    }
+
+    /**
+     * Lee un bloque serializado con escribir
+     * @param origen Buffer posicionado al inicio del bloque
+     * @return Lector de sus filas
+     */
+    public static Lector leer(ByteBuffer origen) {
+        int columnas = origen.getInt();
+        int cantidad = origen.getInt();
+        origen.getLong(); // primera marca
+        origen.getLong(); // última marca
+        long[] palabras = new long[origen.getInt()];
+        origen.asLongBuffer().get(palabras);
+        origen.position(origen.position() + palabras.length * 8);
+        return new Lector(palabras, columnas, cantidad);
+    }
+
+    private int palabrasUsadas() {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Delta de deltas con prefijo de longitud variable (en zig-zag, sin signo):
+     * '0' si es 0, '10' + 8 bits, '110' + 16 bits, '1110' + 32 bits o '1111' + 64 bits
+     */
+    private void escribirDeltaDeDeltas(long deltaDeDeltas) {
+        long zigzag = (deltaDeDeltas << 1) ^ (deltaDeDeltas >> 63);
+        if (zigzag == 0) {
+            escribirBits(0b0, 1);
+        } else if (zigzag >>> 8 == 0) {
+            escribirBits(0b10, 2);
+            escribirBits(zigzag, 8);
+        } else if (zigzag >>> 16 == 0) {
+            escribirBits(0b110, 3);
+            escribirBits(zigzag, 16);
+        } else if (zigzag >>> 32 == 0) {
+            escribirBits(0b1110, 4);
+            escribirBits(zigzag, 32);
+        } else {
+            escribirBits(0b1111, 4);
+            escribirBits(zigzag, 64);
+        }
+    }
+
+    /**
+     * XOR con el valor anterior: '0' si no cambia; '10' + bits significativos si caben en la
+     * ventana anterior; '11' + 5 bits de ceros iniciales + 6 bits de longitud + bits significativos
+     */
+    private void escribirValor(int columna, long valor) {
+        long xor = valor ^ ultimosValores[columna];
+        ultimosValores[columna] = valor;
+        if (xor == 0) {
+            escribirBits(0b0, 1);
+            return;
+        }
+        int iniciales = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int finales = Long.numberOfTrailingZeros(xor);
+        int inicialesPrevios = cerosIniciales[columna];
+        if (inicialesPrevios >= 0 && iniciales >= inicialesPrevios && finales >= cerosFinales[columna]) {
+            escribirBits(0b10, 2);
+            escribirBits(xor >>> cerosFinales[columna], 64 - inicialesPrevios - cerosFinales[columna]);
+            return;
+        }
+        int significativos = 64 - iniciales - finales;
+        escribirBits(0b11, 2);
+        escribirBits(iniciales, 5);
+        escribirBits(significativos - 1, 6);
+        escribirBits(xor >>> finales, significativos);
+        cerosIniciales[columna] = iniciales;
+        cerosFinales[columna] = finales;
+    }
+
+    private void escribirBits(long valor, int cuantos) {
+        if (bits + cuantos > palabras.length * 64L) {
+            palabras = Arrays.copyOf(palabras, palabras.length * 2);
+        }
+        long recortado = cuantos == 64 ? valor : valor & ((1L << cuantos) - 1);
+        int indice = bits >>> 6;
+        int libres = 64 - (bits & 63);
+        if (cuantos <= libres) {
+            palabras[indice] |= recortado << (libres - cuantos);
+        } else {
+            int resto = cuantos - libres;
+            palabras[indice] |= recortado >>> resto;
+            palabras[indice + 1] |= recortado << (64 - resto);
+        }
+        bits += cuantos;
+    }
+
+    /**
+     * Decodificador secuencial de las filas de un bloque
+     */
+    public static final class Lector {
+        private final long[] palabras;
+        private final int cantidad;
+        private final long[] valores;
+        private final int[] cerosIniciales;
+        private final int[] cerosFinales;
+        private int posicion;
+        private int leidas;
+        private long marca;
+        private long delta;
+
+        Lector(long[] palabras, int columnas, int cantidad) {
+            this.palabras = palabras;
+            this.cantidad = cantidad;
+            this.valores = new long[columnas];
+            this.cerosIniciales = new int[columnas];
+            this.cerosFinales = new int[columnas];
+        }
+
+        /**
+         * Avanza a la siguiente fila
+         * @return false si no quedan filas
+         */
+        public boolean siguiente() {
+            if (leidas == cantidad) {
+                return false;
+            }
+            if (leidas == 0) {
+                marca = leerBits(64);
+                for (int c = 0; c < valores.length; c++) {
+                    valores[c] = leerBits(64);
+                }
+            } else {
+                delta += leerDeltaDeDeltas();
+                marca += delta;
+                for (int c = 0; c < valores.length; c++) {
+                    leerValor(c);
+                }
+            }
+            leidas++;
+            return true;
+        }
+
+        public long marca() {
+            return marca;
+        }
+
+        public double valor(int columna) {
+            return Double.longBitsToDouble(valores[columna]);
+        }
+
+        private long leerDeltaDeDeltas() {
+            long zigzag;
+            if (leerBits(1) == 0) {
+                return 0;
+            } else if (leerBits(1) == 0) {
+                zigzag = leerBits(8);
+            } else if (leerBits(1) == 0) {
+                zigzag = leerBits(16);
+            } else if (leerBits(1) == 0) {
+                zigzag = leerBits(32);
+            } else {
+                zigzag = leerBits(64);
+            }
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        private void leerValor(int columna) {
+            if (leerBits(1) == 0) {
+                return;
+            }
+            if (leerBits(1) == 1) {
+                cerosIniciales[columna] = (int) leerBits(5);
+                int significativos = (int) leerBits(6) + 1;
+                cerosFinales[columna] = 64 - cerosIniciales[columna] - significativos;
+            }
+            int significativos = 64 - cerosIniciales[columna] - cerosFinales[columna];
+            valores[columna] ^= leerBits(significativos) << cerosFinales[columna];
+        }
+
+        private long leerBits(int cuantos) {
+            int indice = posicion >>> 6;
+            int desplazamiento = posicion & 63;
+            int libres = 64 - desplazamiento;
+            long resultado;
+            if (cuantos <= libres) {
+                resultado = (palabras[indice] << desplazamiento) >>> (64 - cuantos);
+            } else {
+                int resto = cuantos - libres;
+                long alto = palabras[indice] & ((1L << libres) - 1);
+                resultado = (alto << resto) | (palabras[indice + 1] >>> (64 - resto));
+            }
+            posicion += cuantos;
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Cliente bloqueante del protocolo binario de ServidorIngesta
+ * Codifica lotes de lecturas (handle, valor, marca de tiempo) en tramas con prefijo de
+ * longitud sobre un ByteBuffer directo reutilizado, y lee las confirmaciones del servidor
+ * Las tramas pueden enviarse en serie (enviar y esperar) o encadenarse varias antes de
+ * esperar sus confirmaciones, que llegan en el mismo orden
+ * No es thread-safe: cada hilo debe usar su propio cliente
+ */
+public class ClienteIngesta implements Closeable {
+    private final SocketChannel canal;
+    private final ByteBuffer trama;
+    private final ByteBuffer confirmaciones; // en modo lectura
+
+    /**
+     * Constructor que conecta con el servidor
+     * @param direccion Dirección del servidor de ingesta
+     */
+    public ClienteIngesta(InetSocketAddress direccion) throws IOException {
+        this.canal = SocketChannel.open(direccion);
+        this.canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.trama = ByteBuffer.allocateDirect(8 + ServidorIngesta.MAXIMO_LECTURAS_POR_TRAMA * ServidorIngesta.BYTES_POR_LECTURA);
+        this.confirmaciones = ByteBuffer.allocateDirect(1024 * ServidorIngesta.BYTES_CONFIRMACION);
+        this.confirmaciones.flip();
+    }
+
+    /**
+     * Envía una trama con un lote de lecturas
+     * @param handles Handles de los sensores
+     * @param valores Valores medidos (en paralelo con handles)
+     * @param marcasNanos Marcas de tiempo en nanosegundos desde epoch
+     * @param cantidad Número de lecturas a enviar (1..MAXIMO_LECTURAS_POR_TRAMA)
+     */
+    public void enviar(int[] handles, double[] valores, long[] marcasNanos, int cantidad) throws IOException {
+        if (cantidad <= 0 || cantidad > ServidorIngesta.MAXIMO_LECTURAS_POR_TRAMA) {
+            throw new IllegalArgumentException("Una trama lleva entre 1 y " +
+                ServidorIngesta.MAXIMO_LECTURAS_POR_TRAMA + " lecturas: " + cantidad);
+        }
+        trama.clear();
+        trama.putInt(4 + cantidad * ServidorIngesta.BYTES_POR_LECTURA);
+        trama.putInt(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            trama.putInt(handles[i]);
+            trama.putDouble(valores[i]);
+            trama.putLong(marcasNanos[i]);
+        }
+        trama.flip();
+        while (trama.hasRemaining()) {
+            canal.write(trama);
+        }
+    }
+
+    /**
+     * Espera la confirmación de la trama enviada más antigua aún sin confirmar
+     * @return Número de lecturas de esa trama que el servidor aplicó
+     */
+    public int esperarConfirmacion() throws IOException {
+        if (confirmaciones.remaining() < ServidorIngesta.BYTES_CONFIRMACION) {
+            confirmaciones.compact();
+            while (confirmaciones.position() < ServidorIngesta.BYTES_CONFIRMACION) {
+                if (canal.read(confirmaciones) < 0) {
+                    throw new EOFException("El servidor de ingesta cerró la conexión");
+                }
+            }
+            confirmaciones.flip();
+        }
+        return confirmaciones.getInt();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
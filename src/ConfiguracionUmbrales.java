@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Instantánea inmutable de los umbrales de alerta de un motor de monitoreo
+ * Hay umbrales por tipo de sensor y, opcionalmente, por ubicación y por sensor, siempre
+ * calificados con el tipo al que se aplican. Las capas se superponen: los campos del sensor
+ * sobre los de su ubicación y estos sobre los del tipo. La configuración vigente se publica en
+ * una FuenteUmbrales con una única escritura volátil: las estrategias la leen en cada análisis
+ * sin bloqueos y un cambio no requiere reiniciar
+ *
+ * Formato del archivo (java.util.Properties, UTF-8):
+ *   temperatura.critico_alto=80
+ *   humedad.advertencia_bajo=20
+ *   ubicacion.Sala\ de\ Máquinas\ A.temperatura.critico_alto=75
+ *   sensor.TEMP-001.temperatura.advertencia_alto=55
+ * Campos: critico_alto, advertencia_alto, advertencia_bajo, critico_bajo ("NaN" lo desactiva)
+ * Las entradas por ubicación y por sensor solo cambian los campos indicados, y solo para su tipo
+ */
+public final class ConfiguracionUmbrales {
+    private final UmbralesSensor[] porTipo;                  // indexado por ordinal de TipoSensor
+    private final Map<String, UmbralesSensor[]> porUbicacion; // ubicación -> umbrales por tipo ya combinados
+    private final Map<String, Sobrescritura[]> porSensor;     // ID -> campos propios por tipo (null: ninguno)
+
+    /**
+     * Campos propios de un sensor para un tipo; se aplican sobre los umbrales de su ubicación,
+     * que solo se conocen al resolver, y el último resultado se guarda para no recombinar
+     */
+    private static final class Sobrescritura {
+        private final Map<String, Double> campos;
+        private volatile Combinacion ultima;
+
+        Sobrescritura(Map<String, Double> campos) {
+            this.campos = Map.copyOf(campos);
+        }
+
+        UmbralesSensor aplicar(UmbralesSensor base) {
+            Combinacion combinacion = ultima;
+            if (combinacion == null || combinacion.base != base) {
+                UmbralesSensor umbrales = base;
+                for (Map.Entry<String, Double> campo : campos.entrySet()) {
+                    umbrales = umbrales.con(campo.getKey(), campo.getValue());
+                }
+                combinacion = new Combinacion(base, umbrales);
+                ultima = combinacion;
+            }
+            return combinacion.resultado;
+        }
+    }
+
+    private static final class Combinacion {
+        final UmbralesSensor base;
+        final UmbralesSensor resultado;
+
+        Combinacion(UmbralesSensor base, UmbralesSensor resultado) {
+            this.base = base;
+            this.resultado = resultado;
+        }
+    }
+
+    private ConfiguracionUmbrales(UmbralesSensor[] porTipo, Map<String, UmbralesSensor[]> porUbicacion,
+                                  Map<String, Sobrescritura[]> porSensor) {
+        this.porTipo = porTipo;
+        this.porUbicacion = porUbicacion;
+        this.porSensor = porSensor;
+    }
+
+    /**
+     * Obtiene la configuración vigente de la fuente compartida
+     * @return La última configuración publicada en FuenteUmbrales.compartida()
+     */
+    public static ConfiguracionUmbrales obtenerActual() {
+        return FuenteUmbrales.compartida().obtener();
+    }
+
+    /**
+     * Publica una configuración nueva en la fuente compartida; los motores con fuente propia no la ven
+     * @param configuracion La configuración a publicar
+     */
+    public static void publicar(ConfiguracionUmbrales configuracion) {
+        FuenteUmbrales.compartida().publicar(configuracion);
+    }
+
+    /**
+     * Crea la configuración con los umbrales de fábrica de cada tipo de sensor
+     * @return Configuración sin entradas por ubicación ni por sensor
+     */
+    public static ConfiguracionUmbrales porDefecto() {
+        UmbralesSensor sinUmbrales = new UmbralesSensor(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        UmbralesSensor[] porTipo = new UmbralesSensor[TipoSensor.values().length];
+        for (int i = 0; i < porTipo.length; i++) {
+            porTipo[i] = sinUmbrales;
+        }
+        porTipo[TipoSensor.TEMPERATURA.ordinal()] = UmbralesSensor.altos(80.0, 60.0);      // °C
+        porTipo[TipoSensor.VIBRACION.ordinal()] = UmbralesSensor.altos(5.0, 3.0);          // m/s²
+        porTipo[TipoSensor.ENERGIA.ordinal()] = UmbralesSensor.altos(Double.NaN, 1000.0);  // kW
+        porTipo[TipoSensor.CALIDAD_AIRE.ordinal()] = UmbralesSensor.altos(200.0, 100.0);   // AQI
+        porTipo[TipoSensor.HUMEDAD.ordinal()] = new UmbralesSensor(90.0, 80.0, 20.0, 10.0); // %
+        return new ConfiguracionUmbrales(porTipo, Map.of(), Map.of());
+    }
+
+    /**
+     * Carga una configuración desde un archivo de propiedades
+     * Los tipos que el archivo no menciona conservan los umbrales de fábrica
+     * @param archivo Ruta del archivo
+     * @return La configuración leída
+     * @throws IOException si el archivo no se puede leer
+     * @throws IllegalArgumentException si alguna entrada no es válida
+     */
+    public static ConfiguracionUmbrales cargar(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+        return desdePropiedades(propiedades);
+    }
+
+    /**
+     * Crea una configuración a partir de propiedades (ver el formato en la documentación de la clase)
+     * @param propiedades Entradas de umbrales
+     * @return La configuración resultante
+     */
+    public static ConfiguracionUmbrales desdePropiedades(Properties propiedades) {
+        UmbralesSensor[] porTipo = porDefecto().porTipo.clone();
+        Map<String, Map<TipoSensor, Map<String, Double>>> camposUbicacion = new HashMap<>();
+        Map<String, Map<TipoSensor, Map<String, Double>>> camposSensor = new HashMap<>();
+
+        for (String clave : propiedades.stringPropertyNames()) {
+            int ultimoPunto = clave.lastIndexOf('.');
+            if (ultimoPunto <= 0) {
+                throw new IllegalArgumentException("Clave de umbral inválida: " + clave);
+            }
+            String ambito = clave.substring(0, ultimoPunto);
+            String campo = clave.substring(ultimoPunto + 1);
+            double valor = leerValor(clave, propiedades.getProperty(clave));
+
+            if (ambito.startsWith("sensor.")) {
+                agregarCampo(camposSensor, clave, ambito.substring("sensor.".length()), campo, valor);
+            } else if (ambito.startsWith("ubicacion.")) {
+                agregarCampo(camposUbicacion, clave, ambito.substring("ubicacion.".length()), campo, valor);
+            } else {
+                TipoSensor tipo = TipoSensor.desdeCodigo(ambito);
+                if (tipo == TipoSensor.DESCONOCIDO) {
+                    throw new IllegalArgumentException("Tipo de sensor desconocido en " + clave);
+                }
+                porTipo[tipo.ordinal()] = porTipo[tipo.ordinal()].con(campo, valor);
+            }
+        }
+        return new ConfiguracionUmbrales(porTipo, combinar(porTipo, camposUbicacion), agrupar(camposSensor));
+    }
+
+    /**
+     * Obtiene los umbrales que se aplican a un sensor
+     * @param sensor El sensor analizado
+     * @return Umbrales del tipo, con los campos de la ubicación y luego los del sensor encima
+     */
+    public UmbralesSensor resolver(Sensor sensor) {
+        int tipo = sensor.getTipoSensor().ordinal();
+        UmbralesSensor umbrales = porTipo[tipo];
+        if (!porUbicacion.isEmpty()) {
+            UmbralesSensor[] deUbicacion = porUbicacion.get(sensor.getUbicacion());
+            if (deUbicacion != null) {
+                umbrales = deUbicacion[tipo];
+            }
+        }
+        if (!porSensor.isEmpty()) {
+            Sobrescritura[] deSensor = porSensor.get(sensor.getId());
+            if (deSensor != null && deSensor[tipo] != null) {
+                umbrales = deSensor[tipo].aplicar(umbrales);
+            }
+        }
+        return umbrales;
+    }
+
+    /**
+     * Obtiene los umbrales generales de un tipo de sensor
+     * @param tipo Tipo de sensor
+     * @return Umbrales del tipo
+     */
+    public UmbralesSensor obtenerUmbralesTipo(TipoSensor tipo) {
+        return porTipo[tipo.ordinal()];
+    }
+
+    public int obtenerCantidadExcepciones() {
+        return porUbicacion.size() + porSensor.size();
+    }
+
+    /**
+     * Separa el tipo del final de un ámbito ("Sala A.temperatura") y guarda el campo bajo él
+     * El nombre puede contener puntos: el tipo es siempre el último segmento
+     */
+    private static void agregarCampo(Map<String, Map<TipoSensor, Map<String, Double>>> campos, String clave,
+                                     String ambito, String campo, double valor) {
+        int punto = ambito.lastIndexOf('.');
+        TipoSensor tipo = punto > 0 ? TipoSensor.desdeCodigo(ambito.substring(punto + 1)) : TipoSensor.DESCONOCIDO;
+        if (tipo == TipoSensor.DESCONOCIDO) {
+            throw new IllegalArgumentException("Falta el tipo de sensor en " + clave +
+                " (se espera <ámbito>.<nombre>.<tipo>.<campo>)");
+        }
+        campos.computeIfAbsent(ambito.substring(0, punto), nombre -> new EnumMap<>(TipoSensor.class))
+              .computeIfAbsent(tipo, t -> new HashMap<>())
+              .put(campo, valor);
+    }
+
+    /**
+     * Precalcula para cada ubicación los umbrales de todos los tipos, de modo que resolver no
+     * tenga que combinar campos en cada análisis; los tipos no mencionados quedan como el tipo
+     */
+    private static Map<String, UmbralesSensor[]> combinar(UmbralesSensor[] porTipo,
+                                                          Map<String, Map<TipoSensor, Map<String, Double>>> campos) {
+        Map<String, UmbralesSensor[]> combinados = new HashMap<>();
+        for (Map.Entry<String, Map<TipoSensor, Map<String, Double>>> ambito : campos.entrySet()) {
+            UmbralesSensor[] umbrales = porTipo.clone();
+            for (Map.Entry<TipoSensor, Map<String, Double>> deTipo : ambito.getValue().entrySet()) {
+                int i = deTipo.getKey().ordinal();
+                for (Map.Entry<String, Double> campo : deTipo.getValue().entrySet()) {
+                    umbrales[i] = umbrales[i].con(campo.getKey(), campo.getValue());
+                }
+            }
+            combinados.put(ambito.getKey(), umbrales);
+        }
+        return Map.copyOf(combinados);
+    }
+
+    /**
+     * Agrupa los campos propios de cada sensor por tipo, validándolos ya al cargar
+     */
+    private static Map<String, Sobrescritura[]> agrupar(Map<String, Map<TipoSensor, Map<String, Double>>> campos) {
+        UmbralesSensor prueba = new UmbralesSensor(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        Map<String, Sobrescritura[]> agrupados = new HashMap<>();
+        for (Map.Entry<String, Map<TipoSensor, Map<String, Double>>> ambito : campos.entrySet()) {
+            Sobrescritura[] porTipoSensor = new Sobrescritura[TipoSensor.values().length];
+            for (Map.Entry<TipoSensor, Map<String, Double>> deTipo : ambito.getValue().entrySet()) {
+                Sobrescritura sobrescritura = new Sobrescritura(deTipo.getValue());
+                sobrescritura.aplicar(prueba); // un campo desconocido falla aquí y no en el primer análisis
+                porTipoSensor[deTipo.getKey().ordinal()] = sobrescritura;
+            }
+            agrupados.put(ambito.getKey(), porTipoSensor);
+        }
+        return Map.copyOf(agrupados);
+    }
+
+    private static double leerValor(String clave, String texto) {
+        try {
+            return Double.parseDouble(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor de umbral inválido en " + clave + ": " + texto);
+        }
+    }
+}
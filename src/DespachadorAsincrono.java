@@ -0,0 +1,236 @@
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Despachador asíncrono de alertas para un único observador
+ * Cada observador tiene su propia cola acotada y su propio hilo trabajador, de modo que
+ * un observador lento solo retrasa sus propias alertas y nunca la actualización de sensores
+ */
+public class DespachadorAsincrono {
+    private static final String ORIGEN = "DespachadorAsincrono";
+    private static final long ESPERA_DETENCION_MS = 5_000;
+
+    private final ObservadorAlerta observador;
+    private final PoliticaContrapresion politica;
+    private final int capacidad;
+    private final ArrayDeque<Alerta>[] colas; // una por NivelAlerta en modo prioridad, solo colas[0] en modo FIFO
+    private final ReentrantLock cerrojo;
+    private final Condition noVacia;
+    private final Condition noLlena;
+    private final Thread trabajador;
+    private final AtomicLong entregadas;
+    private final AtomicLong descartadas;
+    private volatile int profundidad;
+    private volatile int profundidadMaxima;
+    private volatile boolean entregando; // el trabajador tiene una alerta fuera de la cola y sin entregar
+    private volatile boolean activo;
+
+    /**
+     * Constructor que crea la cola y arranca el hilo trabajador
+     * @param observador El observador al que se entregarán las alertas
+     * @param capacidad Número máximo de alertas pendientes
+     * @param politica Qué hacer cuando la cola está llena
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DespachadorAsincrono(ObservadorAlerta observador, int capacidad, PoliticaContrapresion politica) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.observador = observador;
+        this.politica = politica;
+        this.capacidad = capacidad;
+        int cantidadColas = politica == PoliticaContrapresion.DESCARTAR_POR_PRIORIDAD ? NivelAlerta.values().length : 1;
+        this.colas = new ArrayDeque[cantidadColas];
+        for (int i = 0; i < cantidadColas; i++) {
+            colas[i] = new ArrayDeque<>();
+        }
+        this.cerrojo = new ReentrantLock();
+        this.noVacia = cerrojo.newCondition();
+        this.noLlena = cerrojo.newCondition();
+        this.entregadas = new AtomicLong();
+        this.descartadas = new AtomicLong();
+        this.activo = true;
+        this.trabajador = new Thread(this::procesarCola, "despacho-" + observador.obtenerTipoObservador());
+        this.trabajador.setDaemon(true);
+        this.trabajador.start();
+    }
+
+    /**
+     * Encola una alerta aplicando la política de contrapresión si la cola está llena
+     * @param alerta La alerta a entregar
+     * @return true si la alerta quedó encolada, false si fue descartada
+     */
+    public boolean encolar(Alerta alerta) {
+        int indice = indiceCola(alerta);
+        cerrojo.lock();
+        try {
+            while (profundidad == capacidad) {
+                if (!activo) {
+                    break;
+                }
+                switch (politica) {
+                    case BLOQUEAR:
+                        try {
+                            noLlena.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            descartadas.incrementAndGet();
+                            return false;
+                        }
+                        break;
+                    case DESCARTAR_ANTIGUA:
+                        colas[0].pollFirst();
+                        profundidad--;
+                        descartadas.incrementAndGet();
+                        break;
+                    case DESCARTAR_POR_PRIORIDAD:
+                        int menorPrioridad = indiceMenorPrioridad();
+                        if (menorPrioridad < indice) {
+                            // Todo lo encolado es más importante que la nueva alerta
+                            descartadas.incrementAndGet();
+                            return false;
+                        }
+                        colas[menorPrioridad].pollFirst();
+                        profundidad--;
+                        descartadas.incrementAndGet();
+                        break;
+                }
+            }
+            if (!activo) {
+                descartadas.incrementAndGet();
+                return false;
+            }
+            colas[indice].addLast(alerta);
+            profundidad++;
+            if (profundidad > profundidadMaxima) {
+                profundidadMaxima = profundidad;
+            }
+            noVacia.signal();
+            return true;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Deja de aceptar alertas, entrega las pendientes y espera a que termine el trabajador
+     */
+    public void detener() {
+        cerrojo.lock();
+        try {
+            activo = false;
+            noVacia.signalAll();
+            noLlena.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            trabajador.join(ESPERA_DETENCION_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (trabajador.isAlive()) {
+            RegistroEventos.advertencia(ORIGEN, "⚠️ " + observador.obtenerTipoObservador() + " no terminó de entregar en " +
+                ESPERA_DETENCION_MS + " ms: " + (profundidad + (entregando ? 1 : 0)) + " alertas pendientes");
+        }
+    }
+
+    /**
+     * Espera hasta que la cola quede vacía y la última alerta tomada se haya entregado, o venza el plazo
+     * @param plazo Tiempo máximo de espera
+     * @param unidad Unidad del plazo
+     * @return true si todas las alertas se entregaron a tiempo
+     */
+    public boolean esperarVaciado(long plazo, TimeUnit unidad) throws InterruptedException {
+        long limite = System.nanoTime() + unidad.toNanos(plazo);
+        // entregando se marca antes de descontar profundidad, así que leerlos en este orden no
+        // deja ver una cola vacía sin ver también la alerta que aún se está entregando
+        while (profundidad > 0 || entregando) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    // Getters de métricas
+    public ObservadorAlerta getObservador() {
+        return observador;
+    }
+
+    public int obtenerProfundidad() {
+        return profundidad;
+    }
+
+    public int obtenerProfundidadMaxima() {
+        return profundidadMaxima;
+    }
+
+    public long obtenerEntregadas() {
+        return entregadas.get();
+    }
+
+    public long obtenerDescartadas() {
+        return descartadas.get();
+    }
+
+    /**
+     * Bucle del hilo trabajador: toma alertas (las más prioritarias primero) y las entrega
+     */
+    private void procesarCola() {
+        while (true) {
+            Alerta alerta;
+            cerrojo.lock();
+            try {
+                while (profundidad == 0) {
+                    if (!activo) {
+                        return;
+                    }
+                    noVacia.awaitUninterruptibly();
+                }
+                alerta = siguienteAlerta();
+                entregando = true;
+                profundidad--;
+                noLlena.signal();
+            } finally {
+                cerrojo.unlock();
+            }
+
+            try {
+                observador.actualizar(alerta);
+            } catch (Exception e) {
+                RegistroEventos.error(ORIGEN, "❌ Error notificando observador " +
+                    observador.obtenerTipoObservador() + ": " + e.getMessage());
+            }
+            entregadas.incrementAndGet();
+            entregando = false;
+        }
+    }
+
+    private Alerta siguienteAlerta() {
+        for (ArrayDeque<Alerta> cola : colas) {
+            if (!cola.isEmpty()) {
+                return cola.pollFirst();
+            }
+        }
+        return null;
+    }
+
+    private int indiceMenorPrioridad() {
+        for (int i = colas.length - 1; i >= 0; i--) {
+            if (!colas[i].isEmpty()) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private int indiceCola(Alerta alerta) {
+        // NivelAlerta está ordenado de mayor (CRITICO) a menor criticidad
+        return colas.length == 1 ? 0 : alerta.getNivel().ordinal();
+    }
+}
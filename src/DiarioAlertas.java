@@ -0,0 +1,337 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Diario persistente de alertas de solo anexado (write-ahead log)
+ * Escribe cada alerta como un registro binario compacto en segmentos de tamaño fijo mapeados
+ * en memoria, rota al llenarse un segmento, conserva solo los segmentos más recientes y permite
+ * reproducir las alertas tras un reinicio
+ *
+ * Formato de segmento: [int MAGIA][int VERSION] seguido de registros
+ * Formato de registro: [int longitud][int crc32] y la carga útil
+ * [long secuencia][long marcaNanos][byte nivel][short longitudId][id UTF-8][int longitudMensaje][mensaje UTF-8]
+ * Una longitud 0 marca el final de los datos escritos del segmento
+ */
+public class DiarioAlertas implements Closeable {
+    private static final int MAGIA = 0x494F5441; // "IOTA"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 8;
+    private static final int TAMANO_CABECERA_REGISTRO = 8;
+    private static final String PREFIJO_SEGMENTO = "alertas-";
+    private static final String EXTENSION_SEGMENTO = ".seg";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final int maximoSegmentos;
+    private final PoliticaSincronizacion politica;
+    private final ScheduledExecutorService sincronizador;
+    private final CRC32 crc;
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private Path rutaSegmento;
+    private long siguienteSecuencia;
+    private boolean pendienteSincronizar;
+    private boolean cerrado;
+
+    /**
+     * Abre (o crea) el diario en un directorio y continúa escribiendo tras el último registro válido
+     * @param directorio Directorio de los segmentos
+     * @param tamanoSegmento Tamaño de cada segmento en bytes
+     * @param maximoSegmentos Número de segmentos a conservar (los más antiguos se borran al rotar)
+     * @param politica Política de sincronización a disco
+     * @param intervaloGrupoMs Intervalo entre sincronizaciones con la política GRUPO
+     */
+    public DiarioAlertas(Path directorio, int tamanoSegmento, int maximoSegmentos,
+                         PoliticaSincronizacion politica, long intervaloGrupoMs) throws IOException {
+        if (tamanoSegmento <= TAMANO_CABECERA + TAMANO_CABECERA_REGISTRO) {
+            throw new IllegalArgumentException("Tamaño de segmento demasiado pequeño: " + tamanoSegmento);
+        }
+        if (maximoSegmentos <= 0) {
+            throw new IllegalArgumentException("Se debe conservar al menos un segmento: " + maximoSegmentos);
+        }
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.maximoSegmentos = maximoSegmentos;
+        this.politica = politica;
+        this.crc = new CRC32();
+        Files.createDirectories(directorio);
+        recuperar();
+
+        if (politica == PoliticaSincronizacion.GRUPO) {
+            this.sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "diario-alertas-fsync");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            sincronizador.scheduleWithFixedDelay(this::sincronizarPendientes,
+                intervaloGrupoMs, intervaloGrupoMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.sincronizador = null;
+        }
+    }
+
+    /**
+     * Anexa una alerta al diario
+     * @param alerta La alerta a persistir
+     * @return Número de secuencia asignado al registro
+     */
+    public synchronized long agregar(Alerta alerta) throws IOException {
+        if (cerrado) {
+            throw new IOException("El diario de alertas está cerrado");
+        }
+        byte[] id = alerta.getIdSensor().getBytes(StandardCharsets.UTF_8);
+        byte[] mensaje = alerta.getMensaje().getBytes(StandardCharsets.UTF_8);
+        int longitudCarga = 8 + 8 + 1 + 2 + id.length + 4 + mensaje.length;
+        int longitudRegistro = TAMANO_CABECERA_REGISTRO + longitudCarga;
+        // Se reservan 4 bytes para que siempre quepa la marca de fin (longitud 0), también en un
+        // segmento vacío: así la alerta se rechaza antes de consumir secuencia o escribir nada
+        if (id.length > Short.MAX_VALUE || TAMANO_CABECERA + longitudRegistro + 4 > tamanoSegmento) {
+            throw new IOException("Alerta demasiado grande para un segmento de " + tamanoSegmento + " bytes");
+        }
+        if (segmento.remaining() < longitudRegistro + 4) {
+            rotar();
+        }
+
+        long secuencia = siguienteSecuencia++;
+        int inicio = segmento.position();
+        segmento.position(inicio + TAMANO_CABECERA_REGISTRO);
+        segmento.putLong(secuencia);
+        segmento.putLong(alerta.getMarcaNanos());
+        segmento.put((byte) alerta.getNivel().ordinal());
+        segmento.putShort((short) id.length);
+        segmento.put(id);
+        segmento.putInt(mensaje.length);
+        segmento.put(mensaje);
+        int fin = segmento.position();
+
+        crc.reset();
+        crc.update(segmento.duplicate().position(inicio + TAMANO_CABECERA_REGISTRO).limit(fin));
+        // La longitud se escribe al final: un registro a medio escribir se lee como fin de datos
+        segmento.putInt(fin, 0);
+        segmento.putInt(inicio + 4, (int) crc.getValue());
+        segmento.putInt(inicio, longitudCarga);
+
+        if (politica == PoliticaSincronizacion.CADA_REGISTRO) {
+            segmento.force();
+        } else {
+            pendienteSincronizar = true;
+        }
+        return secuencia;
+    }
+
+    /**
+     * Fuerza a disco todo lo escrito hasta ahora
+     */
+    public synchronized void sincronizar() {
+        if (!cerrado) {
+            segmento.force();
+            pendienteSincronizar = false;
+        }
+    }
+
+    /**
+     * Obtiene la ruta del segmento en el que se está escribiendo
+     * @return Ruta del segmento activo
+     */
+    public synchronized Path obtenerSegmentoActual() {
+        return rutaSegmento;
+    }
+
+    /**
+     * Obtiene el número de secuencia que recibirá la próxima alerta
+     * @return Siguiente número de secuencia
+     */
+    public synchronized long obtenerSiguienteSecuencia() {
+        return siguienteSecuencia;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sincronizador != null) {
+            sincronizador.shutdown();
+        }
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            segmento.force();
+            canal.close();
+            cerrado = true;
+        }
+    }
+
+    /**
+     * Reproduce en orden las alertas persistidas en los segmentos de este diario
+     * @param consumidor Recibe cada alerta reconstruida
+     * @return Número de alertas reproducidas
+     */
+    public long reproducir(Consumer<Alerta> consumidor) throws IOException {
+        return reproducir(directorio, consumidor);
+    }
+
+    /**
+     * Reproduce en orden todas las alertas válidas de los segmentos de un directorio
+     * La lectura se detiene en cada segmento al encontrar la marca de fin o un registro corrupto
+     * @param directorio Directorio de los segmentos
+     * @param consumidor Recibe cada alerta reconstruida
+     * @return Número de alertas reproducidas
+     */
+    public static long reproducir(Path directorio, Consumer<Alerta> consumidor) throws IOException {
+        long reproducidas = 0;
+        CRC32 crcLectura = new CRC32();
+        for (Path ruta : listarSegmentos(directorio)) {
+            try (FileChannel canalLectura = FileChannel.open(ruta, StandardOpenOption.READ)) {
+                MappedByteBuffer datos = canalLectura.map(FileChannel.MapMode.READ_ONLY, 0, canalLectura.size());
+                if (!cabeceraValida(datos)) {
+                    continue;
+                }
+                datos.position(TAMANO_CABECERA);
+                while (siguienteRegistroValido(datos, crcLectura) > 0) {
+                    datos.getLong(); // secuencia
+                    long marcaNanos = datos.getLong();
+                    NivelAlerta nivel = NivelAlerta.values()[datos.get()];
+                    byte[] id = new byte[datos.getShort()];
+                    datos.get(id);
+                    byte[] mensaje = new byte[datos.getInt()];
+                    datos.get(mensaje);
+                    consumidor.accept(new Alerta(new String(id, StandardCharsets.UTF_8),
+                        new String(mensaje, StandardCharsets.UTF_8), nivel, new Date(marcaNanos / 1_000_000L)));
+                    reproducidas++;
+                }
+            }
+        }
+        return reproducidas;
+    }
+
+    /**
+     * Localiza el último segmento y se posiciona tras su último registro válido
+     */
+    private void recuperar() throws IOException {
+        List<Path> segmentos = listarSegmentos(directorio);
+        if (segmentos.isEmpty()) {
+            abrirSegmento(0);
+            return;
+        }
+        Path ultimo = segmentos.get(segmentos.size() - 1);
+        this.rutaSegmento = ultimo;
+        this.canal = FileChannel.open(ultimo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(canal.size(), tamanoSegmento));
+        if (!cabeceraValida(segmento)) {
+            segmento.putInt(0, MAGIA);
+            segmento.putInt(4, VERSION);
+        }
+        this.siguienteSecuencia = primeraSecuencia(ultimo);
+        segmento.position(TAMANO_CABECERA);
+        int longitud;
+        while ((longitud = siguienteRegistroValido(segmento, crc)) > 0) {
+            siguienteSecuencia = segmento.getLong() + 1;
+            segmento.position(segmento.position() - 8 + longitud);
+        }
+        // Borrar una posible cola corrupta para que no se confunda con datos válidos
+        if (segmento.remaining() >= 4) {
+            segmento.putInt(segmento.position(), 0);
+        }
+    }
+
+    /**
+     * Cierra el segmento activo y abre uno nuevo, aplicando la retención
+     */
+    private void rotar() throws IOException {
+        if (segmento.position() == TAMANO_CABECERA) {
+            // Sin registros: el segmento nuevo tendría el mismo nombre (misma primera secuencia)
+            throw new IOException("Alerta demasiado grande para un segmento vacío de " + tamanoSegmento + " bytes");
+        }
+        segmento.force();
+        canal.close();
+        abrirSegmento(siguienteSecuencia);
+
+        List<Path> segmentos = listarSegmentos(directorio);
+        for (int i = 0; i < segmentos.size() - maximoSegmentos; i++) {
+            Files.deleteIfExists(segmentos.get(i));
+        }
+    }
+
+    private void abrirSegmento(long primeraSecuencia) throws IOException {
+        this.rutaSegmento = directorio.resolve(String.format("%s%020d%s", PREFIJO_SEGMENTO, primeraSecuencia, EXTENSION_SEGMENTO));
+        this.canal = FileChannel.open(rutaSegmento, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        segmento.putInt(MAGIA);
+        segmento.putInt(VERSION);
+        this.siguienteSecuencia = primeraSecuencia;
+    }
+
+    private void sincronizarPendientes() {
+        synchronized (this) {
+            if (pendienteSincronizar && !cerrado) {
+                segmento.force();
+                pendienteSincronizar = false;
+            }
+        }
+    }
+
+    /**
+     * Valida el registro en la posición actual y deja el buffer al inicio de su carga útil
+     * @return Longitud de la carga útil, o 0 si no hay más registros válidos
+     */
+    private static int siguienteRegistroValido(ByteBuffer datos, CRC32 crcLectura) {
+        if (datos.remaining() < TAMANO_CABECERA_REGISTRO) {
+            return 0;
+        }
+        int inicio = datos.position();
+        int longitud = datos.getInt(inicio);
+        if (longitud <= 0 || longitud > datos.remaining() - TAMANO_CABECERA_REGISTRO) {
+            return 0;
+        }
+        int crcEsperado = datos.getInt(inicio + 4);
+        int inicioCarga = inicio + TAMANO_CABECERA_REGISTRO;
+        crcLectura.reset();
+        crcLectura.update(datos.duplicate().position(inicioCarga).limit(inicioCarga + longitud));
+        if ((int) crcLectura.getValue() != crcEsperado) {
+            return 0;
+        }
+        datos.position(inicioCarga);
+        return longitud;
+    }
+
+    private static boolean cabeceraValida(ByteBuffer datos) {
+        return datos.limit() >= TAMANO_CABECERA && datos.getInt(0) == MAGIA && datos.getInt(4) == VERSION;
+    }
+
+    private static long primeraSecuencia(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length()));
+    }
+
+    private static List<Path> listarSegmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                .filter(ruta -> {
+                    String nombre = ruta.getFileName().toString();
+                    return nombre.startsWith(PREFIJO_SEGMENTO) && nombre.endsWith(EXTENSION_SEGMENTO);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.Map;
+
+/**
+ * Estrategia compuesta que enruta cada lectura a la estrategia de su tipo de sensor
+ * Implementa el patrón Strategy - permite analizar flotas mixtas de sensores con una
+ * sola estrategia activa, despachando en O(1) por el ordinal de TipoSensor
+ * La tabla de estrategias es inmutable y se reemplaza atómicamente en tiempo de ejecución
+ */
+public class EnrutadorEstrategias implements EstrategiaAnalisis {
+    private volatile EstrategiaAnalisis[] tabla;
+
+    /**
+     * Constructor que crea un enrutador sin estrategias asignadas
+     */
+    public EnrutadorEstrategias() {
+        this.tabla = new EstrategiaAnalisis[TipoSensor.values().length];
+    }
+
+    /**
+     * Crea un enrutador con la estrategia concreta de cada tipo de sensor conocido
+     * @return Enrutador configurado para temperatura, vibración, energía, calidad del aire y humedad
+     */
+    public static EnrutadorEstrategias porDefecto() {
+        return porDefecto(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Crea un enrutador con la estrategia concreta de cada tipo de sensor conocido
+     * @param umbrales Fuente de umbrales que leen todas sus estrategias
+     * @return Enrutador configurado para temperatura, vibración, energía, calidad del aire y humedad
+     */
+    public static EnrutadorEstrategias porDefecto(FuenteUmbrales umbrales) {
+        EnrutadorEstrategias enrutador = new EnrutadorEstrategias();
+        EstrategiaAnalisis[] tablaInicial = new EstrategiaAnalisis[TipoSensor.values().length];
+        tablaInicial[TipoSensor.TEMPERATURA.ordinal()] = new EstrategiaAnalisisTemperatura(umbrales);
+        tablaInicial[TipoSensor.VIBRACION.ordinal()] = new EstrategiaAnalisisVibracion(umbrales);
+        tablaInicial[TipoSensor.ENERGIA.ordinal()] = new EstrategiaAnalisisEnergia(umbrales);
+        tablaInicial[TipoSensor.CALIDAD_AIRE.ordinal()] = new EstrategiaAnalisisCalidadAire(umbrales);
+        tablaInicial[TipoSensor.HUMEDAD.ordinal()] = new EstrategiaAnalisisHumedad(umbrales);
+        enrutador.tabla = tablaInicial;
+        return enrutador;
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        EstrategiaAnalisis estrategia = tabla[sensor.getTipoSensor().ordinal()];
+        return estrategia != null ? estrategia.analizar(sensor, lectura) : null;
+    }
+
+    /**
+     * Descarta el estado del sensor en las estrategias de todos los tipos
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        for (EstrategiaAnalisis estrategia : tabla) {
+            if (estrategia != null) {
+                estrategia.olvidar(idSensor);
+            }
+        }
+    }
+
+    /**
+     * Asigna (o quita, con null) la estrategia de un tipo de sensor
+     * Publica una copia nueva de la tabla, de modo que los lectores nunca ven un estado intermedio
+     * @param tipo Tipo de sensor
+     * @param estrategia Estrategia a usar para ese tipo, o null para no analizarlo
+     */
+    public synchronized void asignarEstrategia(TipoSensor tipo, EstrategiaAnalisis estrategia) {
+        EstrategiaAnalisis[] nuevaTabla = tabla.clone();
+        nuevaTabla[tipo.ordinal()] = estrategia;
+        tabla = nuevaTabla;
+    }
+
+    /**
+     * Reemplaza atómicamente toda la tabla de estrategias
+     * @param estrategias Estrategia por tipo de sensor (los tipos ausentes no se analizan)
+     */
+    public synchronized void reemplazarTabla(Map<TipoSensor, EstrategiaAnalisis> estrategias) {
+        EstrategiaAnalisis[] nuevaTabla = new EstrategiaAnalisis[TipoSensor.values().length];
+        for (Map.Entry<TipoSensor, EstrategiaAnalisis> entrada : estrategias.entrySet()) {
+            nuevaTabla[entrada.getKey().ordinal()] = entrada.getValue();
+        }
+        tabla = nuevaTabla;
+    }
+
+    /**
+     * Obtiene la estrategia asignada a un tipo de sensor
+     * @param tipo Tipo de sensor
+     * @return La estrategia asignada, o null si el tipo no se analiza
+     */
+    public EstrategiaAnalisis obtenerEstrategia(TipoSensor tipo) {
+        return tabla[tipo.ordinal()];
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Agregados incrementales de los sensores de un mismo tipo
+ * Mantiene cantidad, suma y suma de cuadrados de los valores actuales (con suma compensada
+ * para no acumular error de redondeo), de modo que las estadísticas se obtienen en O(1) sin
+ * recorrer los sensores
+ * También mantiene el mínimo y el máximo de los valores actuales mientras se puede: si el
+ * sensor que tenía un extremo se aleja de él o se retira, los extremos quedan invalidados y
+ * quien los consulta debe recalcularlos recorriendo los sensores (ver establecerExtremos)
+ */
+public class EstadisticasTipo {
+    private int cantidad;
+    private double suma;
+    private double compensacionSuma;
+    private double sumaCuadrados;
+    private double compensacionCuadrados;
+    private double minimo = Double.NaN;
+    private double maximo = Double.NaN;
+    private boolean extremosVigentes = true;
+    private long version; // cambia con cada modificación, para validar un recálculo de extremos
+
+    /**
+     * Incorpora un sensor nuevo con su valor actual
+     * @param valor Valor actual del sensor
+     */
+    public synchronized void agregar(double valor) {
+        cantidad++;
+        version++;
+        sumar(valor);
+        if (extremosVigentes) {
+            incluirEnExtremos(valor);
+        }
+    }
+
+    /**
+     * Retira un sensor con su valor actual
+     * @param valor Valor actual del sensor
+     */
+    public synchronized void quitar(double valor) {
+        cantidad--;
+        version++;
+        if (cantidad == 0) {
+            // Sin sensores: reiniciar para descartar el error acumulado y los extremos antiguos
+            suma = compensacionSuma = sumaCuadrados = compensacionCuadrados = 0.0;
+            minimo = maximo = Double.NaN;
+            extremosVigentes = true;
+        } else {
+            suma = sumaCompensada(suma, -valor, true);
+            sumaCuadrados = sumaCompensada(sumaCuadrados, -(valor * valor), false);
+            if (valor == minimo || valor == maximo) {
+                extremosVigentes = false; // quizá era el único sensor con ese extremo
+            }
+        }
+    }
+
+    /**
+     * Reemplaza el valor de un sensor ya incorporado
+     * @param anterior Valor previo del sensor
+     * @param nuevo Valor nuevo del sensor
+     */
+    public synchronized void reemplazar(double anterior, double nuevo) {
+        double delta = nuevo - anterior;
+        version++;
+        suma = sumaCompensada(suma, delta, true);
+        sumaCuadrados = sumaCompensada(sumaCuadrados, nuevo * nuevo - anterior * anterior, false);
+        if (extremosVigentes) {
+            if ((anterior == minimo && nuevo > anterior) || (anterior == maximo && nuevo < anterior)) {
+                extremosVigentes = false; // el sensor se aleja del extremo que tenía
+            } else {
+                incluirEnExtremos(nuevo);
+            }
+        }
+    }
+
+    public synchronized int obtenerCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la media de los valores actuales
+     * @return La media, o 0.0 si no hay sensores
+     */
+    public synchronized double obtenerPromedio() {
+        return cantidad > 0 ? (suma + compensacionSuma) / cantidad : 0.0;
+    }
+
+    /**
+     * Obtiene la varianza poblacional de los valores actuales
+     * @return La varianza, o 0.0 si no hay sensores
+     */
+    public synchronized double obtenerVarianza() {
+        if (cantidad == 0) {
+            return 0.0;
+        }
+        double media = (suma + compensacionSuma) / cantidad;
+        return Math.max(0.0, (sumaCuadrados + compensacionCuadrados) / cantidad - media * media);
+    }
+
+    /**
+     * Indica si el mínimo y el máximo corresponden a los valores actuales
+     * @return false si deben recalcularse recorriendo los sensores del tipo
+     */
+    public synchronized boolean extremosVigentes() {
+        return extremosVigentes;
+    }
+
+    /**
+     * Obtiene la versión de los agregados, que cambia con cada modificación
+     * @return Versión a pasar a establecerExtremos tras recorrer los sensores
+     */
+    public synchronized long obtenerVersion() {
+        return version;
+    }
+
+    /**
+     * Fija los extremos recalculados recorriendo los sensores del tipo
+     * Solo se aceptan si no hubo modificaciones desde que se obtuvo la versión
+     * @param minimo Menor valor actual
+     * @param maximo Mayor valor actual
+     * @param versionRecorrido Versión obtenida antes de recorrer los sensores
+     * @return true si los extremos quedaron vigentes
+     */
+    public synchronized boolean establecerExtremos(double minimo, double maximo, long versionRecorrido) {
+        if (versionRecorrido != version) {
+            return false;
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.extremosVigentes = true;
+        return true;
+    }
+
+    /**
+     * Obtiene el menor valor actual
+     * @return El mínimo (solo válido si extremosVigentes()), o NaN si no hay sensores
+     */
+    public synchronized double obtenerMinimo() {
+        return minimo;
+    }
+
+    /**
+     * Obtiene el mayor valor actual
+     * @return El máximo (solo válido si extremosVigentes()), o NaN si no hay sensores
+     */
+    public synchronized double obtenerMaximo() {
+        return maximo;
+    }
+
+    private void sumar(double valor) {
+        suma = sumaCompensada(suma, valor, true);
+        sumaCuadrados = sumaCompensada(sumaCuadrados, valor * valor, false);
+    }
+
+    /**
+     * Suma de Neumaier: acumula en la compensación la parte que se pierde por redondeo
+     */
+    private double sumaCompensada(double acumulado, double valor, boolean esSuma) {
+        double resultado = acumulado + valor;
+        double perdida = Math.abs(acumulado) >= Math.abs(valor)
+            ? (acumulado - resultado) + valor
+            : (valor - resultado) + acumulado;
+        if (esSuma) {
+            compensacionSuma += perdida;
+        } else {
+            compensacionCuadrados += perdida;
+        }
+        return resultado;
+    }
+
+    private void incluirEnExtremos(double valor) {
+        if (!(valor >= minimo)) {
+            minimo = valor;
+        }
+        if (!(valor <= maximo)) {
+            maximo = valor;
+        }
+    }
+}
@@ -2,13 +2,34 @@
  * Interfaz que define el contrato para estrategias de análisis de datos de sensores
  * Implementa el patrón Strategy - permite definir diferentes algoritmos de análisis
  * que pueden ser intercambiados dinámicamente según el tipo de sensor
+ * Cada análisis recibe la lectura concreta a evaluar, de modo que una lectura se analiza
+ * con su propio valor aunque el sensor ya haya recibido otra (lotes, análisis diferido)
  */
 public interface EstrategiaAnalisis {
-    
+
     /**
-     * Analiza los datos de un sensor y determina si debe generar una alerta
+     * Analiza una lectura de un sensor y determina si debe generar una alerta
+     * @param sensor El sensor que produjo la lectura (tipo, ID y ubicación)
+     * @param lectura La lectura a analizar (valor, marca de tiempo y secuencia)
+     * @return Una Alerta si se detecta una anomalía, null en caso contrario
+     */
+    Alerta analizar(Sensor sensor, LecturaSensor lectura);
+
+    /**
+     * Analiza la última lectura de un sensor
      * @param sensor El sensor cuyos datos se van a analizar
      * @return Una Alerta si se detecta una anomalía, null en caso contrario
      */
-    Alerta analizar(Sensor sensor);
+    default Alerta analizar(Sensor sensor) {
+        return analizar(sensor, sensor.obtenerLectura());
+    }
+
+    /**
+     * Descarta lo aprendido de un sensor que se retira o se reemplaza, para que no quede
+     * memoria retenida ni un sensor nuevo con el mismo ID herede la línea base del anterior
+     * Las estrategias sin estado por sensor no hacen nada
+     * @param idSensor ID del sensor
+     */
+    default void olvidar(String idSensor) {
+    }
 }
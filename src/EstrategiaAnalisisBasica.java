@@ -6,7 +6,7 @@
 public class EstrategiaAnalisisBasica implements EstrategiaAnalisis {
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Estrategia básica que no genera alertas
         // Útil para desactivar temporalmente el análisis
         return null;
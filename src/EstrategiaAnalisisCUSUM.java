@@ -0,0 +1,147 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estrategia de detección de cambios de nivel con CUSUM bilateral
+ * Implementa el patrón Strategy - estima el nivel de referencia y la dispersión de cada
+ * sensor durante un calentamiento y acumula después las desviaciones que superan una
+ * holgura k; cuando una suma supera el límite h hay un cambio sostenido (aunque cada
+ * lectura por separado parezca normal) y la suma se reinicia
+ * Estado O(1) por sensor y coste constante por lectura
+ */
+public class EstrategiaAnalisisCUSUM implements EstrategiaConEstado {
+    private final TipoSensor tipo;
+    private final double holguraSigmas;
+    private final double limiteSigmas;
+    private final int lecturasCalentamiento;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Estado incremental de un sensor
+     */
+    private static class Estado {
+        long ultimaSecuencia = -1; // secuencia de la última lectura analizada
+        long lecturas;
+        double media;      // nivel de referencia (Welford durante el calentamiento)
+        double m2;
+        double holgura;    // k en unidades del sensor
+        double limite;     // h en unidades del sensor
+        double sumaAlta;
+        double sumaBaja;
+    }
+
+    /**
+     * Constructor de la estrategia
+     * @param tipo Tipo de sensor a analizar, o null para analizar todos
+     * @param holguraSigmas Holgura k en desviaciones típicas (habitualmente 0.5)
+     * @param limiteSigmas Límite h en desviaciones típicas (habitualmente 4 o 5)
+     * @param lecturasCalentamiento Lecturas usadas para estimar el nivel de referencia (al menos 2)
+     */
+    public EstrategiaAnalisisCUSUM(TipoSensor tipo, double holguraSigmas, double limiteSigmas, int lecturasCalentamiento) {
+        if (!(holguraSigmas >= 0.0 && limiteSigmas > 0.0)) {
+            throw new IllegalArgumentException("Holgura y límite inválidos: " + holguraSigmas + ", " + limiteSigmas);
+        }
+        if (lecturasCalentamiento < 2) {
+            throw new IllegalArgumentException("El calentamiento necesita al menos 2 lecturas: " + lecturasCalentamiento);
+        }
+        this.tipo = tipo;
+        this.holguraSigmas = holguraSigmas;
+        this.limiteSigmas = limiteSigmas;
+        this.lecturasCalentamiento = lecturasCalentamiento;
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        if (tipo != null && sensor.getTipoSensor() != tipo) {
+            return null;
+        }
+        Estado estado = estados.computeIfAbsent(sensor.getId(), id -> new Estado());
+        double valor = lectura.getValor();
+        boolean haciaArriba;
+        double referencia;
+        synchronized (estado) {
+            // La secuencia identifica la lectura: dos lecturas en el mismo milisegundo son distintas
+            long secuencia = lectura.getSecuencia();
+            if (secuencia == estado.ultimaSecuencia) {
+                return null; // lectura ya analizada (por ejemplo, en un barrido)
+            }
+            estado.ultimaSecuencia = secuencia;
+            estado.lecturas++;
+
+            if (estado.lecturas <= lecturasCalentamiento) {
+                double diferencia = valor - estado.media;
+                estado.media += diferencia / estado.lecturas;
+                estado.m2 += diferencia * (valor - estado.media);
+                if (estado.lecturas == lecturasCalentamiento) {
+                    double sigma = Math.sqrt(estado.m2 / (estado.lecturas - 1));
+                    if (sigma == 0.0) {
+                        sigma = Math.max(Math.abs(estado.media) * 1e-3, 1e-9); // señal constante
+                    }
+                    estado.holgura = holguraSigmas * sigma;
+                    estado.limite = limiteSigmas * sigma;
+                }
+                return null;
+            }
+
+            estado.sumaAlta = Math.max(0.0, estado.sumaAlta + (valor - estado.media - estado.holgura));
+            estado.sumaBaja = Math.max(0.0, estado.sumaBaja + (estado.media - valor - estado.holgura));
+            if (estado.sumaAlta <= estado.limite && estado.sumaBaja <= estado.limite) {
+                return null;
+            }
+            haciaArriba = estado.sumaAlta > estado.limite;
+            referencia = estado.media;
+            estado.sumaAlta = 0.0;
+            estado.sumaBaja = 0.0;
+        }
+
+        return new Alerta(sensor, haciaArriba ? PlantillaAlerta.CAMBIO_NIVEL_ALZA : PlantillaAlerta.CAMBIO_NIVEL_BAJA,
+            valor, referencia, Double.NaN);
+    }
+
+    @Override
+    public int obtenerPalabrasEstado() {
+        return 8;
+    }
+
+    @Override
+    public boolean exportarEstado(String idSensor, long[] destino) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return false;
+        }
+        synchronized (estado) {
+            destino[0] = estado.ultimaSecuencia;
+            destino[1] = estado.lecturas;
+            destino[2] = Double.doubleToRawLongBits(estado.media);
+            destino[3] = Double.doubleToRawLongBits(estado.m2);
+            destino[4] = Double.doubleToRawLongBits(estado.holgura);
+            destino[5] = Double.doubleToRawLongBits(estado.limite);
+            destino[6] = Double.doubleToRawLongBits(estado.sumaAlta);
+            destino[7] = Double.doubleToRawLongBits(estado.sumaBaja);
+        }
+        return true;
+    }
+
+    @Override
+    public void importarEstado(String idSensor, long[] origen) {
+        Estado estado = new Estado();
+        estado.ultimaSecuencia = origen[0];
+        estado.lecturas = origen[1];
+        estado.media = Double.longBitsToDouble(origen[2]);
+        estado.m2 = Double.longBitsToDouble(origen[3]);
+        estado.holgura = Double.longBitsToDouble(origen[4]);
+        estado.limite = Double.longBitsToDouble(origen[5]);
+        estado.sumaAlta = Double.longBitsToDouble(origen[6]);
+        estado.sumaBaja = Double.longBitsToDouble(origen[7]);
+        estados.put(idSensor, estado);
+    }
+
+    /**
+     * Descarta el estado de un sensor (se vuelve a calentar con sus próximas lecturas)
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        estados.remove(idSensor);
+    }
+}
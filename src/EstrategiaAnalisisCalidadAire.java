@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * Estrategia concreta para análisis de sensores de calidad del aire
  * Implementa el patrón Strategy - define algoritmos específicos para detectar
@@ -7,31 +5,41 @@ import java.util.Date;
  */
 public class EstrategiaAnalisisCalidadAire implements EstrategiaAnalisis {
     
-    // Umbrales de calidad del aire (índice de calidad del aire)
-    private static final double UMBRAL_CRITICO = 200.0;  // AQI > 200 (muy insalubre)
-    private static final double UMBRAL_ADVERTENCIA = 100.0; // AQI > 100 (insalubre)
+    // Umbrales configurables: se leen de la fuente en cada análisis
+    private final FuenteUmbrales umbralesVigentes;
+
+    /**
+     * Constructor que lee los umbrales de la fuente compartida del sistema
+     */
+    public EstrategiaAnalisisCalidadAire() {
+        this(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que lee los umbrales de una fuente propia (la de un motor de monitoreo)
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisCalidadAire(FuenteUmbrales umbralesVigentes) {
+        this.umbralesVigentes = umbralesVigentes;
+    }
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Solo analizar sensores de calidad del aire
-        if (!"calidad_aire".equals(sensor.getTipo())) {
+        if (sensor.getTipoSensor() != TipoSensor.CALIDAD_AIRE) {
             return null;
         }
         
-        double valor = sensor.getValor();
-        Date fechaHora = new Date();
+        double valor = lectura.getValor();
+        UmbralesSensor umbrales = umbralesVigentes.obtener().resolver(sensor);
         
         // Verificar calidad del aire crítica
-        if (valor > UMBRAL_CRITICO) {
-            return new Alerta(sensor.getId(),
-                "🌫️ CALIDAD DEL AIRE CRÍTICA: AQI " + valor + " en " + sensor.getUbicacion(),
-                NivelAlerta.CRITICO, fechaHora);
+        if (valor > umbrales.getCriticoAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.CALIDAD_AIRE_CRITICA, valor, umbrales.getCriticoAlto(), Double.NaN);
         } 
         // Verificar calidad del aire insalubre
-        else if (valor > UMBRAL_ADVERTENCIA) {
-            return new Alerta(sensor.getId(),
-                "⚠️ Calidad del aire insalubre: AQI " + valor + " en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        else if (valor > umbrales.getAdvertenciaAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.CALIDAD_AIRE_INSALUBRE, valor, umbrales.getAdvertenciaAlto(), Double.NaN);
         }
         
         // No hay alerta si la calidad del aire está dentro de rangos normales
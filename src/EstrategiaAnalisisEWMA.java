@@ -0,0 +1,146 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estrategia de desviación respecto a la media móvil exponencial (EWMA) de cada sensor
+ * Implementa el patrón Strategy - mantiene por sensor la media y la varianza exponenciales
+ * y alerta cuando una lectura se aleja de su comportamiento reciente más de k desviaciones
+ * Estado O(1) por sensor y coste constante por lectura
+ */
+public class EstrategiaAnalisisEWMA implements EstrategiaConEstado {
+    private final TipoSensor tipo;
+    private final double alfa;
+    private final double desviacionesAdvertencia;
+    private final double desviacionesCritico;
+    private final int lecturasCalentamiento;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Estado incremental de un sensor
+     */
+    private static class Estado {
+        long ultimaSecuencia = -1; // secuencia de la última lectura analizada
+        long lecturas;
+        double media;
+        double varianza;
+    }
+
+    /**
+     * Constructor de la estrategia
+     * @param tipo Tipo de sensor a analizar, o null para analizar todos
+     * @param alfa Peso de la lectura nueva (0 &lt; alfa &lt;= 1); más alto reacciona antes
+     * @param desviacionesAdvertencia Desviaciones típicas a partir de las que hay advertencia
+     * @param desviacionesCritico Desviaciones típicas a partir de las que la alerta es crítica
+     * @param lecturasCalentamiento Lecturas que se acumulan antes de poder alertar
+     */
+    public EstrategiaAnalisisEWMA(TipoSensor tipo, double alfa, double desviacionesAdvertencia,
+                                  double desviacionesCritico, int lecturasCalentamiento) {
+        if (!(alfa > 0.0 && alfa <= 1.0)) {
+            throw new IllegalArgumentException("Alfa debe estar en (0, 1]: " + alfa);
+        }
+        if (!(desviacionesAdvertencia > 0.0 && desviacionesCritico >= desviacionesAdvertencia)) {
+            throw new IllegalArgumentException("Desviaciones inválidas: " + desviacionesAdvertencia + ", " + desviacionesCritico);
+        }
+        this.tipo = tipo;
+        this.alfa = alfa;
+        this.desviacionesAdvertencia = desviacionesAdvertencia;
+        this.desviacionesCritico = desviacionesCritico;
+        this.lecturasCalentamiento = Math.max(1, lecturasCalentamiento);
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        if (tipo != null && sensor.getTipoSensor() != tipo) {
+            return null;
+        }
+        Estado estado = estados.computeIfAbsent(sensor.getId(), id -> new Estado());
+        double valor = lectura.getValor();
+        double desviaciones;
+        synchronized (estado) {
+            // La secuencia identifica la lectura: dos lecturas en el mismo milisegundo son distintas
+            long secuencia = lectura.getSecuencia();
+            if (secuencia == estado.ultimaSecuencia) {
+                return null; // lectura ya analizada (por ejemplo, en un barrido)
+            }
+            estado.ultimaSecuencia = secuencia;
+            if (estado.lecturas++ == 0) {
+                estado.media = valor;
+                return null;
+            }
+            // Desviación respecto al estado previo, antes de incorporar la lectura
+            double diferencia = valor - estado.media;
+            double desviacionTipica = Math.sqrt(estado.varianza);
+            desviaciones = desviacionTipica > 0.0 ? Math.abs(diferencia) / desviacionTipica : 0.0;
+            boolean calentando = estado.lecturas <= lecturasCalentamiento;
+
+            // Media y varianza exponenciales (forma incremental de West)
+            double incremento = alfa * diferencia;
+            estado.media += incremento;
+            estado.varianza = (1.0 - alfa) * (estado.varianza + diferencia * incremento);
+            if (calentando) {
+                return null;
+            }
+        }
+
+        if (desviaciones >= desviacionesCritico) {
+            return new Alerta(sensor, PlantillaAlerta.DESVIACION_CRITICA, valor, Double.NaN, desviaciones);
+        } else if (desviaciones >= desviacionesAdvertencia) {
+            return new Alerta(sensor, PlantillaAlerta.DESVIACION_INUSUAL, valor, Double.NaN, desviaciones);
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la media exponencial actual de un sensor
+     * @param idSensor ID del sensor
+     * @return La media, o NaN si el sensor no tiene lecturas
+     */
+    public double obtenerMedia(String idSensor) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return Double.NaN;
+        }
+        synchronized (estado) {
+            return estado.media;
+        }
+    }
+
+    @Override
+    public int obtenerPalabrasEstado() {
+        return 4;
+    }
+
+    @Override
+    public boolean exportarEstado(String idSensor, long[] destino) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return false;
+        }
+        synchronized (estado) {
+            destino[0] = estado.ultimaSecuencia;
+            destino[1] = estado.lecturas;
+            destino[2] = Double.doubleToRawLongBits(estado.media);
+            destino[3] = Double.doubleToRawLongBits(estado.varianza);
+        }
+        return true;
+    }
+
+    @Override
+    public void importarEstado(String idSensor, long[] origen) {
+        Estado estado = new Estado();
+        estado.ultimaSecuencia = origen[0];
+        estado.lecturas = origen[1];
+        estado.media = Double.longBitsToDouble(origen[2]);
+        estado.varianza = Double.longBitsToDouble(origen[3]);
+        estados.put(idSensor, estado);
+    }
+
+    /**
+     * Descarta el estado de un sensor
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        estados.remove(idSensor);
+    }
+}
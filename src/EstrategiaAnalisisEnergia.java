@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * Estrategia concreta para análisis de sensores de energía
  * Implementa el patrón Strategy - define algoritmos específicos para detectar
@@ -7,24 +5,37 @@ import java.util.Date;
  */
 public class EstrategiaAnalisisEnergia implements EstrategiaAnalisis {
     
-    // Umbral de consumo energético en kW
-    private static final double UMBRAL_ENERGIA = 1000.0;
+    // Umbrales configurables: se leen de la fuente en cada análisis
+    private final FuenteUmbrales umbralesVigentes;
+
+    /**
+     * Constructor que lee los umbrales de la fuente compartida del sistema
+     */
+    public EstrategiaAnalisisEnergia() {
+        this(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que lee los umbrales de una fuente propia (la de un motor de monitoreo)
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisEnergia(FuenteUmbrales umbralesVigentes) {
+        this.umbralesVigentes = umbralesVigentes;
+    }
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Solo analizar sensores de energía
-        if (!"energia".equals(sensor.getTipo())) {
+        if (sensor.getTipoSensor() != TipoSensor.ENERGIA) {
             return null;
         }
         
-        double valor = sensor.getValor();
-        Date fechaHora = new Date();
+        double valor = lectura.getValor();
+        UmbralesSensor umbrales = umbralesVigentes.obtener().resolver(sensor);
         
         // Verificar alto consumo energético
-        if (valor > UMBRAL_ENERGIA) {
-            return new Alerta(sensor.getId(),
-                "💡 ALTO CONSUMO ENERGÉTICO: " + valor + " kW en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        if (valor > umbrales.getAdvertenciaAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.CONSUMO_ALTO, valor, umbrales.getAdvertenciaAlto(), Double.NaN);
         }
         
         // No hay alerta si el consumo está dentro de rangos normales
@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * Estrategia concreta para análisis de sensores de humedad
  * Implementa el patrón Strategy - define algoritmos específicos para detectar
@@ -7,45 +5,49 @@ import java.util.Date;
  */
 public class EstrategiaAnalisisHumedad implements EstrategiaAnalisis {
     
-    // Umbrales de humedad en porcentaje
-    private static final double UMBRAL_CRITICO_ALTO = 90.0;  // Humedad muy alta
-    private static final double UMBRAL_CRITICO_BAJO = 10.0;  // Humedad muy baja
-    private static final double UMBRAL_ADVERTENCIA_ALTO = 80.0; // Humedad alta
-    private static final double UMBRAL_ADVERTENCIA_BAJO = 20.0; // Humedad baja
+    // Umbrales configurables: se leen de la fuente en cada análisis
+    private final FuenteUmbrales umbralesVigentes;
+
+    /**
+     * Constructor que lee los umbrales de la fuente compartida del sistema
+     */
+    public EstrategiaAnalisisHumedad() {
+        this(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que lee los umbrales de una fuente propia (la de un motor de monitoreo)
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisHumedad(FuenteUmbrales umbralesVigentes) {
+        this.umbralesVigentes = umbralesVigentes;
+    }
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Solo analizar sensores de humedad
-        if (!"humedad".equals(sensor.getTipo())) {
+        if (sensor.getTipoSensor() != TipoSensor.HUMEDAD) {
             return null;
         }
         
-        double valor = sensor.getValor();
-        Date fechaHora = new Date();
+        double valor = lectura.getValor();
+        UmbralesSensor umbrales = umbralesVigentes.obtener().resolver(sensor);
         
         // Verificar humedad crítica alta
-        if (valor > UMBRAL_CRITICO_ALTO) {
-            return new Alerta(sensor.getId(),
-                "💧 HUMEDAD CRÍTICA ALTA: " + valor + "% en " + sensor.getUbicacion(),
-                NivelAlerta.CRITICO, fechaHora);
+        if (valor > umbrales.getCriticoAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.HUMEDAD_CRITICA_ALTA, valor, umbrales.getCriticoAlto(), Double.NaN);
         } 
         // Verificar humedad crítica baja
-        else if (valor < UMBRAL_CRITICO_BAJO) {
-            return new Alerta(sensor.getId(),
-                "🏜️ HUMEDAD CRÍTICA BAJA: " + valor + "% en " + sensor.getUbicacion(),
-                NivelAlerta.CRITICO, fechaHora);
+        else if (valor < umbrales.getCriticoBajo()) {
+            return new Alerta(sensor, PlantillaAlerta.HUMEDAD_CRITICA_BAJA, valor, umbrales.getCriticoBajo(), Double.NaN);
         }
         // Verificar humedad alta (advertencia)
-        else if (valor > UMBRAL_ADVERTENCIA_ALTO) {
-            return new Alerta(sensor.getId(),
-                "⚠️ Humedad alta: " + valor + "% en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        else if (valor > umbrales.getAdvertenciaAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.HUMEDAD_ALTA, valor, umbrales.getAdvertenciaAlto(), Double.NaN);
         }
         // Verificar humedad baja (advertencia)
-        else if (valor < UMBRAL_ADVERTENCIA_BAJO) {
-            return new Alerta(sensor.getId(),
-                "⚠️ Humedad baja: " + valor + "% en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        else if (valor < umbrales.getAdvertenciaBajo()) {
+            return new Alerta(sensor, PlantillaAlerta.HUMEDAD_BAJA, valor, umbrales.getAdvertenciaBajo(), Double.NaN);
         }
         
         // No hay alerta si la humedad está dentro de rangos normales
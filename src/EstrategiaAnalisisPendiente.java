@@ -0,0 +1,184 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estrategia de tendencia por la pendiente de las últimas lecturas de cada sensor
+ * Implementa el patrón Strategy - ajusta por mínimos cuadrados una recta a una ventana
+ * deslizante de lecturas y, si el valor sube, estima cuándo alcanzará el umbral crítico
+ * configurado; alerta antes de que el umbral se cruce
+ * Las sumas de la regresión se actualizan al entrar y salir cada lectura: coste constante
+ * por lectura y memoria fija por sensor (la ventana)
+ */
+public class EstrategiaAnalisisPendiente implements EstrategiaAnalisis {
+    private final TipoSensor tipo;
+    private final int ventana;
+    private final double horizonteSegundos;
+    private final FuenteUmbrales umbralesVigentes;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Estado incremental de un sensor: ventana circular y sumas de la regresión
+     * Los tiempos se guardan en segundos desde la lectura más antigua de la ventana, que se
+     * vuelve a tomar como origen en cada vuelta: así n·ΣT² − (ΣT)² no pierde precisión
+     * aunque el sensor lleve días enviando lecturas
+     */
+    private static class Estado {
+        final double[] tiempos;
+        final double[] valores;
+        final long[] marcasNanos; // marcas exactas para volver a calcular los tiempos al cambiar el origen
+        long origenNanos;
+        long ultimaSecuencia = -1; // secuencia de la última lectura analizada
+        long lecturas;
+        double sumaT;
+        double sumaX;
+        double sumaTT;
+        double sumaTX;
+
+        Estado(int ventana) {
+            this.tiempos = new double[ventana];
+            this.valores = new double[ventana];
+            this.marcasNanos = new long[ventana];
+        }
+    }
+
+    /**
+     * Constructor de la estrategia
+     * @param tipo Tipo de sensor a analizar, o null para analizar todos
+     * @param ventana Número de lecturas de la regresión (al menos 2)
+     * @param horizonteSegundos Alerta si al ritmo actual el umbral crítico se alcanza antes de este plazo
+     */
+    public EstrategiaAnalisisPendiente(TipoSensor tipo, int ventana, double horizonteSegundos) {
+        this(tipo, ventana, horizonteSegundos, FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor de la estrategia con una fuente de umbrales propia (la de un motor de monitoreo)
+     * @param tipo Tipo de sensor a analizar, o null para analizar todos
+     * @param ventana Número de lecturas de la regresión (al menos 2)
+     * @param horizonteSegundos Alerta si al ritmo actual el umbral crítico se alcanza antes de este plazo
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisPendiente(TipoSensor tipo, int ventana, double horizonteSegundos,
+                                       FuenteUmbrales umbralesVigentes) {
+        if (ventana < 2) {
+            throw new IllegalArgumentException("La ventana necesita al menos 2 lecturas: " + ventana);
+        }
+        if (!(horizonteSegundos > 0.0)) {
+            throw new IllegalArgumentException("El horizonte debe ser positivo: " + horizonteSegundos);
+        }
+        this.tipo = tipo;
+        this.ventana = ventana;
+        this.horizonteSegundos = horizonteSegundos;
+        this.umbralesVigentes = umbralesVigentes;
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        if (tipo != null && sensor.getTipoSensor() != tipo) {
+            return null;
+        }
+        Estado estado = estados.computeIfAbsent(sensor.getId(), id -> new Estado(ventana));
+        double valor = lectura.getValor();
+        double pendiente;
+        synchronized (estado) {
+            // La secuencia identifica la lectura: dos lecturas en el mismo milisegundo son distintas
+            long secuencia = lectura.getSecuencia();
+            if (secuencia == estado.ultimaSecuencia) {
+                return null; // lectura ya analizada (por ejemplo, en un barrido)
+            }
+            estado.ultimaSecuencia = secuencia;
+            long marcaNanos = lectura.getMarcaNanos();
+            if (estado.lecturas == 0) {
+                estado.origenNanos = marcaNanos;
+            }
+            agregar(estado, marcaNanos, valor);
+            pendiente = pendiente(estado);
+        }
+        if (!(pendiente > 0.0)) {
+            return null;
+        }
+
+        double umbralCritico = umbralesVigentes.obtener().resolver(sensor).getCriticoAlto();
+        if (!(valor < umbralCritico)) {
+            return null; // ya cruzado: lo notifica la estrategia de umbrales
+        }
+        double segundosHastaUmbral = (umbralCritico - valor) / pendiente;
+        if (segundosHastaUmbral <= horizonteSegundos) {
+            return new Alerta(sensor, PlantillaAlerta.TENDENCIA, valor, umbralCritico, pendiente);
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la pendiente actual de un sensor
+     * @param idSensor ID del sensor
+     * @return Unidades por segundo, o NaN si aún no hay lecturas suficientes
+     */
+    public double obtenerPendiente(String idSensor) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return Double.NaN;
+        }
+        synchronized (estado) {
+            return pendiente(estado);
+        }
+    }
+
+    /**
+     * Descarta el estado de un sensor
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        estados.remove(idSensor);
+    }
+
+    private void agregar(Estado estado, long marcaNanos, double x) {
+        double t = (marcaNanos - estado.origenNanos) / 1e9;
+        int posicion = (int) (estado.lecturas % ventana);
+        if (estado.lecturas >= ventana) {
+            double tSale = estado.tiempos[posicion];
+            double xSale = estado.valores[posicion];
+            estado.sumaT -= tSale;
+            estado.sumaX -= xSale;
+            estado.sumaTT -= tSale * tSale;
+            estado.sumaTX -= tSale * xSale;
+        }
+        estado.tiempos[posicion] = t;
+        estado.valores[posicion] = x;
+        estado.marcasNanos[posicion] = marcaNanos;
+        estado.sumaT += t;
+        estado.sumaX += x;
+        estado.sumaTT += t * t;
+        estado.sumaTX += t * x;
+        estado.lecturas++;
+
+        if (estado.lecturas % ventana == 0) {
+            // Una vez por vuelta: llevar el origen a la lectura más antigua (la de la posición 0)
+            // y recalcular las sumas, para no acumular error de cancelación ni de magnitud
+            estado.origenNanos = estado.marcasNanos[0];
+            estado.sumaT = estado.sumaX = estado.sumaTT = estado.sumaTX = 0.0;
+            for (int i = 0; i < ventana; i++) {
+                double ti = (estado.marcasNanos[i] - estado.origenNanos) / 1e9;
+                estado.tiempos[i] = ti;
+                double xi = estado.valores[i];
+                estado.sumaT += ti;
+                estado.sumaX += xi;
+                estado.sumaTT += ti * ti;
+                estado.sumaTX += ti * xi;
+            }
+        }
+    }
+
+    private double pendiente(Estado estado) {
+        long n = Math.min(estado.lecturas, ventana);
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double denominador = n * estado.sumaTT - estado.sumaT * estado.sumaT;
+        if (denominador <= 0.0) {
+            return Double.NaN; // todas las lecturas con la misma marca de tiempo
+        }
+        return (n * estado.sumaTX - estado.sumaT * estado.sumaX) / denominador;
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * Estrategia concreta para análisis de sensores de temperatura
  * Implementa el patrón Strategy - define algoritmos específicos para detectar
@@ -7,31 +5,41 @@ import java.util.Date;
  */
 public class EstrategiaAnalisisTemperatura implements EstrategiaAnalisis {
     
-    // Umbrales de temperatura en grados Celsius
-    private static final double UMBRAL_CRITICO = 80.0;
-    private static final double UMBRAL_ADVERTENCIA = 60.0;
+    // Umbrales configurables: se leen de la fuente en cada análisis
+    private final FuenteUmbrales umbralesVigentes;
+
+    /**
+     * Constructor que lee los umbrales de la fuente compartida del sistema
+     */
+    public EstrategiaAnalisisTemperatura() {
+        this(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que lee los umbrales de una fuente propia (la de un motor de monitoreo)
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisTemperatura(FuenteUmbrales umbralesVigentes) {
+        this.umbralesVigentes = umbralesVigentes;
+    }
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Solo analizar sensores de temperatura
-        if (!"temperatura".equals(sensor.getTipo())) {
+        if (sensor.getTipoSensor() != TipoSensor.TEMPERATURA) {
             return null;
         }
         
-        double valor = sensor.getValor();
-        Date fechaHora = new Date();
+        double valor = lectura.getValor();
+        UmbralesSensor umbrales = umbralesVigentes.obtener().resolver(sensor);
         
         // Verificar temperatura crítica
-        if (valor > UMBRAL_CRITICO) {
-            return new Alerta(sensor.getId(), 
-                "❌ TEMPERATURA CRÍTICA: " + valor + "°C en " + sensor.getUbicacion(), 
-                NivelAlerta.CRITICO, fechaHora);
+        if (valor > umbrales.getCriticoAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.TEMPERATURA_CRITICA, valor, umbrales.getCriticoAlto(), Double.NaN);
         } 
         // Verificar temperatura alta (advertencia)
-        else if (valor > UMBRAL_ADVERTENCIA) {
-            return new Alerta(sensor.getId(),
-                "⚠️ Temperatura alta: " + valor + "°C en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        else if (valor > umbrales.getAdvertenciaAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.TEMPERATURA_ALTA, valor, umbrales.getAdvertenciaAlto(), Double.NaN);
         }
         
         // No hay alerta si la temperatura está dentro de rangos normales
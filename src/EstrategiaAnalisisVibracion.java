@@ -1,5 +1,3 @@
-import java.util.Date;
-
 /**
  * Estrategia concreta para análisis de sensores de vibración
  * Implementa el patrón Strategy - define algoritmos específicos para detectar
@@ -7,31 +5,41 @@ import java.util.Date;
  */
 public class EstrategiaAnalisisVibracion implements EstrategiaAnalisis {
     
-    // Umbrales de vibración en m/s²
-    private static final double UMBRAL_CRITICO = 5.0;
-    private static final double UMBRAL_ADVERTENCIA = 3.0;
+    // Umbrales configurables: se leen de la fuente en cada análisis
+    private final FuenteUmbrales umbralesVigentes;
+
+    /**
+     * Constructor que lee los umbrales de la fuente compartida del sistema
+     */
+    public EstrategiaAnalisisVibracion() {
+        this(FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que lee los umbrales de una fuente propia (la de un motor de monitoreo)
+     * @param umbralesVigentes Fuente de la configuración de umbrales
+     */
+    public EstrategiaAnalisisVibracion(FuenteUmbrales umbralesVigentes) {
+        this.umbralesVigentes = umbralesVigentes;
+    }
     
     @Override
-    public Alerta analizar(Sensor sensor) {
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
         // Solo analizar sensores de vibración
-        if (!"vibracion".equals(sensor.getTipo())) {
+        if (sensor.getTipoSensor() != TipoSensor.VIBRACION) {
             return null;
         }
         
-        double valor = sensor.getValor();
-        Date fechaHora = new Date();
+        double valor = lectura.getValor();
+        UmbralesSensor umbrales = umbralesVigentes.obtener().resolver(sensor);
         
         // Verificar vibración peligrosa
-        if (valor > UMBRAL_CRITICO) {
-            return new Alerta(sensor.getId(),
-                "🚨 VIBRACIÓN PELIGROSA: " + valor + " m/s² en " + sensor.getUbicacion(),
-                NivelAlerta.CRITICO, fechaHora);
+        if (valor > umbrales.getCriticoAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.VIBRACION_PELIGROSA, valor, umbrales.getCriticoAlto(), Double.NaN);
         } 
         // Verificar vibración elevada
-        else if (valor > UMBRAL_ADVERTENCIA) {
-            return new Alerta(sensor.getId(),
-                "📳 Vibración elevada: " + valor + " m/s² en " + sensor.getUbicacion(),
-                NivelAlerta.ADVERTENCIA, fechaHora);
+        else if (valor > umbrales.getAdvertenciaAlto()) {
+            return new Alerta(sensor, PlantillaAlerta.VIBRACION_ELEVADA, valor, umbrales.getAdvertenciaAlto(), Double.NaN);
         }
         
         // No hay alerta si la vibración está dentro de rangos normales
@@ -0,0 +1,180 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estrategia adaptativa de anomalías por puntuación z respecto a la línea base de cada sensor
+ * Implementa el patrón Strategy - en lugar de umbrales fijos aprende en línea el
+ * comportamiento normal de cada sensor y alerta cuando una lectura se aleja k desviaciones:
+ * - modo clásico: media y varianza de Welford
+ * - modo robusto: mediana y MAD (desviación absoluta mediana) estimadas en flujo, poco
+ *   sensibles a los propios valores atípicos
+ * Memoria fija por sensor y sin asignaciones en la ruta de análisis salvo al crear la alerta
+ */
+public class EstrategiaAnalisisZScore implements EstrategiaConEstado {
+    private static final double CONSISTENCIA_MAD = 0.6745; // MAD / sigma en una normal
+    private static final double TASA_APRENDIZAJE = 0.05;   // paso de la mediana y la MAD, relativo a la MAD
+
+    private final TipoSensor tipo;
+    private final double sigmasAdvertencia;
+    private final double sigmasCritico;
+    private final int lecturasCalentamiento;
+    private final boolean robusta;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Estado incremental de un sensor
+     */
+    private static class Estado {
+        long ultimaSecuencia = -1; // secuencia de la última lectura analizada
+        long lecturas;
+        double media;
+        double m2;
+        double mediana;
+        double mad;
+    }
+
+    /**
+     * Constructor de la estrategia
+     * @param tipo Tipo de sensor a analizar, o null para analizar todos
+     * @param sigmasAdvertencia Puntuación z a partir de la que hay advertencia (habitualmente 3)
+     * @param sigmasCritico Puntuación z a partir de la que la alerta es crítica
+     * @param lecturasCalentamiento Lecturas que se aprenden antes de poder alertar (al menos 2)
+     * @param robusta true para usar mediana y MAD en lugar de media y desviación típica
+     */
+    public EstrategiaAnalisisZScore(TipoSensor tipo, double sigmasAdvertencia, double sigmasCritico,
+                                    int lecturasCalentamiento, boolean robusta) {
+        if (!(sigmasAdvertencia > 0.0 && sigmasCritico >= sigmasAdvertencia)) {
+            throw new IllegalArgumentException("Sigmas inválidas: " + sigmasAdvertencia + ", " + sigmasCritico);
+        }
+        if (lecturasCalentamiento < 2) {
+            throw new IllegalArgumentException("El calentamiento necesita al menos 2 lecturas: " + lecturasCalentamiento);
+        }
+        this.tipo = tipo;
+        this.sigmasAdvertencia = sigmasAdvertencia;
+        this.sigmasCritico = sigmasCritico;
+        this.lecturasCalentamiento = lecturasCalentamiento;
+        this.robusta = robusta;
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        if (tipo != null && sensor.getTipoSensor() != tipo) {
+            return null;
+        }
+        Estado estado = estados.get(sensor.getId());
+        if (estado == null) {
+            estado = estados.computeIfAbsent(sensor.getId(), id -> new Estado());
+        }
+        double valor = lectura.getValor();
+        double z;
+        double base;
+        synchronized (estado) {
+            // La secuencia identifica la lectura: dos lecturas en el mismo milisegundo son distintas
+            long secuencia = lectura.getSecuencia();
+            if (secuencia == estado.ultimaSecuencia) {
+                return null; // lectura ya analizada (por ejemplo, en un barrido)
+            }
+            estado.ultimaSecuencia = secuencia;
+            boolean calentando = estado.lecturas < lecturasCalentamiento;
+
+            // Puntuación respecto a la línea base previa, antes de aprender la lectura
+            if (robusta) {
+                base = estado.mediana;
+                z = estado.mad > 0.0 ? CONSISTENCIA_MAD * Math.abs(valor - estado.mediana) / estado.mad : 0.0;
+            } else {
+                base = estado.media;
+                double varianza = estado.lecturas > 1 ? estado.m2 / (estado.lecturas - 1) : 0.0;
+                z = varianza > 0.0 ? Math.abs(valor - estado.media) / Math.sqrt(varianza) : 0.0;
+            }
+            aprender(estado, valor);
+            if (calentando) {
+                return null;
+            }
+        }
+
+        if (z >= sigmasCritico) {
+            return new Alerta(sensor, PlantillaAlerta.ANOMALIA_CRITICA, valor, base, z);
+        } else if (z >= sigmasAdvertencia) {
+            return new Alerta(sensor, PlantillaAlerta.LECTURA_ATIPICA, valor, base, z);
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la línea base aprendida de un sensor
+     * @param idSensor ID del sensor
+     * @return Media (o mediana en modo robusto), o NaN si el sensor no tiene lecturas
+     */
+    public double obtenerLineaBase(String idSensor) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return Double.NaN;
+        }
+        synchronized (estado) {
+            return estado.lecturas == 0 ? Double.NaN : (robusta ? estado.mediana : estado.media);
+        }
+    }
+
+    @Override
+    public int obtenerPalabrasEstado() {
+        return 6;
+    }
+
+    @Override
+    public boolean exportarEstado(String idSensor, long[] destino) {
+        Estado estado = estados.get(idSensor);
+        if (estado == null) {
+            return false;
+        }
+        synchronized (estado) {
+            destino[0] = estado.ultimaSecuencia;
+            destino[1] = estado.lecturas;
+            destino[2] = Double.doubleToRawLongBits(estado.media);
+            destino[3] = Double.doubleToRawLongBits(estado.m2);
+            destino[4] = Double.doubleToRawLongBits(estado.mediana);
+            destino[5] = Double.doubleToRawLongBits(estado.mad);
+        }
+        return true;
+    }
+
+    @Override
+    public void importarEstado(String idSensor, long[] origen) {
+        Estado estado = new Estado();
+        estado.ultimaSecuencia = origen[0];
+        estado.lecturas = origen[1];
+        estado.media = Double.longBitsToDouble(origen[2]);
+        estado.m2 = Double.longBitsToDouble(origen[3]);
+        estado.mediana = Double.longBitsToDouble(origen[4]);
+        estado.mad = Double.longBitsToDouble(origen[5]);
+        estados.put(idSensor, estado);
+    }
+
+    /**
+     * Descarta el estado de un sensor (vuelve a aprender con sus próximas lecturas)
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        estados.remove(idSensor);
+    }
+
+    private void aprender(Estado estado, double valor) {
+        estado.lecturas++;
+        double diferencia = valor - estado.media;
+        estado.media += diferencia / estado.lecturas;
+        estado.m2 += diferencia * (valor - estado.media);
+
+        if (estado.lecturas <= lecturasCalentamiento) {
+            // Durante el calentamiento la mediana y la MAD parten de la media y la desviación
+            estado.mediana = estado.media;
+            estado.mad = estado.lecturas > 1 ? CONSISTENCIA_MAD * Math.sqrt(estado.m2 / (estado.lecturas - 1)) : 0.0;
+            return;
+        }
+        // Aproximación estocástica: cada lectura desplaza la estimación hacia su lado un paso
+        // proporcional a la dispersión, de modo que converge a la mediana sin guardar lecturas
+        double paso = TASA_APRENDIZAJE * Math.max(estado.mad, 1e-9);
+        estado.mediana += valor > estado.mediana ? paso : (valor < estado.mediana ? -paso : 0.0);
+        double desviacion = Math.abs(valor - estado.mediana);
+        estado.mad += desviacion > estado.mad ? paso : (desviacion < estado.mad ? -paso : 0.0);
+    }
+}
@@ -0,0 +1,246 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estrategia compuesta que aplica a cada lectura una cadena ordenada de estrategias
+ * Implementa los patrones Strategy y Composite - combina comprobaciones de umbral, de
+ * tendencia y adaptativas como si fueran una sola estrategia:
+ * - una etapa puede depender de etapas anteriores y ejecutarse solo si alguna de ellas
+ *   alertó (grafo acíclico por construcción), evitando el trabajo caro en lecturas normales
+ * - con cortocircuito, la cadena se detiene en la primera alerta CRITICO
+ * - las alertas de varias etapas se fusionan en una con el nivel más grave
+ * - opcionalmente registra un histograma de latencia por etapa
+ * Las etapas se publican como un arreglo inmutable que se reemplaza atómicamente
+ */
+public class EstrategiaCompuesta implements EstrategiaAnalisis {
+    private static final int MAXIMO_ETAPAS = 64; // las etapas que alertaron se anotan en un long
+
+    private final boolean cortocircuitoCritico;
+    private final boolean medirLatencias;
+    private volatile Etapa[] etapas;
+
+    /**
+     * Etapa de la cadena con sus dependencias y sus métricas
+     */
+    private static class Etapa {
+        final String nombre;
+        final EstrategiaAnalisis estrategia;
+        final long mascaraDependencias; // 0 si la etapa se ejecuta siempre
+        final HistogramaLatencia latencias = new HistogramaLatencia();
+        final AtomicLong ejecuciones = new AtomicLong();
+        final AtomicLong omitidas = new AtomicLong();
+        final AtomicLong alertas = new AtomicLong();
+
+        Etapa(String nombre, EstrategiaAnalisis estrategia, long mascaraDependencias) {
+            this.nombre = nombre;
+            this.estrategia = estrategia;
+            this.mascaraDependencias = mascaraDependencias;
+        }
+    }
+
+    /**
+     * Constructor de la estrategia compuesta
+     * @param cortocircuitoCritico true para detener la cadena en la primera alerta CRITICO
+     * @param medirLatencias true para registrar la latencia de cada etapa
+     */
+    public EstrategiaCompuesta(boolean cortocircuitoCritico, boolean medirLatencias) {
+        this.cortocircuitoCritico = cortocircuitoCritico;
+        this.medirLatencias = medirLatencias;
+        this.etapas = new Etapa[0];
+    }
+
+    /**
+     * Agrega al final de la cadena una etapa que se ejecuta con cada lectura
+     * @param nombre Nombre único de la etapa
+     * @param estrategia Estrategia de la etapa
+     * @return Esta misma estrategia compuesta, para encadenar llamadas
+     */
+    public EstrategiaCompuesta agregar(String nombre, EstrategiaAnalisis estrategia) {
+        return agregarSiAlerta(nombre, estrategia);
+    }
+
+    /**
+     * Agrega al final de la cadena una etapa que solo se ejecuta si alguna de las etapas
+     * indicadas generó una alerta para la misma lectura
+     * @param nombre Nombre único de la etapa
+     * @param estrategia Estrategia de la etapa
+     * @param dependencias Nombres de etapas ya agregadas (ninguna para ejecutarla siempre)
+     * @return Esta misma estrategia compuesta, para encadenar llamadas
+     */
+    public synchronized EstrategiaCompuesta agregarSiAlerta(String nombre, EstrategiaAnalisis estrategia,
+                                                            String... dependencias) {
+        if (estrategia == null) {
+            throw new IllegalArgumentException("La etapa " + nombre + " necesita una estrategia");
+        }
+        if (etapas.length == MAXIMO_ETAPAS) {
+            throw new IllegalStateException("Se admiten como máximo " + MAXIMO_ETAPAS + " etapas");
+        }
+        if (buscarEtapa(nombre) >= 0) {
+            throw new IllegalArgumentException("Ya existe una etapa llamada " + nombre);
+        }
+        long mascara = 0L;
+        for (String dependencia : dependencias) {
+            int indice = buscarEtapa(dependencia);
+            if (indice < 0) {
+                throw new IllegalArgumentException("La etapa " + nombre + " depende de una etapa inexistente: " + dependencia);
+            }
+            mascara |= 1L << indice;
+        }
+        Etapa[] nuevasEtapas = Arrays.copyOf(etapas, etapas.length + 1);
+        nuevasEtapas[etapas.length] = new Etapa(nombre, estrategia, mascara);
+        etapas = nuevasEtapas;
+        return this;
+    }
+
+    @Override
+    public Alerta analizar(Sensor sensor, LecturaSensor lectura) {
+        Etapa[] cadena = etapas;
+        Alerta primera = null;
+        StringBuilder mensajes = null; // solo se crea si alerta más de una etapa
+        NivelAlerta nivel = null;
+        long alertaron = 0L;
+        for (int i = 0; i < cadena.length; i++) {
+            Etapa etapa = cadena[i];
+            if (etapa.mascaraDependencias != 0L && (alertaron & etapa.mascaraDependencias) == 0L) {
+                etapa.omitidas.incrementAndGet();
+                continue;
+            }
+            Alerta alerta = ejecutar(etapa, sensor, lectura);
+            if (alerta == null) {
+                continue;
+            }
+            alertaron |= 1L << i;
+            etapa.alertas.incrementAndGet();
+            if (primera == null) {
+                primera = alerta;
+                nivel = alerta.getNivel();
+            } else {
+                if (mensajes == null) {
+                    mensajes = new StringBuilder(primera.getMensaje());
+                }
+                mensajes.append(" | ").append(alerta.getMensaje());
+                if (alerta.getNivel().ordinal() < nivel.ordinal()) {
+                    nivel = alerta.getNivel();
+                }
+            }
+            if (cortocircuitoCritico && alerta.getNivel() == NivelAlerta.CRITICO) {
+                break;
+            }
+        }
+        if (mensajes == null) {
+            return primera;
+        }
+        // La alerta fusionada conserva el sensor para que la reciban los observadores filtrados
+        return new Alerta(sensor, mensajes.toString(), nivel, primera.getMarcaNanos());
+    }
+
+    /**
+     * Aplica la cadena y devuelve por separado la alerta de cada etapa, sin fusionarlas
+     * Respeta las dependencias y el cortocircuito igual que analizar
+     * @param sensor El sensor a analizar
+     * @return Alertas generadas, en el orden de las etapas
+     */
+    public List<Alerta> analizarTodas(Sensor sensor) {
+        LecturaSensor lectura = sensor.obtenerLectura(); // todas las etapas ven la misma lectura
+        Etapa[] cadena = etapas;
+        List<Alerta> resultado = new ArrayList<>();
+        long alertaron = 0L;
+        for (int i = 0; i < cadena.length; i++) {
+            Etapa etapa = cadena[i];
+            if (etapa.mascaraDependencias != 0L && (alertaron & etapa.mascaraDependencias) == 0L) {
+                etapa.omitidas.incrementAndGet();
+                continue;
+            }
+            Alerta alerta = ejecutar(etapa, sensor, lectura);
+            if (alerta == null) {
+                continue;
+            }
+            alertaron |= 1L << i;
+            etapa.alertas.incrementAndGet();
+            resultado.add(alerta);
+            if (cortocircuitoCritico && alerta.getNivel() == NivelAlerta.CRITICO) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta el estado del sensor en todas las etapas
+     * @param idSensor ID del sensor
+     */
+    @Override
+    public void olvidar(String idSensor) {
+        for (Etapa etapa : etapas) {
+            etapa.estrategia.olvidar(idSensor);
+        }
+    }
+
+    /**
+     * Obtiene las métricas de cada etapa en el orden de la cadena
+     * @return Lista con nombre, ejecuciones, omitidas, alertas y latencias (media, p50, p99, máxima) de cada etapa
+     */
+    public List<Map<String, Object>> obtenerMetricas() {
+        List<Map<String, Object>> metricas = new ArrayList<>();
+        for (Etapa etapa : etapas) {
+            Map<String, Object> metrica = new HashMap<>();
+            metrica.put("etapa", etapa.nombre);
+            metrica.put("ejecuciones", etapa.ejecuciones.get());
+            metrica.put("omitidas", etapa.omitidas.get());
+            metrica.put("alertas", etapa.alertas.get());
+            if (medirLatencias) {
+                metrica.put("mediaNanos", etapa.latencias.obtenerMediaNanos());
+                metrica.put("p50Nanos", etapa.latencias.percentil(50));
+                metrica.put("p99Nanos", etapa.latencias.percentil(99));
+                metrica.put("maximoNanos", etapa.latencias.obtenerMaximoNanos());
+            }
+            metricas.add(metrica);
+        }
+        return metricas;
+    }
+
+    /**
+     * Obtiene el histograma de latencias de una etapa
+     * @param nombre Nombre de la etapa
+     * @return El histograma (vacío si no se miden latencias)
+     */
+    public HistogramaLatencia obtenerLatencias(String nombre) {
+        Etapa[] cadena = etapas;
+        int indice = buscarEtapa(nombre);
+        if (indice < 0) {
+            throw new IllegalArgumentException("No existe la etapa " + nombre);
+        }
+        return cadena[indice].latencias;
+    }
+
+    public int obtenerCantidadEtapas() {
+        return etapas.length;
+    }
+
+    private Alerta ejecutar(Etapa etapa, Sensor sensor, LecturaSensor lectura) {
+        etapa.ejecuciones.incrementAndGet();
+        if (!medirLatencias) {
+            return etapa.estrategia.analizar(sensor, lectura);
+        }
+        long inicio = System.nanoTime();
+        try {
+            return etapa.estrategia.analizar(sensor, lectura);
+        } finally {
+            etapa.latencias.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    private int buscarEtapa(String nombre) {
+        Etapa[] cadena = etapas;
+        for (int i = 0; i < cadena.length; i++) {
+            if (cadena[i].nombre.equals(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
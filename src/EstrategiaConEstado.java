@@ -0,0 +1,32 @@
+/**
+ * Estrategia de análisis que aprende estado por sensor y puede exportarlo e importarlo
+ * Permite incluir las líneas base aprendidas en las instantáneas del registro (ver
+ * InstantaneasRegistro), de modo que tras un reinicio la estrategia no vuelva a calentar
+ * El estado de un sensor se representa con un número fijo de palabras de 64 bits
+ * (los double se guardan con Double.doubleToRawLongBits); la primera palabra es la secuencia
+ * de la última lectura analizada, que la instantánea también restaura en el sensor, de modo
+ * que el primer barrido tras un reinicio no vuelve a aprender la misma lectura
+ */
+public interface EstrategiaConEstado extends EstrategiaAnalisis {
+
+    /**
+     * Obtiene el número de palabras que ocupa el estado de un sensor
+     * @return Palabras de 64 bits por sensor
+     */
+    int obtenerPalabrasEstado();
+
+    /**
+     * Copia el estado de un sensor
+     * @param idSensor ID del sensor
+     * @param destino Arreglo de al menos obtenerPalabrasEstado() palabras
+     * @return true si el sensor tenía estado y se copió
+     */
+    boolean exportarEstado(String idSensor, long[] destino);
+
+    /**
+     * Reemplaza el estado de un sensor por uno exportado previamente
+     * @param idSensor ID del sensor
+     * @param origen Palabras escritas por exportarEstado
+     */
+    void importarEstado(String idSensor, long[] origen);
+}
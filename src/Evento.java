@@ -0,0 +1,47 @@
+/**
+ * Evento de diagnóstico estructurado
+ * Separa la severidad, el componente de origen y el momento del texto del mensaje,
+ * para que un sumidero pueda filtrarlos o formatearlos sin analizar cadenas
+ */
+public class Evento {
+    private final long marcaNanos;
+    private final NivelEvento nivel;
+    private final String origen;
+    private final String mensaje;
+
+    /**
+     * Constructor del evento
+     * @param marcaNanos Momento del evento en nanosegundos desde epoch
+     * @param nivel Severidad del evento
+     * @param origen Componente que emite el evento
+     * @param mensaje Texto del evento
+     */
+    public Evento(long marcaNanos, NivelEvento nivel, String origen, String mensaje) {
+        this.marcaNanos = marcaNanos;
+        this.nivel = nivel;
+        this.origen = origen;
+        this.mensaje = mensaje;
+    }
+
+    // Getters
+    public long getMarcaNanos() {
+        return marcaNanos;
+    }
+
+    public NivelEvento getNivel() {
+        return nivel;
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return nivel + " [" + origen + "] " + mensaje;
+    }
+}
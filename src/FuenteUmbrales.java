@@ -0,0 +1,45 @@
+/**
+ * Punto de publicación de la configuración de umbrales que leen unas estrategias
+ * Cada MotorMonitoreo tiene la suya, de modo que recargar los umbrales de una planta no cambia
+ * los de otra; las estrategias creadas sin fuente usan la compartida del sistema
+ * La configuración se publica con una única escritura volátil y se lee sin bloqueos
+ */
+public final class FuenteUmbrales {
+    private static final FuenteUmbrales COMPARTIDA = new FuenteUmbrales();
+
+    private volatile ConfiguracionUmbrales actual;
+
+    /**
+     * Constructor que crea una fuente con los umbrales de fábrica
+     */
+    public FuenteUmbrales() {
+        this.actual = ConfiguracionUmbrales.porDefecto();
+    }
+
+    /**
+     * Obtiene la fuente compartida por el gestor y el notificador únicos del sistema
+     * @return La fuente compartida
+     */
+    public static FuenteUmbrales compartida() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Obtiene la configuración vigente
+     * @return La última configuración publicada
+     */
+    public ConfiguracionUmbrales obtener() {
+        return actual;
+    }
+
+    /**
+     * Publica una configuración nueva; los análisis siguientes la usan de inmediato
+     * @param configuracion La configuración a publicar
+     */
+    public void publicar(ConfiguracionUmbrales configuracion) {
+        if (configuracion == null) {
+            throw new IllegalArgumentException("La configuración de umbrales no puede ser null");
+        }
+        actual = configuracion;
+    }
+}
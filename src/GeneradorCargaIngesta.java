@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga para el servidor de ingesta por red
+ * Abre varias conexiones, cada una en su hilo, y envía tramas de lecturas manteniendo
+ * un número fijo de tramas en vuelo. Mide lecturas por segundo y la latencia de ida y
+ * vuelta de cada trama (desde que se envía hasta que llega su confirmación)
+ * Ejecutado como programa levanta un servidor en loopback con una flota de sensores propia:
+ *   java GeneradorCargaIngesta [conexiones] [segundos] [lecturasPorTrama] [tramasEnVuelo]
+ */
+public class GeneradorCargaIngesta {
+    private static final int CANTIDAD_SENSORES = 10_000;
+
+    /**
+     * Resultado de una ejecución del generador
+     */
+    public static class Resultado {
+        private final long lecturas;
+        private final long nanos;
+        private final HistogramaLatencia latencias;
+
+        Resultado(long lecturas, long nanos, HistogramaLatencia latencias) {
+            this.lecturas = lecturas;
+            this.nanos = nanos;
+            this.latencias = latencias;
+        }
+
+        public double obtenerLecturasPorSegundo() {
+            return lecturas * 1e9 / nanos;
+        }
+
+        public long obtenerLecturas() {
+            return lecturas;
+        }
+
+        /**
+         * @return Histograma de latencias de ida y vuelta por trama
+         */
+        public HistogramaLatencia obtenerLatencias() {
+            return latencias;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int conexiones = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int lecturasPorTrama = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int tramasEnVuelo = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        System.out.println("=== 🌐 GENERADOR DE CARGA DE INGESTA ===\n");
+
+        GestorSensores gestor = GestorSensores.obtenerInstancia();
+        NotificadorAlertas.obtenerInstancia().establecerEstrategiaAnalisis(new EstrategiaAnalisisTemperatura());
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        gestor.habilitarAlmacenPrimitivo(CANTIDAD_SENSORES);
+        int[] handles = new int[CANTIDAD_SENSORES];
+        for (int i = 0; i < CANTIDAD_SENSORES; i++) {
+            gestor.registrarSensor(new Sensor("RED-" + i, "temperatura", 25.0, "Planta Remota"));
+            handles[i] = gestor.obtenerHandle("RED-" + i);
+        }
+
+        try (ServidorIngesta servidor = new ServidorIngesta(gestor,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            InetSocketAddress direccion = new InetSocketAddress(InetAddress.getLoopbackAddress(), servidor.obtenerPuerto());
+            // Calentamiento breve para que el JIT compile la ruta de decodificación
+            ejecutar(direccion, handles, conexiones, lecturasPorTrama, tramasEnVuelo, 1_000_000_000L);
+            Resultado resultado = ejecutar(direccion, handles, conexiones, lecturasPorTrama, tramasEnVuelo,
+                segundos * 1_000_000_000L);
+            HistogramaLatencia latencias = resultado.obtenerLatencias();
+            System.out.printf("%d conexiones, %d lecturas por trama, %d tramas en vuelo, %d s%n",
+                conexiones, lecturasPorTrama, tramasEnVuelo, segundos);
+            System.out.printf("   - %,.0f lecturas/s%n", resultado.obtenerLecturasPorSegundo());
+            System.out.printf("   - Latencia por trama: p50 %,.1f µs, p99 %,.1f µs, máxima %,.1f µs%n",
+                latencias.percentil(50) / 1e3, latencias.percentil(99) / 1e3, latencias.obtenerMaximoNanos() / 1e3);
+            Map<String, Long> metricas = servidor.obtenerMetricas();
+            System.out.println("   - Métricas del servidor: " + metricas);
+        }
+    }
+
+    /**
+     * Genera carga contra un servidor de ingesta
+     * @param direccion Dirección del servidor
+     * @param handles Handles de los sensores a los que se envían lecturas (en rotación)
+     * @param conexiones Número de conexiones, cada una con su hilo
+     * @param lecturasPorTrama Lecturas por trama
+     * @param tramasEnVuelo Tramas enviadas sin confirmar por conexión (1 para ida y vuelta estricta)
+     * @param duracionNanos Duración de la carga
+     * @return Lecturas confirmadas, tiempo transcurrido y latencias por trama
+     */
+    public static Resultado ejecutar(InetSocketAddress direccion, int[] handles, int conexiones, int lecturasPorTrama,
+                                     int tramasEnVuelo, long duracionNanos) throws IOException, InterruptedException {
+        if (tramasEnVuelo <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos una trama en vuelo: " + tramasEnVuelo);
+        }
+        HistogramaLatencia latencias = new HistogramaLatencia();
+        AtomicLong confirmadas = new AtomicLong();
+        List<Thread> hilos = new ArrayList<>();
+        List<IOException> errores = new ArrayList<>();
+        long inicio = System.nanoTime();
+        long fin = inicio + duracionNanos;
+        for (int c = 0; c < conexiones; c++) {
+            int desplazamiento = c * lecturasPorTrama;
+            Thread hilo = new Thread(() -> {
+                try (ClienteIngesta cliente = new ClienteIngesta(direccion)) {
+                    generar(cliente, handles, desplazamiento, lecturasPorTrama, tramasEnVuelo, fin, latencias, confirmadas);
+                } catch (IOException e) {
+                    synchronized (errores) {
+                        errores.add(e);
+                    }
+                }
+            }, "carga-ingesta-" + c);
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        long transcurrido = System.nanoTime() - inicio;
+        if (!errores.isEmpty()) {
+            throw errores.get(0);
+        }
+        return new Resultado(confirmadas.get(), transcurrido, latencias);
+    }
+
+    private static void generar(ClienteIngesta cliente, int[] handles, int desplazamiento, int lecturasPorTrama,
+                                int tramasEnVuelo, long finNanos, HistogramaLatencia latencias,
+                                AtomicLong confirmadas) throws IOException {
+        int[] tramaHandles = new int[lecturasPorTrama];
+        double[] valores = new double[lecturasPorTrama];
+        long[] marcasNanos = new long[lecturasPorTrama];
+        long[] enviadas = new long[tramasEnVuelo]; // instante de envío de cada trama en vuelo (anillo)
+        int siguiente = desplazamiento;
+        int enVuelo = 0;
+        long emitidas = 0;
+        long recibidas = 0;
+        long lecturasConfirmadas = 0;
+        while (true) {
+            boolean continuar = System.nanoTime() < finNanos;
+            if (continuar && enVuelo < tramasEnVuelo) {
+                long marca = System.currentTimeMillis() * 1_000_000L;
+                for (int i = 0; i < lecturasPorTrama; i++) {
+                    tramaHandles[i] = handles[siguiente];
+                    valores[i] = 20.0 + (siguiente % 30); // rango normal: se mide la ingesta
+                    marcasNanos[i] = marca + i;
+                    siguiente = siguiente + 1 == handles.length ? 0 : siguiente + 1;
+                }
+                enviadas[(int) (emitidas % tramasEnVuelo)] = System.nanoTime();
+                cliente.enviar(tramaHandles, valores, marcasNanos, lecturasPorTrama);
+                emitidas++;
+                enVuelo++;
+                continue;
+            }
+            if (enVuelo == 0) {
+                break;
+            }
+            lecturasConfirmadas += cliente.esperarConfirmacion();
+            latencias.registrar(System.nanoTime() - enviadas[(int) (recibidas % tramasEnVuelo)]);
+            recibidas++;
+            enVuelo--;
+        }
+        confirmadas.addAndGet(lecturasConfirmadas);
+    }
+}
@@ -1,38 +1,68 @@
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * Clase que implementa el patrón Singleton para gestionar centralizadamente todos los sensores IoT
- * Garantiza que solo exista una instancia de esta clase en toda la aplicación
+ * Clase que gestiona centralizadamente los sensores IoT de un motor de monitoreo
+ * Cada gestor analiza sus lecturas con el NotificadorAlertas que recibe al construirse, de modo
+ * que varios motores independientes pueden convivir en la misma JVM (ver MotorMonitoreo)
+ * obtenerInstancia() conserva la instancia compartida de la aplicación (patrón Singleton)
  * Proporciona métodos para registrar, actualizar, consultar y eliminar sensores
  */
 public class GestorSensores {
-    private static GestorSensores instancia;
+    private static final String ORIGEN = "GestorSensores";
+    private final NotificadorAlertas notificador; // estrategia y observadores de este gestor
     private Map<String, Sensor> sensores;
+    private volatile AlmacenSensores almacen; // almacén primitivo opcional (null si no está habilitado)
+    private volatile int capacidadHistorial; // lecturas retenidas por sensor (0 si no está habilitado)
+    private Map<String, EstadisticasTipo> estadisticasPorTipo; // agregados incrementales por tipo
+    private Map<String, Set<Sensor>> indicePorTipo;                   // índice secundario por tipo
+    private ConcurrentSkipListMap<String, Set<Sensor>> indicePorUbicacion; // ordenado para consultas por zona
+    private final Object cerrojoRegistro = new Object(); // serializa altas y bajas (no las lecturas)
+    private volatile MotorAnalisisParticionado motorAnalisis; // análisis en segundo plano (null: en el hilo que actualiza)
+    private volatile AlmacenSeries series; // series temporales persistentes (null si no están habilitadas)
     
     /**
-     * Constructor privado para implementar el patrón Singleton
+     * Poseedor de la instancia compartida: la JVM la crea al primer uso y la inicialización
+     * de la clase garantiza su publicación segura sin cerrojos en cada acceso
+     */
+    private static final class Poseedor {
+        static final GestorSensores INSTANCIA = new GestorSensores(NotificadorAlertas.obtenerInstancia());
+    }
+    
+    /**
+     * Constructor que crea un gestor independiente
      * Inicializa el mapa de sensores como ConcurrentHashMap para thread-safety
+     * @param notificador Notificador que analiza las lecturas y avisa a los observadores
      */
-    private GestorSensores() {
+    public GestorSensores(NotificadorAlertas notificador) {
+        if (notificador == null) {
+            throw new IllegalArgumentException("El gestor necesita un notificador de alertas");
+        }
+        this.notificador = notificador;
         this.sensores = new ConcurrentHashMap<>();
-        System.out.println("🔧 Gestor de Sensores inicializado");
+        this.estadisticasPorTipo = new ConcurrentHashMap<>();
+        this.indicePorTipo = new ConcurrentHashMap<>();
+        this.indicePorUbicacion = new ConcurrentSkipListMap<>();
+        RegistroEventos.informacion(ORIGEN, "🔧 Gestor de Sensores inicializado");
     }
     
     /**
-     * Método estático para obtener la instancia única del GestorSensores
-     * Implementa double-checked locking para thread-safety
-     * @return La instancia única del GestorSensores
+     * Método estático para obtener la instancia compartida del GestorSensores
+     * Usa el idiom del poseedor (holder): inicialización perezosa y thread-safe sin double-checked locking
+     * @return La instancia compartida, ligada a NotificadorAlertas.obtenerInstancia()
      */
     public static GestorSensores obtenerInstancia() {
-        if (instancia == null) {
-            synchronized (GestorSensores.class) {
-                if (instancia == null) {
-                    instancia = new GestorSensores();
-                }
-            }
-        }
-        return instancia;
+        return Poseedor.INSTANCIA;
+    }
+    
+    /**
+     * Obtiene el notificador con el que este gestor analiza las lecturas
+     * @return Notificador de alertas del gestor
+     */
+    public NotificadorAlertas obtenerNotificador() {
+        return notificador;
     }
     
     /**
@@ -40,8 +70,63 @@ public class GestorSensores {
      * @param sensor El sensor a registrar
      */
     public void registrarSensor(Sensor sensor) {
-        sensores.put(sensor.getId(), sensor);
-        System.out.println("✅ Sensor registrado: " + sensor.getId() + " en " + sensor.getUbicacion());
+        synchronized (cerrojoRegistro) {
+            incorporar(sensor);
+        }
+        RegistroEventos.informacion(ORIGEN, "✅ Sensor registrado: " + sensor.getId() + " en " + sensor.getUbicacion());
+    }
+    
+    /**
+     * Registra muchos sensores de una vez (por ejemplo, al restaurar una instantánea)
+     * Toma el cerrojo de altas una sola vez y emite un único evento en lugar de uno por sensor
+     * @param nuevos Sensores a registrar
+     * @param cantidad Número de sensores de nuevos a registrar
+     */
+    public void registrarSensores(Sensor[] nuevos, int cantidad) {
+        synchronized (cerrojoRegistro) {
+            for (int i = 0; i < cantidad; i++) {
+                incorporar(nuevos[i]);
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "✅ " + cantidad + " sensores registrados en bloque");
+    }
+    
+    /**
+     * Copia los sensores registrados en un momento dado
+     * La copia se toma con el cerrojo de altas y bajas, así que contiene exactamente los sensores
+     * registrados en ese instante aunque haya altas o bajas concurrentes
+     * @return Arreglo nuevo con los sensores registrados
+     */
+    public Sensor[] copiarSensores() {
+        synchronized (cerrojoRegistro) {
+            return sensores.values().toArray(new Sensor[0]);
+        }
+    }
+    
+    /**
+     * Agrega un sensor al registro, al almacén y a los agregados (se llama con cerrojoRegistro tomado)
+     */
+    private void incorporar(Sensor sensor) {
+        if (capacidadHistorial > 0 && sensor.getHistorial() == null) {
+            sensor.establecerHistorial(new HistorialSensor(capacidadHistorial));
+        }
+        AlmacenSensores respaldo = almacen;
+        if (respaldo != null) {
+            respaldo.registrar(sensor);
+        }
+        Sensor anterior = sensores.put(sensor.getId(), sensor);
+        if (anterior != sensor) {
+            if (anterior != null) {
+                estadisticas(anterior).quitar(anterior.getValor());
+                desindexar(anterior);
+                if (respaldo != null) {
+                    respaldo.liberar(anterior);
+                }
+                olvidarEstado(anterior.getId());
+            }
+            estadisticas(sensor).agregar(sensor.getValor());
+            indexar(sensor);
+        }
     }
     
     /**
@@ -52,17 +137,323 @@ public class GestorSensores {
     public void actualizarValorSensor(String idSensor, double nuevoValor) {
         Sensor sensor = sensores.get(idSensor);
         if (sensor != null) {
-            sensor.setValor(nuevoValor);
-            sensor.setUltimaActualizacion(new Date());
-            System.out.println("📊 Sensor " + idSensor + " actualizado: " + nuevoValor);
+            aplicarLectura(sensor, nuevoValor, System.currentTimeMillis() * 1_000_000L);
+            if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+                RegistroEventos.depuracion(ORIGEN, "📊 Sensor " + idSensor + " actualizado: " + nuevoValor);
+            }
             
             // Notificar a los observadores a través del NotificadorAlertas
-            NotificadorAlertas.obtenerInstancia().verificarYNotificar(sensor);
+            analizar(sensor);
+        } else {
+            RegistroEventos.advertencia(ORIGEN, "❌ Sensor no encontrado: " + idSensor);
+        }
+    }
+    
+    /**
+     * Aplica un lote de lecturas en una sola pasada y las analiza como lote
+     * @param idsSensores IDs de los sensores a actualizar
+     * @param valores Nuevos valores medidos (en paralelo con idsSensores)
+     * @param marcasTiempo Marcas de tiempo en nanosegundos desde epoch, o null para usar la hora actual
+     * @param cantidad Número de lecturas válidas en los arreglos
+     * @return Número de lecturas aplicadas (las de sensores no registrados se descartan)
+     */
+    public int actualizarValoresSensores(String[] idsSensores, double[] valores, long[] marcasTiempo, int cantidad) {
+        if (cantidad < 0 || cantidad > idsSensores.length || cantidad > valores.length
+                || (marcasTiempo != null && cantidad > marcasTiempo.length)) {
+            throw new IllegalArgumentException("Cantidad de lecturas fuera de rango: " + cantidad);
+        }
+
+        long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+        Sensor[] actualizados = new Sensor[cantidad];
+        LecturaSensor[] lecturas = new LecturaSensor[cantidad];
+        int aplicadas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            Sensor sensor = sensores.get(idsSensores[i]);
+            if (sensor == null) {
+                continue;
+            }
+            aplicarLectura(sensor, valores[i], marcasTiempo != null ? marcasTiempo[i] : ahoraNanos);
+            lecturas[aplicadas] = sensor.obtenerLectura(); // antes de que otra entrada del lote la reemplace
+            actualizados[aplicadas++] = sensor;
+        }
+        if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            RegistroEventos.depuracion(ORIGEN, "📊 Lote aplicado: " + aplicadas + " de " + cantidad + " lecturas");
+        }
+
+        // Analizar el lote completo y notificar las alertas resultantes
+        analizarLote(actualizados, lecturas, aplicadas);
+        return aplicadas;
+    }
+
+    /**
+     * Registra una lectura en el sensor y actualiza los agregados de su tipo
+     * @param sensor El sensor a actualizar
+     * @param nuevoValor Nuevo valor medido
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     */
+    private void aplicarLectura(Sensor sensor, double nuevoValor, long marcaNanos) {
+        double anterior = sensor.registrarLectura(nuevoValor, marcaNanos);
+        estadisticas(sensor).reemplazar(anterior, nuevoValor);
+        AlmacenSeries almacenSeries = series;
+        if (almacenSeries != null) {
+            almacenSeries.agregar(sensor.getId(), marcaNanos, nuevoValor);
+        }
+    }
+    
+    /**
+     * Obtiene (o crea) los agregados incrementales del tipo de un sensor
+     */
+    private EstadisticasTipo estadisticas(Sensor sensor) {
+        return estadisticasPorTipo.computeIfAbsent(sensor.getTipo(), tipo -> new EstadisticasTipo());
+    }
+    
+    /**
+     * Aplica todas las lecturas acumuladas en un buffer columnar
+     * @param lote El lote de lecturas a aplicar
+     * @return Número de lecturas aplicadas
+     */
+    public int actualizarLote(LoteLecturas lote) {
+        return actualizarValoresSensores(lote.getIdsSensores(), lote.getValores(),
+            lote.getMarcasTiempo(), lote.obtenerCantidad());
+    }
+
+    /**
+     * Habilita el almacén primitivo de sensores: valor y marca de tiempo pasan a vivir en
+     * columnas double[]/long[] indexadas por handle, y los objetos Sensor quedan como vistas
+     * Los sensores ya registrados se incorporan al almacén
+     * @param capacidad Número máximo de sensores que podrá contener el almacén
+     */
+    public void habilitarAlmacenPrimitivo(int capacidad) {
+        synchronized (cerrojoRegistro) {
+            if (almacen != null) {
+                throw new IllegalStateException("El almacén primitivo ya está habilitado");
+            }
+            AlmacenSensores nuevoAlmacen = new AlmacenSensores(capacidad);
+            for (Sensor sensor : sensores.values()) {
+                nuevoAlmacen.registrar(sensor);
+            }
+            this.almacen = nuevoAlmacen;
+        }
+        RegistroEventos.informacion(ORIGEN, "🧱 Almacén primitivo habilitado: capacidad " + capacidad + " sensores");
+    }
+    
+    /**
+     * Obtiene el handle de un sensor en el almacén primitivo
+     * @param idSensor ID del sensor
+     * @return El handle, o -1 si el sensor no existe o el almacén no está habilitado
+     */
+    public int obtenerHandle(String idSensor) {
+        Sensor sensor = sensores.get(idSensor);
+        return sensor != null ? sensor.getHandle() : -1;
+    }
+    
+    /**
+     * Actualiza un sensor por su handle sin crear objetos y lo pasa por el análisis
+     * Requiere el almacén primitivo habilitado
+     * @param handle Handle del sensor (ver obtenerHandle)
+     * @param nuevoValor Nuevo valor medido
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     * @return true si el handle corresponde a un sensor registrado
+     */
+    public boolean actualizarValorSensor(int handle, double nuevoValor, long marcaNanos) {
+        AlmacenSensores respaldo = almacen;
+        if (respaldo == null || handle < 0 || handle >= respaldo.obtenerCapacidad()) {
+            return false;
+        }
+        Sensor sensor = respaldo.obtenerSensor(handle);
+        if (sensor == null) {
+            return false;
+        }
+        aplicarLectura(sensor, nuevoValor, marcaNanos);
+        analizar(sensor);
+        return true;
+    }
+    
+    /**
+     * Aplica un lote de lecturas identificadas por handle y las analiza como lote
+     * Requiere el almacén primitivo habilitado
+     * @param handles Handles de los sensores a actualizar
+     * @param valores Nuevos valores medidos (en paralelo con handles)
+     * @param marcasNanos Marcas de tiempo en nanosegundos desde epoch
+     * @param cantidad Número de lecturas válidas en los arreglos
+     * @return Número de lecturas aplicadas (los handles libres o inválidos se descartan)
+     */
+    public int actualizarValoresSensores(int[] handles, double[] valores, long[] marcasNanos, int cantidad) {
+        AlmacenSensores respaldo = almacen;
+        if (respaldo == null) {
+            throw new IllegalStateException("El almacén primitivo no está habilitado");
+        }
+        Sensor[] actualizados = new Sensor[cantidad];
+        LecturaSensor[] lecturas = new LecturaSensor[cantidad];
+        int aplicadas = 0;
+        int capacidad = respaldo.obtenerCapacidad();
+        for (int i = 0; i < cantidad; i++) {
+            int handle = handles[i];
+            if (handle < 0 || handle >= capacidad) {
+                continue;
+            }
+            Sensor sensor = respaldo.obtenerSensor(handle);
+            if (sensor == null) {
+                continue;
+            }
+            aplicarLectura(sensor, valores[i], marcasNanos[i]);
+            lecturas[aplicadas] = sensor.obtenerLectura(); // antes de que otra entrada del lote la reemplace
+            actualizados[aplicadas++] = sensor;
+        }
+        analizarLote(actualizados, lecturas, aplicadas);
+        return aplicadas;
+    }
+    
+    /**
+     * Delega el análisis de las lecturas en un motor particionado: las actualizaciones
+     * solo encolan la instantánea de la lectura y el análisis y la notificación ocurren en los hilos del motor
+     * @param motor El motor a usar, o null para volver a analizar en el hilo que actualiza
+     */
+    public void establecerMotorAnalisis(MotorAnalisisParticionado motor) {
+        this.motorAnalisis = motor;
+        RegistroEventos.informacion(ORIGEN, motor != null
+            ? "🧩 Análisis delegado en " + motor.obtenerCantidadParticiones() + " particiones"
+            : "🧩 Análisis en el hilo de actualización");
+    }
+
+    /**
+     * Reevalúa todos los sensores registrados con la estrategia actual (por ejemplo, tras cambiar umbrales)
+     * Con un motor de análisis establecido el barrido se reparte entre sus particiones
+     * @param notificar true para notificar las alertas resultantes a los observadores
+     * @return Alertas generadas
+     */
+    public List<Alerta> analizarTodos(boolean notificar) {
+        MotorAnalisisParticionado motor = motorAnalisis;
+        if (motor != null) {
+            return motor.analizarTodos(sensores.values(), notificar);
+        }
+        List<Alerta> alertas = new ArrayList<>();
+        for (Sensor sensor : sensores.values()) {
+            Alerta alerta = notificador.evaluar(sensor);
+            if (alerta != null) {
+                alertas.add(alerta);
+            }
+        }
+        if (notificar && !alertas.isEmpty()) {
+            notificador.notificarObservadoresLote(alertas);
+        }
+        return alertas;
+    }
+
+    private void analizar(Sensor sensor) {
+        MotorAnalisisParticionado motor = motorAnalisis;
+        if (motor != null) {
+            motor.enviar(sensor);
+        } else {
+            notificador.verificarYNotificar(sensor);
+        }
+    }
+
+    private void analizarLote(Sensor[] actualizados, LecturaSensor[] lecturas, int cantidad) {
+        MotorAnalisisParticionado motor = motorAnalisis;
+        if (motor != null) {
+            motor.enviarLote(actualizados, lecturas, cantidad);
         } else {
-            System.out.println("❌ Sensor no encontrado: " + idSensor);
+            notificador.verificarYNotificarLote(actualizados, lecturas, cantidad);
+        }
+    }
+
+    /**
+     * Habilita el historial de lecturas: cada sensor registrado obtiene un buffer circular
+     * de capacidad fija, de modo que la memoria por sensor es acotada y predecible
+     * Las lecturas de un mismo sensor deben llegar desde un único hilo a la vez
+     * @param capacidadPorSensor Lecturas retenidas por sensor (se redondea a potencia de dos)
+     */
+    public void habilitarHistorial(int capacidadPorSensor) {
+        if (capacidadPorSensor <= 0) {
+            throw new IllegalArgumentException("La capacidad del historial debe ser positiva: " + capacidadPorSensor);
+        }
+        synchronized (cerrojoRegistro) {
+            if (capacidadHistorial > 0) {
+                throw new IllegalStateException("El historial ya está habilitado");
+            }
+            this.capacidadHistorial = capacidadPorSensor;
+            for (Sensor sensor : sensores.values()) {
+                if (sensor.getHistorial() == null) {
+                    sensor.establecerHistorial(new HistorialSensor(capacidadPorSensor));
+                }
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "🕒 Historial habilitado: " + capacidadPorSensor + " lecturas por sensor");
+    }
+    
+    /**
+     * Obtiene las lecturas históricas de un sensor en un rango de tiempo
+     * @param idSensor ID del sensor
+     * @param desdeNanos Inicio del rango (inclusive), en nanosegundos desde epoch
+     * @param hastaNanos Fin del rango (inclusive), en nanosegundos desde epoch
+     * @return Serie de lecturas, o null si el sensor no existe o no tiene historial
+     */
+    public SerieLecturas obtenerHistorial(String idSensor, long desdeNanos, long hastaNanos) {
+        Sensor sensor = sensores.get(idSensor);
+        HistorialSensor historial = sensor != null ? sensor.getHistorial() : null;
+        return historial != null ? historial.consultarRango(desdeNanos, hastaNanos) : null;
+    }
+    
+    /**
+     * Habilita las series temporales: cada lectura aplicada se agrega también al almacén,
+     * que la conserva comprimida y la resume por minuto y por hora (ver AlmacenSeries)
+     * El almacén sigue siendo de quien lo creó, que debe cerrarlo
+     * @param almacenSeries Almacén de series, o null para deshabilitarlas
+     */
+    public void habilitarSeries(AlmacenSeries almacenSeries) {
+        this.series = almacenSeries;
+        if (almacenSeries != null) {
+            RegistroEventos.informacion(ORIGEN, "📈 Series temporales habilitadas");
         }
     }
     
+    /**
+     * Consulta un nivel concreto de la serie temporal de un sensor
+     * @param idSensor ID del sensor
+     * @param nivel Lecturas crudas o resúmenes por minuto u hora
+     * @param desdeNanos Inicio del rango (inclusive), en nanosegundos desde epoch
+     * @param hastaNanos Fin del rango (inclusive), en nanosegundos desde epoch
+     * @return Serie del nivel, o null si el sensor no tiene lecturas en el almacén
+     */
+    public SerieResumen consultarSerie(String idSensor, NivelSerie nivel, long desdeNanos, long hastaNanos) throws IOException {
+        return seriesHabilitadas().consultar(idSensor, nivel, desdeNanos, hastaNanos);
+    }
+    
+    /**
+     * Consulta la serie temporal de un sensor en el nivel más fino que no supere un número de puntos
+     * Los rangos largos (por ejemplo, los de un panel de varios días) se leen de los resúmenes
+     * @param idSensor ID del sensor
+     * @param desdeNanos Inicio del rango (inclusive), en nanosegundos desde epoch
+     * @param hastaNanos Fin del rango (inclusive), en nanosegundos desde epoch
+     * @param puntosMaximos Puntos que puede representar quien consulta
+     * @return Serie del nivel elegido, o null si el sensor no tiene lecturas en el almacén
+     */
+    public SerieResumen consultarSerie(String idSensor, long desdeNanos, long hastaNanos, int puntosMaximos) throws IOException {
+        return seriesHabilitadas().consultar(idSensor, desdeNanos, hastaNanos, puntosMaximos);
+    }
+    
+    private AlmacenSeries seriesHabilitadas() {
+        AlmacenSeries almacenSeries = series;
+        if (almacenSeries == null) {
+            throw new IllegalStateException("Las series temporales no están habilitadas");
+        }
+        return almacenSeries;
+    }
+    
+    /**
+     * Obtiene las lecturas de un sensor en una ventana que termina ahora
+     * Por ejemplo, obtenerHistorialReciente(id, TimeUnit.MINUTES.toNanos(5)).media()
+     * es la media de los últimos 5 minutos
+     * @param idSensor ID del sensor
+     * @param ventanaNanos Duración de la ventana en nanosegundos
+     * @return Serie de lecturas, o null si el sensor no existe o no tiene historial
+     */
+    public SerieLecturas obtenerHistorialReciente(String idSensor, long ventanaNanos) {
+        long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+        return obtenerHistorial(idSensor, ahoraNanos - ventanaNanos, ahoraNanos);
+    }
+    
     /**
      * Obtiene un sensor por su ID
      * @param idSensor ID del sensor a buscar
@@ -77,8 +468,31 @@ public class GestorSensores {
      * @param idSensor ID del sensor a eliminar
      */
     public void eliminarSensor(String idSensor) {
-        sensores.remove(idSensor);
-        System.out.println("🗑️ Sensor eliminado: " + idSensor);
+        synchronized (cerrojoRegistro) {
+            Sensor eliminado = sensores.remove(idSensor);
+            if (eliminado != null) {
+                estadisticas(eliminado).quitar(eliminado.getValor());
+                desindexar(eliminado);
+                AlmacenSensores respaldo = almacen;
+                if (respaldo != null) {
+                    respaldo.liberar(eliminado);
+                }
+                olvidarEstado(idSensor);
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "🗑️ Sensor eliminado: " + idSensor);
+    }
+
+    /**
+     * Descarta lo que la supresión y la estrategia actual recuerdan de un sensor que se
+     * retira o se reemplaza (se llama con cerrojoRegistro tomado)
+     */
+    private void olvidarEstado(String idSensor) {
+        SupresorAlertas supresor = notificador.obtenerSupresor();
+        if (supresor != null) {
+            supresor.olvidar(idSensor);
+        }
+        notificador.obtenerEstrategiaActual().olvidar(idSensor);
     }
     
     /**
@@ -95,42 +509,113 @@ public class GestorSensores {
      * @return Lista de sensores del tipo especificado
      */
     public List<Sensor> obtenerSensoresPorTipo(String tipo) {
+        Set<Sensor> sensoresTipo = indicePorTipo.get(tipo);
+        return sensoresTipo != null ? new ArrayList<>(sensoresTipo) : new ArrayList<>();
+    }
+    
+    /**
+     * Obtiene sensores filtrados por ubicación
+     * Una ubicación terminada en '*' se interpreta como zona: por ejemplo "Sala de Máquinas *"
+     * devuelve los sensores de todas las ubicaciones que empiezan por "Sala de Máquinas "
+     * @param ubicacion Ubicación exacta o prefijo de zona terminado en '*'
+     * @return Lista de sensores de la ubicación o zona especificada
+     */
+    public List<Sensor> obtenerSensoresPorUbicacion(String ubicacion) {
         List<Sensor> sensoresFiltrados = new ArrayList<>();
-        for (Sensor sensor : sensores.values()) {
-            if (sensor.getTipo().equals(tipo)) {
-                sensoresFiltrados.add(sensor);
+        if (ubicacion.endsWith("*")) {
+            String prefijo = ubicacion.substring(0, ubicacion.length() - 1);
+            for (Set<Sensor> sensoresUbicacion : indicePorUbicacion
+                    .subMap(prefijo, true, prefijo + Character.MAX_VALUE, true).values()) {
+                sensoresFiltrados.addAll(sensoresUbicacion);
+            }
+        } else {
+            Set<Sensor> sensoresUbicacion = indicePorUbicacion.get(ubicacion);
+            if (sensoresUbicacion != null) {
+                sensoresFiltrados.addAll(sensoresUbicacion);
             }
         }
         return sensoresFiltrados;
     }
     
+    /**
+     * Agrega un sensor a los índices secundarios (se llama con cerrojoRegistro tomado)
+     */
+    private void indexar(Sensor sensor) {
+        indicePorTipo.computeIfAbsent(sensor.getTipo(), tipo -> ConcurrentHashMap.newKeySet()).add(sensor);
+        indicePorUbicacion.computeIfAbsent(sensor.getUbicacion(), ubicacion -> ConcurrentHashMap.newKeySet()).add(sensor);
+    }
+    
+    /**
+     * Quita un sensor de los índices secundarios (se llama con cerrojoRegistro tomado)
+     */
+    private void desindexar(Sensor sensor) {
+        quitarDeIndice(indicePorTipo, sensor.getTipo(), sensor);
+        quitarDeIndice(indicePorUbicacion, sensor.getUbicacion(), sensor);
+    }
+    
+    private void quitarDeIndice(Map<String, Set<Sensor>> indice, String clave, Sensor sensor) {
+        Set<Sensor> sensoresClave = indice.get(clave);
+        if (sensoresClave != null) {
+            sensoresClave.remove(sensor);
+            if (sensoresClave.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+    
     /**
      * Obtiene estadísticas generales del sistema
+     * Se sirven desde los agregados incrementales por tipo, sin recorrer los sensores; solo los
+     * mínimos y máximos de los valores actuales se recalculan recorriendo los sensores de un tipo
+     * cuando el sensor que tenía un extremo se alejó de él o se retiró
      * @return Mapa con estadísticas del sistema
      */
     public Map<String, Object> obtenerEstadisticas() {
         Map<String, Object> estadisticas = new HashMap<>();
         estadisticas.put("totalSensores", sensores.size());
         
-        // Contar sensores por tipo
         Map<String, Integer> sensoresPorTipo = new HashMap<>();
-        for (Sensor sensor : sensores.values()) {
-            sensoresPorTipo.put(sensor.getTipo(), 
-                sensoresPorTipo.getOrDefault(sensor.getTipo(), 0) + 1);
-        }
-        estadisticas.put("sensoresPorTipo", sensoresPorTipo);
-        
-        // Calcular valores promedio por tipo
         Map<String, Double> valoresPromedio = new HashMap<>();
-        for (String tipo : sensoresPorTipo.keySet()) {
-            List<Sensor> sensoresTipo = obtenerSensoresPorTipo(tipo);
-            double promedio = sensoresTipo.stream()
-                .mapToDouble(Sensor::getValor)
-                .average()
-                .orElse(0.0);
-            valoresPromedio.put(tipo, promedio);
+        Map<String, Double> valoresMinimos = new HashMap<>();
+        Map<String, Double> valoresMaximos = new HashMap<>();
+        Map<String, Double> varianzas = new HashMap<>();
+        for (Map.Entry<String, EstadisticasTipo> entrada : estadisticasPorTipo.entrySet()) {
+            EstadisticasTipo agregados = entrada.getValue();
+            String tipo = entrada.getKey();
+            boolean extremosVigentes;
+            long version;
+            synchronized (agregados) {
+                if (agregados.obtenerCantidad() == 0) {
+                    continue;
+                }
+                sensoresPorTipo.put(tipo, agregados.obtenerCantidad());
+                valoresPromedio.put(tipo, agregados.obtenerPromedio());
+                valoresMinimos.put(tipo, agregados.obtenerMinimo());
+                valoresMaximos.put(tipo, agregados.obtenerMaximo());
+                varianzas.put(tipo, agregados.obtenerVarianza());
+                extremosVigentes = agregados.extremosVigentes();
+                version = agregados.obtenerVersion();
+            }
+            if (!extremosVigentes) {
+                double minimo = Double.NaN;
+                double maximo = Double.NaN;
+                for (Sensor sensor : sensores.values()) {
+                    if (sensor.getTipo().equals(tipo)) {
+                        double valor = sensor.getValor();
+                        minimo = valor >= minimo ? minimo : valor;
+                        maximo = valor <= maximo ? maximo : valor;
+                    }
+                }
+                agregados.establecerExtremos(minimo, maximo, version); // se descarta si hubo cambios entretanto
+                valoresMinimos.put(tipo, minimo);
+                valoresMaximos.put(tipo, maximo);
+            }
         }
+        estadisticas.put("sensoresPorTipo", sensoresPorTipo);
         estadisticas.put("valoresPromedio", valoresPromedio);
+        estadisticas.put("valoresMinimos", valoresMinimos);
+        estadisticas.put("valoresMaximos", valoresMaximos);
+        estadisticas.put("varianzas", varianzas);
         
         return estadisticas;
     }
@@ -0,0 +1,120 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Buffer circular de capacidad fija con el historial de lecturas (marca de tiempo, valor) de un sensor
+ * Las columnas son primitivas y se reservan al crear el historial, por lo que la memoria por sensor
+ * es acotada (16 bytes por lectura) y agregar una lectura no crea objetos
+ * Escritura sin bloqueos para un único escritor por sensor; los lectores copian una instantánea
+ * consistente y descartan las posiciones que el escritor haya sobrescrito durante la copia
+ */
+public class HistorialSensor {
+    private static final VarHandle ESCRITOS;
+
+    static {
+        try {
+            ESCRITOS = MethodHandles.lookup().findVarHandle(HistorialSensor.class, "escritos", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] marcasNanos;
+    private final double[] valores;
+    private final int mascara;
+    private long escritos; // total de lecturas agregadas; se accede solo a través de ESCRITOS
+
+    /**
+     * Constructor que reserva el buffer
+     * @param capacidad Número de lecturas retenidas (se redondea a la siguiente potencia de dos)
+     */
+    public HistorialSensor(int capacidad) {
+        if (capacidad <= 0 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad de historial inválida: " + capacidad);
+        }
+        int capacidadReal = Integer.highestOneBit(capacidad);
+        if (capacidadReal < capacidad) {
+            capacidadReal <<= 1;
+        }
+        this.marcasNanos = new long[capacidadReal];
+        this.valores = new double[capacidadReal];
+        this.mascara = capacidadReal - 1;
+    }
+
+    /**
+     * Agrega una lectura sobrescribiendo la más antigua si el buffer está lleno
+     * Solo debe llamarse desde un único hilo escritor por sensor
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     * @param valor Valor medido
+     */
+    public void agregar(long marcaNanos, double valor) {
+        long posicion = (long) ESCRITOS.getOpaque(this);
+        int indice = (int) (posicion & mascara);
+        // La publicación de la lectura anterior (escritos = posicion) debe verse antes que
+        // los datos de esta vuelta: la liberación solo ordena lo escrito antes de ella, así que
+        // sin esta barrera un lector podría ver la posición sobrescrita con el contador viejo
+        VarHandle.storeStoreFence();
+        marcasNanos[indice] = marcaNanos;
+        valores[indice] = valor;
+        ESCRITOS.setRelease(this, posicion + 1);
+    }
+
+    /**
+     * Obtiene las lecturas retenidas cuya marca de tiempo está en [desdeNanos, hastaNanos]
+     * @param desdeNanos Inicio del rango (inclusive), en nanosegundos desde epoch
+     * @param hastaNanos Fin del rango (inclusive), en nanosegundos desde epoch
+     * @return Serie con las lecturas del rango en orden de llegada
+     */
+    public SerieLecturas consultarRango(long desdeNanos, long hastaNanos) {
+        long fin = (long) ESCRITOS.getAcquire(this);
+        long inicio = Math.max(0, fin - marcasNanos.length);
+        int maximo = (int) (fin - inicio);
+        long[] marcasCopia = new long[maximo];
+        double[] valoresCopia = new double[maximo];
+        long[] posiciones = new long[maximo];
+        int cantidad = 0;
+        for (long posicion = inicio; posicion < fin; posicion++) {
+            int indice = (int) (posicion & mascara);
+            long marca = marcasNanos[indice];
+            if (marca >= desdeNanos && marca <= hastaNanos) {
+                marcasCopia[cantidad] = marca;
+                valoresCopia[cantidad] = valores[indice];
+                posiciones[cantidad] = posicion;
+                cantidad++;
+            }
+        }
+
+        // Descartar las posiciones que el escritor pudo sobrescribir mientras copiábamos,
+        // incluida la que puede estar escribiendo en este momento
+        // La barrera impide que la nueva lectura del contador se adelante a la copia de los datos
+        VarHandle.acquireFence();
+        long validoDesde = (long) ESCRITOS.getAcquire(this) + 1 - marcasNanos.length;
+        int descartadas = 0;
+        while (descartadas < cantidad && posiciones[descartadas] < validoDesde) {
+            descartadas++;
+        }
+        return new SerieLecturas(marcasCopia, valoresCopia, descartadas, cantidad - descartadas);
+    }
+
+    /**
+     * Obtiene las lecturas de los últimos ventanaNanos nanosegundos
+     * @param ventanaNanos Duración de la ventana
+     * @param ahoraNanos Instante de referencia en nanosegundos desde epoch
+     * @return Serie con las lecturas de la ventana
+     */
+    public SerieLecturas consultarVentana(long ventanaNanos, long ahoraNanos) {
+        return consultarRango(ahoraNanos - ventanaNanos, ahoraNanos);
+    }
+
+    /**
+     * Obtiene la cantidad de lecturas retenidas actualmente
+     * @return Número de lecturas disponibles (como máximo la capacidad)
+     */
+    public int obtenerCantidad() {
+        return (int) Math.min((long) ESCRITOS.getAcquire(this), marcasNanos.length);
+    }
+
+    public int obtenerCapacidad() {
+        return marcasNanos.length;
+    }
+}
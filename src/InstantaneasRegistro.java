@@ -0,0 +1,367 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Instantáneas binarias del registro de sensores para reiniciar rápido
+ * Guarda en disco local los sensores de un gestor (ID, tipo, ubicación y última lectura) y el
+ * estado por sensor de las estrategias registradas con registrarEstado, y los restaura con
+ * una lectura del archivo mapeado en memoria y un único alta en bloque en el gestor
+ * Consistencia: la lista de sensores se copia de una vez con el cerrojo de altas y bajas y la
+ * lectura de cada sensor es una instantánea atómica (valor y marca de la misma lectura); el
+ * archivo se escribe aparte y se renombra atómicamente, así que nunca se lee uno a medio escribir
+ * Formato (big-endian):
+ * <pre>
+ *   int magia, int versión, long marcaNanos, int sensores, int cadenas, int secciones, int reservado
+ *   cadenas x (short bytes, UTF-8)                          tipos y ubicaciones sin repetir
+ *   sensores x (short bytes, UTF-8 del ID, int tipo, int ubicación, double valor, long marcaNanos, long secuencia)
+ *   secciones x (short bytes, UTF-8 del nombre, int palabras, registros x (int sensor, palabras x long), int -1)
+ *   long CRC32 de todo lo anterior
+ * </pre>
+ */
+public class InstantaneasRegistro implements Closeable {
+    private static final String ORIGEN = "InstantaneasRegistro";
+    private static final int MAGIA = 0x494F5453; // "IOTS"
+    private static final int VERSION = 1;
+    private static final int BYTES_CABECERA = 4 + 4 + 8 + 4 + 4 + 4 + 4;
+    private static final int BYTES_BUFFER = 1 << 20;
+    private static final int FIN_SECCION = -1;
+
+    private final GestorSensores gestor;
+    private final Path archivo;
+    private final Map<String, EstrategiaConEstado> estados; // por nombre de sección, en orden de registro
+    private ScheduledExecutorService programador; // null hasta que se inicia la escritura periódica
+    private final AtomicLong instantaneas;
+    private final AtomicLong errores;
+    private volatile long ultimosSensores;
+    private volatile long ultimosBytes;
+    private volatile long ultimaDuracionNanos;
+
+    /**
+     * Constructor de las instantáneas de un gestor
+     * @param gestor Gestor cuyos sensores se guardan y en el que se restauran
+     * @param archivo Archivo de la instantánea (se escribe junto a él un temporal con sufijo .tmp)
+     */
+    public InstantaneasRegistro(GestorSensores gestor, Path archivo) {
+        this.gestor = gestor;
+        this.archivo = archivo;
+        this.estados = new LinkedHashMap<>();
+        this.instantaneas = new AtomicLong();
+        this.errores = new AtomicLong();
+    }
+
+    /**
+     * Incluye en las instantáneas el estado por sensor de una estrategia
+     * El nombre identifica la sección en el archivo: al restaurar, el estado se entrega a la
+     * estrategia registrada con el mismo nombre (las secciones sin estrategia se ignoran)
+     * @param nombre Nombre estable de la sección
+     * @param estrategia Estrategia cuyo estado se guarda y restaura
+     */
+    public synchronized void registrarEstado(String nombre, EstrategiaConEstado estrategia) {
+        if (utf8(nombre).length > 0xFFFF) {
+            throw new IllegalArgumentException("Nombre de sección demasiado largo: " + nombre.length() + " caracteres");
+        }
+        estados.put(nombre, estrategia);
+    }
+
+    /**
+     * Escribe una instantánea en segundo plano cada cierto tiempo, en un hilo propio
+     * Un fallo de escritura se registra y se reintenta en el siguiente periodo
+     * @param periodoNanos Tiempo entre el final de una instantánea y el inicio de la siguiente
+     */
+    public synchronized void iniciar(long periodoNanos) {
+        if (periodoNanos <= 0) {
+            throw new IllegalArgumentException("El periodo debe ser positivo: " + periodoNanos);
+        }
+        if (programador != null) {
+            throw new IllegalStateException("Las instantáneas periódicas ya están iniciadas");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "instantaneas-registro");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                guardar();
+            } catch (IOException | RuntimeException e) {
+                errores.incrementAndGet();
+                RegistroEventos.error(ORIGEN, "❌ No se pudo escribir la instantánea " + archivo + ": " + e);
+            }
+        }, periodoNanos, periodoNanos, TimeUnit.NANOSECONDS);
+        RegistroEventos.informacion(ORIGEN, "📸 Instantáneas cada " + periodoNanos / 1_000_000L + " ms en " + archivo);
+    }
+
+    /**
+     * Escribe ahora una instantánea y reemplaza atómicamente la anterior
+     * @return Número de sensores guardados
+     */
+    public synchronized int guardar() throws IOException {
+        long inicio = System.nanoTime();
+        Sensor[] sensores = gestor.copiarSensores();
+
+        // Diccionario de tipos y ubicaciones: se repiten mucho entre sensores
+        Map<String, Integer> indiceCadenas = new HashMap<>();
+        List<byte[]> cadenas = new ArrayList<>();
+        int[] tipos = new int[sensores.length];
+        int[] ubicaciones = new int[sensores.length];
+        for (int i = 0; i < sensores.length; i++) {
+            tipos[i] = indiceCadena(sensores[i].getTipo(), indiceCadenas, cadenas);
+            ubicaciones[i] = indiceCadena(sensores[i].getUbicacion(), indiceCadenas, cadenas);
+        }
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        long bytes;
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor escritor = new Escritor(canal);
+            ByteBuffer buffer = escritor.reservar(BYTES_CABECERA);
+            buffer.putInt(MAGIA).putInt(VERSION).putLong(System.currentTimeMillis() * 1_000_000L)
+                .putInt(sensores.length).putInt(cadenas.size()).putInt(estados.size()).putInt(0);
+            for (byte[] cadena : cadenas) {
+                escritor.cadena(cadena);
+            }
+            for (int i = 0; i < sensores.length; i++) {
+                LecturaSensor lectura = sensores[i].obtenerLectura();
+                escritor.cadena(utf8(sensores[i].getId()));
+                escritor.reservar(4 + 4 + 8 + 8 + 8).putInt(tipos[i]).putInt(ubicaciones[i])
+                    .putDouble(lectura.getValor()).putLong(lectura.getMarcaNanos()).putLong(lectura.getSecuencia());
+            }
+            for (Map.Entry<String, EstrategiaConEstado> seccion : estados.entrySet()) {
+                EstrategiaConEstado estrategia = seccion.getValue();
+                int palabras = estrategia.obtenerPalabrasEstado();
+                long[] estado = new long[palabras];
+                escritor.cadena(utf8(seccion.getKey()));
+                escritor.reservar(4).putInt(palabras);
+                for (int i = 0; i < sensores.length; i++) {
+                    if (estrategia.exportarEstado(sensores[i].getId(), estado)) {
+                        buffer = escritor.reservar(4 + 8 * palabras).putInt(i);
+                        for (long palabra : estado) {
+                            buffer.putLong(palabra);
+                        }
+                    }
+                }
+                escritor.reservar(4).putInt(FIN_SECCION);
+            }
+            bytes = escritor.terminar();
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        instantaneas.incrementAndGet();
+        ultimosSensores = sensores.length;
+        ultimosBytes = bytes;
+        ultimaDuracionNanos = System.nanoTime() - inicio;
+        if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            RegistroEventos.depuracion(ORIGEN, "📸 Instantánea escrita: " + sensores.length + " sensores, " +
+                bytes + " bytes en " + ultimaDuracionNanos / 1_000_000L + " ms");
+        }
+        return sensores.length;
+    }
+
+    /**
+     * Restaura la instantánea en el gestor: registra sus sensores en bloque (los que ya existan
+     * con el mismo ID se reemplazan) e importa el estado de las estrategias registradas
+     * El archivo se lee mapeado en memoria y se verifica su CRC antes de tocar el gestor
+     * @return Número de sensores restaurados, o 0 si no existe la instantánea
+     */
+    public synchronized int restaurar() throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        long inicio = System.nanoTime();
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < BYTES_CABECERA + 8 || tamano > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de instantánea inválido: " + tamano + " bytes");
+            }
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano); // el mapeo sobrevive al canal
+        }
+        int finDatos = buffer.limit() - 8;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(finDatos));
+        if (crc.getValue() != buffer.getLong(finDatos)) {
+            throw new IOException("Instantánea corrupta (CRC no coincide): " + archivo);
+        }
+        if (buffer.getInt() != MAGIA || buffer.getInt() != VERSION) {
+            throw new IOException("El archivo no es una instantánea del registro (versión " + VERSION + "): " + archivo);
+        }
+        buffer.getLong(); // marca de creación
+        int cantidadSensores = buffer.getInt();
+        int cantidadCadenas = buffer.getInt();
+        int cantidadSecciones = buffer.getInt();
+        buffer.getInt();
+
+        byte[] auxiliar = new byte[0xFFFF];
+        String[] cadenas = new String[cantidadCadenas];
+        for (int i = 0; i < cantidadCadenas; i++) {
+            cadenas[i] = leerCadena(buffer, auxiliar);
+        }
+        Sensor[] sensores = new Sensor[cantidadSensores];
+        for (int i = 0; i < cantidadSensores; i++) {
+            String id = leerCadena(buffer, auxiliar);
+            String tipo = cadenas[buffer.getInt()];
+            String ubicacion = cadenas[buffer.getInt()];
+            double valor = buffer.getDouble();
+            long marcaNanos = buffer.getLong();
+            long secuencia = buffer.getLong();
+            sensores[i] = new Sensor(id, tipo, ubicacion, new LecturaSensor(valor, marcaNanos, secuencia));
+        }
+        gestor.registrarSensores(sensores, cantidadSensores);
+
+        for (int s = 0; s < cantidadSecciones; s++) {
+            String nombre = leerCadena(buffer, auxiliar);
+            int palabras = buffer.getInt();
+            EstrategiaConEstado estrategia = estados.get(nombre);
+            if (estrategia != null && estrategia.obtenerPalabrasEstado() != palabras) {
+                RegistroEventos.advertencia(ORIGEN, "⚠️ Estado de " + nombre + " ignorado: " + palabras +
+                    " palabras por sensor en el archivo y " + estrategia.obtenerPalabrasEstado() + " en la estrategia");
+                estrategia = null;
+            }
+            long[] estado = new long[palabras];
+            for (int indice = buffer.getInt(); indice != FIN_SECCION; indice = buffer.getInt()) {
+                if (estrategia == null) {
+                    buffer.position(buffer.position() + 8 * palabras);
+                    continue;
+                }
+                for (int p = 0; p < palabras; p++) {
+                    estado[p] = buffer.getLong();
+                }
+                estrategia.importarEstado(sensores[indice].getId(), estado);
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "♻️ Instantánea restaurada: " + cantidadSensores + " sensores en " +
+            (System.nanoTime() - inicio) / 1_000_000L + " ms");
+        return cantidadSensores;
+    }
+
+    /**
+     * Obtiene las métricas de escritura
+     * @return Mapa con instantáneas escritas, errores y sensores, bytes y duración de la última
+     */
+    public Map<String, Long> obtenerMetricas() {
+        Map<String, Long> metricas = new HashMap<>();
+        metricas.put("instantaneas", instantaneas.get());
+        metricas.put("errores", errores.get());
+        metricas.put("sensores", ultimosSensores);
+        metricas.put("bytes", ultimosBytes);
+        metricas.put("duracionNanos", ultimaDuracionNanos);
+        return metricas;
+    }
+
+    /**
+     * Detiene la escritura periódica y escribe una última instantánea
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService activo;
+        synchronized (this) {
+            activo = programador;
+            programador = null;
+        }
+        if (activo != null) {
+            activo.shutdown();
+            try {
+                activo.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        guardar();
+    }
+
+    private static int indiceCadena(String cadena, Map<String, Integer> indice, List<byte[]> cadenas) {
+        Integer existente = indice.get(cadena);
+        if (existente != null) {
+            return existente;
+        }
+        cadenas.add(utf8(cadena));
+        indice.put(cadena, cadenas.size() - 1);
+        return cadenas.size() - 1;
+    }
+
+    private static byte[] utf8(String cadena) {
+        return cadena.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String leerCadena(ByteBuffer buffer, byte[] auxiliar) {
+        int longitud = buffer.getShort() & 0xFFFF;
+        buffer.get(auxiliar, 0, longitud);
+        return new String(auxiliar, 0, longitud, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escritura secuencial por un buffer directo que se vuelca al canal cuando se llena,
+     * acumulando el CRC de todo lo escrito
+     */
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BYTES_BUFFER);
+        private final CRC32 crc = new CRC32();
+        private long escritos;
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * Garantiza hueco para los bytes indicados y devuelve el buffer en el que escribirlos
+         */
+        ByteBuffer reservar(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                volcar();
+            }
+            return buffer;
+        }
+
+        void cadena(byte[] cadena) throws IOException {
+            if (cadena.length > 0xFFFF) {
+                throw new IllegalArgumentException("Cadena demasiado larga para la instantánea: " + cadena.length + " bytes");
+            }
+            reservar(2 + cadena.length).putShort((short) cadena.length).put(cadena);
+        }
+
+        /**
+         * Vuelca lo pendiente y añade el CRC final
+         * @return Bytes totales del archivo
+         */
+        long terminar() throws IOException {
+            volcar();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            escritos += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            return escritos;
+        }
+
+        private void volcar() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            escritos += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
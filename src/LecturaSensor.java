@@ -0,0 +1,33 @@
+/**
+ * Instantánea inmutable de la última lectura de un sensor
+ * Valor, marca de tiempo y número de secuencia se publican juntos, de modo que un lector
+ * nunca ve un valor nuevo con una marca de tiempo antigua
+ */
+public final class LecturaSensor {
+    private final double valor;
+    private final long marcaNanos; // nanosegundos desde epoch
+    private final long secuencia;  // lecturas registradas en el sensor hasta esta (incluida)
+
+    public LecturaSensor(double valor, long marcaNanos, long secuencia) {
+        this.valor = valor;
+        this.marcaNanos = marcaNanos;
+        this.secuencia = secuencia;
+    }
+
+    public double getValor() {
+        return valor;
+    }
+
+    public long getMarcaNanos() {
+        return marcaNanos;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    @Override
+    public String toString() {
+        return "LecturaSensor{valor=" + valor + ", marcaNanos=" + marcaNanos + ", secuencia=" + secuencia + "}";
+    }
+}
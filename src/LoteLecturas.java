@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+/**
+ * Buffer columnar de lecturas de sensores para ingesta por lotes
+ * Almacena las tuplas (idSensor, valor, marcaTiempo) en arreglos paralelos
+ * para que GestorSensores pueda aplicarlas en una sola pasada
+ */
+public class LoteLecturas {
+    private static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    private String[] idsSensores;
+    private double[] valores;
+    private long[] marcasTiempo; // nanosegundos desde epoch
+    private int cantidad;
+
+    /**
+     * Constructor con capacidad por defecto
+     */
+    public LoteLecturas() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor con capacidad inicial
+     * @param capacidadInicial Número de lecturas que caben sin redimensionar
+     */
+    public LoteLecturas(int capacidadInicial) {
+        if (capacidadInicial <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidadInicial);
+        }
+        this.idsSensores = new String[capacidadInicial];
+        this.valores = new double[capacidadInicial];
+        this.marcasTiempo = new long[capacidadInicial];
+        this.cantidad = 0;
+    }
+
+    /**
+     * Agrega una lectura al lote
+     * @param idSensor ID del sensor
+     * @param valor Valor medido
+     * @param marcaTiempoNanos Marca de tiempo en nanosegundos desde epoch
+     */
+    public void agregar(String idSensor, double valor, long marcaTiempoNanos) {
+        if (cantidad == idsSensores.length) {
+            int nuevaCapacidad = idsSensores.length * 2;
+            idsSensores = Arrays.copyOf(idsSensores, nuevaCapacidad);
+            valores = Arrays.copyOf(valores, nuevaCapacidad);
+            marcasTiempo = Arrays.copyOf(marcasTiempo, nuevaCapacidad);
+        }
+        idsSensores[cantidad] = idSensor;
+        valores[cantidad] = valor;
+        marcasTiempo[cantidad] = marcaTiempoNanos;
+        cantidad++;
+    }
+
+    /**
+     * Vacía el lote conservando los arreglos para reutilizarlos
+     */
+    public void limpiar() {
+        Arrays.fill(idsSensores, 0, cantidad, null);
+        cantidad = 0;
+    }
+
+    // Getters de las columnas (solo son válidas las primeras obtenerCantidad() posiciones)
+    public String[] getIdsSensores() {
+        return idsSensores;
+    }
+
+    public double[] getValores() {
+        return valores;
+    }
+
+    public long[] getMarcasTiempo() {
+        return marcasTiempo;
+    }
+
+    public int obtenerCantidad() {
+        return cantidad;
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Motor de análisis particionado por sensor
+ * Los sensores se reparten por hash de su ID entre N particiones y cada partición tiene un
+ * único hilo que analiza todos sus sensores, de modo que el estado por sensor de las
+ * estrategias y del supresor nunca se comparte entre hilos. Admite dos modos de trabajo:
+ * - flujo: cada lectura se encola en la partición de su sensor y se analiza en segundo plano
+ * - barrido: se reparte toda la flota entre las particiones y se espera a que todas terminen
+ *   (por ejemplo, para reevaluar todos los sensores tras cambiar umbrales)
+ * En flujo se encola la instantánea inmutable de cada lectura (valor, marca y secuencia), así
+ * que cada lectura se analiza con su propio valor aunque el sensor reciba otras mientras espera
+ * en la cola; el barrido, en cambio, analiza la última lectura de cada sensor
+ */
+public class MotorAnalisisParticionado implements Closeable {
+    private static final String ORIGEN = "MotorAnalisisParticionado";
+    private static final int TANDA = 256;          // lecturas que un hilo toma de su cola de una vez
+    private static final Object FIN = new Object();
+
+    private final NotificadorAlertas notificador;
+    private final Particion[] particiones;
+
+    /**
+     * Lectura encolada para analizar: el sensor y la instantánea de la lectura recibida
+     */
+    private static final class LecturaPendiente {
+        final Sensor sensor;
+        final LecturaSensor lectura;
+
+        LecturaPendiente(Sensor sensor, LecturaSensor lectura) {
+            this.sensor = sensor;
+            this.lectura = lectura;
+        }
+    }
+
+    /**
+     * Trabajo de barrido para una partición: analiza sus sensores y deja las alertas
+     */
+    private static class Barrido {
+        final List<Sensor> sensores = new ArrayList<>();
+        final List<Alerta> alertas = new ArrayList<>();
+        CountDownLatch terminado;
+    }
+
+    /**
+     * Partición con su cola y su hilo; solo el hilo de la partición analiza sus sensores
+     */
+    private final class Particion implements Runnable {
+        private final BlockingQueue<Object> cola;
+        private final Thread hilo;
+        private volatile long analizadas; // solo lo escribe el hilo de la partición
+
+        Particion(int indice, int capacidadCola) {
+            this.cola = new ArrayBlockingQueue<>(capacidadCola);
+            this.hilo = new Thread(this, "analisis-" + indice);
+            this.hilo.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Object> tanda = new ArrayList<>(TANDA);
+            List<Alerta> alertas = new ArrayList<>();
+            while (true) {
+                try {
+                    tanda.add(cola.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                cola.drainTo(tanda, TANDA - 1);
+                boolean terminar = false;
+                long procesadas = analizadas;
+                for (Object trabajo : tanda) {
+                    if (trabajo == FIN) {
+                        terminar = true;
+                    } else if (trabajo instanceof LecturaPendiente) {
+                        LecturaPendiente pendiente = (LecturaPendiente) trabajo;
+                        Alerta alerta = evaluar(pendiente.sensor, pendiente.lectura);
+                        if (alerta != null) {
+                            alertas.add(alerta);
+                        }
+                        procesadas++;
+                    } else {
+                        Barrido barrido = (Barrido) trabajo;
+                        for (Sensor sensor : barrido.sensores) {
+                            Alerta alerta = evaluar(sensor, sensor.obtenerLectura());
+                            if (alerta != null) {
+                                barrido.alertas.add(alerta);
+                            }
+                        }
+                        procesadas += barrido.sensores.size();
+                        barrido.terminado.countDown();
+                    }
+                }
+                analizadas = procesadas;
+                tanda.clear();
+                if (!alertas.isEmpty()) {
+                    notificador.notificarObservadoresLote(alertas);
+                    alertas = new ArrayList<>();
+                }
+                if (terminar) {
+                    return;
+                }
+            }
+        }
+
+        private Alerta evaluar(Sensor sensor, LecturaSensor lectura) {
+            try {
+                return notificador.evaluar(sensor, lectura);
+            } catch (RuntimeException e) {
+                RegistroEventos.error(ORIGEN, "❌ Error analizando sensor " + sensor.getId() + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        void encolar(Object trabajo) {
+            try {
+                cola.put(trabajo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido al encolar en " + hilo.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Constructor que arranca un hilo por partición
+     * @param notificador Notificador cuya estrategia y supresión se aplican y al que se entregan las alertas
+     * @param cantidadParticiones Número de particiones (normalmente, el número de núcleos)
+     * @param capacidadCola Lecturas pendientes por partición antes de que encolar espere
+     */
+    public MotorAnalisisParticionado(NotificadorAlertas notificador, int cantidadParticiones, int capacidadCola) {
+        if (cantidadParticiones <= 0 || capacidadCola <= 0) {
+            throw new IllegalArgumentException("Particiones y capacidad de cola deben ser positivas: " +
+                cantidadParticiones + ", " + capacidadCola);
+        }
+        this.notificador = notificador;
+        this.particiones = new Particion[cantidadParticiones];
+        for (int i = 0; i < cantidadParticiones; i++) {
+            particiones[i] = new Particion(i, capacidadCola);
+        }
+        for (Particion particion : particiones) {
+            particion.hilo.start();
+        }
+        RegistroEventos.informacion(ORIGEN, "🧩 Motor de análisis iniciado: " + cantidadParticiones + " particiones");
+    }
+
+    /**
+     * Encola la última lectura de un sensor recién actualizado para analizarla en su partición
+     * Espera si la cola de la partición está llena
+     * @param sensor El sensor a analizar
+     */
+    public void enviar(Sensor sensor) {
+        enviar(sensor, sensor.obtenerLectura());
+    }
+
+    /**
+     * Encola una lectura concreta de un sensor para analizarla en su partición
+     * Espera si la cola de la partición está llena
+     * @param sensor El sensor que produjo la lectura
+     * @param lectura La lectura a analizar
+     */
+    public void enviar(Sensor sensor, LecturaSensor lectura) {
+        particiones[indiceParticion(sensor.getId())].encolar(new LecturaPendiente(sensor, lectura));
+    }
+
+    /**
+     * Encola un lote de lecturas recién aplicadas
+     * @param sensores Sensores a analizar
+     * @param lecturas Lectura aplicada en cada entrada (en paralelo con sensores)
+     * @param cantidad Número de sensores válidos en el arreglo
+     */
+    public void enviarLote(Sensor[] sensores, LecturaSensor[] lecturas, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            enviar(sensores[i], lecturas[i]);
+        }
+    }
+
+    /**
+     * Analiza todos los sensores indicados repartiéndolos entre las particiones y espera el resultado
+     * Cada sensor se analiza en el hilo de su partición, detrás de las lecturas ya encoladas
+     * @param sensores Sensores a analizar (normalmente, toda la flota)
+     * @param notificar true para notificar las alertas resultantes a los observadores
+     * @return Alertas generadas por el barrido
+     */
+    public List<Alerta> analizarTodos(Collection<Sensor> sensores, boolean notificar) {
+        Barrido[] barridos = new Barrido[particiones.length];
+        for (int i = 0; i < barridos.length; i++) {
+            barridos[i] = new Barrido();
+        }
+        for (Sensor sensor : sensores) {
+            barridos[indiceParticion(sensor.getId())].sensores.add(sensor);
+        }
+
+        CountDownLatch terminado = new CountDownLatch(barridos.length);
+        for (int i = 0; i < barridos.length; i++) {
+            barridos[i].terminado = terminado;
+            particiones[i].encolar(barridos[i]);
+        }
+        try {
+            terminado.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el barrido de análisis", e);
+        }
+
+        List<Alerta> alertas = new ArrayList<>();
+        for (Barrido barrido : barridos) {
+            alertas.addAll(barrido.alertas);
+        }
+        if (notificar && !alertas.isEmpty()) {
+            notificador.notificarObservadoresLote(alertas);
+        }
+        return alertas;
+    }
+
+    /**
+     * Obtiene la partición a la que pertenece un sensor
+     * @param idSensor ID del sensor
+     * @return Índice de la partición
+     */
+    public int indiceParticion(String idSensor) {
+        int hash = idSensor.hashCode();
+        hash ^= hash >>> 16; // mezclar los bits altos, como HashMap
+        return Math.floorMod(hash, particiones.length);
+    }
+
+    public int obtenerCantidadParticiones() {
+        return particiones.length;
+    }
+
+    /**
+     * Obtiene las métricas de cada partición
+     * @return Lista con las lecturas pendientes y analizadas de cada partición
+     */
+    public List<Map<String, Object>> obtenerMetricas() {
+        List<Map<String, Object>> metricas = new ArrayList<>();
+        for (Particion particion : particiones) {
+            Map<String, Object> metrica = new HashMap<>();
+            metrica.put("particion", particion.hilo.getName());
+            metrica.put("pendientes", particion.cola.size());
+            metrica.put("analizadas", particion.analizadas);
+            metricas.add(metrica);
+        }
+        return metricas;
+    }
+
+    /**
+     * Detiene los hilos tras analizar todo lo encolado
+     */
+    @Override
+    public void close() {
+        for (Particion particion : particiones) {
+            particion.encolar(FIN);
+        }
+        for (Particion particion : particiones) {
+            try {
+                particion.hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        RegistroEventos.informacion(ORIGEN, "🧩 Motor de análisis detenido");
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.Closeable;
+
+/**
+ * Motor de monitoreo autocontenido: agrupa su propio gestor de sensores, su notificador de
+ * alertas y su tabla de estrategias por tipo de sensor
+ * Dos motores no comparten estado, así que una planta particionada (o cada cliente) puede
+ * ejecutarse como un motor independiente en la misma JVM, y las pruebas pueden crear motores
+ * aislados sin tocar las instancias compartidas de GestorSensores y NotificadorAlertas
+ * Cada motor lee además sus umbrales de una FuenteUmbrales propia, así que recargarlos en un
+ * motor no afecta a los demás; lo único global sigue siendo el registro de eventos
+ */
+public class MotorMonitoreo implements Closeable {
+    private static final String ORIGEN = "MotorMonitoreo";
+    private final String nombre;
+    private final NotificadorAlertas notificador;
+    private final GestorSensores gestor;
+    private final EnrutadorEstrategias estrategias;
+    private final FuenteUmbrales umbrales;
+    private MotorAnalisisParticionado motorAnalisis; // null: se analiza en el hilo que actualiza
+
+    /**
+     * Constructor que crea un motor con la estrategia concreta de cada tipo de sensor
+     * @param nombre Nombre del motor (planta, partición o cliente)
+     */
+    public MotorMonitoreo(String nombre) {
+        this(nombre, new FuenteUmbrales());
+    }
+
+    /**
+     * Constructor que crea un motor con la estrategia concreta de cada tipo de sensor, leyendo
+     * los umbrales de la fuente indicada
+     * @param nombre Nombre del motor (planta, partición o cliente)
+     * @param umbrales Fuente de umbrales del motor
+     */
+    public MotorMonitoreo(String nombre, FuenteUmbrales umbrales) {
+        this(nombre, EnrutadorEstrategias.porDefecto(umbrales), umbrales);
+    }
+
+    /**
+     * Constructor que crea un motor con una tabla de estrategias propia
+     * @param nombre Nombre del motor (planta, partición o cliente)
+     * @param estrategias Tabla de estrategias por tipo de sensor; no debe compartirse con otro motor
+     *                    si sus estrategias guardan estado por sensor
+     * @param umbrales Fuente de umbrales con la que se crearon las estrategias de la tabla
+     */
+    public MotorMonitoreo(String nombre, EnrutadorEstrategias estrategias, FuenteUmbrales umbrales) {
+        if (nombre == null || estrategias == null || umbrales == null) {
+            throw new IllegalArgumentException("El motor necesita un nombre, una tabla de estrategias y una fuente de umbrales");
+        }
+        this.nombre = nombre;
+        this.estrategias = estrategias;
+        this.umbrales = umbrales;
+        this.notificador = new NotificadorAlertas();
+        this.notificador.establecerEstrategiaAnalisis(estrategias);
+        this.gestor = new GestorSensores(notificador);
+        RegistroEventos.informacion(ORIGEN, "🏭 Motor de monitoreo creado: " + nombre);
+    }
+
+    /**
+     * Obtiene el nombre del motor
+     * @return Nombre del motor
+     */
+    public String obtenerNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el gestor de sensores del motor
+     * @return Gestor propio del motor
+     */
+    public GestorSensores obtenerGestor() {
+        return gestor;
+    }
+
+    /**
+     * Obtiene el notificador de alertas del motor (observadores, supresión y despacho)
+     * @return Notificador propio del motor
+     */
+    public NotificadorAlertas obtenerNotificador() {
+        return notificador;
+    }
+
+    /**
+     * Obtiene la tabla de estrategias con la que el motor se creó
+     * Si se establece otra estrategia directamente en el notificador, esta tabla deja de usarse
+     * @return Enrutador de estrategias por tipo de sensor
+     */
+    public EnrutadorEstrategias obtenerEstrategias() {
+        return estrategias;
+    }
+
+    /**
+     * Obtiene la fuente de umbrales del motor; publicar en ella (o vigilar un archivo con
+     * VigilanteUmbrales) cambia los umbrales de este motor sin tocar los de los demás
+     * @return Fuente de umbrales del motor
+     */
+    public FuenteUmbrales obtenerUmbrales() {
+        return umbrales;
+    }
+
+    /**
+     * Analiza las lecturas del motor en hilos propios, repartiendo los sensores entre particiones
+     * Reemplaza (y detiene tras vaciarlo) el análisis particionado anterior, si lo había
+     * @param cantidadParticiones Número de particiones (hilos de análisis) del motor
+     * @param capacidadCola Lecturas pendientes por partición antes de que encolar espere
+     */
+    public synchronized void iniciarAnalisisParticionado(int cantidadParticiones, int capacidadCola) {
+        MotorAnalisisParticionado nuevo = new MotorAnalisisParticionado(notificador, cantidadParticiones, capacidadCola);
+        MotorAnalisisParticionado anterior = motorAnalisis;
+        motorAnalisis = nuevo;
+        gestor.establecerMotorAnalisis(nuevo);
+        if (anterior != null) {
+            anterior.close();
+        }
+    }
+
+    /**
+     * Detiene los hilos del motor: el análisis particionado (tras analizar lo encolado) y
+     * el despacho asíncrono (tras entregar las alertas pendientes)
+     * Los sensores registrados se conservan; el motor vuelve a analizar en el hilo que actualiza
+     */
+    @Override
+    public synchronized void close() {
+        if (motorAnalisis != null) {
+            gestor.establecerMotorAnalisis(null);
+            motorAnalisis.close();
+            motorAnalisis = null;
+        }
+        notificador.desactivarDespachoAsincrono();
+        RegistroEventos.informacion(ORIGEN, "🏭 Motor de monitoreo detenido: " + nombre);
+    }
+
+    @Override
+    public String toString() {
+        return "MotorMonitoreo[" + nombre + ", " + gestor.obtenerCantidadSensores() + " sensores, " +
+            notificador.obtenerCantidadObservadores() + " observadores]";
+    }
+}
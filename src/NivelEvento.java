@@ -0,0 +1,11 @@
+/**
+ * Enumeración para los niveles de los eventos de diagnóstico del sistema
+ * Ordenados de menor a mayor severidad; DESACTIVADO solo se usa como umbral
+ */
+public enum NivelEvento {
+    DEPURACION,   // detalle por lectura o por alerta
+    INFORMACION,  // cambios de configuración y ciclo de vida
+    ADVERTENCIA,  // situaciones anómalas recuperables
+    ERROR,        // fallos
+    DESACTIVADO   // umbral que descarta todos los eventos
+}
@@ -0,0 +1,62 @@
+/**
+ * Enumeración para los niveles de resolución del almacén de series temporales
+ * Cada nivel guarda filas en bloques Gorilla y sus archivos se agrupan en segmentos por
+ * ventana de tiempo, que se borran enteros al vencer la retención del nivel
+ */
+public enum NivelSerie {
+    CRUDO("crudo", 0L, 1, 1024, 3_600_000_000_000L, 3_600_000_000_000L),                  // cada lectura; segmentos de 1 h
+    MINUTO("minuto", 60_000_000_000L, 4, 360, 86_400_000_000_000L, 3_600_000_000_000L),    // min/max/suma/cantidad; segmentos de 1 día
+    HORA("hora", 3_600_000_000_000L, 4, 168, 2_592_000_000_000_000L, 86_400_000_000_000L); // min/max/suma/cantidad; segmentos de 30 días
+
+    private final String codigo;
+    private final long intervaloNanos;
+    private final int columnas;
+    private final int filasPorBloque;
+    private final long ventanaSegmentoNanos;
+    private final long periodoBloqueNanos; // divide la ventana del segmento
+
+    NivelSerie(String codigo, long intervaloNanos, int columnas, int filasPorBloque, long ventanaSegmentoNanos,
+               long periodoBloqueNanos) {
+        this.codigo = codigo;
+        this.intervaloNanos = intervaloNanos;
+        this.columnas = columnas;
+        this.filasPorBloque = filasPorBloque;
+        this.ventanaSegmentoNanos = ventanaSegmentoNanos;
+        this.periodoBloqueNanos = periodoBloqueNanos;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * @return Duración de cada intervalo resumido, o 0 para las lecturas sin resumir
+     */
+    public long getIntervaloNanos() {
+        return intervaloNanos;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * @return Filas a partir de las que un bloque se sella y se escribe en su segmento
+     */
+    public int getFilasPorBloque() {
+        return filasPorBloque;
+    }
+
+    public long getVentanaSegmentoNanos() {
+        return ventanaSegmentoNanos;
+    }
+
+    /**
+     * @return Periodo alineado que puede cubrir un bloque: se sella al cerrarse el periodo aunque
+     *         no esté lleno, de modo que un bloque nunca cruza la ventana de su segmento y una caída
+     *         pierde como mucho un periodo de filas
+     */
+    public long getPeriodoBloqueNanos() {
+        return periodoBloqueNanos;
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Observador base que agrupa las alertas y envía un resumen por destinatario
+ * Las alertas no críticas se acumulan y se envían juntas cuando vence la ventana de tiempo
+ * o se alcanza el máximo de alertas, agrupadas por NivelAlerta y por sensor; las alertas
+ * CRITICO se envían de inmediato. Así se paga un envío por resumen y no uno por alerta
+ */
+public abstract class NotificadorAgrupado implements ObservadorAlerta, Closeable {
+    private static final String ORIGEN = "NotificadorAgrupado";
+
+    private final List<String> destinatarios;
+    private final TransporteMensajes transporte;
+    private final int maximoAlertas;
+    private final ScheduledExecutorService temporizador;
+    private final AtomicLong alertasRecibidas;
+    private final AtomicLong mensajesEnviados;
+    private List<Alerta> pendientes;
+
+    /**
+     * Constructor que arranca el temporizador de la ventana
+     * @param destinatarios Destinatarios de cada mensaje
+     * @param transporte Canal de envío
+     * @param ventanaMs Tiempo máximo que una alerta no crítica espera en el resumen
+     * @param maximoAlertas Alertas acumuladas que fuerzan el envío del resumen
+     */
+    protected NotificadorAgrupado(List<String> destinatarios, TransporteMensajes transporte, long ventanaMs, int maximoAlertas) {
+        if (destinatarios.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un destinatario");
+        }
+        if (ventanaMs <= 0 || maximoAlertas <= 0) {
+            throw new IllegalArgumentException("Ventana y máximo de alertas deben ser positivos: " + ventanaMs + ", " + maximoAlertas);
+        }
+        this.destinatarios = new ArrayList<>(destinatarios);
+        this.transporte = transporte;
+        this.maximoAlertas = maximoAlertas;
+        this.alertasRecibidas = new AtomicLong();
+        this.mensajesEnviados = new AtomicLong();
+        this.pendientes = new ArrayList<>();
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "resumen-" + obtenerTipoObservador());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.temporizador.scheduleAtFixedRate(this::vaciar, ventanaMs, ventanaMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void actualizar(Alerta alerta) {
+        alertasRecibidas.incrementAndGet();
+        if (alerta.getNivel() == NivelAlerta.CRITICO) {
+            enviarATodos(asuntoInmediato(alerta), cuerpoInmediato(alerta));
+            return;
+        }
+        List<Alerta> lote = null;
+        synchronized (this) {
+            pendientes.add(alerta);
+            if (pendientes.size() >= maximoAlertas) {
+                lote = tomarPendientes();
+            }
+        }
+        if (lote != null) {
+            enviarResumen(lote);
+        }
+    }
+
+    /**
+     * Envía ya el resumen de las alertas pendientes, si las hay
+     */
+    public void vaciar() {
+        List<Alerta> lote;
+        synchronized (this) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            lote = tomarPendientes();
+        }
+        enviarResumen(lote);
+    }
+
+    /**
+     * Detiene el temporizador y envía el resumen pendiente
+     */
+    @Override
+    public void close() {
+        temporizador.shutdownNow();
+        vaciar();
+    }
+
+    public synchronized int obtenerPendientes() {
+        return pendientes.size();
+    }
+
+    public long obtenerAlertasRecibidas() {
+        return alertasRecibidas.get();
+    }
+
+    public long obtenerMensajesEnviados() {
+        return mensajesEnviados.get();
+    }
+
+    /**
+     * Asunto del mensaje de una alerta crítica
+     */
+    protected abstract String asuntoInmediato(Alerta alerta);
+
+    /**
+     * Cuerpo del mensaje de una alerta crítica
+     */
+    protected abstract String cuerpoInmediato(Alerta alerta);
+
+    /**
+     * Asunto del resumen
+     * @param total Número de alertas del resumen
+     */
+    protected abstract String asuntoResumen(int total);
+
+    /**
+     * Cuerpo del resumen
+     * @param grupos Alertas agrupadas por nivel (de más a menos crítico) y por sensor (en orden alfabético)
+     * @param total Número de alertas del resumen
+     */
+    protected abstract String cuerpoResumen(Map<NivelAlerta, Map<String, List<Alerta>>> grupos, int total);
+
+    private List<Alerta> tomarPendientes() {
+        List<Alerta> lote = pendientes;
+        pendientes = new ArrayList<>();
+        return lote;
+    }
+
+    private void enviarResumen(List<Alerta> lote) {
+        Map<NivelAlerta, Map<String, List<Alerta>>> grupos = new EnumMap<>(NivelAlerta.class);
+        for (Alerta alerta : lote) {
+            grupos.computeIfAbsent(alerta.getNivel(), nivel -> new TreeMap<>())
+                .computeIfAbsent(alerta.getIdSensor(), id -> new ArrayList<>())
+                .add(alerta);
+        }
+        enviarATodos(asuntoResumen(lote.size()), cuerpoResumen(grupos, lote.size()));
+    }
+
+    private void enviarATodos(String asunto, String cuerpo) {
+        for (String destinatario : destinatarios) {
+            try {
+                transporte.enviar(destinatario, asunto, cuerpo);
+                mensajesEnviados.incrementAndGet();
+            } catch (RuntimeException e) {
+                RegistroEventos.error(ORIGEN, "❌ Error enviando a " + destinatario + " por " +
+                    obtenerTipoObservador() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,40 +1,94 @@
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Clase que implementa el patrón Observer como Sujeto y utiliza el patrón Strategy
  * para el análisis de datos. Gestiona la notificación de alertas a múltiples observadores
  * y permite cambiar dinámicamente la estrategia de análisis.
+ * Cada motor de monitoreo tiene su propio notificador; obtenerInstancia() devuelve el compartido.
  */
 public class NotificadorAlertas implements SujetoAlerta {
-    private static NotificadorAlertas instancia;
+    private static final String ORIGEN = "NotificadorAlertas";
     private List<ObservadorAlerta> observadores;
-    private EstrategiaAnalisis estrategia;
+    private volatile EstrategiaAnalisis estrategia;
+    private Map<ObservadorAlerta, DespachadorAsincrono> despachadores;
+    private int capacidadColaAsincrona;
+    private PoliticaContrapresion politicaContrapresion;
+    private volatile boolean despachoAsincrono;
+    private volatile SupresorAlertas supresor; // deduplicación opcional (null si no está habilitada)
+    private Map<ObservadorAlerta, SuscripcionAlertas> suscripciones;
+    private volatile Suscrito[] suscritos;     // todos los observadores, en orden de registro
+    private volatile Celda[] despacho;         // [nivel * COLUMNAS + columna del tipo] -> observadores interesados
     
     /**
-     * Constructor privado para implementar el patrón Singleton
+     * Observador registrado junto con su suscripción precalculada
+     */
+    private static final class Suscrito {
+        final ObservadorAlerta observador;
+        final SuscripcionAlertas suscripcion;
+        final long mascara; // bit nivel * COLUMNAS + columna por cada combinación aceptada
+
+        Suscrito(ObservadorAlerta observador, SuscripcionAlertas suscripcion, long mascara) {
+            this.observador = observador;
+            this.suscripcion = suscripcion;
+            this.mascara = mascara;
+        }
+
+        boolean acepta(NivelAlerta nivel, Sensor sensor) {
+            if ((mascara & (1L << (nivel.ordinal() * COLUMNAS + columna(sensor)))) == 0L) {
+                return false;
+            }
+            return !suscripcion.filtraUbicacion() ||
+                suscripcion.aceptaUbicacion(sensor != null ? sensor.getUbicacion() : null);
+        }
+    }
+    
+    /**
+     * Observadores interesados en un nivel y un tipo de sensor
+     * Los que filtran por ubicación se indexan por ella, así que cada alerta solo los visita si coinciden
+     */
+    private static final class Celda {
+        final Suscrito[] generales;
+        final Map<String, Suscrito[]> porUbicacion;
+
+        Celda(Suscrito[] generales, Map<String, Suscrito[]> porUbicacion) {
+            this.generales = generales;
+            this.porUbicacion = porUbicacion;
+        }
+    }
+    
+    // Una columna por tipo de sensor más una para las alertas sin sensor asociado
+    private static final int COLUMNAS = TipoSensor.values().length + 1;
+    
+    /**
+     * Poseedor de la instancia compartida (inicialización perezosa con publicación segura)
+     */
+    private static final class Poseedor {
+        static final NotificadorAlertas INSTANCIA = new NotificadorAlertas();
+    }
+    
+    /**
+     * Constructor que crea un notificador independiente, sin observadores
      * Inicializa la lista de observadores como CopyOnWriteArrayList para thread-safety
      */
-    private NotificadorAlertas() {
+    public NotificadorAlertas() {
         this.observadores = new CopyOnWriteArrayList<>();
         this.estrategia = new EstrategiaAnalisisBasica(); // estrategia por defecto
-        System.out.println("🔔 Notificador de Alertas inicializado");
+        this.despachadores = new ConcurrentHashMap<>();
+        this.despachoAsincrono = false;
+        this.suscripciones = new HashMap<>();
+        reconstruirDespacho();
+        RegistroEventos.informacion(ORIGEN, "🔔 Notificador de Alertas inicializado");
     }
     
     /**
-     * Método estático para obtener la instancia única del NotificadorAlertas
-     * Implementa double-checked locking para thread-safety
-     * @return La instancia única del NotificadorAlertas
+     * Método estático para obtener la instancia compartida del NotificadorAlertas
+     * Usa el idiom del poseedor (holder): inicialización perezosa y thread-safe sin double-checked locking
+     * @return La instancia compartida del NotificadorAlertas
      */
     public static NotificadorAlertas obtenerInstancia() {
-        if (instancia == null) {
-            synchronized (NotificadorAlertas.class) {
-                if (instancia == null) {
-                    instancia = new NotificadorAlertas();
-                }
-            }
-        }
-        return instancia;
+        return Poseedor.INSTANCIA;
     }
     
     /**
@@ -42,43 +96,299 @@ public class NotificadorAlertas implements SujetoAlerta {
      * @param sensor El sensor a verificar
      */
     public void verificarYNotificar(Sensor sensor) {
-        Alerta alerta = estrategia.analizar(sensor);
+        Alerta alerta = evaluar(sensor);
         if (alerta != null) {
             notificarObservadores(alerta);
         }
     }
+
+    /**
+     * Analiza un sensor con la estrategia actual y aplica la supresión de repeticiones, sin notificar
+     * @param sensor El sensor a analizar
+     * @return La alerta que debe notificarse, o null si no hay alerta o está suprimida
+     */
+    public Alerta evaluar(Sensor sensor) {
+        return evaluar(sensor, sensor.obtenerLectura());
+    }
+
+    /**
+     * Analiza una lectura concreta de un sensor y aplica la supresión de repeticiones, sin notificar
+     * @param sensor El sensor que produjo la lectura
+     * @param lectura La lectura a analizar
+     * @return La alerta que debe notificarse, o null si no hay alerta o está suprimida
+     */
+    public Alerta evaluar(Sensor sensor, LecturaSensor lectura) {
+        Alerta alerta = estrategia.analizar(sensor, lectura);
+        SupresorAlertas supresorActual = supresor;
+        if (supresorActual != null) {
+            return supresorActual.filtrar(sensor, lectura, alerta) ? alerta : null;
+        }
+        return alerta;
+    }
     
+    /**
+     * Verifica un lote de sensores con la estrategia actual y notifica las alertas generadas
+     * Las alertas se acumulan durante el análisis y se despachan juntas al final
+     * Cada entrada se analiza con su propia lectura, así que un sensor repetido en el lote
+     * se evalúa una vez por lectura y no solo con la última
+     * @param sensores Sensores a verificar
+     * @param lecturas Lectura aplicada en cada entrada (en paralelo con sensores)
+     * @param cantidad Número de sensores válidos en el arreglo
+     */
+    public void verificarYNotificarLote(Sensor[] sensores, LecturaSensor[] lecturas, int cantidad) {
+        EstrategiaAnalisis estrategiaLote = estrategia;
+        SupresorAlertas supresorLote = supresor;
+        List<Alerta> alertas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Alerta alerta = estrategiaLote.analizar(sensores[i], lecturas[i]);
+            if (supresorLote != null ? supresorLote.filtrar(sensores[i], lecturas[i], alerta) : alerta != null) {
+                alertas.add(alerta);
+            }
+        }
+        if (!alertas.isEmpty()) {
+            notificarObservadoresLote(alertas);
+        }
+    }
+
+    /**
+     * Notifica a todos los observadores un conjunto de alertas en una sola pasada
+     * @param alertas Las alertas a notificar
+     */
+    public void notificarObservadoresLote(List<Alerta> alertas) {
+        Suscrito[] todos = suscritos;
+        if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            RegistroEventos.depuracion(ORIGEN, "\n🚨 Notificando " + alertas.size() + " alertas a " + todos.length + " observadores...");
+        }
+        for (Suscrito suscrito : todos) {
+            for (Alerta alerta : alertas) {
+                if (suscrito.acepta(alerta.getNivel(), alerta.getSensor())) {
+                    entregar(suscrito.observador, alerta);
+                }
+            }
+        }
+    }
+
     @Override
     public void registrarObservador(ObservadorAlerta observador) {
+        registrarObservador(observador, observador.obtenerSuscripcion());
+    }
+    
+    /**
+     * Registra un observador que solo recibirá las alertas aceptadas por la suscripción indicada
+     * @param observador El observador a registrar
+     * @param suscripcion Alertas que interesan al observador (sustituye a la que declara)
+     */
+    public synchronized void registrarObservador(ObservadorAlerta observador, SuscripcionAlertas suscripcion) {
         // Evitar duplicados verificando si ya existe
         if (!observadores.contains(observador)) {
+            if (despachoAsincrono) {
+                despachadores.put(observador,
+                    new DespachadorAsincrono(observador, capacidadColaAsincrona, politicaContrapresion));
+            }
             observadores.add(observador);
-            System.out.println("👀 Observador registrado: " + observador.obtenerTipoObservador());
+            suscripciones.put(observador, suscripcion);
+            reconstruirDespacho();
+            RegistroEventos.informacion(ORIGEN, "👀 Observador registrado: " + observador.obtenerTipoObservador() +
+                (suscripcion != SuscripcionAlertas.todas() ? " (" + suscripcion + ")" : ""));
         } else {
-            System.out.println("⚠️ Observador ya registrado: " + observador.obtenerTipoObservador());
+            RegistroEventos.advertencia(ORIGEN, "⚠️ Observador ya registrado: " + observador.obtenerTipoObservador());
         }
     }
     
     @Override
-    public void eliminarObservador(ObservadorAlerta observador) {
+    public synchronized void eliminarObservador(ObservadorAlerta observador) {
         if (observadores.remove(observador)) {
-            System.out.println("👋 Observador eliminado: " + observador.obtenerTipoObservador());
+            suscripciones.remove(observador);
+            reconstruirDespacho();
+            DespachadorAsincrono despachador = despachadores.remove(observador);
+            if (despachador != null) {
+                despachador.detener();
+            }
+            RegistroEventos.informacion(ORIGEN, "👋 Observador eliminado: " + observador.obtenerTipoObservador());
         } else {
-            System.out.println("❌ Observador no encontrado: " + observador.obtenerTipoObservador());
+            RegistroEventos.advertencia(ORIGEN, "❌ Observador no encontrado: " + observador.obtenerTipoObservador());
         }
     }
     
     @Override
     public void notificarObservadores(Alerta alerta) {
-        System.out.println("\n🚨 Notificando " + observadores.size() + " observadores...");
+        Sensor sensor = alerta.getSensor();
+        Celda celda = despacho[alerta.getNivel().ordinal() * COLUMNAS + columna(sensor)];
+        Suscrito[] porUbicacion = celda.porUbicacion.isEmpty() || sensor == null ? null
+            : celda.porUbicacion.get(sensor.getUbicacion());
+        if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            int cantidad = celda.generales.length + (porUbicacion != null ? porUbicacion.length : 0);
+            RegistroEventos.depuracion(ORIGEN, "\n🚨 Notificando " + cantidad + " observadores...");
+        }
+        for (Suscrito suscrito : celda.generales) {
+            entregar(suscrito.observador, alerta);
+        }
+        if (porUbicacion != null) {
+            for (Suscrito suscrito : porUbicacion) {
+                entregar(suscrito.observador, alerta);
+            }
+        }
+    }
+    
+    /**
+     * Recalcula las listas de despacho a partir de las suscripciones registradas
+     * Publica tablas nuevas, de modo que las notificaciones en curso nunca ven un estado intermedio
+     */
+    private synchronized void reconstruirDespacho() {
+        NivelAlerta[] niveles = NivelAlerta.values();
+        TipoSensor[] tipos = TipoSensor.values();
+        Suscrito[] nuevosSuscritos = new Suscrito[observadores.size()];
+        int indice = 0;
         for (ObservadorAlerta observador : observadores) {
-            try {
-                observador.actualizar(alerta);
-            } catch (Exception e) {
-                System.err.println("❌ Error notificando observador " + 
-                    observador.obtenerTipoObservador() + ": " + e.getMessage());
+            SuscripcionAlertas suscripcion = suscripciones.get(observador);
+            long mascara = 0L;
+            for (NivelAlerta nivel : niveles) {
+                for (int columna = 0; columna < COLUMNAS; columna++) {
+                    if (suscripcion.aceptaNivelYTipo(nivel, columna < tipos.length ? tipos[columna] : null)) {
+                        mascara |= 1L << (nivel.ordinal() * COLUMNAS + columna);
+                    }
+                }
+            }
+            nuevosSuscritos[indice++] = new Suscrito(observador, suscripcion, mascara);
+        }
+        Celda[] nuevoDespacho = new Celda[niveles.length * COLUMNAS];
+        for (int celda = 0; celda < nuevoDespacho.length; celda++) {
+            List<Suscrito> generales = new ArrayList<>();
+            Map<String, List<Suscrito>> porUbicacion = new HashMap<>();
+            for (Suscrito suscrito : nuevosSuscritos) {
+                if ((suscrito.mascara & (1L << celda)) == 0L) {
+                    continue;
+                }
+                if (!suscrito.suscripcion.filtraUbicacion()) {
+                    generales.add(suscrito);
+                } else {
+                    for (String ubicacion : suscrito.suscripcion.getUbicaciones()) {
+                        porUbicacion.computeIfAbsent(ubicacion, u -> new ArrayList<>()).add(suscrito);
+                    }
+                }
+            }
+            Map<String, Suscrito[]> indicePorUbicacion = new HashMap<>();
+            for (Map.Entry<String, List<Suscrito>> entrada : porUbicacion.entrySet()) {
+                indicePorUbicacion.put(entrada.getKey(), entrada.getValue().toArray(new Suscrito[0]));
+            }
+            nuevoDespacho[celda] = new Celda(generales.toArray(new Suscrito[0]), indicePorUbicacion);
+        }
+        this.suscritos = nuevosSuscritos;
+        this.despacho = nuevoDespacho;
+    }
+    
+    private static int columna(Sensor sensor) {
+        return sensor != null ? sensor.getTipoSensor().ordinal() : COLUMNAS - 1;
+    }
+    
+    /**
+     * Entrega una alerta a un observador, directamente o a través de su cola asíncrona
+     * @param observador El observador destino
+     * @param alerta La alerta a entregar
+     */
+    private void entregar(ObservadorAlerta observador, Alerta alerta) {
+        if (despachoAsincrono) {
+            DespachadorAsincrono despachador = despachadores.get(observador);
+            if (despachador != null) {
+                despachador.encolar(alerta);
+                return;
             }
         }
+        try {
+            observador.actualizar(alerta);
+        } catch (Exception e) {
+            RegistroEventos.error(ORIGEN, "❌ Error notificando observador " + 
+                observador.obtenerTipoObservador() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Activa el despacho asíncrono: cada observador recibe sus alertas desde una cola
+     * acotada atendida por su propio hilo, de modo que un observador lento no bloquea
+     * la actualización de sensores
+     * @param capacidadCola Número máximo de alertas pendientes por observador
+     * @param politica Política a aplicar cuando la cola de un observador está llena
+     */
+    public synchronized void activarDespachoAsincrono(int capacidadCola, PoliticaContrapresion politica) {
+        if (despachoAsincrono) {
+            desactivarDespachoAsincrono();
+        }
+        this.capacidadColaAsincrona = capacidadCola;
+        this.politicaContrapresion = politica;
+        for (ObservadorAlerta observador : observadores) {
+            despachadores.put(observador, new DespachadorAsincrono(observador, capacidadCola, politica));
+        }
+        this.despachoAsincrono = true;
+        RegistroEventos.informacion(ORIGEN, "⚡ Despacho asíncrono activado: cola de " + capacidadCola + " alertas, política " + politica);
+    }
+    
+    /**
+     * Vuelve al despacho síncrono entregando antes las alertas pendientes
+     */
+    public synchronized void desactivarDespachoAsincrono() {
+        if (!despachoAsincrono) {
+            return;
+        }
+        this.despachoAsincrono = false;
+        for (DespachadorAsincrono despachador : despachadores.values()) {
+            despachador.detener();
+        }
+        despachadores.clear();
+        RegistroEventos.informacion(ORIGEN, "⏸️ Despacho asíncrono desactivado");
+    }
+    
+    /**
+     * Indica si el despacho asíncrono está activo
+     * @return true si las alertas se entregan a través de colas por observador
+     */
+    public boolean esDespachoAsincrono() {
+        return despachoAsincrono;
+    }
+    
+    /**
+     * Obtiene las métricas de las colas de despacho asíncrono por observador
+     * @return Lista con las métricas de cada observador (vacía en modo síncrono)
+     */
+    public List<Map<String, Object>> obtenerMetricasDespacho() {
+        List<Map<String, Object>> metricas = new ArrayList<>();
+        for (DespachadorAsincrono despachador : despachadores.values()) {
+            Map<String, Object> metrica = new HashMap<>();
+            metrica.put("observador", despachador.getObservador().obtenerTipoObservador());
+            metrica.put("profundidad", despachador.obtenerProfundidad());
+            metrica.put("profundidadMaxima", despachador.obtenerProfundidadMaxima());
+            metrica.put("entregadas", despachador.obtenerEntregadas());
+            metrica.put("descartadas", despachador.obtenerDescartadas());
+            metricas.add(metrica);
+        }
+        return metricas;
+    }
+    
+    /**
+     * Activa la deduplicación de alertas: las repeticiones de una alerta activa se suprimen
+     * y solo se notifican las alertas nuevas, las escaladas y los recordatorios periódicos
+     * @param ventanaSupresionNanos Tiempo durante el que se suprimen las repeticiones
+     * @param lecturasParaRearme Lecturas normales consecutivas necesarias para rearmar un sensor
+     */
+    public void activarSupresion(long ventanaSupresionNanos, int lecturasParaRearme) {
+        this.supresor = new SupresorAlertas(ventanaSupresionNanos, lecturasParaRearme);
+        RegistroEventos.informacion(ORIGEN, "🔕 Supresión de alertas activada: ventana de " +
+            ventanaSupresionNanos / 1_000_000L + " ms, rearme tras " + lecturasParaRearme + " lecturas normales");
+    }
+
+    /**
+     * Desactiva la deduplicación: cada alerta generada vuelve a notificarse
+     */
+    public void desactivarSupresion() {
+        this.supresor = null;
+        RegistroEventos.informacion(ORIGEN, "🔔 Supresión de alertas desactivada");
+    }
+
+    /**
+     * Obtiene el supresor de alertas activo
+     * @return El supresor, o null si la supresión está desactivada
+     */
+    public SupresorAlertas obtenerSupresor() {
+        return supresor;
     }
     
     /**
@@ -87,7 +397,7 @@ public class NotificadorAlertas implements SujetoAlerta {
      */
     public void establecerEstrategiaAnalisis(EstrategiaAnalisis estrategia) {
         this.estrategia = estrategia;
-        System.out.println("🔄 Estrategia de análisis cambiada: " + estrategia.getClass().getSimpleName());
+        RegistroEventos.informacion(ORIGEN, "🔄 Estrategia de análisis cambiada: " + estrategia.getClass().getSimpleName());
     }
     
     /**
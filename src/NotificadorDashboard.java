@@ -3,10 +3,13 @@
  * Implementa el patrón Observer - reacciona a las alertas actualizando la interfaz de usuario
  */
 public class NotificadorDashboard implements ObservadorAlerta {
+    private static final String ORIGEN = "NotificadorDashboard";
     
     @Override
     public void actualizar(Alerta alerta) {
-        System.out.println("📊 ACTUALIZANDO DASHBOARD - " + alerta.getMensaje());
+        if (RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+            RegistroEventos.informacion(ORIGEN, "📊 ACTUALIZANDO DASHBOARD - " + alerta.getMensaje());
+        }
         
         // Aquí se implementaría la lógica real de actualización del dashboard
         // Por ejemplo: actualizar gráficos, tablas, indicadores en tiempo real
@@ -24,9 +27,9 @@ public class NotificadorDashboard implements ObservadorAlerta {
      */
     private void actualizarDashboardReal(Alerta alerta) {
         // Simulación de actualización del dashboard
-        System.out.println("   → Actualizando gráfico de alertas en tiempo real");
-        System.out.println("   → Refrescando tabla de sensores");
-        System.out.println("   → Actualizando indicadores de estado");
+        RegistroEventos.informacion(ORIGEN, "   → Actualizando gráfico de alertas en tiempo real");
+        RegistroEventos.informacion(ORIGEN, "   → Refrescando tabla de sensores");
+        RegistroEventos.informacion(ORIGEN, "   → Actualizando indicadores de estado");
         
         // En una implementación real, aquí se usaría WebSocket, Server-Sent Events,
         // o algún framework como Spring WebFlux para actualizaciones en tiempo real
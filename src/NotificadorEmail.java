@@ -3,6 +3,7 @@
  * Implementa el patrón Observer - reacciona a las alertas enviando emails
  */
 public class NotificadorEmail implements ObservadorAlerta {
+    private static final String ORIGEN = "NotificadorEmail";
     
     @Override
     public void actualizar(Alerta alerta) {
@@ -19,7 +20,9 @@ public class NotificadorEmail implements ObservadorAlerta {
                 break;
         }
         
-        System.out.println("📧 ENVIANDO EMAIL - " + prefijo + alerta.getMensaje());
+        if (RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+            RegistroEventos.informacion(ORIGEN, "📧 ENVIANDO EMAIL - " + prefijo + alerta.getMensaje());
+        }
         
         // Aquí se implementaría la lógica real de envío de email
         // Por ejemplo: conectar con un servicio SMTP, configurar destinatarios, etc.
@@ -37,6 +40,9 @@ public class NotificadorEmail implements ObservadorAlerta {
      * @param prefijo El prefijo según el nivel de criticidad
      */
     private void enviarEmailReal(Alerta alerta, String prefijo) {
+        if (!RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+            return; // la simulación solo produce eventos: no componer el cuerpo si nadie los verá
+        }
         // Simulación de lógica de envío de email
         String destinatario = "admin@fabrica.com";
         String asunto = "Alerta IoT - " + alerta.getNivel();
@@ -45,8 +51,8 @@ public class NotificadorEmail implements ObservadorAlerta {
                        "\nFecha: " + alerta.getFechaHora();
         
         // En una implementación real, aquí se usaría JavaMail API o similar
-        System.out.println("   → Destinatario: " + destinatario);
-        System.out.println("   → Asunto: " + asunto);
-        System.out.println("   → Cuerpo: " + cuerpo);
+        RegistroEventos.informacion(ORIGEN, "   → Destinatario: " + destinatario);
+        RegistroEventos.informacion(ORIGEN, "   → Asunto: " + asunto);
+        RegistroEventos.informacion(ORIGEN, "   → Cuerpo: " + cuerpo);
     }
 }
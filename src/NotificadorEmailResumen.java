@@ -0,0 +1,59 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observador concreto que envía las alertas por email en resúmenes periódicos
+ * Las alertas críticas se envían al momento; el resto se agrupa por nivel y por sensor
+ */
+public class NotificadorEmailResumen extends NotificadorAgrupado {
+
+    /**
+     * Constructor del notificador
+     * @param destinatarios Direcciones de email destino
+     * @param transporte Canal de envío de emails
+     * @param ventanaMs Tiempo máximo que una alerta no crítica espera en el resumen
+     * @param maximoAlertas Alertas acumuladas que fuerzan el envío del resumen
+     */
+    public NotificadorEmailResumen(List<String> destinatarios, TransporteMensajes transporte, long ventanaMs, int maximoAlertas) {
+        super(destinatarios, transporte, ventanaMs, maximoAlertas);
+    }
+
+    @Override
+    public String obtenerTipoObservador() {
+        return "NotificadorEmailResumen";
+    }
+
+    @Override
+    protected String asuntoInmediato(Alerta alerta) {
+        return "Alerta IoT - " + alerta.getNivel();
+    }
+
+    @Override
+    protected String cuerpoInmediato(Alerta alerta) {
+        return "🚨 CRÍTICO - " + alerta.getMensaje() +
+               "\nSensor: " + alerta.getIdSensor() +
+               "\nFecha: " + alerta.getFechaHora();
+    }
+
+    @Override
+    protected String asuntoResumen(int total) {
+        return "Resumen de alertas IoT - " + total + " alertas";
+    }
+
+    @Override
+    protected String cuerpoResumen(Map<NivelAlerta, Map<String, List<Alerta>>> grupos, int total) {
+        StringBuilder cuerpo = new StringBuilder();
+        cuerpo.append(total).append(" alertas desde el último resumen\n");
+        for (Map.Entry<NivelAlerta, Map<String, List<Alerta>>> nivel : grupos.entrySet()) {
+            cuerpo.append('\n').append(nivel.getKey()).append('\n');
+            for (Map.Entry<String, List<Alerta>> sensor : nivel.getValue().entrySet()) {
+                List<Alerta> alertas = sensor.getValue();
+                Alerta ultima = alertas.get(alertas.size() - 1);
+                cuerpo.append("  - ").append(sensor.getKey()).append(": ").append(alertas.size())
+                      .append(alertas.size() == 1 ? " alerta" : " alertas")
+                      .append(" (última: ").append(ultima.getMensaje()).append(")\n");
+            }
+        }
+        return cuerpo.toString();
+    }
+}
@@ -3,17 +3,18 @@
  * Implementa el patrón Observer - reacciona a las alertas enviando SMS solo para alertas críticas
  */
 public class NotificadorSMS implements ObservadorAlerta {
+    private static final String ORIGEN = "NotificadorSMS";
     
     @Override
     public void actualizar(Alerta alerta) {
         // Solo enviar SMS para alertas críticas
         if (alerta.getNivel() == NivelAlerta.CRITICO) {
-            System.out.println("📱 ENVIANDO SMS CRÍTICO - " + alerta.getMensaje());
+            if (RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+                RegistroEventos.informacion(ORIGEN, "📱 ENVIANDO SMS CRÍTICO - " + alerta.getMensaje());
+            }
             
             // Aquí se implementaría la lógica real de envío de SMS
             enviarSMSReal(alerta);
-        } else {
-            System.out.println("📱 SMS no enviado - Nivel no crítico: " + alerta.getNivel());
         }
     }
     
@@ -22,18 +23,27 @@ public class NotificadorSMS implements ObservadorAlerta {
         return "NotificadorSMS";
     }
     
+    @Override
+    public SuscripcionAlertas obtenerSuscripcion() {
+        // El notificador no llega a recibir las alertas no críticas
+        return SuscripcionAlertas.deNiveles(NivelAlerta.CRITICO);
+    }
+    
     /**
      * Método privado que simula el envío real de SMS
      * @param alerta La alerta crítica a enviar por SMS
      */
     private void enviarSMSReal(Alerta alerta) {
+        if (!RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+            return; // la simulación solo produce eventos: no componer el mensaje si nadie lo verá
+        }
         // Simulación de lógica de envío de SMS
         String numeroDestino = "+1234567890"; // Número del supervisor
         String mensaje = "ALERTA CRÍTICA: " + alerta.getMensaje() + 
                         " - Sensor: " + alerta.getIdSensor();
         
-        System.out.println("   → Número destino: " + numeroDestino);
-        System.out.println("   → Mensaje: " + mensaje);
+        RegistroEventos.informacion(ORIGEN, "   → Número destino: " + numeroDestino);
+        RegistroEventos.informacion(ORIGEN, "   → Mensaje: " + mensaje);
         
         // En una implementación real, aquí se usaría un servicio como Twilio, AWS SNS, etc.
     }
@@ -0,0 +1,55 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observador concreto que envía las alertas por SMS
+ * Las alertas críticas se envían al momento; el resto se condensa en un único SMS
+ * periódico con el número de alertas por nivel y los sensores afectados
+ */
+public class NotificadorSMSResumen extends NotificadorAgrupado {
+
+    /**
+     * Constructor del notificador
+     * @param numeros Números de teléfono destino
+     * @param transporte Canal de envío de SMS
+     * @param ventanaMs Tiempo máximo que una alerta no crítica espera en el resumen
+     * @param maximoAlertas Alertas acumuladas que fuerzan el envío del resumen
+     */
+    public NotificadorSMSResumen(List<String> numeros, TransporteMensajes transporte, long ventanaMs, int maximoAlertas) {
+        super(numeros, transporte, ventanaMs, maximoAlertas);
+    }
+
+    @Override
+    public String obtenerTipoObservador() {
+        return "NotificadorSMSResumen";
+    }
+
+    @Override
+    protected String asuntoInmediato(Alerta alerta) {
+        return "";
+    }
+
+    @Override
+    protected String cuerpoInmediato(Alerta alerta) {
+        return "ALERTA CRÍTICA: " + alerta.getMensaje() + " - Sensor: " + alerta.getIdSensor();
+    }
+
+    @Override
+    protected String asuntoResumen(int total) {
+        return "";
+    }
+
+    @Override
+    protected String cuerpoResumen(Map<NivelAlerta, Map<String, List<Alerta>>> grupos, int total) {
+        StringBuilder cuerpo = new StringBuilder("RESUMEN IoT:");
+        for (Map.Entry<NivelAlerta, Map<String, List<Alerta>>> nivel : grupos.entrySet()) {
+            int alertas = 0;
+            for (List<Alerta> porSensor : nivel.getValue().values()) {
+                alertas += porSensor.size();
+            }
+            cuerpo.append(' ').append(alertas).append(' ').append(nivel.getKey())
+                  .append(" en ").append(String.join(",", nivel.getValue().keySet())).append(';');
+        }
+        return cuerpo.toString();
+    }
+}
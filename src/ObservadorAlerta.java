@@ -16,4 +16,13 @@ public interface ObservadorAlerta {
      * @return String que identifica el tipo de observador
      */
     String obtenerTipoObservador();
+    
+    /**
+     * Declara qué alertas interesan al observador; el sujeto solo le entrega esas
+     * Se consulta una vez, al registrar el observador
+     * @return La suscripción del observador (por defecto, todas las alertas)
+     */
+    default SuscripcionAlertas obtenerSuscripcion() {
+        return SuscripcionAlertas.todas();
+    }
 }
@@ -0,0 +1,129 @@
+/**
+ * Enumeración de las plantillas de texto de las alertas generadas por las estrategias
+ * Cada plantilla fija el nivel de la alerta y sabe componer su mensaje a partir de los
+ * campos estructurados (valor, umbral y un dato auxiliar), de modo que el texto solo se
+ * construye si algún observador llega a leerlo
+ */
+public enum PlantillaAlerta {
+    TEMPERATURA_CRITICA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "❌ TEMPERATURA CRÍTICA: " + valor + "°C en " + ubicacion;
+        }
+    },
+    TEMPERATURA_ALTA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "⚠️ Temperatura alta: " + valor + "°C en " + ubicacion;
+        }
+    },
+    VIBRACION_PELIGROSA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🚨 VIBRACIÓN PELIGROSA: " + valor + " m/s² en " + ubicacion;
+        }
+    },
+    VIBRACION_ELEVADA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "📳 Vibración elevada: " + valor + " m/s² en " + ubicacion;
+        }
+    },
+    CONSUMO_ALTO(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "💡 ALTO CONSUMO ENERGÉTICO: " + valor + " kW en " + ubicacion;
+        }
+    },
+    CALIDAD_AIRE_CRITICA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🌫️ CALIDAD DEL AIRE CRÍTICA: AQI " + valor + " en " + ubicacion;
+        }
+    },
+    CALIDAD_AIRE_INSALUBRE(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "⚠️ Calidad del aire insalubre: AQI " + valor + " en " + ubicacion;
+        }
+    },
+    HUMEDAD_CRITICA_ALTA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "💧 HUMEDAD CRÍTICA ALTA: " + valor + "% en " + ubicacion;
+        }
+    },
+    HUMEDAD_CRITICA_BAJA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🏜️ HUMEDAD CRÍTICA BAJA: " + valor + "% en " + ubicacion;
+        }
+    },
+    HUMEDAD_ALTA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "⚠️ Humedad alta: " + valor + "% en " + ubicacion;
+        }
+    },
+    HUMEDAD_BAJA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "⚠️ Humedad baja: " + valor + "% en " + ubicacion;
+        }
+    },
+    // auxiliar: desviaciones respecto a la media reciente
+    DESVIACION_CRITICA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "📉 DESVIACIÓN CRÍTICA: " + valor + " se aleja " + String.format("%.1f", auxiliar) +
+                " desviaciones de la media reciente en " + ubicacion;
+        }
+    },
+    DESVIACION_INUSUAL(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "📉 Desviación inusual: " + valor + " se aleja " + String.format("%.1f", auxiliar) +
+                " desviaciones de la media reciente en " + ubicacion;
+        }
+    },
+    // umbral: umbral crítico que se alcanzará; auxiliar: pendiente por segundo
+    TENDENCIA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "📈 TENDENCIA: " + valor + " sube " + String.format("%.3f", auxiliar) + "/s y alcanzará " +
+                umbral + " en " + String.format("%.0f", (umbral - valor) / auxiliar) + " s en " + ubicacion;
+        }
+    },
+    // umbral: nivel de referencia previo al cambio
+    CAMBIO_NIVEL_ALZA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🔀 Cambio de nivel al alza: " + valor +
+                " frente a la referencia " + String.format("%.2f", umbral) + " en " + ubicacion;
+        }
+    },
+    CAMBIO_NIVEL_BAJA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🔀 Cambio de nivel a la baja: " + valor +
+                " frente a la referencia " + String.format("%.2f", umbral) + " en " + ubicacion;
+        }
+    },
+    // umbral: línea base aprendida; auxiliar: puntuación z
+    ANOMALIA_CRITICA(NivelAlerta.CRITICO) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🧮 ANOMALÍA CRÍTICA: " + valor + " (z=" + String.format("%.1f", auxiliar) + ", línea base " +
+                String.format("%.2f", umbral) + ") en " + ubicacion;
+        }
+    },
+    LECTURA_ATIPICA(NivelAlerta.ADVERTENCIA) {
+        String componer(double valor, double umbral, double auxiliar, String ubicacion) {
+            return "🧮 Lectura atípica: " + valor + " (z=" + String.format("%.1f", auxiliar) + ", línea base " +
+                String.format("%.2f", umbral) + ") en " + ubicacion;
+        }
+    };
+
+    private final NivelAlerta nivel;
+
+    PlantillaAlerta(NivelAlerta nivel) {
+        this.nivel = nivel;
+    }
+
+    /**
+     * Compone el texto de la alerta
+     * @param valor Valor leído
+     * @param umbral Umbral o referencia con el que se comparó
+     * @param auxiliar Dato adicional propio de la plantilla (NaN si no lo usa)
+     * @param ubicacion Ubicación del sensor
+     * @return Mensaje de la alerta
+     */
+    abstract String componer(double valor, double umbral, double auxiliar, String ubicacion);
+
+    public NivelAlerta getNivel() {
+        return nivel;
+    }
+}
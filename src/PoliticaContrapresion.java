@@ -0,0 +1,9 @@
+/**
+ * Enumeración para las políticas de contrapresión del despacho asíncrono de alertas
+ * Define qué ocurre cuando la cola de un observador lento está llena
+ */
+public enum PoliticaContrapresion {
+    BLOQUEAR,                // El hilo que notifica espera hasta que haya espacio
+    DESCARTAR_ANTIGUA,       // Se descarta la alerta más antigua de la cola
+    DESCARTAR_POR_PRIORIDAD  // Se descarta la alerta de menor NivelAlerta (la nueva si es la de menor nivel)
+}
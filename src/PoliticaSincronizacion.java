@@ -0,0 +1,9 @@
+/**
+ * Enumeración para las políticas de sincronización a disco del diario de alertas
+ * Define cuándo se fuerzan a disco los registros escritos en los segmentos mapeados
+ */
+public enum PoliticaSincronizacion {
+    CADA_REGISTRO,    // fsync tras cada alerta: máxima durabilidad, mayor latencia
+    GRUPO,            // fsync periódico de todo lo pendiente (group commit)
+    SISTEMA_OPERATIVO // sin fsync explícito: el sistema operativo vuelca las páginas
+}
@@ -1,3 +1,19 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Clase de pruebas completa para validar el funcionamiento del Sistema de Monitoreo IoT
  * Demuestra la integración de los patrones Singleton, Observer y Strategy
@@ -105,6 +121,8 @@ public class PruebaSistemaIoT {
         System.out.println("\n✅ Probando filtrado por tipo...");
         var sensoresTemperatura = gestor.obtenerSensoresPorTipo("temperatura");
         System.out.println("   - Sensores de temperatura: " + sensoresTemperatura.size());
+        System.out.println("   - Sensores en la zona 'Sala de Máquinas *': " +
+            gestor.obtenerSensoresPorUbicacion("Sala de Máquinas *").size());
         
         // Prueba 3: Verificar duplicados en observadores
         System.out.println("\n✅ Probando prevención de duplicados...");
@@ -124,6 +142,972 @@ public class PruebaSistemaIoT {
         notificador.establecerEstrategiaAnalisis(new EstrategiaAnalisisBasica());
         gestor.actualizarValorSensor("TEMP-001", 90.0); // Temperatura que normalmente generaría alerta
         System.out.println("   - No se generaron alertas con estrategia básica");
+
+        // Prueba 6: Enrutamiento por tipo de sensor (todas las estrategias a la vez)
+        System.out.println("\n✅ Probando enrutamiento de estrategias por tipo...");
+        notificador.establecerEstrategiaAnalisis(EnrutadorEstrategias.porDefecto());
+        int logsAntes = registradorLogs.obtenerCantidadLogs();
+        gestor.actualizarValorSensor("TEMP-001", 85.0);
+        gestor.actualizarValorSensor("HUM-001", 5.0);
+        System.out.println("   - Alertas de tipos distintos sin cambiar de estrategia: " +
+            (registradorLogs.obtenerCantidadLogs() - logsAntes));
+
+        // Prueba 7: Historial de lecturas con consultas por ventana
+        System.out.println("\n✅ Probando historial de lecturas...");
+        gestor.habilitarHistorial(64);
+        long ahoraNanos = System.currentTimeMillis() * 1_000_000L;
+        double[] lecturasVibracion = {2.0, 2.5, 3.0, 2.5, 2.0};
+        for (int i = 0; i < lecturasVibracion.length; i++) {
+            gestor.actualizarValoresSensores(new String[] {"VIB-001"}, new double[] {lecturasVibracion[i]},
+                new long[] {ahoraNanos - (lecturasVibracion.length - 1 - i) * 60_000_000_000L}, 1);
+        }
+        SerieLecturas ultimosCincoMinutos = gestor.obtenerHistorialReciente("VIB-001", 5 * 60_000_000_000L);
+        System.out.println("   - Lecturas en los últimos 5 minutos: " + ultimosCincoMinutos.obtenerCantidad());
+        System.out.println("   - Media: " + ultimosCincoMinutos.media() + ", máximo: " + ultimosCincoMinutos.maximo() +
+            ", p50: " + ultimosCincoMinutos.percentil(50));
+        System.out.println("   - Puntos submuestreados cada 2 minutos: " +
+            ultimosCincoMinutos.submuestrear(2 * 60_000_000_000L).obtenerCantidad());
+
+        // Prueba 8: Diario persistente de alertas y recuperación tras reinicio
+        System.out.println("\n✅ Probando diario persistente de alertas...");
+        try {
+            Path directorioDiario = Files.createTempDirectory("diario-alertas");
+            try (DiarioAlertas diario = new DiarioAlertas(directorioDiario, 4096, 3, PoliticaSincronizacion.GRUPO, 50)) {
+                RegistradorLogs registradorPersistente = new RegistradorLogs(diario, 1000);
+                for (int i = 0; i < 40; i++) {
+                    registradorPersistente.actualizar(new Alerta("TEMP-001", "Prueba de diario " + i,
+                        i % 2 == 0 ? NivelAlerta.CRITICO : NivelAlerta.ADVERTENCIA, new java.util.Date()));
+                }
+            }
+            try (DiarioAlertas diarioReabierto = new DiarioAlertas(directorioDiario, 4096, 3, PoliticaSincronizacion.GRUPO, 50)) {
+                RegistradorLogs registradorRecuperado = new RegistradorLogs(diarioReabierto, 1000);
+                System.out.println("   - Alertas recuperadas tras reabrir el diario: " + registradorRecuperado.obtenerCantidadLogs());
+                System.out.println("   - Siguiente secuencia: " + diarioReabierto.obtenerSiguienteSecuencia());
+            }
+            // Alertas casi del tamaño del segmento: 8 de cabecera + 31 fijos + 7 del ID + mensaje + 4 de fin
+            Path directorioJusto = Files.createTempDirectory("diario-justo");
+            try (DiarioAlertas diarioJusto = new DiarioAlertas(directorioJusto, 256, 3, PoliticaSincronizacion.SISTEMA_OPERATIVO, 0)) {
+                Alerta justa = new Alerta("TEMP-D1", "x".repeat(206), NivelAlerta.CRITICO, new java.util.Date());
+                Alerta excesiva = new Alerta("TEMP-D1", "x".repeat(208), NivelAlerta.CRITICO, new java.util.Date());
+                diarioJusto.agregar(justa); // llena un segmento vacío
+                diarioJusto.agregar(justa); // rota desde un segmento con datos
+                String resultadoExcesiva;
+                try {
+                    diarioJusto.agregar(excesiva);
+                    resultadoExcesiva = "aceptada";
+                } catch (IOException e) {
+                    resultadoExcesiva = "rechazada";
+                }
+                diarioJusto.agregar(justa);
+                long[] reproducidas = new long[1];
+                diarioJusto.reproducir(alerta -> reproducidas[0]++);
+                System.out.println("   - Segmentos de 256 bytes: alerta que llena el segmento aceptada en uno vacío y " +
+                    "en uno con datos, 4 bytes más grande " + resultadoExcesiva + "; " + reproducidas[0] +
+                    " alertas reproducidas, siguiente secuencia " + diarioJusto.obtenerSiguienteSecuencia());
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Error en la prueba del diario: " + e.getMessage());
+        }
+
+        // Prueba 9: Eventos de diagnóstico filtrados por nivel y sumidero asíncrono
+        System.out.println("\n✅ Probando eventos de diagnóstico...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        gestor.actualizarValorSensor("VIB-001", 2.2); // sin trazas de depuración
+        System.out.println("   - Lectura aplicada con nivel " + RegistroEventos.obtenerNivel() + " (sin trazas)");
+        RegistroEventos.establecerNivel(NivelEvento.DEPURACION);
+        SumideroAsincrono asincrono = new SumideroAsincrono(new SumideroConsola(), 1024);
+        SumideroEventos anterior = RegistroEventos.establecerSumidero(asincrono);
+        gestor.actualizarValorSensor("VIB-001", 2.1);
+        RegistroEventos.establecerSumidero(anterior);
+        asincrono.close(); // entrega los eventos pendientes antes de continuar
+        System.out.println("   - Eventos descartados por el sumidero asíncrono: " + asincrono.obtenerDescartados() +
+            ", fallidos en el destino: " + asincrono.obtenerFallidos());
+
+        // Prueba 10: Supresión de alertas repetidas (sensor a 85°C informando cada 100 ms)
+        System.out.println("\n✅ Probando supresión de alertas repetidas...");
+        notificador.activarSupresion(60_000_000_000L, 3);
+        int logsAntesSupresion = registradorLogs.obtenerCantidadLogs();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        long inicioNanos = System.currentTimeMillis() * 1_000_000L;
+        for (int i = 0; i < 50; i++) {
+            double temperatura = i == 40 ? 70.0 : 85.0; // una advertencia intermedia tampoco se notifica
+            gestor.actualizarValoresSensores(new String[] {"TEMP-001"}, new double[] {temperatura},
+                new long[] {inicioNanos + i * 100_000_000L}, 1);
+        }
+        RegistroEventos.establecerNivel(NivelEvento.DEPURACION);
+        System.out.println("   - Lecturas en alerta: 50, alertas notificadas: " +
+            (registradorLogs.obtenerCantidadLogs() - logsAntesSupresion));
+        System.out.println("   - Métricas del supresor: " + notificador.obtenerSupresor().obtenerMetricas());
+        notificador.desactivarSupresion();
+
+        // Prueba 11: Resúmenes de email y SMS con un transporte simulado
+        System.out.println("\n✅ Probando resúmenes de alertas por email y SMS...");
+        TransporteSimulado transporte = new TransporteSimulado();
+        NotificadorEmailResumen emailResumen = new NotificadorEmailResumen(
+            java.util.List.of("admin@fabrica.com", "mantenimiento@fabrica.com"), transporte, 60_000, 100);
+        NotificadorSMSResumen smsResumen = new NotificadorSMSResumen(
+            java.util.List.of("+1234567890"), transporte, 60_000, 100);
+        for (int i = 0; i < 30; i++) {
+            Alerta alerta = new Alerta("VIB-00" + (i % 3 + 1), "Vibración elevada: " + (3.0 + i * 0.01) + " mm/s",
+                i % 15 == 0 ? NivelAlerta.CRITICO : NivelAlerta.ADVERTENCIA, new java.util.Date());
+            emailResumen.actualizar(alerta);
+            smsResumen.actualizar(alerta);
+        }
+        emailResumen.close();
+        smsResumen.close();
+        System.out.println("   - Alertas: 30 (2 críticas), mensajes enviados: " + transporte.obtenerCantidadMensajes());
+        for (TransporteSimulado.Mensaje mensaje : transporte.obtenerMensajes()) {
+            if (mensaje.getCuerpo().startsWith("RESUMEN")) {
+                System.out.println("   - SMS de resumen: " + mensaje.getCuerpo());
+            }
+        }
+
+        // Prueba 12: Reevaluación de toda la flota con el motor particionado
+        System.out.println("\n✅ Probando barrido con el motor de análisis particionado...");
+        int alertasEnSerie = gestor.analizarTodos(false).size();
+        try (MotorAnalisisParticionado motor = new MotorAnalisisParticionado(notificador, 2, 1024)) {
+            gestor.establecerMotorAnalisis(motor);
+            System.out.println("   - Alertas del barrido en serie: " + alertasEnSerie +
+                ", con 2 particiones: " + gestor.analizarTodos(false).size());
+            gestor.establecerMotorAnalisis(null);
+        }
+
+        // Prueba 13: Umbrales recargados en caliente desde un archivo vigilado
+        System.out.println("\n✅ Probando recarga de umbrales en caliente...");
+        try {
+            Path archivoUmbrales = Files.createTempFile("umbrales", ".properties");
+            Files.writeString(archivoUmbrales, "temperatura.critico_alto=80\n");
+            try (VigilanteUmbrales vigilante = new VigilanteUmbrales(archivoUmbrales)) {
+                Sensor temperatura = gestor.obtenerSensor("TEMP-001");
+                System.out.println("   - TEMP-001 a " + temperatura.getValor() + "°C con crítico en 80: " +
+                    notificador.obtenerEstrategiaActual().analizar(temperatura).getNivel());
+                Files.writeString(archivoUmbrales, "temperatura.critico_alto=90\n" +
+                    "ubicacion.Almacén\\ de\\ Materiales.humedad.advertencia_bajo=3\n" +
+                    "ubicacion.Almacén\\ de\\ Materiales.temperatura.critico_alto=30\n" +
+                    "sensor.HUM-001.humedad.critico_bajo=2\n");
+                for (int espera = 0; espera < 50 && vigilante.obtenerRecargas() == 0; espera++) {
+                    Thread.sleep(100);
+                }
+                System.out.println("   - TEMP-001 con crítico en 90 (sin reiniciar): " +
+                    notificador.obtenerEstrategiaActual().analizar(temperatura).getNivel());
+                Sensor humedad = gestor.obtenerSensor("HUM-001");
+                Alerta alertaHumedad = notificador.obtenerEstrategiaActual().analizar(humedad);
+                System.out.println("   - HUM-001 al 5% (sensor sobre ubicación sobre tipo): " +
+                    (alertaHumedad != null ? alertaHumedad.getNivel() : "sin alerta"));
+                System.out.println("   - Crítico alto de HUM-001 (la excepción de temperatura de su ubicación no le aplica): " +
+                    ConfiguracionUmbrales.obtenerActual().resolver(humedad).getCriticoAlto());
+                try (MotorMonitoreo aislado = new MotorMonitoreo("Planta Aislada")) {
+                    Sensor otraTemperatura = new Sensor("TEMP-AIS", "temperatura", 85.0, "Sala de Máquinas A");
+                    System.out.println("   - A 85°C: umbrales compartidos " +
+                        notificador.obtenerEstrategiaActual().analizar(otraTemperatura).getNivel() +
+                        ", motor con umbrales propios " +
+                        aislado.obtenerNotificador().obtenerEstrategiaActual().analizar(otraTemperatura).getNivel());
+                }
+            }
+            ConfiguracionUmbrales.publicar(ConfiguracionUmbrales.porDefecto());
+        } catch (IOException e) {
+            System.err.println("❌ Error en la prueba de umbrales: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Prueba 14: Estrategias de tendencia sobre una temperatura que sube 0.5°C por segundo
+        System.out.println("\n✅ Probando estrategias de tendencia (EWMA, pendiente y CUSUM)...");
+        EstrategiaAnalisis[] tendencias = {
+            new EstrategiaAnalisisEWMA(TipoSensor.TEMPERATURA, 0.3, 4.0, 8.0, 10),
+            new EstrategiaAnalisisPendiente(TipoSensor.TEMPERATURA, 10, 30.0),
+            new EstrategiaAnalisisCUSUM(TipoSensor.TEMPERATURA, 0.5, 5.0, 10)
+        };
+        int[] primeraAlerta = {-1, -1, -1};
+        Sensor horno = new Sensor("TEMP-900", "temperatura", 40.0, "Horno de Pruebas");
+        long origenNanos = System.currentTimeMillis() * 1_000_000L;
+        int segundos = 0;
+        for (; horno.getValor() <= 80.0; segundos++) {
+            double ruido = (segundos % 2 == 0 ? 0.3 : -0.3);
+            double escalon = segundos >= 45 ? 4.0 : 0.0; // salto brusco a los 45 s
+            horno.registrarLectura(40.0 + (segundos < 20 ? 0.0 : 0.5 * (segundos - 20)) + ruido + escalon,
+                origenNanos + segundos * 1_000_000_000L);
+            for (int e = 0; e < tendencias.length; e++) {
+                if (tendencias[e].analizar(horno) != null && primeraAlerta[e] < 0) {
+                    primeraAlerta[e] = segundos;
+                }
+            }
+        }
+        System.out.println("   - El umbral crítico (80°C) se cruza en el segundo " + (segundos - 1));
+        System.out.println("   - Primera alerta EWMA: " + primeraAlerta[0] + " s, pendiente: " + primeraAlerta[1] +
+            " s, CUSUM: " + primeraAlerta[2] + " s");
+
+        // Prueba 15: Detección adaptativa de anomalías con líneas base distintas por subestación
+        System.out.println("\n✅ Probando detección adaptativa de anomalías (z-score)...");
+        EstrategiaAnalisisZScore deteccion = new EstrategiaAnalisisZScore(TipoSensor.ENERGIA, 3.0, 6.0, 30, true);
+        Sensor subestacionNorte = new Sensor("ENER-901", "energia", 300.0, "Subestación Norte");
+        Sensor subestacionSur = new Sensor("ENER-902", "energia", 900.0, "Subestación Sur");
+        long marcaNanos = System.currentTimeMillis() * 1_000_000L;
+        for (int i = 0; i < 200; i++) {
+            double variacion = ((i * 37) % 21 - 10) * 2.0; // ±20 kW
+            marcaNanos += 1_000_000_000L;
+            subestacionNorte.registrarLectura(300.0 + variacion, marcaNanos);
+            subestacionSur.registrarLectura(900.0 + variacion, marcaNanos);
+            deteccion.analizar(subestacionNorte);
+            deteccion.analizar(subestacionSur);
+        }
+        marcaNanos += 1_000_000_000L;
+        subestacionNorte.registrarLectura(900.0, marcaNanos);
+        subestacionSur.registrarLectura(900.0, marcaNanos);
+        Alerta alertaNorte = deteccion.analizar(subestacionNorte);
+        Alerta alertaSur = deteccion.analizar(subestacionSur);
+        System.out.println("   - 900 kW en la Subestación Norte (base " +
+            String.format("%.0f", deteccion.obtenerLineaBase("ENER-901")) + " kW): " +
+            (alertaNorte != null ? alertaNorte.getNivel() : "normal"));
+        System.out.println("   - 900 kW en la Subestación Sur (base " +
+            String.format("%.0f", deteccion.obtenerLineaBase("ENER-902")) + " kW): " +
+            (alertaSur != null ? alertaSur.getNivel() : "normal"));
+
+        // Prueba 16: Cadena de estrategias con una confirmación que solo se ejecuta tras una anomalía
+        System.out.println("\n✅ Probando estrategia compuesta (umbral + adaptativa + confirmación)...");
+        EstrategiaAnalisisZScore adaptativa = new EstrategiaAnalisisZScore(TipoSensor.ENERGIA, 3.0, 30.0, 30, false);
+        EstrategiaCompuesta cadena = new EstrategiaCompuesta(true, true)
+            .agregar("umbral", new EstrategiaAnalisisEnergia())
+            .agregar("adaptativa", adaptativa)
+            .agregarSiAlerta("confirmacion", (sensor, lectura) ->
+                lectura.getValor() > 1.4 * adaptativa.obtenerLineaBase(sensor.getId())
+                    ? new Alerta(sensor.getId(), "✔️ Anomalía confirmada: más de un 40% sobre la línea base",
+                        NivelAlerta.CRITICO, new Date())
+                    : null,
+                "adaptativa");
+        Sensor transformador = new Sensor("ENER-903", "energia", 300.0, "Transformador Este");
+        for (int i = 0; i < 200; i++) {
+            marcaNanos += 1_000_000_000L;
+            transformador.registrarLectura(300.0 + ((i * 37) % 21 - 10) * 2.0, marcaNanos);
+            cadena.analizar(transformador);
+        }
+        for (double lectura : new double[] {450.0, 1200.0}) {
+            marcaNanos += 1_000_000_000L;
+            transformador.registrarLectura(lectura, marcaNanos);
+            Alerta combinada = cadena.analizar(transformador);
+            System.out.println("   - " + lectura + " kW: " + combinada.getNivel() + " (" +
+                combinada.getMensaje().split(" \\| ").length + " etapas alertaron)");
+        }
+        for (Map<String, Object> metrica : cadena.obtenerMetricas()) {
+            System.out.println("   - Etapa " + metrica.get("etapa") + ": " + metrica.get("ejecuciones") +
+                " ejecuciones, " + metrica.get("omitidas") + " omitidas, " + metrica.get("alertas") +
+                " alertas, p99 " + metrica.get("p99Nanos") + " ns");
+        }
+
+        // Prueba 17: Suscripción por nivel, tipo y ubicación resuelta en el notificador
+        System.out.println("\n✅ Probando suscripciones filtradas en el notificador...");
+        List<Alerta> recibidas = new ArrayList<>();
+        ObservadorAlerta guardiaSalaA = new ObservadorAlerta() {
+            @Override
+            public void actualizar(Alerta alerta) {
+                recibidas.add(alerta);
+            }
+
+            @Override
+            public String obtenerTipoObservador() {
+                return "GuardiaSalaA";
+            }
+        };
+        List<ObservadorAlerta> habituales = notificador.obtenerObservadores();
+        NivelEvento nivelEventos = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.DESACTIVADO); // los habituales se retiran en silencio
+        for (ObservadorAlerta observador : habituales) {
+            notificador.eliminarObservador(observador);
+        }
+        RegistroEventos.establecerNivel(nivelEventos);
+        notificador.registrarObservador(guardiaSalaA, SuscripcionAlertas.deNiveles(NivelAlerta.CRITICO)
+            .conTipos(TipoSensor.TEMPERATURA).conUbicaciones("Sala de Máquinas A"));
+        Sensor salaA = new Sensor("TEMP-951", "temperatura", 95.0, "Sala de Máquinas A");
+        Sensor salaB = new Sensor("TEMP-952", "temperatura", 95.0, "Sala de Máquinas B");
+        Sensor motorSalaA = new Sensor("VIB-951", "vibracion", 6.0, "Sala de Máquinas A");
+        Alerta[] candidatas = {
+            new Alerta(salaA, PlantillaAlerta.TEMPERATURA_CRITICA, 95.0, 80.0, Double.NaN),
+            new Alerta(salaA, PlantillaAlerta.TEMPERATURA_ALTA, 65.0, 60.0, Double.NaN),
+            new Alerta(salaB, PlantillaAlerta.TEMPERATURA_CRITICA, 95.0, 80.0, Double.NaN),
+            new Alerta(motorSalaA, PlantillaAlerta.VIBRACION_PELIGROSA, 6.0, 5.0, Double.NaN)
+        };
+        for (Alerta candidata : candidatas) {
+            notificador.notificarObservadores(candidata);
+        }
+        notificador.eliminarObservador(guardiaSalaA);
+        RegistroEventos.establecerNivel(NivelEvento.DESACTIVADO);
+        for (ObservadorAlerta observador : habituales) {
+            notificador.registrarObservador(observador);
+        }
+        RegistroEventos.establecerNivel(nivelEventos);
+        System.out.println("   - La guardia de la Sala A recibió " + recibidas.size() + " de " + candidatas.length +
+            " alertas: " + recibidas.get(0).getMensaje());
+
+        // Prueba 18: Estrés de escritores y lectores concurrentes sobre la lectura de un sensor
+        System.out.println("\n✅ Probando instantáneas atómicas bajo concurrencia (2 escritores, 2 lectores)...");
+        Sensor sinAlmacen = new Sensor("TEMP-960", "temperatura", 0.0, "Banco de Estrés");
+        Sensor conAlmacen = new Sensor("TEMP-961", "temperatura", 0.0, "Banco de Estrés");
+        new AlmacenSensores(1).registrar(conAlmacen);
+        Sensor vaiven = new Sensor("TEMP-962", "temperatura", 0.0, "Banco de Estrés");
+        System.out.println("   - Sensor con CAS de instantánea: " + estresarLecturas(sinAlmacen, null));
+        System.out.println("   - Sensor con seqlock del almacén: " + estresarLecturas(conAlmacen, null));
+        System.out.println("   - Sensor que entra y sale del almacén: " + estresarLecturas(vaiven, new AlmacenSensores(1)));
+
+        // Prueba 19: Dos motores independientes en paralelo, con el mismo ID de sensor en cada uno
+        System.out.println("\n✅ Probando motores de monitoreo aislados (Planta Norte y Planta Sur en paralelo)...");
+        int sensoresCompartidos = gestor.obtenerCantidadSensores();
+        NivelEvento nivelPrevio = RegistroEventos.obtenerNivel();
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA); // los motores se crean y alimentan en silencio
+        try (MotorMonitoreo norte = new MotorMonitoreo("Planta Norte");
+             MotorMonitoreo sur = new MotorMonitoreo("Planta Sur")) {
+            MotorMonitoreo[] motores = {norte, sur};
+            AtomicInteger[] alertasPorMotor = {new AtomicInteger(), new AtomicInteger()};
+            Thread[] plantas = new Thread[motores.length];
+            for (int m = 0; m < motores.length; m++) {
+                MotorMonitoreo motor = motores[m];
+                AtomicInteger contador = alertasPorMotor[m];
+                motor.obtenerNotificador().registrarObservador(new ObservadorAlerta() {
+                    @Override
+                    public void actualizar(Alerta alerta) {
+                        contador.incrementAndGet();
+                    }
+
+                    @Override
+                    public String obtenerTipoObservador() {
+                        return "Contador" + motor.obtenerNombre().replace(" ", "");
+                    }
+                });
+                motor.obtenerGestor().registrarSensor(new Sensor("TEMP-001", "temperatura", 25.0, motor.obtenerNombre()));
+                // Solo la Planta Norte sobrecalienta su sensor: una de cada 100 lecturas es crítica
+                double lecturaCritica = motor == norte ? 95.0 : 30.0;
+                plantas[m] = new Thread(() -> {
+                    for (int i = 1; i <= 10_000; i++) {
+                        motor.obtenerGestor().actualizarValorSensor("TEMP-001", i % 100 == 0 ? lecturaCritica : 25.0);
+                    }
+                }, "planta-" + m);
+                plantas[m].start();
+            }
+            for (Thread planta : plantas) {
+                planta.join();
+            }
+            for (int m = 0; m < motores.length; m++) {
+                Sensor propio = motores[m].obtenerGestor().obtenerSensor("TEMP-001");
+                System.out.println("   - " + motores[m] + ": " + alertasPorMotor[m].get() + " alertas, TEMP-001 en " +
+                    propio.getUbicacion() + " = " + propio.getValor() + "°C");
+            }
+            System.out.println("   - Gestor compartido intacto: " + (gestor.obtenerCantidadSensores() == sensoresCompartidos) +
+                " (" + sensoresCompartidos + " sensores, TEMP-001 sigue en " +
+                gestor.obtenerSensor("TEMP-001").getUbicacion() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+
+        // Prueba 20: Instantánea del registro y de las líneas base, restaurada en un motor nuevo
+        System.out.println("\n✅ Probando instantáneas del registro para reinicio rápido...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        Path archivoInstantanea = null;
+        try (MotorMonitoreo original = new MotorMonitoreo("Planta Este")) {
+            archivoInstantanea = Files.createTempFile("registro", ".inst");
+            EstrategiaAnalisisZScore lineaBase = new EstrategiaAnalisisZScore(TipoSensor.ENERGIA, 3.0, 5.0, 20, false);
+            original.obtenerEstrategias().asignarEstrategia(TipoSensor.ENERGIA, lineaBase);
+            GestorSensores gestorOriginal = original.obtenerGestor();
+            for (int i = 0; i < 1_000; i++) {
+                gestorOriginal.registrarSensor(new Sensor("ENER-" + i, "energia", 800.0, "Subestación " + (i % 10)));
+            }
+            String[] idsEnergia = new String[1_000];
+            double[] valoresEnergia = new double[1_000];
+            long[] marcasEnergia = new long[1_000];
+            long marca = System.currentTimeMillis() * 1_000_000L;
+            for (int k = 0; k < 50; k++) {
+                for (int i = 0; i < 1_000; i++) {
+                    idsEnergia[i] = "ENER-" + i;
+                    valoresEnergia[i] = 300.0 + i + (k % 5);
+                    marcasEnergia[i] = marca + k;
+                }
+                gestorOriginal.actualizarValoresSensores(idsEnergia, valoresEnergia, marcasEnergia, 1_000);
+            }
+            InstantaneasRegistro instantaneas = new InstantaneasRegistro(gestorOriginal, archivoInstantanea);
+            instantaneas.registrarEstado("zscore-energia", lineaBase);
+            instantaneas.iniciar(20_000_000L); // cada 20 ms en segundo plano
+            Thread.sleep(100);
+            instantaneas.close(); // detiene el hilo y escribe la última
+            Map<String, Long> metricasInstantaneas = instantaneas.obtenerMetricas();
+
+            try (MotorMonitoreo reiniciado = new MotorMonitoreo("Planta Este (reinicio)")) {
+                EstrategiaAnalisisZScore lineaBaseRestaurada = new EstrategiaAnalisisZScore(TipoSensor.ENERGIA, 3.0, 5.0, 20, false);
+                reiniciado.obtenerEstrategias().asignarEstrategia(TipoSensor.ENERGIA, lineaBaseRestaurada);
+                InstantaneasRegistro restauracion = new InstantaneasRegistro(reiniciado.obtenerGestor(), archivoInstantanea);
+                restauracion.registrarEstado("zscore-energia", lineaBaseRestaurada);
+                int restaurados = restauracion.restaurar();
+                int coincidencias = 0;
+                for (int i = 0; i < 1_000; i++) {
+                    Sensor antes = gestorOriginal.obtenerSensor("ENER-" + i);
+                    Sensor despues = reiniciado.obtenerGestor().obtenerSensor("ENER-" + i);
+                    if (despues != null && despues.getValor() == antes.getValor() &&
+                        despues.getMarcaTiempoNanos() == antes.getMarcaTiempoNanos() &&
+                        despues.getUbicacion().equals(antes.getUbicacion()) &&
+                        lineaBaseRestaurada.obtenerLineaBase("ENER-" + i) == lineaBase.obtenerLineaBase("ENER-" + i)) {
+                        coincidencias++;
+                    }
+                }
+                // La línea base restaurada ya detecta una anomalía sin volver a calentar
+                Sensor energia7 = reiniciado.obtenerGestor().obtenerSensor("ENER-7");
+                energia7.registrarLectura(900.0, marca + 1_000);
+                Alerta alertaTrasReinicio = reiniciado.obtenerNotificador().evaluar(energia7);
+                System.out.println("   - " + metricasInstantaneas.get("instantaneas") + " instantáneas escritas (" +
+                    metricasInstantaneas.get("bytes") + " bytes), " + restaurados + " sensores restaurados, " +
+                    coincidencias + " idénticos con su línea base");
+                System.out.println("   - Primera lectura anómala tras el reinicio: " +
+                    (alertaTrasReinicio != null ? alertaTrasReinicio.getMensaje() : "sin alerta"));
+            }
+
+            // Un byte alterado invalida la instantánea antes de tocar el gestor
+            byte[] contenido = Files.readAllBytes(archivoInstantanea);
+            contenido[contenido.length / 2] ^= 1;
+            Files.write(archivoInstantanea, contenido);
+            try (MotorMonitoreo otro = new MotorMonitoreo("Planta Este (corrupta)")) {
+                new InstantaneasRegistro(otro.obtenerGestor(), archivoInstantanea).restaurar();
+                System.out.println("   - ERROR: se aceptó una instantánea corrupta");
+            } catch (IOException e) {
+                System.out.println("   - Instantánea alterada rechazada: " + e.getMessage().replace(archivoInstantanea.toString(), "<archivo>"));
+            }
+        } catch (IOException e) {
+            System.out.println("   - Error de E/S en la instantánea: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+            if (archivoInstantanea != null) {
+                try {
+                    Files.deleteIfExists(archivoInstantanea);
+                } catch (IOException e) {
+                    // archivo temporal
+                }
+            }
+        }
+
+        // Prueba 21: Series temporales comprimidas con resúmenes por minuto y por hora
+        System.out.println("\n✅ Probando series temporales con niveles de resumen...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        Path directorioSeries = null;
+        try {
+            directorioSeries = Files.createTempDirectory("series");
+            long segundo = 1_000_000_000L;
+            long hora = 3_600L * segundo;
+            long dia = 24L * hora;
+            long inicio = 19_675L * dia; // medianoche UTC
+            long fin = inicio + 2L * dia;
+            SerieResumen horasAntes;
+            try (MotorMonitoreo planta = new MotorMonitoreo("Planta Norte");
+                 AlmacenSeries almacenSeries = new AlmacenSeries(directorioSeries, dia, 7L * dia, 30L * dia)) {
+                GestorSensores gestorPlanta = planta.obtenerGestor();
+                gestorPlanta.habilitarSeries(almacenSeries);
+                String[] idsSerie = new String[5];
+                for (int i = 0; i < idsSerie.length; i++) {
+                    idsSerie[i] = "TEMP-S" + i;
+                    gestorPlanta.registrarSensor(new Sensor(idsSerie[i], "temperatura", 21.0, "Nave " + i));
+                }
+                // Dos días de lecturas cada 10 s, con la resolución de 0.1 °C de un sensor real
+                double[] valoresSerie = new double[idsSerie.length];
+                long[] marcasSerie = new long[idsSerie.length];
+                for (long t = inicio; t < fin; t += 10L * segundo) {
+                    for (int i = 0; i < idsSerie.length; i++) {
+                        double fase = 2.0 * Math.PI * (t - inicio) / dia;
+                        valoresSerie[i] = Math.round((21.0 + i + 2.0 * Math.sin(fase)) * 10.0) / 10.0;
+                        marcasSerie[i] = t;
+                    }
+                    gestorPlanta.actualizarValoresSensores(idsSerie, valoresSerie, marcasSerie, idsSerie.length);
+                }
+                almacenSeries.agregar("TEMP-S0", inicio, 99.0); // fuera de orden: se descarta
+
+                // El resumen de una hora coincide con el de sus lecturas crudas y sus minutos
+                long horaConsultada = fin - 5L * hora;
+                long finHora = horaConsultada + hora - 1;
+                SerieResumen crudas = gestorPlanta.consultarSerie("TEMP-S2", NivelSerie.CRUDO, horaConsultada, finHora);
+                SerieResumen minutos = gestorPlanta.consultarSerie("TEMP-S2", NivelSerie.MINUTO, horaConsultada, finHora);
+                SerieResumen unaHora = gestorPlanta.consultarSerie("TEMP-S2", NivelSerie.HORA, horaConsultada, finHora);
+                boolean coinciden = crudas.minimo() == unaHora.minimo() && crudas.maximo() == unaHora.maximo() &&
+                    Math.abs(crudas.media() - unaHora.media()) < 1e-9 && minutos.totalLecturas() == crudas.totalLecturas() &&
+                    minutos.minimo() == crudas.minimo() && minutos.maximo() == crudas.maximo();
+                System.out.println("   - Hora consultada: " + crudas.obtenerCantidad() + " lecturas crudas, " +
+                    minutos.obtenerCantidad() + " minutos, " + unaHora.obtenerCantidad() + " hora; resúmenes " +
+                    (coinciden ? "coherentes" : "INCOHERENTES") + String.format(" (mín %.1f, máx %.1f, media %.3f)",
+                    unaHora.minimo(), unaHora.maximo(), unaHora.media()));
+
+                // Selección automática del nivel según el rango y los puntos pedidos
+                SerieResumen panelDosDias = gestorPlanta.consultarSerie("TEMP-S2", inicio, fin, 200);
+                SerieResumen panelUnaHora = gestorPlanta.consultarSerie("TEMP-S2", horaConsultada, finHora, 400);
+                SerieResumen panelPrimerDia = gestorPlanta.consultarSerie("TEMP-S2", inicio, inicio + dia - 1, 2_000);
+                System.out.println("   - Nivel elegido: 2 días/200 puntos → " + panelDosDias.obtenerNivel().getCodigo() +
+                    " (" + panelDosDias.obtenerCantidad() + "), 1 hora/400 puntos → " + panelUnaHora.obtenerNivel().getCodigo() +
+                    " (" + panelUnaHora.obtenerCantidad() + "), primer día/2000 puntos → " +
+                    panelPrimerDia.obtenerNivel().getCodigo() + " (" + panelPrimerDia.obtenerCantidad() + ")");
+
+                // La retención de 1 día ya borró las lecturas crudas del primer día
+                SerieResumen crudasPrimerDia = gestorPlanta.consultarSerie("TEMP-S2", NivelSerie.CRUDO, inicio, inicio + dia - 1);
+                Map<String, Long> metricasSeries = almacenSeries.obtenerMetricas();
+                System.out.println("   - Lecturas crudas del primer día tras la retención: " + crudasPrimerDia.obtenerCantidad() +
+                    " de 8640 (se borran segmentos enteros); " + metricasSeries.get("segmentos") + " segmentos en disco");
+                System.out.println("   - " + metricasSeries.get("lecturas") + " lecturas agregadas, " +
+                    metricasSeries.get("descartadas") + " descartada fuera de orden, " + String.format("%.2f",
+                    (double) metricasSeries.get("bytesEnDisco") / metricasSeries.get("lecturas")) +
+                    " bytes en disco por lectura (los tres niveles)");
+                horasAntes = gestorPlanta.consultarSerie("TEMP-S4", NivelSerie.HORA, inicio, fin);
+            }
+
+            // Al reabrir, los bloques sellados al cerrar se recuperan del disco
+            try (AlmacenSeries reabierto = new AlmacenSeries(directorioSeries, dia, 7L * dia, 30L * dia)) {
+                SerieResumen horasDespues = reabierto.consultar("TEMP-S4", NivelSerie.HORA, inicio, fin);
+                boolean identicas = horasDespues.obtenerCantidad() == horasAntes.obtenerCantidad();
+                for (int i = 0; identicas && i < horasDespues.obtenerCantidad(); i++) {
+                    identicas = horasDespues.obtenerMarcaNanos(i) == horasAntes.obtenerMarcaNanos(i) &&
+                        horasDespues.obtenerMedia(i) == horasAntes.obtenerMedia(i);
+                }
+                System.out.println("   - Tras reabrir: " + horasDespues.obtenerCantidad() + " horas de TEMP-S4, " +
+                    (identicas ? "idénticas" : "DISTINTAS") + " a las de antes del cierre");
+            }
+        } catch (IOException e) {
+            System.out.println("   - Error de E/S en las series: " + e.getMessage());
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+            if (directorioSeries != null) {
+                try (DirectoryStream<Path> segmentosSerie = Files.newDirectoryStream(directorioSeries)) {
+                    for (Path segmento : segmentosSerie) {
+                        Files.deleteIfExists(segmento);
+                    }
+                    Files.deleteIfExists(directorioSeries);
+                } catch (IOException e) {
+                    // directorio temporal
+                }
+            }
+        }
+
+        // Prueba 22: Un sensor repetido en un lote se analiza una vez por cada lectura
+        System.out.println("\n✅ Probando lotes con el mismo sensor varias veces...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        try (MotorMonitoreo lotes = new MotorMonitoreo("Planta Lotes")) {
+            List<Alerta> recibidasLote = new ArrayList<>();
+            lotes.obtenerNotificador().registrarObservador(recolector("RecolectorLotes", recibidasLote));
+            lotes.obtenerGestor().registrarSensor(new Sensor("TEMP-L1", "temperatura", 22.0, "Horno 1"));
+            lotes.obtenerGestor().actualizarValoresSensores(new String[] {"TEMP-L1", "TEMP-L1"},
+                new double[] {95.0, 20.0}, null, 2);
+            System.out.println("   - Lote {95°C, 20°C} sobre TEMP-L1: " + recibidasLote.size() + " alerta(s)" +
+                (recibidasLote.isEmpty() ? "" : ", " + recibidasLote.get(0).getNivel() + " con " +
+                recibidasLote.get(0).getValor() + "°C") + "; valor final " +
+                lotes.obtenerGestor().obtenerSensor("TEMP-L1").getValor() + "°C");
+            // Con supresión, cada lectura del lote se juzga con su propia marca de tiempo
+            lotes.obtenerNotificador().activarSupresion(60_000_000_000L, 1);
+            recibidasLote.clear();
+            long marcaLote = System.currentTimeMillis() * 1_000_000L;
+            lotes.obtenerGestor().actualizarValoresSensores(new String[] {"TEMP-L1", "TEMP-L1", "TEMP-L1"},
+                new double[] {95.0, 95.0, 95.0},
+                new long[] {marcaLote, marcaLote + 30_000_000_000L, marcaLote + 120_000_000_000L}, 3);
+            System.out.println("   - Lote de 95°C en t, t+30 s y t+2 min con ventana de 1 min: " +
+                recibidasLote.size() + " alertas notificadas, " +
+                lotes.obtenerNotificador().obtenerSupresor().obtenerMetricas().get("suprimidas") + " suprimida");
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+
+        // Prueba 23: El vaciado de un despachador asíncrono espera a la entrega en curso
+        System.out.println("\n✅ Probando el vaciado del despacho asíncrono con un observador lento...");
+        List<Alerta> entregadasLentas = new ArrayList<>();
+        ObservadorAlerta recolectorLento = recolector("RecolectorLento", entregadasLentas);
+        DespachadorAsincrono despachoLento = new DespachadorAsincrono(new ObservadorAlerta() {
+            @Override
+            public void actualizar(Alerta alerta) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                recolectorLento.actualizar(alerta);
+            }
+
+            @Override
+            public String obtenerTipoObservador() {
+                return "ObservadorLento";
+            }
+        }, 4, PoliticaContrapresion.BLOQUEAR);
+        try {
+            despachoLento.encolar(new Alerta("TEMP-V1", "🐢 Alerta para un observador lento", NivelAlerta.CRITICO, new Date()));
+            boolean vaciado = despachoLento.esperarVaciado(5, TimeUnit.SECONDS);
+            int vistas;
+            synchronized (entregadasLentas) {
+                vistas = entregadasLentas.size();
+            }
+            System.out.println("   - Vaciado: " + vaciado + ", alertas ya entregadas al volver: " + vistas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            despachoLento.detener();
+        }
+
+        // Prueba 24: El motor particionado analiza cada lectura encolada con su propio valor
+        System.out.println("\n✅ Probando lecturas encoladas en el motor particionado...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        List<Alerta> recibidasMotor = new ArrayList<>();
+        try (MotorMonitoreo particionado = new MotorMonitoreo("Planta Particionada")) {
+            particionado.obtenerNotificador().registrarObservador(recolector("RecolectorParticionado", recibidasMotor));
+            particionado.obtenerGestor().registrarSensor(new Sensor("TEMP-P1", "temperatura", 22.0, "Horno 2"));
+            particionado.iniciarAnalisisParticionado(1, 64);
+            for (int i = 0; i < 50; i++) {
+                // Un pico crítico que la lectura siguiente reemplaza antes de que la partición lo vea
+                particionado.obtenerGestor().actualizarValorSensor("TEMP-P1", 95.0);
+                particionado.obtenerGestor().actualizarValorSensor("TEMP-P1", 20.0);
+            }
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+        synchronized (recibidasMotor) {
+            System.out.println("   - 50 picos de 95°C seguidos de 20°C: " + recibidasMotor.size() + " alertas críticas");
+        }
+
+        // Prueba 25: Lecturas con la misma marca de tiempo y tendencia tras días de funcionamiento
+        System.out.println("\n✅ Probando estrategias con estado ante marcas repetidas y tiempos largos...");
+        Sensor hornoLargo = new Sensor("TEMP-H1", "temperatura", 20.0, "Horno 3");
+        EstrategiaAnalisisEWMA ewmaMismaMarca = new EstrategiaAnalisisEWMA(TipoSensor.TEMPERATURA, 0.3, 3.0, 5.0, 5);
+        long mismoMilisegundo = System.currentTimeMillis() * 1_000_000L;
+        for (long secuencia = 1; secuencia <= 3; secuencia++) {
+            ewmaMismaMarca.analizar(hornoLargo, new LecturaSensor(20.0 + secuencia, mismoMilisegundo, secuencia));
+        }
+        ewmaMismaMarca.analizar(hornoLargo, new LecturaSensor(23.0, mismoMilisegundo, 3)); // la misma lectura otra vez
+        long[] palabras = new long[ewmaMismaMarca.obtenerPalabrasEstado()];
+        ewmaMismaMarca.exportarEstado("TEMP-H1", palabras);
+        System.out.println("   - 3 lecturas en el mismo milisegundo y una repetida: " + palabras[1] + " incorporadas");
+        EstrategiaAnalisisPendiente pendienteLarga = new EstrategiaAnalisisPendiente(TipoSensor.TEMPERATURA, 10, 30.0);
+        long arranque = 1_000_000_000_000_000_000L;
+        pendienteLarga.analizar(hornoLargo, new LecturaSensor(20.0, arranque, 1));
+        long onceDias = arranque + TimeUnit.DAYS.toNanos(11);
+        for (int i = 0; i < 40; i++) {
+            long marca = onceDias + i * 10_000_000L; // una lectura cada 10 ms subiendo 0.5°C/s
+            pendienteLarga.analizar(hornoLargo, new LecturaSensor(30.0 + 0.005 * i, marca, i + 2));
+        }
+        System.out.printf("   - Pendiente tras 11 días de funcionamiento: %.3f °C/s%n",
+            pendienteLarga.obtenerPendiente("TEMP-H1"));
+
+        // Prueba 26: El estado exportado recuerda la última lectura analizada por su secuencia
+        System.out.println("\n✅ Probando la secuencia en el estado exportado de la puntuación z...");
+        EstrategiaAnalisisZScore zOriginal = new EstrategiaAnalisisZScore(TipoSensor.TEMPERATURA, 3.0, 5.0, 10, false);
+        long marcaZ = System.currentTimeMillis() * 1_000_000L;
+        for (int i = 1; i <= 20; i++) {
+            zOriginal.analizar(hornoLargo, new LecturaSensor(20.0 + (i % 2), marcaZ, i)); // todas en el mismo milisegundo
+        }
+        long[] estadoZ = new long[zOriginal.obtenerPalabrasEstado()];
+        zOriginal.exportarEstado("TEMP-H1", estadoZ);
+        EstrategiaAnalisisZScore zRestaurada = new EstrategiaAnalisisZScore(TipoSensor.TEMPERATURA, 3.0, 5.0, 10, false);
+        zRestaurada.importarEstado("TEMP-H1", estadoZ);
+        Alerta repetida = zRestaurada.analizar(hornoLargo, new LecturaSensor(90.0, marcaZ, 20));
+        Alerta siguiente = zRestaurada.analizar(hornoLargo, new LecturaSensor(90.0, marcaZ, 21));
+        System.out.println("   - Lecturas aprendidas: " + estadoZ[1] + ", secuencia exportada: " + estadoZ[0] +
+            ", lectura 20 otra vez: " + (repetida != null ? repetida.getNivel() : "ignorada") +
+            ", lectura 21: " + (siguiente != null ? siguiente.getNivel() : "sin alerta"));
+
+        // Prueba 27: La alerta fusionada de una cadena llega a los observadores filtrados
+        System.out.println("\n✅ Probando alertas fusionadas con observadores filtrados...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        List<Alerta> recibidasFiltradas = new ArrayList<>();
+        try (MotorMonitoreo compuesto = new MotorMonitoreo("Planta Compuesta")) {
+            EstrategiaCompuesta dosEtapas = new EstrategiaCompuesta(false, false)
+                .agregar("umbral", new EstrategiaAnalisisTemperatura(compuesto.obtenerUmbrales()))
+                .agregar("rango", (sensor, lectura) -> lectura.getValor() > 50.0
+                    ? new Alerta(sensor, PlantillaAlerta.TEMPERATURA_ALTA, lectura.getValor(), 50.0, Double.NaN)
+                    : null);
+            compuesto.obtenerNotificador().establecerEstrategiaAnalisis(dosEtapas);
+            compuesto.obtenerNotificador().registrarObservador(recolector("RecolectorHorno4", recibidasFiltradas),
+                SuscripcionAlertas.deNiveles(NivelAlerta.CRITICO).conTipos(TipoSensor.TEMPERATURA).conUbicaciones("Horno 4"));
+            compuesto.obtenerGestor().registrarSensor(new Sensor("TEMP-C1", "temperatura", 22.0, "Horno 4"));
+            compuesto.obtenerGestor().actualizarValorSensor("TEMP-C1", 95.0);
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+        synchronized (recibidasFiltradas) {
+            System.out.println("   - Alertas recibidas por el observador de CRITICO en Horno 4: " + recibidasFiltradas.size());
+            for (Alerta alerta : recibidasFiltradas) {
+                System.out.println("   - " + alerta.getIdSensor() + " en " + alerta.getSensor().getUbicacion() + ": " + alerta.getMensaje());
+            }
+        }
+
+        // Prueba 28: Una trama con una cantidad que desborda int cierra solo su conexión
+        System.out.println("\n✅ Probando tramas de ingesta malformadas...");
+        RegistroEventos.establecerNivel(NivelEvento.ERROR);
+        try (MotorMonitoreo red = new MotorMonitoreo("Planta Remota")) {
+            red.obtenerGestor().habilitarAlmacenPrimitivo(4);
+            red.obtenerGestor().registrarSensor(new Sensor("RED-1", "temperatura", 25.0, "Planta Remota"));
+            int handleRed = red.obtenerGestor().obtenerHandle("RED-1");
+            try (ServidorIngesta servidor = new ServidorIngesta(red.obtenerGestor(),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+                InetSocketAddress direccion = new InetSocketAddress(InetAddress.getLoopbackAddress(), servidor.obtenerPuerto());
+                int cerrada;
+                try (SocketChannel atacante = SocketChannel.open(direccion)) {
+                    ByteBuffer trama = ByteBuffer.allocate(4 + 4 + ServidorIngesta.BYTES_POR_LECTURA);
+                    trama.putInt(4 + ServidorIngesta.BYTES_POR_LECTURA).putInt((1 << 30) + 1); // 2^30+1 lecturas en 24 bytes
+                    trama.putInt(handleRed).putDouble(99.0).putLong(System.currentTimeMillis() * 1_000_000L).flip();
+                    atacante.write(trama);
+                    cerrada = atacante.read(ByteBuffer.allocate(4));
+                }
+                try (ClienteIngesta cliente = new ClienteIngesta(direccion)) {
+                    cliente.enviar(new int[] {handleRed}, new double[] {30.0},
+                        new long[] {System.currentTimeMillis() * 1_000_000L}, 1);
+                    System.out.println("   - Conexión con la trama desbordada: " + (cerrada < 0 ? "cerrada" : "abierta") +
+                        ", otra conexión después: " + cliente.esperarConfirmacion() + " lectura confirmada" +
+                        ", errores de protocolo: " + servidor.obtenerMetricas().get("erroresProtocolo"));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Error en la prueba de ingesta: " + e.getMessage());
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+
+        // Prueba 29: Bloques de series acotados por periodo (sensor lento y caída sin cerrar)
+        System.out.println("\n✅ Probando bloques de series acotados en el tiempo...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        Path directorioLento = null;
+        AlmacenSeries sinCerrar = null;
+        try {
+            directorioLento = Files.createTempDirectory("series-lento");
+            long minuto = 60_000_000_000L;
+            long diaLento = 1_440L * minuto;
+            long inicioLento = 19_675L * diaLento;
+            long finLento = inicioLento + 4L * diaLento;
+            sinCerrar = new AlmacenSeries(directorioLento, diaLento, 7L * diaLento, 30L * diaLento);
+            for (long t = inicioLento; t < finLento; t += 5L * minuto) { // una lectura cada 5 minutos
+                sinCerrar.agregar("LENTO-1", t, 20.0 + (t / minuto) % 7);
+            }
+            SerieResumen ultimoDia = sinCerrar.consultar("LENTO-1", NivelSerie.CRUDO, finLento - diaLento, finLento - 1);
+            System.out.println("   - Lecturas crudas del último día (dentro de la retención): " +
+                ultimoDia.obtenerCantidad() + " de 288");
+            // Otro almacén abre el directorio sin que el primero se haya cerrado, como tras una caída
+            try (AlmacenSeries trasCaida = new AlmacenSeries(directorioLento, diaLento, 7L * diaLento, 30L * diaLento)) {
+                System.out.println("   - Tras una caída: " +
+                    trasCaida.consultar("LENTO-1", NivelSerie.MINUTO, inicioLento, finLento).obtenerCantidad() +
+                    " de 1152 minutos y " +
+                    trasCaida.consultar("LENTO-1", NivelSerie.HORA, inicioLento, finLento).obtenerCantidad() +
+                    " de 96 horas ya sellados en disco");
+            }
+            // Un minuto y una hora abiertos al cerrar que siguen recibiendo lecturas tras reabrir
+            Path directorioReabierto = Files.createTempDirectory("series-reabierta");
+            try {
+                try (AlmacenSeries antesDeCerrar = new AlmacenSeries(directorioReabierto, diaLento, 7L * diaLento, 30L * diaLento)) {
+                    antesDeCerrar.agregar("REAB-1", inicioLento, 1.0);
+                    antesDeCerrar.agregar("REAB-1", inicioLento + 5_000_000_000L, 1.0);
+                }
+                try (AlmacenSeries trasReabrir = new AlmacenSeries(directorioReabierto, diaLento, 7L * diaLento, 30L * diaLento)) {
+                    trasReabrir.agregar("REAB-1", inicioLento + 30_000_000_000L, 4.0);
+                    SerieResumen minutoReabierto = trasReabrir.consultar("REAB-1", NivelSerie.MINUTO, inicioLento, inicioLento + minuto - 1);
+                    SerieResumen horaReabierta = trasReabrir.consultar("REAB-1", NivelSerie.HORA, inicioLento, inicioLento + 60L * minuto - 1);
+                    System.out.println("   - Intervalo abierto al cerrar y continuado tras reabrir: " +
+                        minutoReabierto.obtenerCantidad() + " minuto (media " + minutoReabierto.obtenerMedia(0) + ") y " +
+                        horaReabierta.obtenerCantidad() + " hora (media " + horaReabierta.obtenerMedia(0) + ")");
+                }
+            } finally {
+                try (DirectoryStream<Path> segmentosReabiertos = Files.newDirectoryStream(directorioReabierto)) {
+                    for (Path segmento : segmentosReabiertos) {
+                        Files.deleteIfExists(segmento);
+                    }
+                }
+                Files.deleteIfExists(directorioReabierto);
+            }
+        } catch (IOException e) {
+            System.out.println("   - Error de E/S en las series: " + e.getMessage());
+        } finally {
+            try {
+                if (sinCerrar != null) {
+                    sinCerrar.close();
+                }
+                if (directorioLento != null) {
+                    try (DirectoryStream<Path> segmentosLento = Files.newDirectoryStream(directorioLento)) {
+                        for (Path segmento : segmentosLento) {
+                            Files.deleteIfExists(segmento);
+                        }
+                    }
+                    Files.deleteIfExists(directorioLento);
+                }
+            } catch (IOException e) {
+                // directorio temporal
+            }
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+
+        // Prueba 30: Estadísticas por tipo tras retirar sensores y tras un pico pasajero
+        System.out.println("\n✅ Probando estadísticas por tipo con altas, bajas y picos...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        try (MotorMonitoreo estadistico = new MotorMonitoreo("Planta Estadística")) {
+            GestorSensores gestorEstadistico = estadistico.obtenerGestor();
+            gestorEstadistico.registrarSensor(new Sensor("CAL-1", "calidad_aire", 10.0, "Patio"));
+            gestorEstadistico.registrarSensor(new Sensor("CAL-2", "calidad_aire", 20.0, "Patio"));
+            gestorEstadistico.eliminarSensor("CAL-2");
+            Map<String, Object> trasBaja = gestorEstadistico.obtenerEstadisticas();
+            gestorEstadistico.actualizarValorSensor("CAL-1", 99.0); // pico pasajero
+            gestorEstadistico.actualizarValorSensor("CAL-1", 10.0);
+            Map<String, Object> trasPico = gestorEstadistico.obtenerEstadisticas();
+            System.out.println("   - Con 10 y 20 y tras retirar 20: varianza " +
+                ((Map<?, ?>) trasBaja.get("varianzas")).get("calidad_aire") + ", máximo " +
+                ((Map<?, ?>) trasBaja.get("valoresMaximos")).get("calidad_aire") + "; tras un pico de 99 que vuelve a 10: máximo " +
+                ((Map<?, ?>) trasPico.get("valoresMaximos")).get("calidad_aire") + ", mínimo " +
+                ((Map<?, ?>) trasPico.get("valoresMinimos")).get("calidad_aire"));
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+
+        // Prueba 31: Las estrategias con estado olvidan los sensores retirados o reemplazados
+        System.out.println("\n✅ Probando el estado de las estrategias al retirar y reemplazar sensores...");
+        RegistroEventos.establecerNivel(NivelEvento.ADVERTENCIA);
+        try (MotorMonitoreo recambio = new MotorMonitoreo("Planta Recambio")) {
+            GestorSensores gestorRecambio = recambio.obtenerGestor();
+            EstrategiaAnalisisEWMA ewmaRecambio = new EstrategiaAnalisisEWMA(TipoSensor.TEMPERATURA, 0.3, 3.0, 5.0, 5);
+            EstrategiaAnalisisCUSUM cusumRecambio = new EstrategiaAnalisisCUSUM(TipoSensor.TEMPERATURA, 0.5, 5.0, 5);
+            EstrategiaAnalisisZScore zRecambio = new EstrategiaAnalisisZScore(TipoSensor.TEMPERATURA, 3.0, 5.0, 5, false);
+            recambio.obtenerEstrategias().asignarEstrategia(TipoSensor.TEMPERATURA, new EstrategiaCompuesta(false, false)
+                .agregar("ewma", ewmaRecambio)
+                .agregar("cusum", cusumRecambio)
+                .agregar("z", zRecambio));
+            gestorRecambio.registrarSensor(new Sensor("TEMP-R1", "temperatura", 20.0, "Línea de Recambio"));
+            for (int i = 0; i < 6; i++) {
+                gestorRecambio.actualizarValorSensor("TEMP-R1", 20.0 + (i % 2));
+            }
+            String aprendido = describirEstado("TEMP-R1", ewmaRecambio, cusumRecambio, zRecambio);
+            gestorRecambio.eliminarSensor("TEMP-R1");
+            String trasBaja = describirEstado("TEMP-R1", ewmaRecambio, cusumRecambio, zRecambio);
+            gestorRecambio.registrarSensor(new Sensor("TEMP-R1", "temperatura", 20.0, "Línea de Recambio"));
+            for (int i = 0; i < 6; i++) {
+                gestorRecambio.actualizarValorSensor("TEMP-R1", 20.0 + (i % 2));
+            }
+            gestorRecambio.registrarSensor(new Sensor("TEMP-R1", "temperatura", 20.0, "Línea de Recambio"));
+            System.out.println("   - Estado EWMA/CUSUM/z tras 6 lecturas: " + aprendido + ", tras eliminar el sensor: " + trasBaja +
+                ", tras reemplazarlo por otro con el mismo ID: " + describirEstado("TEMP-R1", ewmaRecambio, cusumRecambio, zRecambio));
+        } finally {
+            RegistroEventos.establecerNivel(nivelPrevio);
+        }
+    }
+
+    /**
+     * Indica qué estrategias guardan estado de un sensor
+     * @param idSensor ID del sensor
+     * @param estrategias Estrategias a consultar
+     * @return "sí" o "no" por estrategia, separados por barras
+     */
+    private static String describirEstado(String idSensor, EstrategiaConEstado... estrategias) {
+        StringBuilder descripcion = new StringBuilder();
+        for (EstrategiaConEstado estrategia : estrategias) {
+            long[] estado = new long[estrategia.obtenerPalabrasEstado()];
+            descripcion.append(descripcion.length() > 0 ? "/" : "").append(estrategia.exportarEstado(idSensor, estado) ? "sí" : "no");
+        }
+        return descripcion.toString();
+    }
+
+    /**
+     * Crea un observador que guarda las alertas que recibe
+     * @param nombre Tipo de observador
+     * @param recibidas Lista en la que se acumulan (se sincroniza sobre ella)
+     * @return El observador
+     */
+    private static ObservadorAlerta recolector(String nombre, List<Alerta> recibidas) {
+        return new ObservadorAlerta() {
+            @Override
+            public void actualizar(Alerta alerta) {
+                synchronized (recibidas) {
+                    recibidas.add(alerta);
+                }
+            }
+
+            @Override
+            public String obtenerTipoObservador() {
+                return nombre;
+            }
+        };
+    }
+
+    /**
+     * Estresa la lectura de un sensor al estilo de jcstress: cada escritor publica lecturas
+     * (k, 7k + 3) y los lectores comprueban que toda instantánea cumple esa relación y que
+     * la secuencia nunca retrocede; al final la secuencia debe contar todas las escrituras
+     * y la suma de (nuevo - anterior) debe coincidir con el valor final (ninguna lectura perdida)
+     * Con un almacén, otro hilo registra y libera el sensor sin parar mientras tanto, alternando
+     * su único handle con un sensor de relevo que no debe recibir ninguna de esas lecturas
+     * @param sensor Sensor a estresar
+     * @param almacen Almacén en el que el sensor entra y sale, o null para no moverlo
+     * @return Resumen de las comprobaciones
+     */
+    private static String estresarLecturas(Sensor sensor, AlmacenSensores almacen) {
+        int escritores = 2;
+        int lectores = 2;
+        int escriturasPorHilo = 200_000;
+        long[] violaciones = new long[lectores];
+        long[] instantaneas = new long[lectores];
+        double[] sumaDiferencias = new double[escritores];
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Thread> hilos = new ArrayList<>();
+        for (int w = 0; w < escritores; w++) {
+            int escritor = w;
+            hilos.add(new Thread(() -> {
+                for (int i = 1; i <= escriturasPorHilo; i++) {
+                    long k = (long) i * escritores + escritor;
+                    double anterior = sensor.registrarLectura(k, 7 * k + 3);
+                    sumaDiferencias[escritor] += k - anterior;
+                }
+            }));
+        }
+        List<Thread> hilosLectores = new ArrayList<>();
+        for (int r = 0; r < lectores; r++) {
+            int lector = r;
+            hilosLectores.add(new Thread(() -> {
+                long ultimaSecuencia = -1;
+                while (!terminado.get() || instantaneas[lector] == 0) {
+                    LecturaSensor lectura = sensor.obtenerLectura();
+                    long k = (long) lectura.getValor();
+                    boolean coherente = lectura.getSecuencia() == 0 || lectura.getMarcaNanos() == 7 * k + 3;
+                    if (!coherente || lectura.getSecuencia() < ultimaSecuencia) {
+                        violaciones[lector]++;
+                    }
+                    ultimaSecuencia = lectura.getSecuencia();
+                    instantaneas[lector]++;
+                }
+            }));
+        }
+        Sensor relevo = new Sensor(sensor.getId() + "-R", sensor.getTipo(), -1.0, sensor.getUbicacion());
+        long[] vaivenes = new long[1];
+        if (almacen != null) {
+            hilosLectores.add(new Thread(() -> {
+                while (!terminado.get()) {
+                    almacen.registrar(sensor);
+                    almacen.liberar(sensor);
+                    almacen.registrar(relevo);
+                    almacen.liberar(relevo);
+                    vaivenes[0]++;
+                }
+                if (vaivenes[0] % 2 == 0) {
+                    almacen.registrar(sensor); // se termina tanto dentro como fuera del almacén
+                }
+            }));
+        }
+        try {
+            for (Thread hilo : hilosLectores) {
+                hilo.start();
+            }
+            for (Thread hilo : hilos) {
+                hilo.start();
+            }
+            for (Thread hilo : hilos) {
+                hilo.join();
+            }
+            terminado.set(true);
+            for (Thread hilo : hilosLectores) {
+                hilo.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrumpido";
+        }
+        long totalViolaciones = violaciones[0] + violaciones[1];
+        long secuenciaEsperada = (long) escritores * escriturasPorHilo;
+        boolean secuenciaCorrecta = sensor.obtenerLectura().getSecuencia() == secuenciaEsperada;
+        boolean sumaCorrecta = sumaDiferencias[0] + sumaDiferencias[1] == sensor.getValor();
+        String resumen = (instantaneas[0] + instantaneas[1]) + " instantáneas, " + totalViolaciones + " incoherentes, secuencia " +
+            (secuenciaCorrecta ? "completa" : "INCOMPLETA") + ", " + (sumaCorrecta ? "sin lecturas perdidas" : "LECTURAS PERDIDAS");
+        if (almacen != null) {
+            resumen += ", " + vaivenes[0] + " vaivenes, relevo " +
+                (relevo.obtenerLectura().getSecuencia() == 0 && relevo.getValor() == -1.0 ? "intacto" : "ALTERADO");
+        }
+        return resumen;
     }
     
     /**
@@ -144,8 +1128,8 @@ public class PruebaSistemaIoT {
         
         // Mostrar logs por nivel
         System.out.println("\n📊 Logs por nivel:");
-        System.out.println("   - Críticos: " + registradorLogs.obtenerLogsPorNivel(NivelAlerta.CRITICO).size());
-        System.out.println("   - Advertencias: " + registradorLogs.obtenerLogsPorNivel(NivelAlerta.ADVERTENCIA).size());
-        System.out.println("   - Informativos: " + registradorLogs.obtenerLogsPorNivel(NivelAlerta.INFORMATIVO).size());
+        System.out.println("   - Críticos: " + registradorLogs.obtenerCantidadPorNivel(NivelAlerta.CRITICO));
+        System.out.println("   - Advertencias: " + registradorLogs.obtenerCantidadPorNivel(NivelAlerta.ADVERTENCIA));
+        System.out.println("   - Informativos: " + registradorLogs.obtenerCantidadPorNivel(NivelAlerta.INFORMATIVO));
     }
 }
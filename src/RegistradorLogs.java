@@ -1,34 +1,78 @@
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
  * Observador concreto que implementa el registro de logs
  * Implementa el patrón Observer - reacciona a las alertas registrándolas en logs
+ * Las alertas se guardan como registros estructurados con índices por nivel, por sensor
+ * y por tiempo, de modo que los conteos por nivel son O(1) y los filtrados O(resultado)
  */
 public class RegistradorLogs implements ObservadorAlerta {
-    private List<String> logs;
+    private static final String ORIGEN = "RegistradorLogs";
+    private static final Comparator<RegistroAlerta> POR_TIEMPO =
+        Comparator.comparingLong(RegistroAlerta::getMarcaNanos).thenComparingLong(RegistroAlerta::getSecuencia);
+    
+    private Deque<RegistroAlerta> logs;                             // en orden de llegada
+    private Map<NivelAlerta, Deque<RegistroAlerta>> logsPorNivel;   // índice por nivel
+    private Map<String, Deque<RegistroAlerta>> logsPorSensor;       // índice por sensor
+    private NavigableSet<RegistroAlerta> logsPorTiempo;             // índice por marca de tiempo
+    private long siguienteSecuencia;
     private SimpleDateFormat formatter;
+    private DiarioAlertas diario;   // diario persistente (null si solo se registra en memoria)
+    private int maximoEnMemoria;    // logs retenidos en memoria (Integer.MAX_VALUE sin límite)
     
     /**
      * Constructor que inicializa el registrador de logs
      */
     public RegistradorLogs() {
-        this.logs = new ArrayList<>();
+        this.logs = new ArrayDeque<>();
+        this.logsPorNivel = new EnumMap<>(NivelAlerta.class);
+        for (NivelAlerta nivel : NivelAlerta.values()) {
+            logsPorNivel.put(nivel, new ArrayDeque<>());
+        }
+        this.logsPorSensor = new HashMap<>();
+        this.logsPorTiempo = new TreeSet<>(POR_TIEMPO);
         this.formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        this.maximoEnMemoria = Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Constructor que retiene en memoria como máximo los logs indicados
+     * @param maximoEnMemoria Número máximo de logs retenidos en memoria (los más antiguos se descartan)
+     */
+    public RegistradorLogs(int maximoEnMemoria) {
+        this();
+        if (maximoEnMemoria <= 0) {
+            throw new IllegalArgumentException("Se debe retener al menos un log en memoria: " + maximoEnMemoria);
+        }
+        this.maximoEnMemoria = maximoEnMemoria;
+    }
+    
+    /**
+     * Constructor que persiste cada alerta en un diario y recupera en memoria
+     * las alertas que ya contenía (por ejemplo, tras un reinicio)
+     * @param diario Diario persistente de alertas
+     * @param maximoEnMemoria Número máximo de logs retenidos en memoria (los más antiguos se descartan)
+     */
+    public RegistradorLogs(DiarioAlertas diario, int maximoEnMemoria) throws IOException {
+        this(maximoEnMemoria);
+        long recuperadas = diario.reproducir(alerta -> agregarEnMemoria(alerta, formatear(alerta)));
+        this.diario = diario;
+        RegistroEventos.informacion(ORIGEN, "📂 Diario de alertas abierto: " + recuperadas + " alertas recuperadas");
     }
     
     @Override
     public void actualizar(Alerta alerta) {
-        String logEntry = String.format("[%s] %s - %s", 
-            formatter.format(alerta.getFechaHora()),
-            alerta.getNivel(),
-            alerta.getMensaje());
+        String logEntry = formatear(alerta);
         
-        logs.add(logEntry);
-        System.out.println("📝 REGISTRANDO LOG - " + logEntry);
+        agregarEnMemoria(alerta, logEntry);
+        if (RegistroEventos.estaHabilitado(NivelEvento.INFORMACION)) {
+            RegistroEventos.informacion(ORIGEN, "📝 REGISTRANDO LOG - " + logEntry);
+        }
         
-        // Aquí se implementaría la lógica real de escritura de logs
-        escribirLogReal(logEntry);
+        // Escritura en el diario persistente, si está configurado
+        escribirLogReal(alerta);
     }
     
     @Override
@@ -40,8 +84,8 @@ public class RegistradorLogs implements ObservadorAlerta {
      * Obtiene todos los logs registrados
      * @return Lista con todos los logs
      */
-    public List<String> obtenerLogs() {
-        return new ArrayList<>(logs);
+    public synchronized List<String> obtenerLogs() {
+        return lineas(logs);
     }
     
     /**
@@ -49,41 +93,134 @@ public class RegistradorLogs implements ObservadorAlerta {
      * @param nivel El nivel de alerta a filtrar
      * @return Lista de logs del nivel especificado
      */
-    public List<String> obtenerLogsPorNivel(NivelAlerta nivel) {
-        List<String> logsFiltrados = new ArrayList<>();
-        for (String log : logs) {
-            if (log.contains(nivel.toString())) {
-                logsFiltrados.add(log);
-            }
+    public synchronized List<String> obtenerLogsPorNivel(NivelAlerta nivel) {
+        return lineas(logsPorNivel.get(nivel));
+    }
+    
+    /**
+     * Obtiene la cantidad de logs de un nivel específico en O(1)
+     * @param nivel El nivel de alerta
+     * @return Número de logs del nivel
+     */
+    public synchronized int obtenerCantidadPorNivel(NivelAlerta nivel) {
+        return logsPorNivel.get(nivel).size();
+    }
+    
+    /**
+     * Obtiene los registros estructurados de un nivel específico
+     * @param nivel El nivel de alerta a filtrar
+     * @return Registros del nivel en orden de llegada
+     */
+    public synchronized List<RegistroAlerta> obtenerRegistrosPorNivel(NivelAlerta nivel) {
+        return new ArrayList<>(logsPorNivel.get(nivel));
+    }
+    
+    /**
+     * Obtiene los registros estructurados de un sensor
+     * @param idSensor ID del sensor
+     * @return Registros del sensor en orden de llegada
+     */
+    public synchronized List<RegistroAlerta> obtenerRegistrosPorSensor(String idSensor) {
+        Deque<RegistroAlerta> registrosSensor = logsPorSensor.get(idSensor);
+        return registrosSensor != null ? new ArrayList<>(registrosSensor) : new ArrayList<>();
+    }
+    
+    /**
+     * Obtiene los registros cuya alerta se generó en un rango de tiempo
+     * @param desdeNanos Inicio del rango (inclusive), en nanosegundos desde epoch
+     * @param hastaNanos Fin del rango (inclusive), en nanosegundos desde epoch
+     * @return Registros del rango ordenados por marca de tiempo
+     */
+    public synchronized List<RegistroAlerta> obtenerRegistrosEntre(long desdeNanos, long hastaNanos) {
+        if (desdeNanos > hastaNanos) {
+            return new ArrayList<>();
         }
-        return logsFiltrados;
+        RegistroAlerta desde = new RegistroAlerta(Long.MIN_VALUE, null, null, desdeNanos, null, null);
+        RegistroAlerta hasta = new RegistroAlerta(Long.MAX_VALUE, null, null, hastaNanos, null, null);
+        return new ArrayList<>(logsPorTiempo.subSet(desde, true, hasta, true));
     }
     
     /**
      * Limpia todos los logs registrados
      */
-    public void limpiarLogs() {
+    public synchronized void limpiarLogs() {
         logs.clear();
-        System.out.println("🗑️ Logs limpiados");
+        for (Deque<RegistroAlerta> registrosNivel : logsPorNivel.values()) {
+            registrosNivel.clear();
+        }
+        logsPorSensor.clear();
+        logsPorTiempo.clear();
+        RegistroEventos.informacion(ORIGEN, "🗑️ Logs limpiados");
     }
     
     /**
      * Obtiene la cantidad de logs registrados
      * @return Número de logs registrados
      */
-    public int obtenerCantidadLogs() {
+    public synchronized int obtenerCantidadLogs() {
         return logs.size();
     }
     
     /**
-     * Método privado que simula la escritura real de logs
-     * @param logEntry La entrada de log a escribir
+     * Método privado que escribe la alerta en el diario persistente
+     * Sin diario configurado solo simula la escritura
+     * @param alerta La alerta a persistir
      */
-    private void escribirLogReal(String logEntry) {
-        // Simulación de escritura de logs
-        System.out.println("   → Escribiendo en archivo de log: sistema_iot.log");
-        System.out.println("   → Nivel de log: " + (logEntry.contains("CRITICO") ? "ERROR" : "WARN"));
-        
-        // En una implementación real, aquí se usaría Log4j, SLF4J, o similar
+    private void escribirLogReal(Alerta alerta) {
+        boolean detallar = RegistroEventos.estaHabilitado(NivelEvento.INFORMACION);
+        if (diario != null) {
+            try {
+                diario.agregar(alerta);
+                if (detallar) {
+                    RegistroEventos.informacion(ORIGEN, "   → Escribiendo en diario de alertas: " + diario.obtenerSegmentoActual().getFileName());
+                }
+            } catch (IOException e) {
+                RegistroEventos.error(ORIGEN, "❌ Error escribiendo en el diario de alertas: " + e.getMessage());
+            }
+        } else if (detallar) {
+            RegistroEventos.informacion(ORIGEN, "   → Escribiendo en archivo de log: sistema_iot.log");
+        }
+        if (detallar) {
+            RegistroEventos.informacion(ORIGEN, "   → Nivel de log: " + (alerta.getNivel() == NivelAlerta.CRITICO ? "ERROR" : "WARN"));
+        }
+    }
+    
+    /**
+     * Agrega un registro en memoria y en los índices, descartando el más antiguo si se supera el máximo
+     * El registro más antiguo es también el primero de su nivel y de su sensor, así que el descarte es O(log n)
+     */
+    private synchronized void agregarEnMemoria(Alerta alerta, String logEntry) {
+        if (logs.size() >= maximoEnMemoria) {
+            RegistroAlerta descartado = logs.removeFirst();
+            logsPorNivel.get(descartado.getNivel()).removeFirst();
+            Deque<RegistroAlerta> registrosSensor = logsPorSensor.get(descartado.getIdSensor());
+            registrosSensor.removeFirst();
+            if (registrosSensor.isEmpty()) {
+                logsPorSensor.remove(descartado.getIdSensor());
+            }
+            logsPorTiempo.remove(descartado);
+        }
+        RegistroAlerta registro = new RegistroAlerta(siguienteSecuencia++, alerta.getIdSensor(), alerta.getNivel(),
+            alerta.getMarcaNanos(), alerta.getMensaje(), logEntry);
+        logs.addLast(registro);
+        logsPorNivel.get(registro.getNivel()).addLast(registro);
+        logsPorSensor.computeIfAbsent(registro.getIdSensor(), id -> new ArrayDeque<>()).addLast(registro);
+        logsPorTiempo.add(registro);
+    }
+    
+    private static List<String> lineas(Collection<RegistroAlerta> registros) {
+        List<String> lineas = new ArrayList<>(registros.size());
+        for (RegistroAlerta registro : registros) {
+            lineas.add(registro.getLinea());
+        }
+        return lineas;
+    }
+    
+    private synchronized String formatear(Alerta alerta) {
+        // SimpleDateFormat no es thread-safe
+        return String.format("[%s] %s - %s", 
+            formatter.format(alerta.getFechaHora()),
+            alerta.getNivel(),
+            alerta.getMensaje());
     }
 }
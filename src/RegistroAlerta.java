@@ -0,0 +1,61 @@
+/**
+ * Registro estructurado de una alerta en el RegistradorLogs
+ * Conserva los campos de la alerta por separado (en lugar de solo la línea de texto)
+ * para poder indexarla por nivel, por sensor y por tiempo sin analizar cadenas
+ */
+public class RegistroAlerta {
+    private final long secuencia;
+    private final String idSensor;
+    private final NivelAlerta nivel;
+    private final long marcaNanos;
+    private final String mensaje;
+    private final String linea;
+
+    /**
+     * Constructor del registro
+     * @param secuencia Orden de llegada al registrador
+     * @param idSensor ID del sensor que generó la alerta
+     * @param nivel Nivel de criticidad de la alerta
+     * @param marcaNanos Marca de tiempo de la alerta en nanosegundos desde epoch
+     * @param mensaje Mensaje descriptivo de la alerta
+     * @param linea Línea de log ya formateada
+     */
+    public RegistroAlerta(long secuencia, String idSensor, NivelAlerta nivel, long marcaNanos, String mensaje, String linea) {
+        this.secuencia = secuencia;
+        this.idSensor = idSensor;
+        this.nivel = nivel;
+        this.marcaNanos = marcaNanos;
+        this.mensaje = mensaje;
+        this.linea = linea;
+    }
+
+    // Getters
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public String getIdSensor() {
+        return idSensor;
+    }
+
+    public NivelAlerta getNivel() {
+        return nivel;
+    }
+
+    public long getMarcaNanos() {
+        return marcaNanos;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public String getLinea() {
+        return linea;
+    }
+
+    @Override
+    public String toString() {
+        return linea;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Punto de entrada de los eventos de diagnóstico del sistema
+ * Sustituye a las escrituras directas en consola: cada evento se filtra por nivel con una
+ * lectura volátil y una comparación, y solo los que superan el umbral llegan al sumidero.
+ * En las rutas críticas el mensaje se construye dentro de estaHabilitado(...) para que un
+ * nivel desactivado no cueste ni la concatenación
+ */
+public final class RegistroEventos {
+    private static volatile int umbral = NivelEvento.DEPURACION.ordinal();
+    private static volatile SumideroEventos sumidero = new SumideroConsola();
+
+    private RegistroEventos() {
+    }
+
+    /**
+     * Indica si los eventos de un nivel llegan al sumidero
+     * @param nivel Nivel a consultar
+     * @return true si el nivel está habilitado
+     */
+    public static boolean estaHabilitado(NivelEvento nivel) {
+        return nivel.ordinal() >= umbral;
+    }
+
+    /**
+     * Establece el nivel mínimo de los eventos que se escriben
+     * @param nivel Nivel mínimo (DESACTIVADO descarta todos)
+     */
+    public static void establecerNivel(NivelEvento nivel) {
+        umbral = nivel.ordinal();
+    }
+
+    public static NivelEvento obtenerNivel() {
+        return NivelEvento.values()[umbral];
+    }
+
+    /**
+     * Cambia el sumidero de los eventos
+     * @param nuevoSumidero Sumidero que recibirá los eventos
+     * @return El sumidero anterior, por si hay que cerrarlo o restaurarlo
+     */
+    public static SumideroEventos establecerSumidero(SumideroEventos nuevoSumidero) {
+        if (nuevoSumidero == null) {
+            throw new IllegalArgumentException("El sumidero de eventos no puede ser null");
+        }
+        SumideroEventos anterior = sumidero;
+        sumidero = nuevoSumidero;
+        return anterior;
+    }
+
+    public static SumideroEventos obtenerSumidero() {
+        return sumidero;
+    }
+
+    /**
+     * Emite un evento si su nivel está habilitado
+     * @param nivel Severidad del evento
+     * @param origen Componente que emite el evento
+     * @param mensaje Texto del evento
+     */
+    public static void emitir(NivelEvento nivel, String origen, String mensaje) {
+        if (nivel.ordinal() >= umbral) {
+            sumidero.escribir(new Evento(System.currentTimeMillis() * 1_000_000L, nivel, origen, mensaje));
+        }
+    }
+
+    public static void depuracion(String origen, String mensaje) {
+        emitir(NivelEvento.DEPURACION, origen, mensaje);
+    }
+
+    public static void informacion(String origen, String mensaje) {
+        emitir(NivelEvento.INFORMACION, origen, mensaje);
+    }
+
+    public static void advertencia(String origen, String mensaje) {
+        emitir(NivelEvento.ADVERTENCIA, origen, mensaje);
+    }
+
+    public static void error(String origen, String mensaje) {
+        emitir(NivelEvento.ERROR, origen, mensaje);
+    }
+}
@@ -1,15 +1,37 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
 
 /**
  * Clase que representa un sensor IoT en el sistema de monitoreo
  * Contiene información sobre el sensor y sus mediciones
+ * La última lectura (valor, marca de tiempo y secuencia) se publica como una instantánea
+ * inmutable que se reemplaza por CAS: los lectores la obtienen con una sola lectura volatile
+ * (sin esperas) y nunca ven un valor y una marca de tiempo de lecturas distintas
+ * Al vincularse a un almacén la instantánea se retira con un intercambio atómico, de modo que
+ * un CAS que llegue después falla y la escritura se repite en el almacén en lugar de perderse
  */
 public class Sensor {
-    private String id;
-    private String tipo; // "temperatura", "vibracion", "energia", "calidad_aire", "humedad"
-    private double valor;
-    private String ubicacion;
-    private Date ultimaActualizacion;
+    private static final VarHandle LECTURA;
+    // Ocupa el lugar de la instantánea mientras el sensor está vinculado a un almacén
+    private static final LecturaSensor VINCULADA = new LecturaSensor(Double.NaN, 0L, 0L);
+
+    static {
+        try {
+            LECTURA = MethodHandles.lookup().findVarHandle(Sensor.class, "lectura", LecturaSensor.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String id;
+    private final String tipo; // "temperatura", "vibracion", "energia", "calidad_aire", "humedad"
+    private final TipoSensor tipoSensor; // tipo resuelto una sola vez para comparar por identidad
+    private final String ubicacion;
+    private volatile LecturaSensor lectura; // última lectura si el sensor no está en un almacén
+    private volatile AlmacenSensores almacen; // almacén primitivo que respalda al sensor, si lo hay
+    private int handle = -1;
+    private volatile HistorialSensor historial; // historial de lecturas, si está habilitado
     
     /**
      * Constructor del sensor
@@ -21,9 +43,24 @@ public class Sensor {
     public Sensor(String id, String tipo, double valor, String ubicacion) {
         this.id = id;
         this.tipo = tipo;
-        this.valor = valor;
+        this.tipoSensor = TipoSensor.desdeCodigo(tipo);
         this.ubicacion = ubicacion;
-        this.ultimaActualizacion = new Date();
+        this.lectura = new LecturaSensor(valor, System.currentTimeMillis() * 1_000_000L, 0L);
+    }
+    
+    /**
+     * Constructor que recrea un sensor con una lectura ya existente (al restaurar una instantánea)
+     * @param id Identificador único del sensor
+     * @param tipo Tipo de sensor
+     * @param ubicacion Ubicación física del sensor
+     * @param lectura Última lectura conocida (valor, marca de tiempo y secuencia)
+     */
+    Sensor(String id, String tipo, String ubicacion, LecturaSensor lectura) {
+        this.id = id;
+        this.tipo = tipo;
+        this.tipoSensor = TipoSensor.desdeCodigo(tipo);
+        this.ubicacion = ubicacion;
+        this.lectura = lectura;
     }
     
     // Getters y Setters
@@ -35,12 +72,30 @@ public class Sensor {
         return tipo; 
     }
     
+    public TipoSensor getTipoSensor() { 
+        return tipoSensor; 
+    }
+    
     public double getValor() { 
-        return valor; 
+        AlmacenSensores respaldo = almacen;
+        return respaldo != null ? respaldo.obtenerValor(handle) : obtenerLectura().getValor(); 
     }
     
     public void setValor(double valor) { 
-        this.valor = valor; 
+        AlmacenSensores respaldo = almacen;
+        if (respaldo != null) {
+            respaldo.establecerValor(this, handle, valor);
+            return;
+        }
+        LecturaSensor actual;
+        do {
+            actual = lectura;
+            if (actual == VINCULADA) {
+                setValor(valor); // se acaba de vincular: el almacén ya está publicado
+                return;
+            }
+        } while (!LECTURA.compareAndSet(this, actual,
+            new LecturaSensor(valor, actual.getMarcaNanos(), actual.getSecuencia() + 1)));
     }
     
     public String getUbicacion() { 
@@ -48,16 +103,137 @@ public class Sensor {
     }
     
     public Date getUltimaActualizacion() { 
-        return ultimaActualizacion; 
+        AlmacenSensores respaldo = almacen;
+        return new Date((respaldo != null ? respaldo.obtenerMarcaNanos(handle) : obtenerLectura().getMarcaNanos()) / 1_000_000L); 
     }
     
     public void setUltimaActualizacion(Date fecha) { 
-        this.ultimaActualizacion = fecha; 
+        AlmacenSensores respaldo = almacen;
+        if (respaldo != null) {
+            respaldo.establecerMarcaNanos(this, handle, fecha.getTime() * 1_000_000L);
+            return;
+        }
+        LecturaSensor actual;
+        do {
+            actual = lectura;
+            if (actual == VINCULADA) {
+                setUltimaActualizacion(fecha); // se acaba de vincular: el almacén ya está publicado
+                return;
+            }
+        } while (!LECTURA.compareAndSet(this, actual,
+            new LecturaSensor(actual.getValor(), fecha.getTime() * 1_000_000L, actual.getSecuencia() + 1)));
+    }
+    
+    /**
+     * Registra una lectura completa (valor y marca de tiempo) y la agrega al historial si existe
+     * Si el sensor está respaldado por un AlmacenSensores la escritura no crea objetos
+     * Con escritores concurrentes cada lectura se aplica entera y el valor devuelto es el
+     * que esta lectura reemplazó, de modo que los agregados que dependen de él cuadran
+     * @param valor Nuevo valor medido
+     * @param marcaNanos Marca de tiempo en nanosegundos desde epoch
+     * @return El valor anterior del sensor
+     */
+    public double registrarLectura(double valor, long marcaNanos) {
+        double anterior = escribirLectura(valor, marcaNanos);
+        HistorialSensor registro = historial;
+        if (registro != null) {
+            registro.agregar(marcaNanos, valor);
+        }
+        return anterior;
+    }
+    
+    /**
+     * Aplica una lectura en el almacén que respalda al sensor o, si no lo hay, en su propia instantánea
+     * El almacén la devuelve aquí cuando el handle se liberó mientras se escribía
+     * @return El valor que esta lectura reemplazó
+     */
+    double escribirLectura(double valor, long marcaNanos) {
+        AlmacenSensores respaldo = almacen;
+        if (respaldo != null) {
+            return respaldo.actualizar(this, handle, valor, marcaNanos);
+        }
+        LecturaSensor actual;
+        do {
+            actual = lectura;
+            if (actual == VINCULADA) {
+                return escribirLectura(valor, marcaNanos); // se acaba de vincular: el almacén ya está publicado
+            }
+        } while (!LECTURA.compareAndSet(this, actual, new LecturaSensor(valor, marcaNanos, actual.getSecuencia() + 1)));
+        return actual.getValor();
+    }
+    
+    /**
+     * Obtiene la última lectura como una instantánea consistente de valor, marca de tiempo y secuencia
+     * Sin almacén es una sola lectura volatile; con almacén se copia bajo su seqlock
+     * Si el sensor se vincula o desvincula mientras tanto, se vuelve a leer de donde esté
+     * @return La instantánea de la última lectura
+     */
+    public LecturaSensor obtenerLectura() {
+        while (true) {
+            AlmacenSensores respaldo = almacen;
+            LecturaSensor actual = respaldo != null ? respaldo.leer(this, handle) : lectura;
+            if (actual != null && actual != VINCULADA) {
+                return actual;
+            }
+        }
+    }
+    
+    /**
+     * Obtiene el historial de lecturas del sensor
+     * @return El historial, o null si no está habilitado
+     */
+    public HistorialSensor getHistorial() {
+        return historial;
+    }
+    
+    /**
+     * Asigna el buffer de historial en el que se registrarán las lecturas
+     */
+    void establecerHistorial(HistorialSensor historial) {
+        this.historial = historial;
+    }
+    
+    /**
+     * Obtiene la marca de tiempo de la última lectura
+     * @return Nanosegundos desde epoch
+     */
+    public long getMarcaTiempoNanos() {
+        AlmacenSensores respaldo = almacen;
+        return respaldo != null ? respaldo.obtenerMarcaNanos(handle) : obtenerLectura().getMarcaNanos();
+    }
+    
+    /**
+     * Obtiene el handle del sensor en el almacén primitivo
+     * @return El handle, o -1 si el sensor no está respaldado por un almacén
+     */
+    public int getHandle() { 
+        return almacen != null ? handle : -1; 
+    }
+    
+    /**
+     * Vincula el sensor a un almacén primitivo; a partir de aquí valor y marca de tiempo
+     * se leen y escriben en las columnas del almacén (que llama con el seqlock del handle tomado)
+     * El almacén se publica antes de retirar la instantánea: quien vea VINCULADA ya lo encuentra
+     * @return La última lectura propia del sensor, que el almacén copia a sus columnas
+     */
+    LecturaSensor vincularAlmacen(AlmacenSensores almacen, int handle) {
+        this.handle = handle;
+        this.almacen = almacen;
+        return (LecturaSensor) LECTURA.getAndSet(this, VINCULADA);
+    }
+    
+    /**
+     * Desvincula el sensor de su almacén (que llama con el seqlock del handle tomado)
+     * @param ultima Última lectura del handle, que el sensor conserva en sus propios campos
+     */
+    void desvincularAlmacen(LecturaSensor ultima) {
+        this.lectura = ultima;
+        this.almacen = null;
     }
     
     @Override
     public String toString() {
         return String.format("Sensor{id='%s', tipo='%s', valor=%.2f, ubicacion='%s'}", 
-                           id, tipo, valor, ubicacion);
+                           id, tipo, getValor(), ubicacion);
     }
 }
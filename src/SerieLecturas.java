@@ -0,0 +1,153 @@
+import java.util.Arrays;
+
+/**
+ * Serie inmutable de lecturas (marca de tiempo, valor) copiada de un HistorialSensor
+ * Ofrece estadísticas de la ventana consultada y submuestreo por intervalos
+ */
+public class SerieLecturas {
+    private final long[] marcasNanos;
+    private final double[] valores;
+    private final int desplazamiento;
+    private final int cantidad;
+
+    /**
+     * Constructor de la serie
+     * @param marcasNanos Marcas de tiempo en nanosegundos desde epoch
+     * @param valores Valores medidos (en paralelo con marcasNanos)
+     * @param desplazamiento Primera posición válida en los arreglos
+     * @param cantidad Número de lecturas válidas a partir del desplazamiento
+     */
+    public SerieLecturas(long[] marcasNanos, double[] valores, int desplazamiento, int cantidad) {
+        this.marcasNanos = marcasNanos;
+        this.valores = valores;
+        this.desplazamiento = desplazamiento;
+        this.cantidad = cantidad;
+    }
+
+    public int obtenerCantidad() {
+        return cantidad;
+    }
+
+    public boolean estaVacia() {
+        return cantidad == 0;
+    }
+
+    public long obtenerMarcaNanos(int posicion) {
+        return marcasNanos[desplazamiento + verificarPosicion(posicion)];
+    }
+
+    public double obtenerValor(int posicion) {
+        return valores[desplazamiento + verificarPosicion(posicion)];
+    }
+
+    /**
+     * Obtiene el valor mínimo de la serie
+     * @return El mínimo, o NaN si la serie está vacía
+     */
+    public double minimo() {
+        double minimo = Double.NaN;
+        for (int i = desplazamiento; i < desplazamiento + cantidad; i++) {
+            if (!(valores[i] >= minimo)) {
+                minimo = valores[i];
+            }
+        }
+        return minimo;
+    }
+
+    /**
+     * Obtiene el valor máximo de la serie
+     * @return El máximo, o NaN si la serie está vacía
+     */
+    public double maximo() {
+        double maximo = Double.NaN;
+        for (int i = desplazamiento; i < desplazamiento + cantidad; i++) {
+            if (!(valores[i] <= maximo)) {
+                maximo = valores[i];
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Obtiene la media de la serie
+     * @return La media, o NaN si la serie está vacía
+     */
+    public double media() {
+        if (cantidad == 0) {
+            return Double.NaN;
+        }
+        double suma = 0.0;
+        for (int i = desplazamiento; i < desplazamiento + cantidad; i++) {
+            suma += valores[i];
+        }
+        return suma / cantidad;
+    }
+
+    /**
+     * Obtiene un percentil de la serie por el método del rango más cercano
+     * @param percentil Percentil entre 0 y 100 (por ejemplo 50 para la mediana, 99 para p99)
+     * @return El valor del percentil, o NaN si la serie está vacía
+     */
+    public double percentil(double percentil) {
+        if (percentil < 0.0 || percentil > 100.0) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + percentil);
+        }
+        if (cantidad == 0) {
+            return Double.NaN;
+        }
+        double[] ordenados = Arrays.copyOfRange(valores, desplazamiento, desplazamiento + cantidad);
+        Arrays.sort(ordenados);
+        int rango = (int) Math.ceil(percentil / 100.0 * cantidad);
+        return ordenados[Math.max(0, rango - 1)];
+    }
+
+    /**
+     * Submuestrea la serie agrupando las lecturas en intervalos de tiempo fijos
+     * Cada intervalo se representa por su marca de inicio y la media de sus lecturas
+     * @param intervaloNanos Duración de cada intervalo en nanosegundos
+     * @return Nueva serie con un punto por intervalo que contiene lecturas
+     */
+    public SerieLecturas submuestrear(long intervaloNanos) {
+        if (intervaloNanos <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo: " + intervaloNanos);
+        }
+        long[] marcasIntervalo = new long[cantidad];
+        double[] mediasIntervalo = new double[cantidad];
+        int intervalos = 0;
+        long intervaloActual = Long.MIN_VALUE;
+        double suma = 0.0;
+        int enIntervalo = 0;
+        for (int i = desplazamiento; i < desplazamiento + cantidad; i++) {
+            long intervalo = Math.floorDiv(marcasNanos[i], intervaloNanos) * intervaloNanos;
+            if (intervalo != intervaloActual && enIntervalo > 0) {
+                marcasIntervalo[intervalos] = intervaloActual;
+                mediasIntervalo[intervalos] = suma / enIntervalo;
+                intervalos++;
+                suma = 0.0;
+                enIntervalo = 0;
+            }
+            intervaloActual = intervalo;
+            suma += valores[i];
+            enIntervalo++;
+        }
+        if (enIntervalo > 0) {
+            marcasIntervalo[intervalos] = intervaloActual;
+            mediasIntervalo[intervalos] = suma / enIntervalo;
+            intervalos++;
+        }
+        return new SerieLecturas(marcasIntervalo, mediasIntervalo, 0, intervalos);
+    }
+
+    private int verificarPosicion(int posicion) {
+        if (posicion < 0 || posicion >= cantidad) {
+            throw new IndexOutOfBoundsException("Posición " + posicion + " fuera de la serie de " + cantidad);
+        }
+        return posicion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SerieLecturas{cantidad=%d, min=%.2f, max=%.2f, media=%.2f}",
+                           cantidad, minimo(), maximo(), media());
+    }
+}
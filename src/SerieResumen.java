@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/**
+ * Serie inmutable consultada en un nivel del almacén de series temporales
+ * Cada punto cubre un intervalo del nivel (o una sola lectura en el nivel CRUDO) con el
+ * mínimo, el máximo, la suma y el número de lecturas que resume
+ */
+public class SerieResumen {
+    private final NivelSerie nivel;
+    private final long[] marcasNanos;
+    private final double[] minimos;
+    private final double[] maximos;
+    private final double[] sumas;
+    private final long[] cantidades;
+    private final int cantidad;
+
+    /**
+     * Constructor de la serie
+     * @param nivel Nivel del que proceden los puntos
+     * @param marcasNanos Inicio de cada intervalo (o marca de la lectura en el nivel CRUDO)
+     * @param minimos Mínimo de cada punto
+     * @param maximos Máximo de cada punto
+     * @param sumas Suma de las lecturas de cada punto
+     * @param cantidades Lecturas resumidas en cada punto
+     * @param cantidad Número de puntos válidos en los arreglos
+     */
+    public SerieResumen(NivelSerie nivel, long[] marcasNanos, double[] minimos, double[] maximos,
+                        double[] sumas, long[] cantidades, int cantidad) {
+        this.nivel = nivel;
+        this.marcasNanos = marcasNanos;
+        this.minimos = minimos;
+        this.maximos = maximos;
+        this.sumas = sumas;
+        this.cantidades = cantidades;
+        this.cantidad = cantidad;
+    }
+
+    public NivelSerie obtenerNivel() {
+        return nivel;
+    }
+
+    public int obtenerCantidad() {
+        return cantidad;
+    }
+
+    public boolean estaVacia() {
+        return cantidad == 0;
+    }
+
+    public long obtenerMarcaNanos(int posicion) {
+        return marcasNanos[verificarPosicion(posicion)];
+    }
+
+    public double obtenerMinimo(int posicion) {
+        return minimos[verificarPosicion(posicion)];
+    }
+
+    public double obtenerMaximo(int posicion) {
+        return maximos[verificarPosicion(posicion)];
+    }
+
+    public double obtenerMedia(int posicion) {
+        return sumas[verificarPosicion(posicion)] / cantidades[posicion];
+    }
+
+    public long obtenerLecturas(int posicion) {
+        return cantidades[verificarPosicion(posicion)];
+    }
+
+    /**
+     * Obtiene el mínimo de toda la serie
+     * @return El mínimo, o NaN si la serie está vacía
+     */
+    public double minimo() {
+        double minimo = Double.NaN;
+        for (int i = 0; i < cantidad; i++) {
+            if (!(minimos[i] >= minimo)) {
+                minimo = minimos[i];
+            }
+        }
+        return minimo;
+    }
+
+    /**
+     * Obtiene el máximo de toda la serie
+     * @return El máximo, o NaN si la serie está vacía
+     */
+    public double maximo() {
+        double maximo = Double.NaN;
+        for (int i = 0; i < cantidad; i++) {
+            if (!(maximos[i] <= maximo)) {
+                maximo = maximos[i];
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Obtiene la media de todas las lecturas resumidas (ponderada por lecturas de cada punto)
+     * @return La media, o NaN si la serie está vacía
+     */
+    public double media() {
+        long lecturas = totalLecturas();
+        if (lecturas == 0) {
+            return Double.NaN;
+        }
+        double suma = 0.0;
+        for (int i = 0; i < cantidad; i++) {
+            suma += sumas[i];
+        }
+        return suma / lecturas;
+    }
+
+    /**
+     * Obtiene el número de lecturas que resume la serie
+     * @return Suma de las lecturas de todos los puntos
+     */
+    public long totalLecturas() {
+        long total = 0;
+        for (int i = 0; i < cantidad; i++) {
+            total += cantidades[i];
+        }
+        return total;
+    }
+
+    /**
+     * Convierte la serie en una SerieLecturas con la media de cada punto
+     * @return Serie de (marca, media) para las consultas que trabajan con SerieLecturas
+     */
+    public SerieLecturas comoSerieLecturas() {
+        double[] medias = new double[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            medias[i] = sumas[i] / cantidades[i];
+        }
+        return new SerieLecturas(Arrays.copyOf(marcasNanos, cantidad), medias, 0, cantidad);
+    }
+
+    private int verificarPosicion(int posicion) {
+        if (posicion < 0 || posicion >= cantidad) {
+            throw new IndexOutOfBoundsException("Posición " + posicion + " fuera de la serie de " + cantidad);
+        }
+        return posicion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SerieResumen{nivel=%s, puntos=%d, lecturas=%d, min=%.2f, max=%.2f, media=%.2f}",
+                           nivel, cantidad, totalLecturas(), minimo(), maximo(), media());
+    }
+}
@@ -0,0 +1,278 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de ingesta de lecturas por red con NIO no bloqueante
+ * Un único hilo con un Selector atiende todas las conexiones. Cada conexión envía tramas
+ * binarias con prefijo de longitud (big-endian):
+ * <pre>
+ *   int longitud                      bytes que siguen (4 + 20 * cantidad)
+ *   int cantidad                      lecturas de la trama (1..MAXIMO_LECTURAS_POR_TRAMA)
+ *   cantidad x (int handle, double valor, long marcaNanos)
+ * </pre>
+ * y recibe por cada trama un int con el número de lecturas aplicadas. Las tramas se
+ * decodifican directamente desde un ByteBuffer directo a arreglos primitivos reutilizados
+ * por conexión y se aplican por handle en el almacén primitivo, sin crear cadenas
+ * Una trama malformada, o cualquier error al procesarla, cierra solo esa conexión
+ */
+public class ServidorIngesta implements Closeable {
+    private static final String ORIGEN = "ServidorIngesta";
+    public static final int BYTES_POR_LECTURA = 4 + 8 + 8;
+    public static final int MAXIMO_LECTURAS_POR_TRAMA = 4096;
+    public static final int BYTES_CONFIRMACION = 4;
+    private static final int MAXIMO_BYTES_TRAMA = 4 + MAXIMO_LECTURAS_POR_TRAMA * BYTES_POR_LECTURA;
+    private static final int CONFIRMACIONES_PENDIENTES = 1024; // tramas sin confirmar antes de dejar de leer
+
+    private final GestorSensores gestor;
+    private final ServerSocketChannel canalServidor;
+    private final Selector selector;
+    private final Thread hilo;
+    private volatile boolean ejecutando;
+    private final AtomicLong conexiones;
+    private final AtomicLong tramas;
+    private final AtomicLong lecturas;
+    private final AtomicLong descartadas;
+    private final AtomicLong erroresProtocolo;
+
+    /**
+     * Estado de una conexión: buffers directos y arreglos de decodificación reutilizados
+     */
+    private static class Conexion {
+        final ByteBuffer entrada = ByteBuffer.allocateDirect(4 + MAXIMO_BYTES_TRAMA); // en modo escritura
+        final ByteBuffer salida = ByteBuffer.allocateDirect(CONFIRMACIONES_PENDIENTES * BYTES_CONFIRMACION);
+        final int[] handles = new int[MAXIMO_LECTURAS_POR_TRAMA];
+        final double[] valores = new double[MAXIMO_LECTURAS_POR_TRAMA];
+        final long[] marcasNanos = new long[MAXIMO_LECTURAS_POR_TRAMA];
+    }
+
+    /**
+     * Constructor que abre el puerto y arranca el hilo del selector
+     * Requiere el almacén primitivo habilitado en el gestor (las lecturas llegan por handle)
+     * @param gestor Gestor al que se aplican las lecturas
+     * @param direccion Dirección de escucha (puerto 0 para uno libre)
+     */
+    public ServidorIngesta(GestorSensores gestor, InetSocketAddress direccion) throws IOException {
+        this.gestor = gestor;
+        this.conexiones = new AtomicLong();
+        this.tramas = new AtomicLong();
+        this.lecturas = new AtomicLong();
+        this.descartadas = new AtomicLong();
+        this.erroresProtocolo = new AtomicLong();
+        this.selector = Selector.open();
+        this.canalServidor = ServerSocketChannel.open();
+        try {
+            canalServidor.bind(direccion);
+            canalServidor.configureBlocking(false);
+            canalServidor.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            canalServidor.close();
+            selector.close();
+            throw e;
+        }
+        this.ejecutando = true;
+        this.hilo = new Thread(this::atender, "ingesta-selector");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+        RegistroEventos.informacion(ORIGEN, "🌐 Servidor de ingesta escuchando en " + canalServidor.getLocalAddress());
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor
+     * @return Puerto local
+     */
+    public int obtenerPuerto() {
+        return canalServidor.socket().getLocalPort();
+    }
+
+    /**
+     * Obtiene las métricas del servidor
+     * @return Mapa con conexiones aceptadas, tramas, lecturas aplicadas, lecturas descartadas
+     *         (handle inválido) y errores de protocolo
+     */
+    public Map<String, Long> obtenerMetricas() {
+        Map<String, Long> metricas = new HashMap<>();
+        metricas.put("conexiones", conexiones.get());
+        metricas.put("tramas", tramas.get());
+        metricas.put("lecturas", lecturas.get());
+        metricas.put("descartadas", descartadas.get());
+        metricas.put("erroresProtocolo", erroresProtocolo.get());
+        return metricas;
+    }
+
+    /**
+     * Detiene el servidor y cierra todas las conexiones
+     */
+    @Override
+    public void close() throws IOException {
+        if (!ejecutando) {
+            return;
+        }
+        ejecutando = false;
+        selector.wakeup();
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey clave : selector.keys()) {
+            clave.channel().close();
+        }
+        selector.close();
+        RegistroEventos.informacion(ORIGEN, "🔌 Servidor de ingesta detenido: " + lecturas.get() + " lecturas en " +
+            tramas.get() + " tramas");
+    }
+
+    private void atender() {
+        while (ejecutando) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                RegistroEventos.error(ORIGEN, "❌ Error en el selector de ingesta: " + e.getMessage());
+                return;
+            }
+            Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+            while (claves.hasNext()) {
+                SelectionKey clave = claves.next();
+                claves.remove();
+                try {
+                    if (!clave.isValid()) {
+                        continue;
+                    }
+                    if (clave.isAcceptable()) {
+                        aceptar();
+                        continue;
+                    }
+                    if (clave.isWritable()) {
+                        escribir(clave);
+                        if (clave.isValid() && ((Conexion) clave.attachment()).salida.remaining() >= BYTES_CONFIRMACION) {
+                            procesar(clave); // tramas que quedaron en espera de hueco para su confirmación
+                        }
+                    }
+                    if (clave.isValid() && clave.isReadable()) {
+                        leer(clave);
+                    }
+                } catch (IOException e) {
+                    cerrar(clave, "🔌 Conexión de ingesta cerrada: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    // Un fallo al atender una conexión no debe detener el selector de las demás
+                    if (clave.channel() == canalServidor) {
+                        RegistroEventos.error(ORIGEN, "❌ Error al aceptar una conexión de ingesta: " + e);
+                    } else {
+                        erroresProtocolo.incrementAndGet();
+                        cerrar(clave, "❌ Error al procesar la conexión de ingesta, conexión cerrada: " + e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void aceptar() throws IOException {
+        SocketChannel canal = canalServidor.accept();
+        if (canal == null) {
+            return;
+        }
+        canal.configureBlocking(false);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        canal.register(selector, SelectionKey.OP_READ, new Conexion());
+        conexiones.incrementAndGet();
+        if (RegistroEventos.estaHabilitado(NivelEvento.DEPURACION)) {
+            RegistroEventos.depuracion(ORIGEN, "🔗 Conexión de ingesta aceptada: " + canal.getRemoteAddress());
+        }
+    }
+
+    private void leer(SelectionKey clave) throws IOException {
+        SocketChannel canal = (SocketChannel) clave.channel();
+        Conexion conexion = (Conexion) clave.attachment();
+        int leidos = canal.read(conexion.entrada);
+        if (leidos < 0) {
+            cerrar(clave, null);
+            return;
+        }
+        procesar(clave);
+    }
+
+    /**
+     * Aplica las tramas completas del buffer de entrada y encola sus confirmaciones
+     */
+    private void procesar(SelectionKey clave) throws IOException {
+        Conexion conexion = (Conexion) clave.attachment();
+        ByteBuffer entrada = conexion.entrada;
+        entrada.flip();
+        while (entrada.remaining() >= 4 && conexion.salida.remaining() >= BYTES_CONFIRMACION) {
+            int longitud = entrada.getInt(entrada.position());
+            if (longitud < 4 + BYTES_POR_LECTURA || longitud > MAXIMO_BYTES_TRAMA ||
+                (longitud - 4) % BYTES_POR_LECTURA != 0) {
+                erroresProtocolo.incrementAndGet();
+                cerrar(clave, "❌ Trama de ingesta inválida (longitud " + longitud + "), conexión cerrada");
+                return;
+            }
+            if (entrada.remaining() < 4 + longitud) {
+                break; // trama incompleta: se espera a la siguiente lectura
+            }
+            entrada.position(entrada.position() + 4);
+            int cantidad = entrada.getInt();
+            // Sin multiplicar: cantidad * BYTES_POR_LECTURA desborda int con cantidades enormes
+            if (cantidad < 1 || cantidad > MAXIMO_LECTURAS_POR_TRAMA || cantidad != (longitud - 4) / BYTES_POR_LECTURA) {
+                erroresProtocolo.incrementAndGet();
+                cerrar(clave, "❌ Trama de ingesta inválida (cantidad " + cantidad + "), conexión cerrada");
+                return;
+            }
+            for (int i = 0; i < cantidad; i++) {
+                conexion.handles[i] = entrada.getInt();
+                conexion.valores[i] = entrada.getDouble();
+                conexion.marcasNanos[i] = entrada.getLong();
+            }
+            int aplicadas = gestor.actualizarValoresSensores(conexion.handles, conexion.valores, conexion.marcasNanos, cantidad);
+            tramas.incrementAndGet();
+            lecturas.addAndGet(aplicadas);
+            if (aplicadas < cantidad) {
+                descartadas.addAndGet(cantidad - aplicadas);
+            }
+            conexion.salida.putInt(aplicadas);
+        }
+        entrada.compact();
+        escribir(clave);
+    }
+
+    /**
+     * Envía las confirmaciones pendientes; si el cliente no las lee, deja de leer sus tramas
+     * hasta que se vacíe la salida (contrapresión por conexión)
+     */
+    private void escribir(SelectionKey clave) throws IOException {
+        SocketChannel canal = (SocketChannel) clave.channel();
+        ByteBuffer salida = ((Conexion) clave.attachment()).salida;
+        salida.flip();
+        canal.write(salida);
+        boolean pendiente = salida.hasRemaining();
+        salida.compact();
+        if (pendiente) {
+            clave.interestOps(salida.remaining() >= BYTES_CONFIRMACION
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_WRITE);
+        } else {
+            clave.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void cerrar(SelectionKey clave, String motivo) {
+        clave.cancel();
+        try {
+            clave.channel().close();
+        } catch (IOException e) {
+            // la conexión ya se está descartando
+        }
+        if (motivo != null) {
+            RegistroEventos.advertencia(ORIGEN, motivo);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sumidero asíncrono que desacopla a los hilos que emiten eventos de la escritura real
+ * Los productores publican en un buffer circular acotado sin bloqueos (una reserva por CAS y
+ * una secuencia por posición) y un único hilo consumidor entrega los eventos al sumidero
+ * destino. Si el buffer está lleno el evento se descarta y se cuenta: un productor nunca espera
+ * Los fallos del sumidero destino también se cuentan (obtenerFallidos) en vez de escribirse
+ * por otra vía: el consumidor no tiene un canal de respaldo fiable al que recurrir
+ */
+public class SumideroAsincrono implements SumideroEventos, Closeable {
+    private static final VarHandle SECUENCIAS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long PAUSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long ESPERA_CIERRE_MS = 5_000;
+
+    private final SumideroEventos destino;
+    private final Evento[] eventos;
+    private final long[] secuencias; // posición publicada + 1 cuando la ranura está llena; se accede con SECUENCIAS
+    private final int mascara;
+    private final AtomicLong cola;   // siguiente posición a reservar por los productores
+    private final AtomicLong descartados;
+    private final AtomicLong fallidos;
+    private final Thread consumidor;
+    private long cabeza;             // siguiente posición a consumir; solo la usa el consumidor
+    private volatile boolean activo;
+
+    /**
+     * Constructor que reserva el buffer y arranca el hilo consumidor
+     * @param destino Sumidero al que se entregan los eventos
+     * @param capacidad Número máximo de eventos pendientes (se redondea a la siguiente potencia de dos)
+     */
+    public SumideroAsincrono(SumideroEventos destino, int capacidad) {
+        if (capacidad <= 0 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad de sumidero inválida: " + capacidad);
+        }
+        int capacidadReal = Integer.highestOneBit(capacidad);
+        if (capacidadReal < capacidad) {
+            capacidadReal <<= 1;
+        }
+        this.destino = destino;
+        this.eventos = new Evento[capacidadReal];
+        this.secuencias = new long[capacidadReal];
+        for (int i = 0; i < capacidadReal; i++) {
+            secuencias[i] = i;
+        }
+        this.mascara = capacidadReal - 1;
+        this.cola = new AtomicLong();
+        this.descartados = new AtomicLong();
+        this.fallidos = new AtomicLong();
+        this.activo = true;
+        this.consumidor = new Thread(this::consumir, "eventos-asincronos");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    @Override
+    public void escribir(Evento evento) {
+        if (!activo) {
+            // Cerrado: escribir directamente para no perder los últimos eventos
+            destino.escribir(evento);
+            return;
+        }
+        long posicion = cola.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = (long) SECUENCIAS.getAcquire(secuencias, indice) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    eventos[indice] = evento;
+                    SECUENCIAS.setRelease(secuencias, indice, posicion + 1);
+                    return;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                // La ranura aún no la ha consumido la vuelta anterior: buffer lleno
+                descartados.incrementAndGet();
+                return;
+            } else {
+                posicion = cola.get();
+            }
+        }
+    }
+
+    /**
+     * Detiene el consumidor tras entregar los eventos pendientes
+     */
+    @Override
+    public void close() {
+        activo = false;
+        LockSupport.unpark(consumidor);
+        try {
+            consumidor.join(ESPERA_CIERRE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene el número de eventos descartados por buffer lleno
+     * @return Eventos descartados desde la creación del sumidero
+     */
+    public long obtenerDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Obtiene el número de eventos que el sumidero destino no pudo escribir
+     * @return Eventos fallidos desde la creación del sumidero
+     */
+    public long obtenerFallidos() {
+        return fallidos.get();
+    }
+
+    private void consumir() {
+        while (true) {
+            if (!entregarSiguiente()) {
+                if (!activo) {
+                    // Entregar lo que se publicó entre la última comprobación y el cierre
+                    while (entregarSiguiente()) {
+                        // vaciar
+                    }
+                    return;
+                }
+                LockSupport.parkNanos(this, PAUSA_NANOS);
+            }
+        }
+    }
+
+    private boolean entregarSiguiente() {
+        int indice = (int) (cabeza & mascara);
+        if ((long) SECUENCIAS.getAcquire(secuencias, indice) != cabeza + 1) {
+            return false;
+        }
+        Evento evento = eventos[indice];
+        eventos[indice] = null;
+        SECUENCIAS.setRelease(secuencias, indice, cabeza + mascara + 1);
+        cabeza++;
+        try {
+            destino.escribir(evento);
+        } catch (RuntimeException e) {
+            fallidos.incrementAndGet(); // el evento se pierde, pero el consumidor sigue vivo
+        }
+        return true;
+    }
+}
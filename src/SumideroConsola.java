@@ -0,0 +1,37 @@
+import java.io.PrintStream;
+
+/**
+ * Sumidero síncrono que escribe el mensaje de cada evento en la consola
+ * Los errores van a la salida de errores y el resto a la salida estándar, igual que
+ * las trazas que el sistema escribía directamente antes de existir RegistroEventos
+ */
+public class SumideroConsola implements SumideroEventos {
+    private final PrintStream salida;
+    private final PrintStream salidaErrores;
+
+    /**
+     * Constructor que escribe en System.out y System.err (resueltos en cada evento)
+     */
+    public SumideroConsola() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor que escribe en flujos concretos
+     * @param salida Flujo para los eventos que no son errores
+     * @param salidaErrores Flujo para los errores
+     */
+    public SumideroConsola(PrintStream salida, PrintStream salidaErrores) {
+        this.salida = salida;
+        this.salidaErrores = salidaErrores;
+    }
+
+    @Override
+    public void escribir(Evento evento) {
+        if (evento.getNivel() == NivelEvento.ERROR) {
+            (salidaErrores != null ? salidaErrores : System.err).println(evento.getMensaje());
+        } else {
+            (salida != null ? salida : System.out).println(evento.getMensaje());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Interfaz que define el destino de los eventos de diagnóstico
+ * Las implementaciones deben poder recibir eventos desde varios hilos a la vez
+ */
+public interface SumideroEventos {
+
+    /**
+     * Escribe un evento en el destino
+     * @param evento El evento a escribir
+     */
+    void escribir(Evento evento);
+}
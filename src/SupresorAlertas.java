@@ -0,0 +1,150 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Etapa de deduplicación e histéresis entre el análisis y la notificación de alertas
+ * Mantiene por sensor el nivel y el momento de la última alerta notificada:
+ * - la primera alerta de un sensor armado se notifica y el sensor queda activo
+ * - mientras está activo, las alertas del mismo nivel o inferior se suprimen hasta que
+ *   vence la ventana de supresión (entonces se notifica un recordatorio)
+ * - un nivel más crítico que el notificado (escalada) se notifica siempre
+ * - el sensor se rearma tras un número de lecturas normales consecutivas, de modo que
+ *   un valor que oscila alrededor del umbral no vuelve a disparar en cada cruce
+ * Las marcas de tiempo son las de las lecturas, por lo que también sirve al reproducir datos
+ */
+public class SupresorAlertas {
+    private final long ventanaSupresionNanos;
+    private final int lecturasParaRearme;
+    private final Map<String, EstadoSensor> estados;
+    private final AtomicLong analizadas;
+    private final AtomicLong notificadas;
+    private final AtomicLong suprimidas;
+    private final AtomicLong escaladas;
+
+    /**
+     * Estado de alerta de un sensor
+     */
+    private static class EstadoSensor {
+        NivelAlerta nivelNotificado;  // null si el sensor está armado
+        long ultimaNotificacionNanos;
+        int lecturasNormales;
+    }
+
+    /**
+     * Constructor del supresor
+     * @param ventanaSupresionNanos Tiempo durante el que se suprimen las repeticiones de una alerta activa
+     * @param lecturasParaRearme Lecturas normales consecutivas necesarias para rearmar el sensor
+     */
+    public SupresorAlertas(long ventanaSupresionNanos, int lecturasParaRearme) {
+        if (ventanaSupresionNanos < 0) {
+            throw new IllegalArgumentException("La ventana de supresión no puede ser negativa: " + ventanaSupresionNanos);
+        }
+        if (lecturasParaRearme <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos una lectura para rearmar: " + lecturasParaRearme);
+        }
+        this.ventanaSupresionNanos = ventanaSupresionNanos;
+        this.lecturasParaRearme = lecturasParaRearme;
+        this.estados = new ConcurrentHashMap<>();
+        this.analizadas = new AtomicLong();
+        this.notificadas = new AtomicLong();
+        this.suprimidas = new AtomicLong();
+        this.escaladas = new AtomicLong();
+    }
+
+    /**
+     * Decide si la alerta resultante de analizar una lectura debe notificarse
+     * Las ventanas se miden con la marca de la lectura juzgada, no con la última del sensor:
+     * en un lote o en el motor particionado el sensor puede haber recibido ya lecturas posteriores
+     * @param sensor El sensor analizado
+     * @param lectura La lectura que produjo la alerta (o su ausencia)
+     * @param alerta La alerta generada por la estrategia, o null si la lectura es normal
+     * @return true si la alerta debe llegar a los observadores
+     */
+    public boolean filtrar(Sensor sensor, LecturaSensor lectura, Alerta alerta) {
+        analizadas.incrementAndGet();
+        EstadoSensor estado = estados.get(sensor.getId());
+        if (alerta == null) {
+            if (estado != null) {
+                synchronized (estado) {
+                    if (estado.nivelNotificado != null && ++estado.lecturasNormales >= lecturasParaRearme) {
+                        estado.nivelNotificado = null; // rearmado
+                    }
+                }
+            }
+            return false;
+        }
+
+        if (estado == null) {
+            estado = estados.computeIfAbsent(sensor.getId(), id -> new EstadoSensor());
+        }
+        long marcaNanos = lectura.getMarcaNanos();
+        synchronized (estado) {
+            estado.lecturasNormales = 0;
+            NivelAlerta nivel = alerta.getNivel();
+            boolean notificar;
+            if (estado.nivelNotificado == null) {
+                notificar = true;
+            } else if (nivel.ordinal() < estado.nivelNotificado.ordinal()) {
+                notificar = true; // NivelAlerta va de más a menos crítico
+                escaladas.incrementAndGet();
+            } else {
+                notificar = marcaNanos - estado.ultimaNotificacionNanos >= ventanaSupresionNanos;
+            }
+
+            if (notificar) {
+                estado.nivelNotificado = nivel;
+                estado.ultimaNotificacionNanos = marcaNanos;
+                notificadas.incrementAndGet();
+            } else {
+                suprimidas.incrementAndGet();
+            }
+            return notificar;
+        }
+    }
+
+    /**
+     * Descarta el estado de un sensor (por ejemplo, al eliminarlo del sistema)
+     * @param idSensor ID del sensor
+     */
+    public void olvidar(String idSensor) {
+        estados.remove(idSensor);
+    }
+
+    /**
+     * Indica si un sensor tiene una alerta activa (notificada y aún no rearmada)
+     * @param idSensor ID del sensor
+     * @return true si la alerta del sensor sigue activa
+     */
+    public boolean tieneAlertaActiva(String idSensor) {
+        EstadoSensor estado = estados.get(idSensor);
+        if (estado == null) {
+            return false;
+        }
+        synchronized (estado) {
+            return estado.nivelNotificado != null;
+        }
+    }
+
+    /**
+     * Obtiene los contadores del supresor
+     * @return Mapa con lecturas analizadas, alertas notificadas, suprimidas y escaladas
+     */
+    public Map<String, Long> obtenerMetricas() {
+        Map<String, Long> metricas = new HashMap<>();
+        metricas.put("analizadas", analizadas.get());
+        metricas.put("notificadas", notificadas.get());
+        metricas.put("suprimidas", suprimidas.get());
+        metricas.put("escaladas", escaladas.get());
+        return metricas;
+    }
+
+    public long getVentanaSupresionNanos() {
+        return ventanaSupresionNanos;
+    }
+
+    public int getLecturasParaRearme() {
+        return lecturasParaRearme;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Clase inmutable que describe qué alertas le interesan a un observador
+ * Filtra por nivel, por tipo de sensor y por ubicación; un filtro ausente acepta todo
+ * El sujeto precalcula a partir de ella sus listas de despacho, de modo que cada alerta
+ * solo visita a los observadores interesados
+ */
+public class SuscripcionAlertas {
+    private static final SuscripcionAlertas TODAS =
+        new SuscripcionAlertas(Collections.unmodifiableSet(EnumSet.allOf(NivelAlerta.class)), null, null);
+
+    private final Set<NivelAlerta> niveles;
+    private final Set<TipoSensor> tipos;       // null si acepta cualquier tipo
+    private final Set<String> ubicaciones;     // null si acepta cualquier ubicación
+
+    private SuscripcionAlertas(Set<NivelAlerta> niveles, Set<TipoSensor> tipos, Set<String> ubicaciones) {
+        this.niveles = niveles;
+        this.tipos = tipos;
+        this.ubicaciones = ubicaciones;
+    }
+
+    /**
+     * Suscripción a todas las alertas
+     * @return La suscripción sin filtros
+     */
+    public static SuscripcionAlertas todas() {
+        return TODAS;
+    }
+
+    /**
+     * Suscripción a las alertas de ciertos niveles
+     * @param niveles Niveles de interés (al menos uno)
+     * @return La suscripción
+     */
+    public static SuscripcionAlertas deNiveles(NivelAlerta... niveles) {
+        if (niveles.length == 0) {
+            throw new IllegalArgumentException("La suscripción necesita al menos un nivel");
+        }
+        return new SuscripcionAlertas(Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(niveles))), null, null);
+    }
+
+    /**
+     * Restringe la suscripción a ciertos tipos de sensor
+     * @param tipos Tipos de interés (al menos uno)
+     * @return Una suscripción nueva con el filtro añadido
+     */
+    public SuscripcionAlertas conTipos(TipoSensor... tipos) {
+        if (tipos.length == 0) {
+            throw new IllegalArgumentException("El filtro de tipos necesita al menos un tipo");
+        }
+        return new SuscripcionAlertas(niveles, Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(tipos))), ubicaciones);
+    }
+
+    /**
+     * Restringe la suscripción a ciertas ubicaciones
+     * @param ubicaciones Ubicaciones de interés (al menos una)
+     * @return Una suscripción nueva con el filtro añadido
+     */
+    public SuscripcionAlertas conUbicaciones(String... ubicaciones) {
+        if (ubicaciones.length == 0) {
+            throw new IllegalArgumentException("El filtro de ubicaciones necesita al menos una ubicación");
+        }
+        return new SuscripcionAlertas(niveles, tipos, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(ubicaciones))));
+    }
+
+    /**
+     * Indica si la suscripción acepta alertas de un nivel y un tipo de sensor
+     * @param nivel Nivel de la alerta
+     * @param tipo Tipo del sensor, o null si la alerta no tiene sensor asociado
+     * @return true si el nivel y el tipo pasan los filtros (sin considerar la ubicación)
+     */
+    public boolean aceptaNivelYTipo(NivelAlerta nivel, TipoSensor tipo) {
+        if (!niveles.contains(nivel)) {
+            return false;
+        }
+        return tipos == null || (tipo != null && tipos.contains(tipo));
+    }
+
+    /**
+     * Indica si la suscripción acepta una ubicación
+     * @param ubicacion Ubicación del sensor, o null si la alerta no tiene sensor asociado
+     * @return true si no hay filtro de ubicación o la ubicación está incluida
+     */
+    public boolean aceptaUbicacion(String ubicacion) {
+        return ubicaciones == null || (ubicacion != null && ubicaciones.contains(ubicacion));
+    }
+
+    /**
+     * Indica si la suscripción acepta una alerta
+     * @param alerta La alerta
+     * @return true si la alerta pasa todos los filtros
+     */
+    public boolean acepta(Alerta alerta) {
+        Sensor sensor = alerta.getSensor();
+        return aceptaNivelYTipo(alerta.getNivel(), sensor != null ? sensor.getTipoSensor() : null) &&
+            aceptaUbicacion(sensor != null ? sensor.getUbicacion() : null);
+    }
+
+    public boolean filtraUbicacion() {
+        return ubicaciones != null;
+    }
+
+    public Set<NivelAlerta> getNiveles() {
+        return niveles;
+    }
+
+    /**
+     * @return Ubicaciones aceptadas, o null si se acepta cualquier ubicación
+     */
+    public Set<String> getUbicaciones() {
+        return ubicaciones;
+    }
+
+    @Override
+    public String toString() {
+        return "niveles=" + niveles + (tipos != null ? ", tipos=" + tipos : "") +
+            (ubicaciones != null ? ", ubicaciones=" + ubicaciones : "");
+    }
+}
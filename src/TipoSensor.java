@@ -0,0 +1,48 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enumeración para los tipos de sensor soportados por el sistema IoT
+ * Permite resolver el tipo una sola vez al crear el sensor y comparar por identidad
+ * en lugar de comparar cadenas en cada lectura
+ */
+public enum TipoSensor {
+    TEMPERATURA("temperatura"),
+    VIBRACION("vibracion"),
+    ENERGIA("energia"),
+    CALIDAD_AIRE("calidad_aire"),
+    HUMEDAD("humedad"),
+    DESCONOCIDO(""); // Cualquier tipo no reconocido
+
+    private static final Map<String, TipoSensor> POR_CODIGO = new HashMap<>();
+
+    static {
+        for (TipoSensor tipo : values()) {
+            POR_CODIGO.put(tipo.codigo, tipo);
+        }
+    }
+
+    private final String codigo;
+
+    TipoSensor(String codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * Obtiene el código textual del tipo (el usado en Sensor.getTipo())
+     * @return Código del tipo de sensor
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Resuelve el tipo de sensor a partir de su código textual
+     * @param codigo Código del tipo ("temperatura", "humedad", ...)
+     * @return El tipo correspondiente, o DESCONOCIDO si no se reconoce
+     */
+    public static TipoSensor desdeCodigo(String codigo) {
+        TipoSensor tipo = codigo != null ? POR_CODIGO.get(codigo) : null;
+        return tipo != null ? tipo : DESCONOCIDO;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Interfaz que define el canal por el que los notificadores envían sus mensajes
+ * (pasarela SMTP, proveedor de SMS, etc.). Cada llamada es un envío completo
+ */
+public interface TransporteMensajes {
+
+    /**
+     * Envía un mensaje a un destinatario
+     * @param destinatario Dirección o número del destinatario
+     * @param asunto Asunto del mensaje (los canales sin asunto pueden ignorarlo)
+     * @param cuerpo Texto del mensaje
+     */
+    void enviar(String destinatario, String asunto, String cuerpo);
+}
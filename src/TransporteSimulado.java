@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transporte local que no envía nada: guarda los mensajes para poder inspeccionarlos
+ * Sustituye a la pasarela real en pruebas y demostraciones
+ */
+public class TransporteSimulado implements TransporteMensajes {
+    private final List<Mensaje> mensajes = new ArrayList<>();
+
+    /**
+     * Mensaje recibido por el transporte
+     */
+    public static class Mensaje {
+        private final String destinatario;
+        private final String asunto;
+        private final String cuerpo;
+
+        public Mensaje(String destinatario, String asunto, String cuerpo) {
+            this.destinatario = destinatario;
+            this.asunto = asunto;
+            this.cuerpo = cuerpo;
+        }
+
+        public String getDestinatario() {
+            return destinatario;
+        }
+
+        public String getAsunto() {
+            return asunto;
+        }
+
+        public String getCuerpo() {
+            return cuerpo;
+        }
+
+        @Override
+        public String toString() {
+            return "Para: " + destinatario + " | " + asunto + "\n" + cuerpo;
+        }
+    }
+
+    @Override
+    public synchronized void enviar(String destinatario, String asunto, String cuerpo) {
+        mensajes.add(new Mensaje(destinatario, asunto, cuerpo));
+    }
+
+    /**
+     * Obtiene los mensajes enviados
+     * @return Copia de los mensajes en orden de envío
+     */
+    public synchronized List<Mensaje> obtenerMensajes() {
+        return new ArrayList<>(mensajes);
+    }
+
+    public synchronized int obtenerCantidadMensajes() {
+        return mensajes.size();
+    }
+
+    public synchronized void limpiar() {
+        mensajes.clear();
+    }
+}
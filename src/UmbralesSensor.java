@@ -0,0 +1,78 @@
+/**
+ * Umbrales de alerta de un sensor o de un tipo de sensor (inmutable)
+ * Un umbral NaN no se aplica: cualquier comparación con NaN es falsa
+ */
+public final class UmbralesSensor {
+    private final double criticoAlto;
+    private final double advertenciaAlto;
+    private final double advertenciaBajo;
+    private final double criticoBajo;
+
+    /**
+     * Constructor de los umbrales
+     * @param criticoAlto Valor por encima del cual la alerta es crítica
+     * @param advertenciaAlto Valor por encima del cual hay advertencia
+     * @param advertenciaBajo Valor por debajo del cual hay advertencia
+     * @param criticoBajo Valor por debajo del cual la alerta es crítica
+     */
+    public UmbralesSensor(double criticoAlto, double advertenciaAlto, double advertenciaBajo, double criticoBajo) {
+        this.criticoAlto = criticoAlto;
+        this.advertenciaAlto = advertenciaAlto;
+        this.advertenciaBajo = advertenciaBajo;
+        this.criticoBajo = criticoBajo;
+    }
+
+    /**
+     * Crea umbrales que solo vigilan valores altos
+     * @param criticoAlto Umbral crítico
+     * @param advertenciaAlto Umbral de advertencia
+     * @return Umbrales sin límites inferiores
+     */
+    public static UmbralesSensor altos(double criticoAlto, double advertenciaAlto) {
+        return new UmbralesSensor(criticoAlto, advertenciaAlto, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Devuelve una copia con un campo cambiado
+     * @param campo Nombre del campo: critico_alto, advertencia_alto, advertencia_bajo o critico_bajo
+     * @param valor Nuevo valor (NaN para desactivarlo)
+     * @return Umbrales con el campo cambiado
+     */
+    public UmbralesSensor con(String campo, double valor) {
+        switch (campo) {
+            case "critico_alto":
+                return new UmbralesSensor(valor, advertenciaAlto, advertenciaBajo, criticoBajo);
+            case "advertencia_alto":
+                return new UmbralesSensor(criticoAlto, valor, advertenciaBajo, criticoBajo);
+            case "advertencia_bajo":
+                return new UmbralesSensor(criticoAlto, advertenciaAlto, valor, criticoBajo);
+            case "critico_bajo":
+                return new UmbralesSensor(criticoAlto, advertenciaAlto, advertenciaBajo, valor);
+            default:
+                throw new IllegalArgumentException("Campo de umbral desconocido: " + campo);
+        }
+    }
+
+    // Getters
+    public double getCriticoAlto() {
+        return criticoAlto;
+    }
+
+    public double getAdvertenciaAlto() {
+        return advertenciaAlto;
+    }
+
+    public double getAdvertenciaBajo() {
+        return advertenciaBajo;
+    }
+
+    public double getCriticoBajo() {
+        return criticoBajo;
+    }
+
+    @Override
+    public String toString() {
+        return "UmbralesSensor{criticoAlto=" + criticoAlto + ", advertenciaAlto=" + advertenciaAlto +
+               ", advertenciaBajo=" + advertenciaBajo + ", criticoBajo=" + criticoBajo + "}";
+    }
+}
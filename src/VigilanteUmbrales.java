@@ -0,0 +1,119 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vigila un archivo de umbrales y publica una configuración nueva cada vez que cambia
+ * Publica en la fuente compartida del sistema o en la de un motor concreto
+ * Si el archivo modificado no es válido se conserva la configuración anterior
+ */
+public class VigilanteUmbrales implements Closeable {
+    private static final String ORIGEN = "VigilanteUmbrales";
+    private static final long ESPERA_ESCRITURA_MS = 50; // deja terminar al editor antes de leer
+
+    private final Path archivo;
+    private final FuenteUmbrales destino;
+    private final WatchService servicio;
+    private final Thread hilo;
+    private final AtomicLong recargas;
+
+    /**
+     * Constructor que carga el archivo, lo publica en la fuente compartida y empieza a vigilarlo
+     * @param archivo Archivo de umbrales (ver ConfiguracionUmbrales)
+     * @throws IOException si el archivo no se puede leer o vigilar
+     */
+    public VigilanteUmbrales(Path archivo) throws IOException {
+        this(archivo, FuenteUmbrales.compartida());
+    }
+
+    /**
+     * Constructor que carga el archivo, lo publica en una fuente concreta y empieza a vigilarlo
+     * @param archivo Archivo de umbrales (ver ConfiguracionUmbrales)
+     * @param destino Fuente en la que se publica cada configuración (por ejemplo, la de un motor)
+     * @throws IOException si el archivo no se puede leer o vigilar
+     */
+    public VigilanteUmbrales(Path archivo, FuenteUmbrales destino) throws IOException {
+        this.archivo = archivo.toAbsolutePath();
+        this.destino = destino;
+        this.recargas = new AtomicLong();
+        destino.publicar(ConfiguracionUmbrales.cargar(this.archivo));
+        this.servicio = this.archivo.getFileSystem().newWatchService();
+        this.archivo.getParent().register(servicio,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        this.hilo = new Thread(this::vigilar, "vigilante-umbrales");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+        RegistroEventos.informacion(ORIGEN, "👁️ Vigilando umbrales en " + this.archivo.getFileName());
+    }
+
+    /**
+     * Vuelve a leer el archivo y publica la configuración si es válida
+     * @return true si se publicó una configuración nueva
+     */
+    public boolean recargar() {
+        try {
+            ConfiguracionUmbrales nueva = ConfiguracionUmbrales.cargar(archivo);
+            destino.publicar(nueva);
+            recargas.incrementAndGet();
+            RegistroEventos.informacion(ORIGEN, "🔁 Umbrales recargados desde " + archivo.getFileName() +
+                " (" + nueva.obtenerCantidadExcepciones() + " excepciones por ubicación o sensor)");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            RegistroEventos.error(ORIGEN, "❌ Umbrales no recargados, se mantiene la configuración anterior: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Obtiene el número de recargas correctas desde la creación del vigilante
+     * @return Recargas publicadas (sin contar la carga inicial)
+     */
+    public long obtenerRecargas() {
+        return recargas.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        servicio.close();
+        try {
+            hilo.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void vigilar() {
+        while (true) {
+            WatchKey clave;
+            try {
+                clave = servicio.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean cambiado = false;
+            for (WatchEvent<?> evento : clave.pollEvents()) {
+                Object contexto = evento.context();
+                if (contexto instanceof Path && archivo.getFileName().equals(contexto)) {
+                    cambiado = true;
+                }
+            }
+            if (cambiado) {
+                try {
+                    Thread.sleep(ESPERA_ESCRITURA_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                recargar();
+            }
+            if (!clave.reset()) {
+                return;
+            }
+        }
+    }
+}